@@ -48,10 +48,12 @@ android {
 }
 
 dependencies {
+    implementation(project(":core"))
     implementation(libs.appcompat)
     implementation(libs.material)
     implementation(libs.activity)
     implementation(libs.constraintlayout)
+    implementation(libs.recyclerview)
 
     // Add core library for better compatibility
     implementation("androidx.core:core-ktx:1.12.0")
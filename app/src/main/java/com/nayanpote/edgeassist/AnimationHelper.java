@@ -2,71 +2,115 @@ package com.nayanpote.edgeassist;
 
 import android.animation.Animator;
 import android.animation.AnimatorListenerAdapter;
-import android.animation.ValueAnimator;
 import android.content.Context;
 import android.view.View;
+import android.view.ViewPropertyAnimator;
 import android.view.WindowManager;
 import android.view.animation.AccelerateDecelerateInterpolator;
 
 public class AnimationHelper {
     private static final String TAG = "AnimationHelper";
+    // Interpolators keep no state, so every animation can share one
+    private static final AccelerateDecelerateInterpolator INTERPOLATOR = new AccelerateDecelerateInterpolator();
 
     private Context context;
     private WindowManager windowManager;
+    private final FrameScheduler frameScheduler;
+    private final WindowPositionAnimator positionAnimator;
+    private final SpringSnapAnimator snapAnimator;
+    private final PressScaleAnimator pressAnimator;
+    private View pressedView;
+    private View animatedView;
+    private WindowManager.LayoutParams animatedParams;
+    private final FrameStats frameStats;
+    private Runnable positionComplete;
+
+    // Passed to every position animation so hide/show timing ends with it, without a closure per move
+    private final Runnable positionDone = new Runnable() {
+        @Override
+        public void run() {
+            frameStats.end(FrameStats.HIDE_SHOW);
+            Runnable complete = positionComplete;
+            positionComplete = null;
+            if (complete != null) complete.run();
+        }
+    };
 
     public AnimationHelper(Context context, WindowManager windowManager) {
         this.context = context;
         this.windowManager = windowManager;
-    }
+        this.frameScheduler = new ChoreographerFrameScheduler();
+        this.frameStats = FrameMetricsCollector.get(context).getStats();
+        WindowPositionAnimator.PositionSink sink = (x, y) -> {
+            if (animatedView == null || animatedParams == null) return;
 
-    public void animateViewToPosition(View view, WindowManager.LayoutParams params,
-                                      int targetX, int targetY, long duration,
-                                      Animator.AnimatorListener listener) {
-        if (view == null || params == null) return;
-
-        ValueAnimator animatorX = ValueAnimator.ofInt(params.x, targetX);
-        ValueAnimator animatorY = ValueAnimator.ofInt(params.y, targetY);
-
-        animatorX.addUpdateListener(animation -> {
-            params.x = (int) animation.getAnimatedValue();
+            animatedParams.x = x;
+            animatedParams.y = y;
             try {
-                windowManager.updateViewLayout(view, params);
+                frameStats.countWindowLayout();
+                windowManager.updateViewLayout(animatedView, animatedParams);
             } catch (Exception e) {
                 // Ignore layout update errors
             }
-        });
+        };
+        this.positionAnimator = new WindowPositionAnimator(frameScheduler, sink);
+        this.snapAnimator = new SpringSnapAnimator(frameScheduler, sink, new SnapPhysics());
+        snapAnimator.setOnSettled(() -> frameStats.end(FrameStats.SNAP));
+        this.pressAnimator = new PressScaleAnimator(frameScheduler, scale -> {
+            if (pressedView == null) return;
+
+            pressedView.setScaleX(scale);
+            pressedView.setScaleY(scale);
+        }, PressScaleAnimator.DEFAULT_DURATION_MS);
+    }
 
-        animatorY.addUpdateListener(animation -> {
-            params.y = (int) animation.getAnimatedValue();
-            try {
-                windowManager.updateViewLayout(view, params);
-            } catch (Exception e) {
-                // Ignore layout update errors
-            }
-        });
+    public FrameScheduler getFrameScheduler() {
+        return frameScheduler;
+    }
 
-        animatorX.setDuration(duration);
-        animatorY.setDuration(duration);
-        animatorX.setInterpolator(new AccelerateDecelerateInterpolator());
-        animatorY.setInterpolator(new AccelerateDecelerateInterpolator());
+    // Only one window is moved at a time; starting a new move replaces the running one
+    public void animateViewToPosition(View view, WindowManager.LayoutParams params,
+                                      int targetX, int targetY, long duration,
+                                      Runnable onComplete) {
+        if (view == null || params == null) return;
 
-        if (listener != null) {
-            animatorX.addListener(listener);
-        }
+        snapAnimator.cancel();
+        frameStats.end(FrameStats.SNAP);
+        animatedView = view;
+        animatedParams = params;
+        positionComplete = onComplete;
+        positionAnimator.start(params.x, params.y, targetX, targetY, duration, positionDone);
+    }
 
-        animatorX.start();
-        animatorY.start();
+    public void cancelPositionAnimation() {
+        positionAnimator.cancel();
+        snapAnimator.cancel();
+        positionComplete = null;
+        frameStats.end(FrameStats.SNAP);
+        frameStats.end(FrameStats.HIDE_SHOW);
+    }
+
+    public FrameStats getFrameStats() {
+        return frameStats;
     }
 
     public void animateFadeIn(View view, long duration) {
+        animateFadeIn(view, duration, null);
+    }
+
+    /** Fades in; {@code endAction} runs once when the fade finishes. */
+    public void animateFadeIn(View view, long duration, Runnable endAction) {
         if (view == null) return;
 
         view.setAlpha(0f);
-        view.animate()
+        ViewPropertyAnimator animator = view.animate()
                 .alpha(1f)
                 .setDuration(duration)
-                .setInterpolator(new AccelerateDecelerateInterpolator())
-                .start();
+                .setInterpolator(INTERPOLATOR);
+        if (endAction != null) {
+            animator.withEndAction(endAction);
+        }
+        animator.start();
     }
 
     public void animateFadeOut(View view, long duration, Runnable onComplete) {
@@ -75,7 +119,7 @@ public class AnimationHelper {
         view.animate()
                 .alpha(0f)
                 .setDuration(duration)
-                .setInterpolator(new AccelerateDecelerateInterpolator())
+                .setInterpolator(INTERPOLATOR)
                 .setListener(new AnimatorListenerAdapter() {
                     @Override
                     public void onAnimationEnd(Animator animation) {
@@ -97,51 +141,56 @@ public class AnimationHelper {
                 .scaleX(toScale)
                 .scaleY(toScale)
                 .setDuration(duration)
-                .setInterpolator(new AccelerateDecelerateInterpolator())
+                .setInterpolator(INTERPOLATOR)
                 .start();
     }
 
     public void animatePress(View view, boolean pressed) {
         if (view == null) return;
 
-        float scale = pressed ? 0.85f : 1.0f;
-        view.animate()
-                .scaleX(scale)
-                .scaleY(scale)
-                .setDuration(100)
-                .setInterpolator(new AccelerateDecelerateInterpolator())
-                .start();
+        // Touches come in thousands; one frame-driven animator per view instead of an animation per press
+        if (view != pressedView) {
+            pressAnimator.reset();
+            pressedView = view;
+        }
+        pressAnimator.setPressed(pressed);
     }
 
     public void snapToEdge(View view, WindowManager.LayoutParams params) {
+        snapToEdge(view, params, 0f, 0f);
+    }
+
+    /**
+     * Springs the view to the left or right edge. The edge is picked from where
+     * the release velocity (px/s) would carry the bubble, and that velocity
+     * becomes the spring's starting velocity.
+     */
+    public void snapToEdge(View view, WindowManager.LayoutParams params, float velocityX, float velocityY) {
         if (view == null || params == null) return;
 
         int screenWidth = context.getResources().getDisplayMetrics().widthPixels;
         int screenHeight = context.getResources().getDisplayMetrics().heightPixels;
 
-        boolean snapToLeft = params.x < screenWidth / 2;
-        int targetX = snapToLeft ? 0 : screenWidth - view.getWidth();
-        int targetY = Math.max(0, Math.min(params.y, screenHeight - view.getHeight()));
+        int targetX = SnapPhysics.snapTargetX(params.x, velocityX, screenWidth, view.getWidth());
+        int targetY = SnapPhysics.snapTargetY(params.y, velocityY, screenHeight, view.getHeight());
 
-        animateViewToPosition(view, params, targetX, targetY, 300, null);
+        positionAnimator.cancel();
+        positionComplete = null;
+        frameStats.end(FrameStats.HIDE_SHOW);
+        frameStats.begin(FrameStats.SNAP);
+        animatedView = view;
+        animatedParams = params;
+        snapAnimator.start(params.x, params.y, velocityX, velocityY, targetX, targetY);
     }
 
     public void hideToEdge(View view, WindowManager.LayoutParams params, Runnable onComplete) {
         if (view == null || params == null) return;
 
         int screenWidth = context.getResources().getDisplayMetrics().widthPixels;
-        boolean isOnLeft = params.x < screenWidth / 2;
-        int hideX = isOnLeft ? -view.getWidth() / 2 : screenWidth - view.getWidth() / 2;
+        int hideX = SnapPhysics.hideTargetX(params.x, screenWidth, view.getWidth());
 
-        animateViewToPosition(view, params, hideX, params.y, 400,
-                new AnimatorListenerAdapter() {
-                    @Override
-                    public void onAnimationEnd(Animator animation) {
-                        if (onComplete != null) {
-                            onComplete.run();
-                        }
-                    }
-                });
+        frameStats.begin(FrameStats.HIDE_SHOW);
+        animateViewToPosition(view, params, hideX, params.y, 400, onComplete);
 
         // Make semi-transparent
         view.animate()
@@ -154,9 +203,9 @@ public class AnimationHelper {
         if (view == null || params == null) return;
 
         int screenWidth = context.getResources().getDisplayMetrics().widthPixels;
-        boolean wasOnLeft = params.x < screenWidth / 2;
-        int showX = wasOnLeft ? 0 : screenWidth - view.getWidth();
+        int showX = SnapPhysics.showTargetX(params.x, screenWidth, view.getWidth());
 
+        frameStats.begin(FrameStats.HIDE_SHOW);
         animateViewToPosition(view, params, showX, params.y, 400, null);
 
         // Fade back to full opacity
@@ -0,0 +1,336 @@
+package com.nayanpote.edgeassist;
+
+import android.Manifest;
+import android.content.ContentResolver;
+import android.content.Context;
+import android.content.pm.PackageManager;
+import android.database.Cursor;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.BitmapShader;
+import android.graphics.Canvas;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Shader;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.provider.ContactsContract;
+import android.util.Log;
+import android.util.LruCache;
+import android.widget.ImageView;
+
+import androidx.core.content.ContextCompat;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.WeakHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Loads contact photos into avatar ImageViews.
+ *
+ * Photos are looked up by number in ContactsContract, decoded on a background
+ * pool with inSampleSize and scaled to the exact avatar size, then cut to a
+ * circle. Results are kept in a memory LRU with a byte budget and in a small
+ * disk cache, and numbers without a photo are remembered too. A memory hit
+ * binds synchronously; everything else binds later on the main thread, so a
+ * caller never waits on I/O. Loading a new number into a view, or
+ * {@link #cancel(ImageView)}, drops the view's pending load.
+ */
+public class AvatarLoader {
+    private static final String TAG = "AvatarLoader";
+
+    private static final long DISK_CACHE_BYTES = 2 * 1024 * 1024;
+    private static final long DISK_ENTRY_MAX_AGE_MS = 7L * 24 * 60 * 60 * 1000;
+    private static final int NO_PHOTO_CACHE_ENTRIES = 256;
+
+    private static AvatarLoader instance;
+
+    private final Context context;
+    private final ContentResolver contentResolver;
+    private final File diskDir;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final ExecutorService decodePool;
+    private final LruCache<String, Bitmap> memoryCache;
+    private final LruCache<String, Boolean> noPhotoCache = new LruCache<>(NO_PHOTO_CACHE_ENTRIES);
+    private final WeakHashMap<ImageView, Request> pending = new WeakHashMap<>();
+
+    private final Paint circlePaint = new Paint(Paint.ANTI_ALIAS_FLAG | Paint.FILTER_BITMAP_FLAG);
+    private final Matrix shaderMatrix = new Matrix();
+
+    private final class Request implements Runnable {
+        final String key;
+        final String phoneNumber;
+        final int sizePx;
+        final ImageView target;
+        Future<?> future;
+        volatile boolean cancelled;
+        // Set only when the contacts lookup ran and the contact has no photo
+        boolean noPhoto;
+
+        Request(String key, String phoneNumber, int sizePx, ImageView target) {
+            this.key = key;
+            this.phoneNumber = phoneNumber;
+            this.sizePx = sizePx;
+            this.target = target;
+        }
+
+        @Override
+        public void run() {
+            Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+            if (cancelled) return;
+
+            Bitmap bitmap = null;
+            try {
+                bitmap = readDiskCache(key);
+                if (bitmap == null && !cancelled) {
+                    bitmap = loadFromContacts(this);
+                    if (bitmap != null) {
+                        writeDiskCache(key, bitmap);
+                    }
+                }
+            } catch (Exception e) {
+                Log.e(TAG, "Error loading avatar", e);
+            }
+            // A recycled row rebinds on its own; nothing to deliver or remember
+            if (cancelled) return;
+
+            Bitmap result = bitmap;
+            mainHandler.post(() -> deliver(this, result));
+        }
+    }
+
+    private AvatarLoader(Context context) {
+        this.context = context.getApplicationContext();
+        this.contentResolver = this.context.getContentResolver();
+        this.diskDir = new File(this.context.getCacheDir(), "avatars");
+
+        // 1/32 of the heap, enough for a few hundred 48dp avatars
+        int budget = (int) Math.min(Integer.MAX_VALUE, Runtime.getRuntime().maxMemory() / 32);
+        this.memoryCache = new LruCache<String, Bitmap>(budget) {
+            @Override
+            protected int sizeOf(String key, Bitmap bitmap) {
+                return bitmap.getByteCount();
+            }
+        };
+        this.decodePool = Executors.newFixedThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "EdgeAssist-avatar");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static synchronized AvatarLoader get(Context context) {
+        if (instance == null) {
+            instance = new AvatarLoader(context);
+        }
+        return instance;
+    }
+
+    /** Binds the photo for {@code phoneNumber} at {@code sizePx}, or clears the view if there is none. */
+    public void load(String phoneNumber, ImageView target, int sizePx) {
+        String key = sizePx + ":" + phoneNumber;
+
+        Request current = pending.get(target);
+        if (current != null) {
+            if (current.key.equals(key)) return;
+            cancel(target);
+        }
+
+        Bitmap cached = memoryCache.get(key);
+        if (cached != null) {
+            target.setImageBitmap(cached);
+            return;
+        }
+
+        target.setImageDrawable(null);
+        if (noPhotoCache.get(key) != null || sizePx <= 0 || !canReadContacts()) return;
+
+        Request request = new Request(key, phoneNumber, sizePx, target);
+        pending.put(target, request);
+        request.future = decodePool.submit(request);
+    }
+
+    /** Drops the pending load for a view that is being recycled or detached. */
+    public void cancel(ImageView target) {
+        Request request = pending.remove(target);
+        if (request != null) {
+            request.cancelled = true;
+            request.future.cancel(false);
+        }
+    }
+
+    /** Releases the memory cache, e.g. when the screen goes off or memory is low. */
+    public void clearMemory() {
+        memoryCache.evictAll();
+    }
+
+    private void deliver(Request request, Bitmap bitmap) {
+        if (bitmap != null) {
+            memoryCache.put(request.key, bitmap);
+        } else if (request.noPhoto) {
+            // Failed loads are not remembered, the next bind tries again
+            noPhotoCache.put(request.key, Boolean.TRUE);
+        }
+
+        // The view may have been rebound to another number meanwhile
+        if (request.cancelled || pending.get(request.target) != request) return;
+        pending.remove(request.target);
+        if (bitmap != null) {
+            request.target.setImageBitmap(bitmap);
+        }
+    }
+
+    private boolean canReadContacts() {
+        return ContextCompat.checkSelfPermission(context, Manifest.permission.READ_CONTACTS)
+                == PackageManager.PERMISSION_GRANTED;
+    }
+
+    // --- Background work ---
+
+    private Bitmap loadFromContacts(Request request) throws IOException {
+        String phoneNumber = request.phoneNumber;
+        int sizePx = request.sizePx;
+        Uri lookupUri = Uri.withAppendedPath(ContactsContract.PhoneLookup.CONTENT_FILTER_URI, Uri.encode(phoneNumber));
+        String photoUri = null;
+        String thumbnailUri = null;
+        try (Cursor cursor = contentResolver.query(lookupUri, new String[]{
+                ContactsContract.PhoneLookup.PHOTO_URI,
+                ContactsContract.PhoneLookup.PHOTO_THUMBNAIL_URI}, null, null, null)) {
+            if (cursor != null && cursor.moveToFirst()) {
+                photoUri = cursor.getString(0);
+                thumbnailUri = cursor.getString(1);
+            }
+        }
+
+        // The 96px thumbnail is enough for small avatars and far cheaper to decode
+        String source = thumbnailUri != null && sizePx <= 96 ? thumbnailUri : photoUri;
+        if (source == null) source = thumbnailUri;
+        if (source == null) {
+            request.noPhoto = true;
+            return null;
+        }
+
+        Uri uri = Uri.parse(source);
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        try (InputStream in = contentResolver.openInputStream(uri)) {
+            if (in == null) return null;
+            BitmapFactory.decodeStream(in, null, options);
+        }
+        if (options.outWidth <= 0 || options.outHeight <= 0) return null;
+
+        options.inJustDecodeBounds = false;
+        options.inSampleSize = sampleSize(options.outWidth, options.outHeight, sizePx);
+        Bitmap decoded;
+        try (InputStream in = contentResolver.openInputStream(uri)) {
+            if (in == null) return null;
+            decoded = BitmapFactory.decodeStream(in, null, options);
+        }
+        if (decoded == null) return null;
+
+        Bitmap circle = toCircle(decoded, sizePx);
+        if (circle != decoded) decoded.recycle();
+        return circle;
+    }
+
+    // Largest power of two that keeps the short side at or above the target size
+    static int sampleSize(int width, int height, int targetPx) {
+        int sample = 1;
+        int shortSide = Math.min(width, height);
+        while (shortSide / (sample * 2) >= targetPx) {
+            sample *= 2;
+        }
+        return sample;
+    }
+
+    // Center-crops and scales to exactly sizePx, clipped to a circle
+    private Bitmap toCircle(Bitmap source, int sizePx) {
+        Bitmap output = Bitmap.createBitmap(sizePx, sizePx, Bitmap.Config.ARGB_8888);
+        float scale = (float) sizePx / Math.min(source.getWidth(), source.getHeight());
+        synchronized (shaderMatrix) {
+            shaderMatrix.setScale(scale, scale);
+            shaderMatrix.postTranslate((sizePx - source.getWidth() * scale) / 2f,
+                    (sizePx - source.getHeight() * scale) / 2f);
+            BitmapShader shader = new BitmapShader(source, Shader.TileMode.CLAMP, Shader.TileMode.CLAMP);
+            shader.setLocalMatrix(shaderMatrix);
+            circlePaint.setShader(shader);
+            new Canvas(output).drawCircle(sizePx / 2f, sizePx / 2f, sizePx / 2f, circlePaint);
+            circlePaint.setShader(null);
+        }
+        return output;
+    }
+
+    // Named by a SHA-1 of the key; a plain hash code let two numbers share a file
+    private File diskFile(String key) {
+        byte[] digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1").digest(key.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        StringBuilder name = new StringBuilder(digest.length * 2 + 4);
+        for (byte b : digest) {
+            name.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return new File(diskDir, name.append(".png").toString());
+    }
+
+    private Bitmap readDiskCache(String key) {
+        File file = diskFile(key);
+        if (!file.exists()) return null;
+        if (System.currentTimeMillis() - file.lastModified() > DISK_ENTRY_MAX_AGE_MS) {
+            // The contact's photo may have changed since
+            file.delete();
+            return null;
+        }
+        return BitmapFactory.decodeFile(file.getPath());
+    }
+
+    private void writeDiskCache(String key, Bitmap bitmap) {
+        if (!diskDir.exists() && !diskDir.mkdirs()) return;
+
+        File file = diskFile(key);
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            bitmap.compress(Bitmap.CompressFormat.PNG, 100, out);
+        } catch (IOException e) {
+            Log.e(TAG, "Error writing avatar cache", e);
+            file.delete();
+            return;
+        }
+        trimDiskCache();
+    }
+
+    // Oldest entries go first once the directory is over budget
+    private synchronized void trimDiskCache() {
+        File[] files = diskDir.listFiles();
+        if (files == null) return;
+
+        long total = 0;
+        for (File file : files) total += file.length();
+        if (total <= DISK_CACHE_BYTES) return;
+
+        Arrays.sort(files, new Comparator<File>() {
+            @Override
+            public int compare(File a, File b) {
+                return Long.compare(a.lastModified(), b.lastModified());
+            }
+        });
+        for (File file : files) {
+            if (total <= DISK_CACHE_BYTES * 3 / 4) break;
+            total -= file.length();
+            file.delete();
+        }
+    }
+}
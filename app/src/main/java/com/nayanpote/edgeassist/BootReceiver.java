@@ -29,6 +29,7 @@ public class BootReceiver extends BroadcastReceiver {
                     Log.d(TAG, "Service was enabled, starting EdgeAssist service");
 
                     Intent serviceIntent = new Intent(context, OverlayService.class);
+                    serviceIntent.putExtra(OverlayService.EXTRA_FROM_BOOT, true);
 
                     if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
                         context.startForegroundService(serviceIntent);
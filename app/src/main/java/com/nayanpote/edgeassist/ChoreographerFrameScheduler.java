@@ -0,0 +1,64 @@
+package com.nayanpote.edgeassist;
+
+import android.view.Choreographer;
+
+import java.util.ArrayList;
+
+/**
+ * {@link FrameScheduler} on top of the main thread Choreographer.
+ * All pending callbacks share a single Choreographer registration, so posting
+ * from several places in one frame does not allocate and still runs once per vsync.
+ * Must be created and used on the main thread.
+ */
+public class ChoreographerFrameScheduler implements FrameScheduler, Choreographer.FrameCallback {
+
+    private final Choreographer choreographer;
+    private final ArrayList<FrameCallback> pending = new ArrayList<>(8);
+    private FrameCallback[] running = new FrameCallback[8];
+    private boolean posted = false;
+
+    public ChoreographerFrameScheduler() {
+        this.choreographer = Choreographer.getInstance();
+    }
+
+    @Override
+    public void postFrameCallback(FrameCallback callback) {
+        if (callback == null || pending.contains(callback)) return;
+
+        pending.add(callback);
+        if (!posted) {
+            posted = true;
+            choreographer.postFrameCallback(this);
+        }
+    }
+
+    @Override
+    public void removeFrameCallback(FrameCallback callback) {
+        pending.remove(callback);
+        if (pending.isEmpty() && posted) {
+            posted = false;
+            choreographer.removeFrameCallback(this);
+        }
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        posted = false;
+
+        int count = pending.size();
+        if (running.length < count) {
+            running = new FrameCallback[count * 2];
+        }
+        for (int i = 0; i < count; i++) {
+            running[i] = pending.get(i);
+        }
+        pending.clear();
+
+        // Callbacks may re-post themselves for the next frame while we dispatch
+        for (int i = 0; i < count; i++) {
+            FrameCallback callback = running[i];
+            running[i] = null;
+            callback.doFrame(frameTimeNanos);
+        }
+    }
+}
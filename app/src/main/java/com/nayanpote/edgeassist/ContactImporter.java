@@ -0,0 +1,176 @@
+package com.nayanpote.edgeassist;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.database.Cursor;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.provider.ContactsContract;
+import android.util.Log;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Reads ContactsContract off the main thread: single picks from the system
+ * picker and bulk imports through {@link ContactImportPipeline}. Results and
+ * progress are delivered on the main thread; after {@link #shutdown()} nothing
+ * more is delivered.
+ */
+public class ContactImporter {
+    private static final String TAG = "ContactImporter";
+
+    public interface PickCallback {
+        void onPicked(String name, String phoneNumber);
+
+        void onPickFailed();
+    }
+
+    public interface ImportCallback {
+        void onProgress(int rowsScanned, int candidates);
+
+        void onScanned(ContactImportPipeline.Result result);
+
+        void onCommitted(int added);
+
+        void onImportFailed();
+    }
+
+    private static final String[] PHONE_PROJECTION = {
+            ContactsContract.CommonDataKinds.Phone.DISPLAY_NAME,
+            ContactsContract.CommonDataKinds.Phone.NUMBER
+    };
+
+    private final ContentResolver contentResolver;
+    private final ContactRepository repository;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final ExecutorService worker;
+    private final ExecutorService normalizePool;
+    private final int parallelism;
+
+    private ContactImportPipeline pipeline;
+    private volatile boolean shutdown = false;
+    // Latest progress, posted at most once until the main thread picks it up
+    private volatile boolean progressPosted = false;
+    private volatile int progressRows, progressCandidates;
+
+    public ContactImporter(Context context, ContactRepository repository) {
+        this.contentResolver = context.getApplicationContext().getContentResolver();
+        this.repository = repository;
+        this.worker = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "EdgeAssist-import");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.parallelism = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+        this.normalizePool = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "EdgeAssist-normalize");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /** Reads the name and number of a row picked from the system contact picker. */
+    public void loadPicked(Uri contactUri, PickCallback callback) {
+        worker.execute(() -> {
+            try (Cursor cursor = contentResolver.query(contactUri, PHONE_PROJECTION, null, null, null)) {
+                if (cursor != null && cursor.moveToFirst()) {
+                    String name = cursor.getString(0);
+                    String number = cursor.getString(1);
+                    deliver(() -> callback.onPicked(name != null ? name : "", number));
+                    return;
+                }
+                deliver(callback::onPickFailed);
+            } catch (Exception e) {
+                Log.e(TAG, "Error reading picked contact", e);
+                deliver(callback::onPickFailed);
+            }
+        });
+    }
+
+    /** Streams every phone number and reports the ones not saved yet. */
+    public void scan(ImportCallback callback) {
+        cancelImport();
+        ContactImportPipeline current = new ContactImportPipeline(repository, normalizePool,
+                parallelism, ContactImportPipeline.DEFAULT_BATCH_SIZE);
+        pipeline = current;
+
+        worker.execute(() -> {
+            try (Cursor cursor = contentResolver.query(ContactsContract.CommonDataKinds.Phone.CONTENT_URI,
+                    PHONE_PROJECTION, null, null,
+                    ContactsContract.CommonDataKinds.Phone.DISPLAY_NAME + " COLLATE LOCALIZED ASC")) {
+                if (cursor == null) {
+                    deliver(callback::onImportFailed);
+                    return;
+                }
+
+                ContactImportPipeline.Result result = current.scan((names, numbers, max) -> {
+                    int count = 0;
+                    while (count < max && cursor.moveToNext()) {
+                        names[count] = cursor.getString(0);
+                        numbers[count] = cursor.getString(1);
+                        if (numbers[count] != null) count++;
+                    }
+                    return count;
+                }, (rows, candidates) -> postProgress(callback, rows, candidates));
+
+                if (result != null) {
+                    deliver(() -> callback.onScanned(result));
+                }
+            } catch (Exception e) {
+                Log.e(TAG, "Error scanning contacts", e);
+                deliver(callback::onImportFailed);
+            }
+        });
+    }
+
+    /** Saves the selected candidates from the last scan as one store transaction. */
+    public void commit(List<SpeedDialContact> selected, ImportCallback callback) {
+        ContactImportPipeline current = pipeline;
+        if (current == null) return;
+
+        worker.execute(() -> {
+            try {
+                int added = current.commit(selected);
+                deliver(() -> callback.onCommitted(added));
+            } catch (Exception e) {
+                Log.e(TAG, "Error importing contacts", e);
+                deliver(callback::onImportFailed);
+            }
+        });
+    }
+
+    public void cancelImport() {
+        if (pipeline != null) {
+            pipeline.cancel();
+            pipeline = null;
+        }
+    }
+
+    public void shutdown() {
+        shutdown = true;
+        cancelImport();
+        worker.shutdown();
+        normalizePool.shutdownNow();
+    }
+
+    private void postProgress(ImportCallback callback, int rows, int candidates) {
+        progressRows = rows;
+        progressCandidates = candidates;
+        if (progressPosted) return;
+
+        progressPosted = true;
+        deliver(() -> {
+            progressPosted = false;
+            callback.onProgress(progressRows, progressCandidates);
+        });
+    }
+
+    private void deliver(Runnable runnable) {
+        mainHandler.post(() -> {
+            if (!shutdown) runnable.run();
+        });
+    }
+}
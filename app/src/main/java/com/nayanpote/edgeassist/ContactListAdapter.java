@@ -0,0 +1,99 @@
+package com.nayanpote.edgeassist;
+
+import android.text.TextUtils;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.Button;
+import android.widget.ImageView;
+import android.widget.TextView;
+
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * Saved contacts list for MainActivity. Each repository snapshot is submitted
+ * as a whole; DiffUtil works out the changed rows off the main thread, so
+ * deleting one contact rebinds one row instead of re-inflating the list.
+ */
+public class ContactListAdapter extends ListAdapter<SpeedDialContact, ContactListAdapter.ContactViewHolder> {
+
+    public interface OnDeleteListener {
+        void onDelete(SpeedDialContact contact);
+    }
+
+    // Snapshots share contact instances, so identity tells rows apart
+    private static final DiffUtil.ItemCallback<SpeedDialContact> DIFF_CALLBACK =
+            new DiffUtil.ItemCallback<SpeedDialContact>() {
+                @Override
+                public boolean areItemsTheSame(SpeedDialContact oldItem,
+                                               SpeedDialContact newItem) {
+                    return oldItem == newItem;
+                }
+
+                @Override
+                public boolean areContentsTheSame(SpeedDialContact oldItem,
+                                                  SpeedDialContact newItem) {
+                    return TextUtils.equals(oldItem.name, newItem.name)
+                            && TextUtils.equals(oldItem.phoneNumber, newItem.phoneNumber);
+                }
+            };
+
+    private final OnDeleteListener onDeleteListener;
+    private final AvatarLoader avatarLoader;
+
+    public ContactListAdapter(AvatarLoader avatarLoader, OnDeleteListener onDeleteListener) {
+        super(DIFF_CALLBACK);
+        this.avatarLoader = avatarLoader;
+        this.onDeleteListener = onDeleteListener;
+    }
+
+    @Override
+    public ContactViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext()).inflate(R.layout.contact_item, parent, false);
+        return new ContactViewHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(ContactViewHolder holder, int position) {
+        holder.bind(getItem(position));
+    }
+
+    @Override
+    public void onViewRecycled(ContactViewHolder holder) {
+        // Off screen now, its photo is no longer worth decoding
+        avatarLoader.cancel(holder.avatarImage);
+    }
+
+    class ContactViewHolder extends RecyclerView.ViewHolder {
+        private final TextView nameText;
+        private final TextView numberText;
+        private final ImageView avatarImage;
+        private final int avatarSizePx;
+        private SpeedDialContact contact;
+
+        ContactViewHolder(View itemView) {
+            super(itemView);
+            nameText = itemView.findViewById(R.id.contactName);
+            numberText = itemView.findViewById(R.id.contactNumber);
+            avatarImage = itemView.findViewById(R.id.contactAvatar);
+            avatarSizePx = avatarImage.getLayoutParams().width;
+            Button deleteBtn = itemView.findViewById(R.id.deleteBtn);
+
+            // One listener per holder, reads whatever contact is bound
+            deleteBtn.setOnClickListener(v -> {
+                if (contact != null) {
+                    onDeleteListener.onDelete(contact);
+                }
+            });
+        }
+
+        void bind(SpeedDialContact newContact) {
+            contact = newContact;
+            nameText.setText(newContact.name);
+            numberText.setText(newContact.phoneNumber);
+            avatarLoader.load(newContact.phoneNumber, avatarImage, avatarSizePx);
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.nayanpote.edgeassist;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.Looper;
+import android.telephony.TelephonyManager;
+import android.util.Log;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Process-wide access to the speed-dial {@link ContactRepository} and its {@link ContactStore}.
+ * The first access opens the store and, once, moves contacts saved by older
+ * versions as JSON in SharedPreferences into it. The activity and the overlay
+ * share the same repository, so edits in one show up in the other immediately.
+ */
+public final class ContactStorage {
+    private static final String TAG = "ContactStorage";
+    private static final String PREF_NAME = "EdgeAssistPrefs";
+    private static final String KEY_SPEED_DIAL_CONTACTS = "speed_dial_contacts";
+
+    /** Receives the repository on the main thread. */
+    public interface RepositoryCallback {
+        void onRepository(ContactRepository repository);
+    }
+
+    private static ContactStore store;
+    private static volatile ContactRepository repository;
+    private static FrecencyRanker ranker;
+
+    private ContactStorage() {
+    }
+
+    /**
+     * Opens the repository on the io thread if needed and hands it to
+     * {@code callback} on the main thread, so callers there never wait for the
+     * store to load.
+     */
+    public static void getRepositoryAsync(Context context, RepositoryCallback callback) {
+        Handler mainHandler = new Handler(Looper.getMainLooper());
+        ContactRepository loaded = repository;
+        if (loaded != null) {
+            mainHandler.post(() -> callback.onRepository(loaded));
+            return;
+        }
+        Context appContext = context.getApplicationContext();
+        getIoExecutor().execute(() -> {
+            ContactRepository opened = getRepository(appContext);
+            mainHandler.post(() -> callback.onRepository(opened));
+        });
+    }
+
+    public static synchronized ContactRepository getRepository(Context context) {
+        if (repository == null) {
+            Handler mainHandler = new Handler(Looper.getMainLooper());
+            ContactRepository newRepository = new ContactRepository(getStore(context), mainHandler::post,
+                    PhoneNumberNormalizer.forRegion(detectRegion(context)));
+
+            // Frequently called contacts come first among equally good search matches
+            FrecencyRanker frecency = getRanker(context);
+            newRepository.setSearchBooster((contact, normalizedNumber) -> frecency.getScore(normalizedNumber));
+            repository = newRepository;
+        }
+        return repository;
+    }
+
+    /** Call-frequency ranking, keyed by normalized number. */
+    public static synchronized FrecencyRanker getRanker(Context context) {
+        if (ranker == null) {
+            FrecencyRanker newRanker = new FrecencyRanker(context.getApplicationContext().getFilesDir(),
+                    getIoExecutor(), FrecencyRanker.DEFAULT_HALF_LIFE_MS);
+            newRanker.setErrorHandler(e -> Log.e(TAG, "Frecency store error", e));
+            try {
+                newRanker.load();
+            } catch (IOException e) {
+                Log.e(TAG, "Error loading call ranking", e);
+            }
+            ranker = newRanker;
+        }
+        return ranker;
+    }
+
+    static synchronized ContactStore getStore(Context context) {
+        if (store != null) return store;
+
+        Context appContext = context.getApplicationContext();
+        ContactStore newStore = new ContactStore(appContext.getFilesDir(), getIoExecutor());
+        newStore.setErrorHandler(e -> Log.e(TAG, "Contact store error", e));
+
+        boolean existed = newStore.exists();
+        try {
+            newStore.open();
+        } catch (IOException e) {
+            Log.e(TAG, "Error opening contact store", e);
+        }
+
+        if (!existed) {
+            migrateFromPreferences(appContext, newStore);
+        }
+
+        store = newStore;
+        return store;
+    }
+
+    // SIM country first, then the network, then the device locale
+    private static String detectRegion(Context context) {
+        try {
+            TelephonyManager telephony = (TelephonyManager) context.getSystemService(Context.TELEPHONY_SERVICE);
+            if (telephony != null) {
+                String region = telephony.getSimCountryIso();
+                if (region == null || region.isEmpty()) {
+                    region = telephony.getNetworkCountryIso();
+                }
+                if (region != null && !region.isEmpty()) {
+                    return region;
+                }
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Error reading country from telephony", e);
+        }
+        return Locale.getDefault().getCountry();
+    }
+
+    // Created on first use without the class lock, which is held while the store opens
+    private static final class IoExecutorHolder {
+        static final ExecutorService INSTANCE = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "EdgeAssist-io");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /** Single background thread shared by all EdgeAssist disk writes. */
+    public static ExecutorService getIoExecutor() {
+        return IoExecutorHolder.INSTANCE;
+    }
+
+    private static void migrateFromPreferences(Context context, ContactStore target) {
+        SharedPreferences prefs = context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
+        String contactsJson = prefs.getString(KEY_SPEED_DIAL_CONTACTS, null);
+        if (contactsJson == null) return;
+
+        List<SpeedDialContact> contacts = new ArrayList<>();
+        try {
+            JSONArray jsonArray = new JSONArray(contactsJson);
+            for (int i = 0; i < jsonArray.length(); i++) {
+                JSONObject jsonObject = jsonArray.getJSONObject(i);
+                String name = jsonObject.getString("name");
+                String number = jsonObject.getString("number");
+                contacts.add(new SpeedDialContact(name, number));
+            }
+        } catch (JSONException e) {
+            Log.e(TAG, "Error reading legacy contacts", e);
+            return;
+        }
+
+        target.replaceAll(contacts);
+
+        // Queued behind the snapshot write; the old key only goes once the snapshot is on disk
+        getIoExecutor().execute(() -> {
+            if (target.exists()) {
+                prefs.edit().remove(KEY_SPEED_DIAL_CONTACTS).apply();
+                Log.d(TAG, "Migrated " + contacts.size() + " contacts from preferences");
+            }
+        });
+    }
+}
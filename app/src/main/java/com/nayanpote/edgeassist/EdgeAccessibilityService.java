@@ -0,0 +1,60 @@
+package com.nayanpote.edgeassist;
+
+import android.accessibilityservice.AccessibilityService;
+import android.content.Intent;
+import android.util.Log;
+import android.view.accessibility.AccessibilityEvent;
+
+/**
+ * Optional accessibility service. Its only job is to open the notification
+ * shade and quick settings with {@link #performGlobalAction(int)}, which
+ * needs no system permission once the user has enabled the service.
+ * It subscribes to no events, so it costs nothing while idle.
+ */
+public class EdgeAccessibilityService extends AccessibilityService {
+    private static final String TAG = "EdgeAccessibility";
+
+    private static volatile EdgeAccessibilityService instance;
+
+    public static boolean isConnected() {
+        return instance != null;
+    }
+
+    public static boolean expandNotifications() {
+        EdgeAccessibilityService service = instance;
+        return service != null && service.performGlobalAction(GLOBAL_ACTION_NOTIFICATIONS);
+    }
+
+    public static boolean expandQuickSettings() {
+        EdgeAccessibilityService service = instance;
+        return service != null && service.performGlobalAction(GLOBAL_ACTION_QUICK_SETTINGS);
+    }
+
+    @Override
+    protected void onServiceConnected() {
+        super.onServiceConnected();
+        instance = this;
+        Log.d(TAG, "Accessibility service connected");
+    }
+
+    @Override
+    public void onAccessibilityEvent(AccessibilityEvent event) {
+        // No events subscribed
+    }
+
+    @Override
+    public void onInterrupt() {
+    }
+
+    @Override
+    public boolean onUnbind(Intent intent) {
+        instance = null;
+        return super.onUnbind(intent);
+    }
+
+    @Override
+    public void onDestroy() {
+        instance = null;
+        super.onDestroy();
+    }
+}
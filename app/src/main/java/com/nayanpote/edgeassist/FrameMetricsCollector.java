@@ -0,0 +1,84 @@
+package com.nayanpote.edgeassist;
+
+import android.content.Context;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Display;
+import android.view.FrameMetrics;
+import android.view.Window;
+import android.view.WindowManager;
+
+/**
+ * Process-wide {@link FrameStats}, shared by the overlay service and the
+ * activities so the diagnostics page sees what the bubble recorded.
+ *
+ * Overlay interactions are timed through the Choreographer. Activity windows
+ * additionally get a FrameMetrics listener on API 24+, which reports what each
+ * frame actually cost to produce. Main thread only.
+ */
+public final class FrameMetricsCollector {
+
+    private static FrameMetricsCollector instance;
+
+    private final FrameStats stats;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private Object frameMetricsListener;
+
+    public static FrameMetricsCollector get(Context context) {
+        if (instance == null) {
+            instance = new FrameMetricsCollector(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private FrameMetricsCollector(Context context) {
+        stats = new FrameStats(new ChoreographerFrameScheduler());
+
+        WindowManager windowManager = (WindowManager) context.getSystemService(Context.WINDOW_SERVICE);
+        Display display = windowManager != null ? windowManager.getDefaultDisplay() : null;
+        if (display != null && display.getRefreshRate() > 1f) {
+            stats.setFrameIntervalNanos(Math.round(1_000_000_000.0 / display.getRefreshRate()));
+        }
+    }
+
+    public FrameStats getStats() {
+        return stats;
+    }
+
+    /** Records every frame of an activity window under {@link FrameStats#APP_SCREEN}. */
+    public void attach(Window window) {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.N || window == null) return;
+        if (frameMetricsListener == null) {
+            frameMetricsListener = new MetricsListener(stats);
+        }
+        window.addOnFrameMetricsAvailableListener((MetricsListener) frameMetricsListener, mainHandler);
+    }
+
+    public void detach(Window window) {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.N || window == null || frameMetricsListener == null) {
+            return;
+        }
+        try {
+            window.removeOnFrameMetricsAvailableListener((MetricsListener) frameMetricsListener);
+        } catch (IllegalArgumentException e) {
+            // Was not attached to this window
+        }
+    }
+
+    // Separate class so the listener interface is only loaded where it exists
+    private static final class MetricsListener implements Window.OnFrameMetricsAvailableListener {
+        private final FrameStats stats;
+
+        MetricsListener(FrameStats stats) {
+            this.stats = stats;
+        }
+
+        @Override
+        public void onFrameMetricsAvailable(Window window, FrameMetrics frameMetrics, int dropCountSinceLastInvocation) {
+            // The first frame includes inflation and layout of the whole screen
+            if (frameMetrics.getMetric(FrameMetrics.FIRST_DRAW_FRAME) == 1) return;
+            stats.recordFrameDuration(FrameStats.APP_SCREEN, frameMetrics.getMetric(FrameMetrics.TOTAL_DURATION));
+        }
+    }
+}
@@ -2,123 +2,247 @@ package com.nayanpote.edgeassist;
 
 import android.content.Context;
 import android.content.Intent;
+import android.content.SharedPreferences;
 import android.media.AudioManager;
 import android.os.Build;
+import android.os.SystemClock;
 import android.provider.Settings;
+import android.text.TextUtils;
 import android.util.Log;
 import android.widget.Toast;
 
+import java.lang.reflect.Method;
+
 public class HardwareController {
     private static final String TAG = "HardwareController";
+    private static final String PREF_NAME = "EdgeAssistPrefs";
+    private static final String KEY_CONTROL_PANEL_STRATEGY = "control_panel_strategy";
+
+    private static StrategyProbe controlPanelProbe;
 
     private Context context;
     private AudioManager audioManager;
+    private final CoalescingVolumeWriter volumeWriter;
+    private final VolumeStateCache volumeState;
+    // Last level asked for per stream, -1 when the device has moved on since
+    private final int[] requestedLevels = new int[CoalescingVolumeWriter.MAX_STREAMS];
 
-    public HardwareController(Context context) {
+    // Levels changed outside EdgeAssist (keys, other apps) reset what the writer assumes is set
+    private final VolumeStateCache.Listener volumeStateListener = new VolumeStateCache.Listener() {
+        @Override
+        public void onVolumeStateChanged(VolumeStateCache.State state) {
+            for (int stream : VolumeStateCache.STREAMS) {
+                int level = state.getLevel(stream);
+                volumeWriter.setKnownVolume(stream, level);
+                if (requestedLevels[stream] == level) {
+                    requestedLevels[stream] = -1;
+                }
+            }
+        }
+    };
+
+    public HardwareController(Context context, FrameScheduler frameScheduler, VolumeStateCache volumeState) {
         this.context = context;
         this.audioManager = (AudioManager) context.getSystemService(Context.AUDIO_SERVICE);
+        this.volumeState = volumeState;
+        java.util.Arrays.fill(requestedLevels, -1);
+
+        AudioManager audio = audioManager;
+        this.volumeWriter = new CoalescingVolumeWriter(frameScheduler, VolumeStateMonitor.getVolumeExecutor(),
+                (stream, volume) -> {
+                    try {
+                        audio.setStreamVolume(stream, volume, 0);
+                    } catch (Exception e) {
+                        // Do Not Disturb can refuse ring and notification changes
+                        Log.e(TAG, "Error setting volume", e);
+                    }
+                });
+        volumeState.addListener(volumeStateListener);
     }
 
     public void openControlPanel() {
         try {
-            // Method 1: Try to expand notification panel (requires root/system permissions)
-            try {
-                Runtime.getRuntime().exec("cmd statusbar expand-notifications");
-                showToast("Opening Notification Panel");
-                Log.d(TAG, "Notification panel command sent");
-                return;
-            } catch (Exception e) {
-                Log.d(TAG, "Cannot expand notification panel - no system permissions");
+            String used = getControlPanelProbe(context).run();
+            if (used == null) {
+                // Fallback: Show user how to access notification panel
+                showToast("Swipe down from top of screen for notification panel");
+            } else {
+                Log.d(TAG, "Notification panel opened via " + used);
             }
+        } catch (Exception e) {
+            Log.e(TAG, "Error accessing notification panel", e);
+            showToast("Cannot access notification panel");
+        }
+    }
+
+    // One probe per process; the winner is remembered until the next reboot
+    private static synchronized StrategyProbe getControlPanelProbe(Context context) {
+        if (controlPanelProbe == null) {
+            Context appContext = context.getApplicationContext();
+            controlPanelProbe = new StrategyProbe(new BootScopedMemo(appContext, KEY_CONTROL_PANEL_STRATEGY),
+                    new AccessibilityStrategy(),
+                    new StatusBarStrategy(appContext),
+                    new AccessibilitySettingsStrategy(appContext));
+        }
+        return controlPanelProbe;
+    }
 
-            // Method 2: Try accessibility service approach (if available)
+    private static final class AccessibilityStrategy implements StrategyProbe.Strategy {
+        @Override
+        public String getId() {
+            return "accessibility";
+        }
+
+        @Override
+        public boolean isAvailable() {
+            return EdgeAccessibilityService.isConnected();
+        }
+
+        @Override
+        public boolean run() {
+            return EdgeAccessibilityService.expandNotifications();
+        }
+    }
+
+    // StatusBarManager.expandNotificationsPanel, resolved by reflection once
+    private static final class StatusBarStrategy implements StrategyProbe.Strategy {
+        private final Context context;
+        private boolean resolved = false;
+        private Object statusBarManager;
+        private Method expandMethod;
+
+        StatusBarStrategy(Context context) {
+            this.context = context;
+        }
+
+        @Override
+        public String getId() {
+            return "statusbar";
+        }
+
+        @Override
+        public boolean isAvailable() {
+            resolve();
+            return expandMethod != null;
+        }
+
+        @Override
+        public boolean run() throws Exception {
+            resolve();
+            if (expandMethod == null) return false;
+            expandMethod.invoke(statusBarManager);
+            return true;
+        }
+
+        @SuppressWarnings("WrongConstant")
+        private void resolve() {
+            if (resolved) return;
+            resolved = true;
             try {
-                // This sends a "swipe down" gesture from top of screen
-                Intent intent = new Intent(Settings.ACTION_ACCESSIBILITY_SETTINGS);
-                intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK);
-                context.startActivity(intent);
-                showToast("Please enable accessibility for notification panel access");
-                return;
+                statusBarManager = context.getSystemService("statusbar");
+                if (statusBarManager != null) {
+                    expandMethod = statusBarManager.getClass().getMethod("expandNotificationsPanel");
+                }
             } catch (Exception e) {
-                Log.d(TAG, "Accessibility settings not available");
+                Log.d(TAG, "Status bar expansion not available");
+                expandMethod = null;
             }
+        }
+    }
 
-            // Method 3: Open Quick Settings Panel (Android Q+)
-            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
-                try {
-                    Intent panelIntent = new Intent("android.settings.panel.action.INTERNET_CONNECTIVITY");
-                    panelIntent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK);
-                    context.startActivity(panelIntent);
-                    Log.d(TAG, "Quick settings panel opened");
-                    showToast("Opening Quick Settings Panel");
-                    return;
-                } catch (Exception e) {
-                    Log.d(TAG, "Quick settings panel not available");
-                }
-            }
+    // Last resort: ask the user to enable the accessibility service
+    private static final class AccessibilitySettingsStrategy implements StrategyProbe.Strategy {
+        private final Context context;
 
-            // Fallback: Show user how to access notification panel
-            showToast("Swipe down from top of screen for notification panel");
-            Log.d(TAG, "Showed instruction for manual notification panel access");
+        AccessibilitySettingsStrategy(Context context) {
+            this.context = context;
+        }
 
-        } catch (Exception e) {
-            Log.e(TAG, "Error accessing notification panel", e);
-            showToast("Cannot access notification panel");
+        @Override
+        public String getId() {
+            return "accessibility_settings";
+        }
+
+        @Override
+        public boolean isAvailable() {
+            return true;
+        }
+
+        @Override
+        public boolean run() {
+            Intent intent = new Intent(Settings.ACTION_ACCESSIBILITY_SETTINGS);
+            intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK);
+            context.startActivity(intent);
+            Toast.makeText(context, "Enable EdgeAssist in Accessibility to open the notification panel",
+                    Toast.LENGTH_LONG).show();
+            return true;
         }
     }
 
+    /** Keeps the probe result in preferences, tagged with the boot it was found in. */
+    static final class BootScopedMemo implements StrategyProbe.Memo {
+        private final Context context;
+        private final SharedPreferences prefs;
+        private final String key;
+
+        BootScopedMemo(Context context, String key) {
+            this.context = context;
+            this.prefs = context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
+            this.key = key;
+        }
+
+        @Override
+        public String load() {
+            if (!isThisBoot()) return null;
+            return prefs.getString(key, null);
+        }
+
+        @Override
+        public String[] loadFailed() {
+            String failed = isThisBoot() ? prefs.getString(key + "_failed", "") : "";
+            return failed.isEmpty() ? new String[0] : failed.split(",");
+        }
+
+        @Override
+        public void save(String strategyId, String[] failedIds) {
+            prefs.edit()
+                    .putString(key, strategyId)
+                    .putString(key + "_failed", TextUtils.join(",", failedIds))
+                    .putLong(key + "_boot", currentBootId())
+                    .apply();
+        }
+
+        private boolean isThisBoot() {
+            return prefs.getLong(key + "_boot", -1) == currentBootId();
+        }
+
+        private long currentBootId() {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+                int bootCount = Settings.Global.getInt(context.getContentResolver(), Settings.Global.BOOT_COUNT, -1);
+                if (bootCount >= 0) return bootCount;
+            }
+            // Boot time in wall clock, to the nearest ten seconds; moves if the clock is set
+            return (System.currentTimeMillis() - SystemClock.elapsedRealtime()) / 10_000L;
+        }
+    }
+
+    /** Pops the system volume UI; the overlay uses its own slider, see {@link VolumeSliderPanel}. */
     public void openVolumeControl() {
         try {
             if (audioManager != null) {
-                // Method 1: Show volume slider by simulating a volume adjustment with UI
+                // Show volume slider without changing the level
                 audioManager.adjustStreamVolume(
                         AudioManager.STREAM_MUSIC,
-                        AudioManager.ADJUST_SAME, // Don't change volume, just show UI
+                        AudioManager.ADJUST_SAME,
                         AudioManager.FLAG_SHOW_UI | AudioManager.FLAG_VIBRATE);
                 Log.d(TAG, "Volume slider popup shown");
-                showToast("Volume Control");
                 return;
             }
         } catch (Exception e) {
             Log.e(TAG, "Error showing volume popup with ADJUST_SAME", e);
         }
 
-        try {
-            // Method 2: Alternative - slightly adjust volume to trigger UI
-            if (audioManager != null) {
-                int currentVolume = audioManager.getStreamVolume(AudioManager.STREAM_MUSIC);
-                int maxVolume = audioManager.getStreamMaxVolume(AudioManager.STREAM_MUSIC);
-
-                // Adjust volume by 0 (or minimal amount) to show UI
-                if (currentVolume < maxVolume) {
-                    audioManager.adjustStreamVolume(
-                            AudioManager.STREAM_MUSIC,
-                            AudioManager.ADJUST_RAISE,
-                            AudioManager.FLAG_SHOW_UI);
-                    // Immediately revert back
-                    audioManager.adjustStreamVolume(
-                            AudioManager.STREAM_MUSIC,
-                            AudioManager.ADJUST_LOWER,
-                            0); // No UI flag for revert
-                } else {
-                    audioManager.adjustStreamVolume(
-                            AudioManager.STREAM_MUSIC,
-                            AudioManager.ADJUST_LOWER,
-                            AudioManager.FLAG_SHOW_UI);
-                    // Immediately revert back
-                    audioManager.adjustStreamVolume(
-                            AudioManager.STREAM_MUSIC,
-                            AudioManager.ADJUST_RAISE,
-                            0); // No UI flag for revert
-                }
-                Log.d(TAG, "Volume slider shown via adjustment");
-                return;
-            }
-        } catch (Exception e) {
-            Log.e(TAG, "Error showing volume popup with adjustment method", e);
-        }
-
-        // Fallback: Open volume settings if popup methods fail
+        // Fallback: Open volume settings if the popup fails
         try {
             Intent intent = new Intent(Settings.ACTION_SOUND_SETTINGS);
             intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK);
@@ -131,34 +255,37 @@ public class HardwareController {
         }
     }
 
-    public void volumeUp() {
-        if (audioManager != null) {
-            try {
-                audioManager.adjustStreamVolume(
-                        AudioManager.STREAM_MUSIC,
-                        AudioManager.ADJUST_RAISE,
-                        AudioManager.FLAG_SHOW_UI);
-                Log.d(TAG, "Volume up executed");
-            } catch (Exception e) {
-                Log.e(TAG, "Error adjusting volume up", e);
-                showToast("Failed to adjust volume");
-            }
+    /** Sets a stream level; coalesced with other requests in the same frame and written off the main thread. */
+    public void setVolume(int stream, int volume) {
+        if (stream >= 0 && stream < requestedLevels.length) {
+            requestedLevels[stream] = volume;
         }
+        volumeWriter.request(stream, volume);
+    }
+
+    public void volumeUp() {
+        stepVolume(AudioManager.STREAM_MUSIC, 1);
     }
 
     public void volumeDown() {
-        if (audioManager != null) {
-            try {
-                audioManager.adjustStreamVolume(
-                        AudioManager.STREAM_MUSIC,
-                        AudioManager.ADJUST_LOWER,
-                        AudioManager.FLAG_SHOW_UI);
-                Log.d(TAG, "Volume down executed");
-            } catch (Exception e) {
-                Log.e(TAG, "Error adjusting volume down", e);
-                showToast("Failed to adjust volume");
-            }
-        }
+        stepVolume(AudioManager.STREAM_MUSIC, -1);
+    }
+
+    // Steps from the last requested level, so quick repeats collapse into one write
+    private void stepVolume(int stream, int delta) {
+        int max = volumeState.getMax(stream);
+        int base = requestedLevels[stream] >= 0 ? requestedLevels[stream] : volumeState.getLevel(stream);
+        if (max < 0 || base < 0) return; // Not loaded yet
+
+        setVolume(stream, Math.max(0, Math.min(max, base + delta)));
+    }
+
+    public VolumeStateCache getVolumeState() {
+        return volumeState;
+    }
+
+    public CoalescingVolumeWriter getVolumeWriter() {
+        return volumeWriter;
     }
 
     public void muteVolume() {
@@ -191,25 +318,17 @@ public class HardwareController {
         }
     }
 
+    // Cached, no binder call; -1 until the first snapshot has been read
     public int getCurrentVolume() {
-        if (audioManager != null) {
-            return audioManager.getStreamVolume(AudioManager.STREAM_MUSIC);
-        }
-        return 0;
+        return volumeState.getLevel(AudioManager.STREAM_MUSIC);
     }
 
     public int getMaxVolume() {
-        if (audioManager != null) {
-            return audioManager.getStreamMaxVolume(AudioManager.STREAM_MUSIC);
-        }
-        return 0;
+        return volumeState.getMax(AudioManager.STREAM_MUSIC);
     }
 
     public boolean isVolumeFixed() {
-        if (audioManager != null) {
-            return audioManager.isVolumeFixed();
-        }
-        return false;
+        return volumeState.isVolumeFixed();
     }
 
     private void showToast(String message) {
@@ -221,7 +340,8 @@ public class HardwareController {
     }
 
     public void cleanup() {
-        // Cleanup resources if needed
+        volumeState.removeListener(volumeStateListener);
+        volumeWriter.cancel();
         audioManager = null;
         context = null;
     }
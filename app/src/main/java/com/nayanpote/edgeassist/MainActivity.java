@@ -9,7 +9,7 @@ import android.animation.ValueAnimator;
 import android.content.Intent;
 import android.content.SharedPreferences;
 import android.content.pm.PackageManager;
-import android.database.Cursor;
+import android.content.pm.ResolveInfo;
 import android.graphics.Color;
 import android.graphics.drawable.AnimationDrawable;
 import android.graphics.drawable.Drawable;
@@ -19,6 +19,8 @@ import android.os.Build;
 import android.os.Bundle;
 import android.provider.ContactsContract;
 import android.provider.Settings;
+import android.text.Editable;
+import android.text.TextWatcher;
 import android.util.Log;
 import android.view.View;
 import android.view.animation.AccelerateDecelerateInterpolator;
@@ -26,6 +28,7 @@ import android.view.animation.LinearInterpolator;
 import android.widget.Button;
 import android.widget.EditText;
 import android.widget.LinearLayout;
+import android.widget.ProgressBar;
 import android.widget.TextView;
 import android.widget.Toast;
 
@@ -34,30 +37,50 @@ import androidx.activity.result.contract.ActivityResultContracts;
 import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.core.content.ContextCompat;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
 import com.google.android.material.card.MaterialCardView;
 import com.google.android.material.switchmaterial.SwitchMaterial;
 
-import org.json.JSONArray;
-import org.json.JSONException;
-import org.json.JSONObject;
-
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 public class MainActivity extends AppCompatActivity {
 
     private static final String PREF_NAME = "EdgeAssistPrefs";
     private static final String KEY_SERVICE_ENABLED = "service_enabled";
-    private static final String KEY_SPEED_DIAL_CONTACTS = "speed_dial_contacts";
+    private static final int SEARCH_RESULT_LIMIT = 50;
+
+    // Indexed by GestureBindings.GESTURE_* and ACTION_*
+    private static final String[] GESTURE_LABELS = {"Tap", "Double tap", "Triple tap", "Long press"};
+    private static final String[] ACTION_LABELS = {
+            "Nothing", "Control panel", "Volume mixer", "Volume up", "Volume down", "Mute",
+            "Speed dial", "Call a contact", "Open an app", "Performance HUD"
+    };
 
     private SwitchMaterial serviceToggle;
-    private Button permissionBtn, selectContactBtn, saveContactBtn, manageContactsBtn;
+    private Button permissionBtn, selectContactBtn, saveContactBtn, manageContactsBtn, importContactsBtn;
+    private Button gestureActionsBtn;
+    private ProgressBar importProgressBar;
+    private TextView importProgressText;
+    private ContactImporter contactImporter;
     private EditText phoneNumberEdit, contactNameEdit;
     private TextView statusText, savedContactsText;
     private MaterialCardView statusCard;
     private SharedPreferences prefs;
-    private LinearLayout contactsListLayout;
+    private ContactRepository contactRepository;
+    private final ContactRepository.Listener contactsListener = snapshot -> {
+        speedDialContacts = snapshot.contacts;
+        updateContactsDisplay();
+    };
+    private RecyclerView contactsRecyclerView;
+    private ContactListAdapter contactListAdapter;
+    private EditText contactSearchEdit;
+    private String searchQuery = "";
     private MaterialCardView logo_container;
     private ActivityResultLauncher<String[]> multiplePermissionsLauncher;
     private ActivityResultLauncher<Intent> overlayPermissionLauncher;
@@ -66,6 +89,7 @@ public class MainActivity extends AppCompatActivity {
     private LinearLayout gradientOverlay;
     private ObjectAnimator gradientAnimator;
 
+    // Immutable snapshot from the shared repository
     private List<SpeedDialContact> speedDialContacts = new ArrayList<>();
 
     @Override
@@ -76,7 +100,6 @@ public class MainActivity extends AppCompatActivity {
         initViews();
         initPreferences();
         initPermissionLaunchers();
-        loadSpeedDialContacts();
         updateUI();
         setupStatusBar();
         setupGradientAnimation();
@@ -88,18 +111,42 @@ public class MainActivity extends AppCompatActivity {
         selectContactBtn = findViewById(R.id.selectContactBtn);
         saveContactBtn = findViewById(R.id.saveContactBtn);
         manageContactsBtn = findViewById(R.id.manageContactsBtn);
+        importContactsBtn = findViewById(R.id.importContactsBtn);
+        gestureActionsBtn = findViewById(R.id.gestureActionsBtn);
+        importProgressBar = findViewById(R.id.importProgressBar);
+        importProgressText = findViewById(R.id.importProgressText);
         phoneNumberEdit = findViewById(R.id.phoneNumberEdit);
         contactNameEdit = findViewById(R.id.contactNameEdit);
         gradientOverlay = findViewById(R.id.gradientOverlay);
         statusText = findViewById(R.id.statusText);
         statusCard = findViewById(R.id.statusCard);
         savedContactsText = findViewById(R.id.savedContactsText);
-        contactsListLayout = findViewById(R.id.contactsListLayout);
+        contactsRecyclerView = findViewById(R.id.contactsRecyclerView);
+        contactSearchEdit = findViewById(R.id.contactSearchEdit);
         logo_container = findViewById(R.id.logo_container);
 
 
         logo_container.setOnClickListener(v -> startActivity(new Intent(MainActivity.this, developerZone.class)));
 
+        contactsRecyclerView.setLayoutManager(new LinearLayoutManager(this));
+        contactsRecyclerView.setHasFixedSize(true);
+
+        contactSearchEdit.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+            }
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+            }
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                searchQuery = s.toString().trim();
+                updateContactsDisplay();
+            }
+        });
+
         serviceToggle.setOnCheckedChangeListener((buttonView, isChecked) -> {
             if (isChecked) {
                 if (hasAllPermissions()) {
@@ -117,6 +164,8 @@ public class MainActivity extends AppCompatActivity {
         selectContactBtn.setOnClickListener(v -> openContactPicker());
         saveContactBtn.setOnClickListener(v -> saveSpeedDialContact());
         manageContactsBtn.setOnClickListener(v -> showManageContactsDialog());
+        importContactsBtn.setOnClickListener(v -> startContactImport());
+        gestureActionsBtn.setOnClickListener(v -> showGestureBindingsDialog());
     }
 
     private void setupGradientAnimation() {
@@ -136,6 +185,28 @@ public class MainActivity extends AppCompatActivity {
 
     private void initPreferences() {
         prefs = getSharedPreferences(PREF_NAME, MODE_PRIVATE);
+        // The first open loads the store and may migrate it, so it never runs on this thread
+        ContactStorage.getRepositoryAsync(this, this::attachRepository);
+    }
+
+    private void attachRepository(ContactRepository repository) {
+        if (isDestroyed()) return;
+
+        contactRepository = repository;
+        contactImporter = new ContactImporter(this, repository);
+        contactListAdapter = new ContactListAdapter(AvatarLoader.get(this), contact -> {
+            deleteContact(contact);
+            Toast.makeText(MainActivity.this, "Contact removed", Toast.LENGTH_SHORT).show();
+        });
+        contactsRecyclerView.setAdapter(contactListAdapter);
+        loadSpeedDialContacts();
+    }
+
+    // Contact actions wait for the repository; it usually arrives before the first tap
+    private boolean isRepositoryReady() {
+        if (contactRepository != null) return true;
+        Toast.makeText(this, "Contacts are still loading", Toast.LENGTH_SHORT).show();
+        return false;
     }
 
     private void setupStatusBar() {
@@ -156,6 +227,8 @@ public class MainActivity extends AppCompatActivity {
     }
 
     private void saveSpeedDialContact() {
+        if (!isRepositoryReady()) return;
+
         String number = phoneNumberEdit.getText().toString().trim();
         String name = contactNameEdit.getText().toString().trim();
 
@@ -168,18 +241,12 @@ public class MainActivity extends AppCompatActivity {
             name = number; // Use number as name if name is empty
         }
 
-        // Check if contact already exists
-        for (SpeedDialContact contact : speedDialContacts) {
-            if (contact.phoneNumber.equals(number)) {
-                Toast.makeText(this, "This number already exists in speed dial", Toast.LENGTH_SHORT).show();
-                return;
-            }
-        }
-
+        // Check if contact already exists, ignoring formatting differences
         SpeedDialContact newContact = new SpeedDialContact(name, number);
-        speedDialContacts.add(newContact);
-        saveSpeedDialContactsToPrefs();
-        updateContactsDisplay();
+        if (!contactRepository.add(newContact)) {
+            Toast.makeText(this, "This number already exists in speed dial", Toast.LENGTH_SHORT).show();
+            return;
+        }
 
         // Clear input fields
         phoneNumberEdit.setText("");
@@ -189,35 +256,9 @@ public class MainActivity extends AppCompatActivity {
     }
 
     public void loadSpeedDialContacts() {
-        speedDialContacts.clear();
-        String contactsJson = prefs.getString(KEY_SPEED_DIAL_CONTACTS, "[]");
-        try {
-            JSONArray jsonArray = new JSONArray(contactsJson);
-            for (int i = 0; i < jsonArray.length(); i++) {
-                JSONObject jsonObject = jsonArray.getJSONObject(i);
-                String name = jsonObject.getString("name");
-                String number = jsonObject.getString("number");
-                speedDialContacts.add(new SpeedDialContact(name, number));
-            }
-        } catch (JSONException e) {
-            e.printStackTrace();
-        }
+        speedDialContacts = contactRepository.getSnapshot().contacts;
         updateContactsDisplay();
-    }
-
-    private void saveSpeedDialContactsToPrefs() {
-        JSONArray jsonArray = new JSONArray();
-        for (SpeedDialContact contact : speedDialContacts) {
-            try {
-                JSONObject jsonObject = new JSONObject();
-                jsonObject.put("name", contact.name);
-                jsonObject.put("number", contact.phoneNumber);
-                jsonArray.put(jsonObject);
-            } catch (JSONException e) {
-                e.printStackTrace();
-            }
-        }
-        prefs.edit().putString(KEY_SPEED_DIAL_CONTACTS, jsonArray.toString()).apply();
+        contactRepository.addListener(contactsListener);
     }
 
     public List<SpeedDialContact> getSpeedDialContacts() {
@@ -225,37 +266,36 @@ public class MainActivity extends AppCompatActivity {
     }
 
     private void updateContactsDisplay() {
-        contactsListLayout.removeAllViews();
+        if (contactRepository == null) return;
 
         if (speedDialContacts.isEmpty()) {
             savedContactsText.setText("No speed dial contacts saved");
             savedContactsText.setVisibility(View.VISIBLE);
+            contactsRecyclerView.setVisibility(View.GONE);
         } else {
             savedContactsText.setText("Saved Contacts (" + speedDialContacts.size() + ")");
             savedContactsText.setVisibility(View.VISIBLE);
+            contactsRecyclerView.setVisibility(View.VISIBLE);
+        }
 
-            for (SpeedDialContact contact : speedDialContacts) {
-                View contactView = getLayoutInflater().inflate(R.layout.contact_item, contactsListLayout, false);
-                TextView nameText = contactView.findViewById(R.id.contactName);
-                TextView numberText = contactView.findViewById(R.id.contactNumber);
-                Button deleteBtn = contactView.findViewById(R.id.deleteBtn);
-
-                nameText.setText(contact.name);
-                numberText.setText(contact.phoneNumber);
-
-                deleteBtn.setOnClickListener(v -> {
-                    speedDialContacts.remove(contact);
-                    saveSpeedDialContactsToPrefs();
-                    updateContactsDisplay();
-                    Toast.makeText(MainActivity.this, "Contact removed", Toast.LENGTH_SHORT).show();
-                });
+        // The adapter diffs against what it shows and only rebinds changed rows
+        List<SpeedDialContact> shown = searchQuery.isEmpty() ? speedDialContacts
+                : contactRepository.search(searchQuery, SEARCH_RESULT_LIMIT);
+        contactListAdapter.submitList(shown);
+    }
 
-                contactsListLayout.addView(contactView);
-            }
+    // Drops the contact and its call history, so a re-added number starts unranked
+    private void deleteContact(SpeedDialContact contact) {
+        if (!isRepositoryReady()) return;
+
+        if (contactRepository.remove(contact)) {
+            ContactStorage.getRanker(this).remove(contactRepository.getNormalizer().normalize(contact.phoneNumber));
         }
     }
 
     private void showManageContactsDialog() {
+        if (!isRepositoryReady()) return;
+
         if (speedDialContacts.isEmpty()) {
             Toast.makeText(this, "No contacts saved yet", Toast.LENGTH_SHORT).show();
             return;
@@ -288,15 +328,15 @@ public class MainActivity extends AppCompatActivity {
             callIntent.setData(Uri.parse("tel:" + contact.phoneNumber));
             if (ContextCompat.checkSelfPermission(this, Manifest.permission.CALL_PHONE) == PackageManager.PERMISSION_GRANTED) {
                 startActivity(callIntent);
+                ContactStorage.getRanker(this).recordCall(
+                        contactRepository.getNormalizer().normalize(contact.phoneNumber), System.currentTimeMillis());
             } else {
                 Toast.makeText(this, "Call permission required", Toast.LENGTH_SHORT).show();
             }
         });
 
         builder.setNegativeButton("Delete", (dialog, which) -> {
-            speedDialContacts.remove(contact);
-            saveSpeedDialContactsToPrefs();
-            updateContactsDisplay();
+            deleteContact(contact);
             Toast.makeText(MainActivity.this, "Contact deleted", Toast.LENGTH_SHORT).show();
         });
 
@@ -304,6 +344,161 @@ public class MainActivity extends AppCompatActivity {
         builder.show();
     }
 
+    private File gestureBindingsFile() {
+        return new File(getFilesDir(), GestureBindings.FILE_NAME);
+    }
+
+    private void showGestureBindingsDialog() {
+        File file = gestureBindingsFile();
+        ContactStorage.getIoExecutor().execute(() -> {
+            GestureBindings bindings;
+            try {
+                bindings = GestureBindings.load(file);
+            } catch (IOException e) {
+                Log.e(TAG, "Error loading gesture bindings", e);
+                bindings = GestureBindings.defaults();
+            }
+            GestureBindings loaded = bindings;
+            runOnUiThread(() -> {
+                if (!isFinishing()) showGestureBindingsDialog(loaded);
+            });
+        });
+    }
+
+    private void showGestureBindingsDialog(GestureBindings bindings) {
+        String[] items = new String[GestureBindings.GESTURE_COUNT];
+        for (int gesture = 0; gesture < items.length; gesture++) {
+            items[gesture] = GESTURE_LABELS[gesture] + ": " + describeBinding(bindings, gesture);
+        }
+
+        AlertDialog.Builder builder = new AlertDialog.Builder(this);
+        builder.setTitle("Gesture Actions");
+        builder.setItems(items, (dialog, which) -> showGestureActionPicker(bindings, which));
+        builder.setNeutralButton("Reset", (dialog, which) -> saveGestureBindings(GestureBindings.defaults()));
+        builder.setNegativeButton("Close", null);
+        builder.show();
+    }
+
+    private String describeBinding(GestureBindings bindings, int gesture) {
+        int action = bindings.getAction(gesture);
+        String argument = bindings.getArgument(gesture);
+        if (action == GestureBindings.ACTION_CALL_CONTACT) {
+            for (SpeedDialContact contact : speedDialContacts) {
+                if (contact.phoneNumber.equals(argument)) return "Call " + contact.name;
+            }
+            return "Call " + argument;
+        }
+        if (action == GestureBindings.ACTION_LAUNCH_APP) {
+            try {
+                PackageManager pm = getPackageManager();
+                return "Open " + pm.getApplicationLabel(pm.getApplicationInfo(argument, 0));
+            } catch (PackageManager.NameNotFoundException e) {
+                return "Open " + argument + " (not installed)";
+            }
+        }
+        return ACTION_LABELS[action];
+    }
+
+    private void showGestureActionPicker(GestureBindings bindings, int gesture) {
+        AlertDialog.Builder builder = new AlertDialog.Builder(this);
+        builder.setTitle(GESTURE_LABELS[gesture]);
+        builder.setItems(ACTION_LABELS, (dialog, action) -> {
+            if (action == GestureBindings.ACTION_CALL_CONTACT) {
+                pickGestureContact(bindings, gesture);
+            } else if (action == GestureBindings.ACTION_LAUNCH_APP) {
+                pickGestureApp(bindings, gesture);
+            } else {
+                updateGestureBinding(bindings, gesture, action, null);
+            }
+        });
+        builder.setNegativeButton("Cancel", (dialog, which) -> showGestureBindingsDialog(bindings));
+        builder.show();
+    }
+
+    private void pickGestureContact(GestureBindings bindings, int gesture) {
+        List<SpeedDialContact> contacts = speedDialContacts;
+        if (contacts.isEmpty()) {
+            Toast.makeText(this, "No contacts saved yet", Toast.LENGTH_SHORT).show();
+            showGestureBindingsDialog(bindings);
+            return;
+        }
+
+        String[] names = new String[contacts.size()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = contacts.get(i).name + " (" + contacts.get(i).phoneNumber + ")";
+        }
+
+        AlertDialog.Builder builder = new AlertDialog.Builder(this);
+        builder.setTitle("Call on " + GESTURE_LABELS[gesture].toLowerCase());
+        builder.setItems(names, (dialog, which) -> updateGestureBinding(bindings, gesture,
+                GestureBindings.ACTION_CALL_CONTACT, contacts.get(which).phoneNumber));
+        builder.setNegativeButton("Cancel", (dialog, which) -> showGestureBindingsDialog(bindings));
+        builder.show();
+    }
+
+    private void pickGestureApp(GestureBindings bindings, int gesture) {
+        PackageManager pm = getPackageManager();
+        ContactStorage.getIoExecutor().execute(() -> {
+            Intent launcher = new Intent(Intent.ACTION_MAIN).addCategory(Intent.CATEGORY_LAUNCHER);
+            List<ResolveInfo> activities = pm.queryIntentActivities(launcher, 0);
+            List<String[]> apps = new ArrayList<>(activities.size());
+            for (ResolveInfo info : activities) {
+                String packageName = info.activityInfo.packageName;
+                if (packageName.equals(getPackageName())) continue;
+                apps.add(new String[]{info.loadLabel(pm).toString(), packageName});
+            }
+            Collections.sort(apps, (a, b) -> a[0].compareToIgnoreCase(b[0]));
+
+            runOnUiThread(() -> {
+                if (isFinishing()) return;
+                String[] labels = new String[apps.size()];
+                for (int i = 0; i < labels.length; i++) {
+                    labels[i] = apps.get(i)[0];
+                }
+
+                AlertDialog.Builder builder = new AlertDialog.Builder(this);
+                builder.setTitle("Open on " + GESTURE_LABELS[gesture].toLowerCase());
+                builder.setItems(labels, (dialog, which) -> updateGestureBinding(bindings, gesture,
+                        GestureBindings.ACTION_LAUNCH_APP, apps.get(which)[1]));
+                builder.setNegativeButton("Cancel", (dialog, which) -> showGestureBindingsDialog(bindings));
+                builder.show();
+            });
+        });
+    }
+
+    private void updateGestureBinding(GestureBindings bindings, int gesture, int action, String argument) {
+        GestureBindings updated = bindings.copy();
+        updated.set(gesture, action, argument);
+        saveGestureBindings(updated);
+        showGestureBindingsDialog(updated);
+    }
+
+    private void saveGestureBindings(GestureBindings bindings) {
+        File file = gestureBindingsFile();
+        ContactStorage.getIoExecutor().execute(() -> {
+            try {
+                bindings.save(file);
+            } catch (IOException e) {
+                Log.e(TAG, "Error saving gesture bindings", e);
+                runOnUiThread(() -> showToast("Could not save gesture actions"));
+                return;
+            }
+            runOnUiThread(this::reloadServiceGestures);
+        });
+    }
+
+    // A running bubble recompiles its dispatch table; a stopped one reads the file when it starts
+    private void reloadServiceGestures() {
+        if (!prefs.getBoolean(KEY_SERVICE_ENABLED, false)) return;
+        try {
+            Intent intent = new Intent(this, OverlayService.class);
+            intent.setAction(OverlayService.ACTION_RELOAD_GESTURES);
+            startService(intent);
+        } catch (Exception e) {
+            Log.e(TAG, "Error notifying overlay service", e);
+        }
+    }
+
     private void openContactPicker() {
         Intent intent = new Intent(Intent.ACTION_PICK, ContactsContract.CommonDataKinds.Phone.CONTENT_URI);
         contactPickerLauncher.launch(intent);
@@ -361,32 +556,114 @@ public class MainActivity extends AppCompatActivity {
     }
 
     private void handleContactSelection(Intent data) {
-        try {
-            Uri contactUri = data.getData();
-            String[] projection = {
-                    ContactsContract.CommonDataKinds.Phone.NUMBER,
-                    ContactsContract.CommonDataKinds.Phone.DISPLAY_NAME
-            };
+        if (!isRepositoryReady()) return;
+
+        Uri contactUri = data.getData();
+        if (contactUri == null) {
+            showToast("Error selecting contact");
+            return;
+        }
+
+        contactImporter.loadPicked(contactUri, new ContactImporter.PickCallback() {
+            @Override
+            public void onPicked(String name, String phoneNumber) {
+                phoneNumberEdit.setText(phoneNumber);
+                contactNameEdit.setText(name);
+                showToast("Contact selected");
+            }
 
-            Cursor cursor = getContentResolver().query(
-                    contactUri, projection, null, null, null);
+            @Override
+            public void onPickFailed() {
+                showToast("Error selecting contact");
+            }
+        });
+    }
 
-            if (cursor != null && cursor.moveToFirst()) {
-                int numberColumnIndex = cursor.getColumnIndex(ContactsContract.CommonDataKinds.Phone.NUMBER);
-                int nameColumnIndex = cursor.getColumnIndex(ContactsContract.CommonDataKinds.Phone.DISPLAY_NAME);
+    private void startContactImport() {
+        if (!isRepositoryReady()) return;
 
-                String phoneNumber = cursor.getString(numberColumnIndex);
-                String contactName = cursor.getString(nameColumnIndex);
+        if (ContextCompat.checkSelfPermission(this, Manifest.permission.READ_CONTACTS) != PackageManager.PERMISSION_GRANTED) {
+            showToast("Contacts permission required");
+            requestPermissions();
+            return;
+        }
 
-                phoneNumberEdit.setText(phoneNumber);
-                contactNameEdit.setText(contactName != null ? contactName : "");
+        importContactsBtn.setEnabled(false);
+        importProgressBar.setVisibility(View.VISIBLE);
+        importProgressText.setVisibility(View.VISIBLE);
+        importProgressText.setText("Reading contacts...");
+        contactImporter.scan(importCallback);
+    }
 
-                cursor.close();
-                showToast("Contact selected");
+    private void finishContactImport() {
+        importContactsBtn.setEnabled(true);
+        importProgressBar.setVisibility(View.GONE);
+        importProgressText.setVisibility(View.GONE);
+    }
+
+    private final ContactImporter.ImportCallback importCallback = new ContactImporter.ImportCallback() {
+        @Override
+        public void onProgress(int rowsScanned, int candidates) {
+            importProgressText.setText("Scanned " + rowsScanned + " numbers, " + candidates + " new");
+        }
+
+        @Override
+        public void onScanned(ContactImportPipeline.Result result) {
+            if (result.candidates.isEmpty()) {
+                finishContactImport();
+                showToast("No new contacts to import");
+                return;
             }
-        } catch (Exception e) {
-            showToast("Error selecting contact");
+            importProgressText.setText("Found " + result.candidates.size() + " new numbers");
+            showImportSelectionDialog(result.candidates);
+        }
+
+        @Override
+        public void onCommitted(int added) {
+            finishContactImport();
+            showToast(added == 1 ? "Imported 1 contact" : "Imported " + added + " contacts");
+        }
+
+        @Override
+        public void onImportFailed() {
+            finishContactImport();
+            showToast("Error importing contacts");
+        }
+    };
+
+    private void showImportSelectionDialog(List<SpeedDialContact> candidates) {
+        // The dialog list is a ListView, so only visible rows are built
+        CharSequence[] labels = new CharSequence[candidates.size()];
+        for (int i = 0; i < labels.length; i++) {
+            labels[i] = candidates.get(i).name + " (" + candidates.get(i).phoneNumber + ")";
         }
+        boolean[] checked = new boolean[labels.length];
+
+        AlertDialog.Builder builder = new AlertDialog.Builder(this);
+        builder.setTitle("Import Contacts");
+        builder.setMultiChoiceItems(labels, checked, (dialog, which, isChecked) -> checked[which] = isChecked);
+        builder.setPositiveButton("Import Selected", (dialog, which) -> {
+            List<SpeedDialContact> selected = new ArrayList<>();
+            for (int i = 0; i < checked.length; i++) {
+                if (checked[i]) selected.add(candidates.get(i));
+            }
+            if (selected.isEmpty()) {
+                finishContactImport();
+                return;
+            }
+            importProgressText.setText("Saving " + selected.size() + " contacts...");
+            contactImporter.commit(selected, importCallback);
+        });
+        builder.setNeutralButton("Import All", (dialog, which) -> {
+            importProgressText.setText("Saving " + candidates.size() + " contacts...");
+            contactImporter.commit(candidates, importCallback);
+        });
+        builder.setNegativeButton("Cancel", (dialog, which) -> {
+            contactImporter.cancelImport();
+            finishContactImport();
+        });
+        builder.setCancelable(false);
+        builder.show();
     }
 
     private void requestPermissions() {
@@ -515,16 +792,23 @@ public class MainActivity extends AppCompatActivity {
     protected void onResume() {
         super.onResume();
         updateUI();
+        FrameMetricsCollector.get(this).attach(getWindow());
     }
 
-    // Inner class for Speed Dial Contact
-    public static class SpeedDialContact {
-        public String name;
-        public String phoneNumber;
+    @Override
+    protected void onPause() {
+        super.onPause();
+        FrameMetricsCollector.get(this).detach(getWindow());
+    }
 
-        public SpeedDialContact(String name, String phoneNumber) {
-            this.name = name;
-            this.phoneNumber = phoneNumber;
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if (contactRepository != null) {
+            contactRepository.removeListener(contactsListener);
+        }
+        if (contactImporter != null) {
+            contactImporter.shutdown();
         }
     }
 }
\ No newline at end of file
@@ -6,77 +6,164 @@ import android.app.NotificationManager;
 import android.app.Service;
 import android.content.Context;
 import android.content.Intent;
+import android.content.SharedPreferences;
 import android.graphics.PixelFormat;
 import android.media.AudioManager;
 import android.os.Build;
 import android.os.Handler;
 import android.os.IBinder;
+import android.os.Looper;
+import android.os.SystemClock;
 import android.os.VibrationEffect;
 import android.os.Vibrator;
 import android.util.Log;
-import android.view.GestureDetector;
 import android.view.Gravity;
 import android.view.LayoutInflater;
 import android.view.MotionEvent;
+import android.view.VelocityTracker;
 import android.view.View;
+import android.view.ViewConfiguration;
+import android.view.ViewTreeObserver;
 import android.view.WindowManager;
+import android.widget.Toast;
 
 import androidx.core.app.NotificationCompat;
 
+import java.io.File;
+import java.io.IOException;
+
 public class OverlayService extends Service {
 
     private static final String TAG = "OverlayService";
     private static final String CHANNEL_ID = "EdgeAssistChannel";
     private static final int NOTIFICATION_ID = 1;
     private static final long HIDE_DELAY = 4000; // 4 seconds
+    private static final long DRAG_PREDICTION_NANOS = 8_000_000L; // 8 ms ahead of the finger
+    private static final float DRAG_MAX_PREDICTION_DP = 24f;
+
+    /** Start action telling a running service to re-read the gesture bindings. */
+    public static final String ACTION_RELOAD_GESTURES = "com.nayanpote.edgeassist.RELOAD_GESTURES";
+    /** Start action showing or hiding the performance HUD, per {@link #EXTRA_ENABLED}. */
+    public static final String ACTION_SET_PERF_HUD = "com.nayanpote.edgeassist.SET_PERF_HUD";
+    /** Start action starting or stopping a touch trace recording, per {@link #EXTRA_ENABLED}. */
+    public static final String ACTION_SET_TOUCH_RECORDING = "com.nayanpote.edgeassist.SET_TOUCH_RECORDING";
+    public static final String EXTRA_ENABLED = "enabled";
+    /** Boolean extra set by {@link BootReceiver}, so boot starts show up as such in the startup timings. */
+    public static final String EXTRA_FROM_BOOT = "from_boot";
+
+    private static final String PREF_NAME = "EdgeAssistPrefs";
+    private static final String KEY_PERF_HUD = "perf_hud_enabled";
+    private static final String KEY_TOUCH_RECORDING = "touch_recording";
+    private static final String KEY_LAST_STARTUP = "last_startup";
 
     private WindowManager windowManager;
     private View floatingView;
     private WindowManager.LayoutParams floatingParams;
     private Vibrator vibrator;
     private AudioManager audioManager;
-    private GestureDetector gestureDetector;
+    private SharedPreferences prefs;
+    private BubbleTouchController touchController;
     private Handler hideHandler;
-    private Runnable hideRunnable;
+    private final Runnable hideRunnable = this::hideView;
+    private FloatingTouchListener touchListener;
 
     // Helper classes
     private AnimationHelper animationHelper;
     private SpeedDialManager speedDialManager;
     private HardwareController hardwareController;
+    private VolumeStateMonitor volumeStateMonitor;
+    private PowerStateMonitor powerStateMonitor;
+    private VolumeSliderPanel volumeSliderPanel;
+    private PerfHudOverlay perfHud;
+    private boolean perfHudEnabled = false;
+    private TouchTrace touchTrace;
+
+    private StartupTrace startupTrace;
+    private boolean deferredStartupDone = false;
 
-    private boolean isDragging = false;
     private boolean isVisible = true;
-    private boolean isLongPressing = false; // New flag to prevent other actions during long press
-    private float initialX, initialY;
-    private float initialTouchX, initialTouchY;
 
+    /**
+     * Startup is staged so the bubble comes first: only what a touch on it
+     * needs is built here. Controllers, panels, the speed dial and the HUD are
+     * built once the bubble has drawn its first frame and the main thread is
+     * idle, or on first use if a gesture needs them sooner.
+     */
     @Override
     public void onCreate() {
         super.onCreate();
         Log.d(TAG, "Service created");
+        startupTrace = new StartupTrace(SystemClock.uptimeMillis());
 
         windowManager = (WindowManager) getSystemService(WINDOW_SERVICE);
         vibrator = (Vibrator) getSystemService(Context.VIBRATOR_SERVICE);
         audioManager = (AudioManager) getSystemService(Context.AUDIO_SERVICE);
-        hideHandler = new Handler();
+        // Returns at once; the file is read on a platform thread and the warm-up below waits for it
+        prefs = getSharedPreferences(PREF_NAME, MODE_PRIVATE);
+        warmUpStorage();
+        powerStateMonitor = new PowerStateMonitor(this);
+        // Every post on the service's handler is counted while the screen is off
+        hideHandler = powerStateMonitor.createCountingHandler();
 
-        // Initialize helper classes
         animationHelper = new AnimationHelper(this, windowManager);
-        speedDialManager = new SpeedDialManager(this, windowManager, animationHelper);
-        hardwareController = new HardwareController(this);
-
-        gestureDetector = new GestureDetector(this, new GestureListener());
+        touchController = createTouchController();
+        // Defaults until the saved bindings are read
+        applyGestureBindings(GestureBindings.defaults());
+        loadGestureBindings();
         createNotificationChannel();
+
+        powerStateMonitor.getPowerState().addListener(powerListener);
+        powerStateMonitor.start();
     }
 
     @Override
     public int onStartCommand(Intent intent, int flags, int startId) {
         Log.d(TAG, "Service started");
+        // Only the command that brings up the bubble says why; later ones are control actions
+        if (floatingView == null) {
+            if (intent == null) {
+                startupTrace.setReason(StartupTrace.REASON_RESTART);
+            } else if (intent.getBooleanExtra(EXTRA_FROM_BOOT, false)) {
+                startupTrace.setReason(StartupTrace.REASON_BOOT);
+            } else {
+                startupTrace.setReason(StartupTrace.REASON_APP);
+            }
+        }
+        if (intent != null && ACTION_RELOAD_GESTURES.equals(intent.getAction())) {
+            loadGestureBindings();
+        }
+        if (intent != null && ACTION_SET_PERF_HUD.equals(intent.getAction())) {
+            perfHudEnabled = intent.getBooleanExtra(EXTRA_ENABLED, false);
+            putBooleanPreference(KEY_PERF_HUD, perfHudEnabled);
+            updatePerfHud();
+        }
+        if (intent != null && ACTION_SET_TOUCH_RECORDING.equals(intent.getAction())) {
+            if (intent.getBooleanExtra(EXTRA_ENABLED, false)) {
+                startTouchRecording();
+            } else {
+                stopTouchRecording(true);
+            }
+        }
         startForeground(NOTIFICATION_ID, createNotification());
         createFloatingView();
         return START_STICKY;
     }
 
+    // Preferences and the contact store are read off the main thread before anything needs them
+    private void warmUpStorage() {
+        Context appContext = getApplicationContext();
+        ContactStorage.getIoExecutor().execute(() -> {
+            // A recording never outlives the process that made it
+            prefs.edit().putBoolean(KEY_TOUCH_RECORDING, false).apply();
+            ContactStorage.getRepository(appContext);
+        });
+    }
+
+    // Queued behind the warm-up, so the main thread never waits for the preferences file
+    private void putBooleanPreference(String key, boolean value) {
+        ContactStorage.getIoExecutor().execute(() -> prefs.edit().putBoolean(key, value).apply());
+    }
+
     private void createFloatingView() {
         if (floatingView != null) return;
 
@@ -103,11 +190,21 @@ public class OverlayService extends Service {
             floatingParams.x = 0;
             floatingParams.y = 200;
 
-            floatingView.setOnTouchListener(new FloatingTouchListener());
+            touchListener = new FloatingTouchListener();
+            floatingView.setOnTouchListener(touchListener);
+            floatingView.getViewTreeObserver().addOnDrawListener(new FirstFrameListener(floatingView));
             windowManager.addView(floatingView, floatingParams);
+            startupTrace.mark(StartupTrace.BUBBLE_ADDED, SystemClock.uptimeMillis());
 
-            // Start hide timer
-            scheduleHide();
+            if (powerStateMonitor.getPowerState().isIdle()) {
+                // Started with the screen off (e.g. at boot); shown on wake, nothing to wait for
+                floatingView.setVisibility(View.GONE);
+                startupTrace.setStartedHidden(true);
+                scheduleDeferredStartup();
+            } else {
+                // Start hide timer
+                scheduleHide();
+            }
 
             Log.d(TAG, "Floating view created successfully");
 
@@ -117,24 +214,116 @@ public class OverlayService extends Service {
         }
     }
 
+    // Time to first bubble; the rest of startup waits for this frame
+    private class FirstFrameListener implements ViewTreeObserver.OnDrawListener {
+        private final View view;
+        private boolean drawn = false;
+
+        FirstFrameListener(View view) {
+            this.view = view;
+        }
+
+        @Override
+        public void onDraw() {
+            if (drawn) return;
+            drawn = true;
+            startupTrace.mark(StartupTrace.FIRST_FRAME, SystemClock.uptimeMillis());
+            // Listeners cannot be removed while the tree is drawing
+            hideHandler.post(() -> {
+                view.getViewTreeObserver().removeOnDrawListener(this);
+                scheduleDeferredStartup();
+                reportStartup();
+            });
+        }
+    }
+
+    private void scheduleDeferredStartup() {
+        Looper.myQueue().addIdleHandler(() -> {
+            runDeferredStartup();
+            return false;
+        });
+    }
+
+    private void runDeferredStartup() {
+        if (deferredStartupDone || touchController == null) return;
+        deferredStartupDone = true;
+
+        getVolumeSliderPanel();
+        SpeedDialManager speedDial = getSpeedDialManager();
+        boolean idle = powerStateMonitor.getPowerState().isIdle();
+        if (!idle) {
+            // Build the speed dial window now, so the first long-press only shows it
+            speedDial.prewarm();
+        }
+        // Warmed on the io thread by now
+        perfHudEnabled = prefs.getBoolean(KEY_PERF_HUD, false);
+        updatePerfHud();
+
+        startupTrace.mark(StartupTrace.DEFERRED_READY, SystemClock.uptimeMillis());
+        reportStartup();
+    }
+
+    private void reportStartup() {
+        if (!startupTrace.isComplete()) return;
+
+        String summary = startupTrace.summary();
+        Log.d(TAG, "Startup " + summary);
+        ContactStorage.getIoExecutor().execute(() -> prefs.edit().putString(KEY_LAST_STARTUP, summary).apply());
+    }
+
+    // Built by the deferred stage, or right away if a gesture gets there first
+
+    private HardwareController getHardwareController() {
+        if (hardwareController == null) {
+            volumeStateMonitor = new VolumeStateMonitor(this);
+            if (!powerStateMonitor.getPowerState().isIdle()) {
+                volumeStateMonitor.start();
+            }
+            hardwareController = new HardwareController(this, animationHelper.getFrameScheduler(),
+                    volumeStateMonitor.getCache());
+        }
+        return hardwareController;
+    }
+
+    private VolumeSliderPanel getVolumeSliderPanel() {
+        if (volumeSliderPanel == null) {
+            volumeSliderPanel = new VolumeSliderPanel(this, windowManager, animationHelper, getHardwareController());
+        }
+        return volumeSliderPanel;
+    }
+
+    private SpeedDialManager getSpeedDialManager() {
+        if (speedDialManager == null) {
+            speedDialManager = new SpeedDialManager(this, windowManager, animationHelper);
+        }
+        return speedDialManager;
+    }
+
+    private PerfHudOverlay getPerfHud() {
+        if (perfHud == null) {
+            perfHud = new PerfHudOverlay(this, windowManager, animationHelper.getFrameScheduler(),
+                    animationHelper.getFrameStats());
+        }
+        return perfHud;
+    }
+
     private class FloatingTouchListener implements View.OnTouchListener {
-        private long lastTouchTime = 0;
-        private int tapCount = 0;
-        private static final long DOUBLE_TAP_TIMEOUT = 400;
+        private VelocityTracker velocityTracker;
+        private final float maxFlingVelocity =
+                ViewConfiguration.get(OverlayService.this).getScaledMaximumFlingVelocity();
 
         @Override
         public boolean onTouch(View view, MotionEvent event) {
-            // Always pass touch events to gesture detector
-            gestureDetector.onTouchEvent(event);
+            trackVelocity(event);
 
-            switch (event.getAction()) {
+            switch (event.getActionMasked()) {
                 case MotionEvent.ACTION_DOWN:
-                    isDragging = false;
-                    isLongPressing = false; // Reset long press flag
-                    initialX = floatingParams.x;
-                    initialY = floatingParams.y;
-                    initialTouchX = event.getRawX();
-                    initialTouchY = event.getRawY();
+                    animationHelper.cancelPositionAnimation();
+
+                    // Deliver moves as soon as they arrive instead of batched per frame
+                    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.R) {
+                        view.requestUnbufferedDispatch(event);
+                    }
 
                     // Show view if hidden
                     if (!isVisible) {
@@ -144,100 +333,277 @@ public class OverlayService extends Service {
                     // Cancel hide timer
                     cancelHide();
                     animationHelper.animatePress(floatingView, true);
+                    touchController.onDown(floatingParams.x, floatingParams.y,
+                            event.getRawX(), event.getRawY(), event.getEventTime());
                     return true;
 
                 case MotionEvent.ACTION_MOVE:
-                    float deltaX = event.getRawX() - initialTouchX;
-                    float deltaY = event.getRawY() - initialTouchY;
-
-                    if (Math.abs(deltaX) > 10 || Math.abs(deltaY) > 10) {
-                        isDragging = true;
-                        isLongPressing = false; // Cancel long press if dragging
-                        floatingParams.x = (int) (initialX + deltaX);
-                        floatingParams.y = (int) (initialY + deltaY);
-
-                        try {
-                            windowManager.updateViewLayout(floatingView, floatingParams);
-                        } catch (Exception e) {
-                            Log.e(TAG, "Error updating view layout", e);
-                        }
-                    }
+                    addHistoricalSamples(event);
+                    touchController.onMove(event.getRawX(), event.getRawY(), event.getEventTime());
                     return true;
 
                 case MotionEvent.ACTION_UP:
                     animationHelper.animatePress(floatingView, false);
-
-                    if (isDragging) {
-                        animationHelper.snapToEdge(floatingView, floatingParams);
-                        isDragging = false;
-                    } else if (!isLongPressing) {
-                        // Only handle tap if it's not a long press
-                        long currentTime = System.currentTimeMillis();
-                        if (currentTime - lastTouchTime < DOUBLE_TAP_TIMEOUT) {
-                            tapCount++;
-                        } else {
-                            tapCount = 1;
-                        }
-                        lastTouchTime = currentTime;
-
-                        // Use handler to detect single vs double tap
-                        hideHandler.postDelayed(() -> {
-                            if (tapCount == 1 && !isLongPressing) {
-                                // Single tap - Open Control Panel
-                                Log.d(TAG, "Single tap - Opening Control Panel");
-                                hardwareController.openControlPanel();
-                                vibrateFeedback();
-                            } else if (tapCount == 2 && !isLongPressing) {
-                                // Double tap - Open Volume Control
-                                Log.d(TAG, "Double tap - Opening Volume Control");
-                                hardwareController.openVolumeControl();
-                                vibrateFeedback();
-                            }
-                            tapCount = 0;
-                        }, DOUBLE_TAP_TIMEOUT);
-                    }
-
-                    // Reset long press flag
-                    isLongPressing = false;
+                    velocityTracker.computeCurrentVelocity(1000, maxFlingVelocity);
+                    touchController.onUp(event.getRawX(), event.getRawY(), event.getEventTime(),
+                            velocityTracker.getXVelocity(), velocityTracker.getYVelocity());
 
                     // Schedule hide after action
                     scheduleHide();
                     return true;
+
+                case MotionEvent.ACTION_CANCEL:
+                    animationHelper.animatePress(floatingView, false);
+                    touchController.onCancel(event.getEventTime());
+                    scheduleHide();
+                    return true;
             }
             return false;
         }
+
+        // The window moves under the finger, so track velocity in screen coordinates.
+        // One tracker serves every gesture, cleared on each down.
+        private void trackVelocity(MotionEvent event) {
+            if (event.getActionMasked() == MotionEvent.ACTION_DOWN) {
+                if (velocityTracker == null) {
+                    velocityTracker = VelocityTracker.obtain();
+                } else {
+                    velocityTracker.clear();
+                }
+            }
+            if (velocityTracker == null) return;
+
+            float offsetX = event.getRawX() - event.getX();
+            float offsetY = event.getRawY() - event.getY();
+            event.offsetLocation(offsetX, offsetY);
+            velocityTracker.addMovement(event);
+            event.offsetLocation(-offsetX, -offsetY);
+        }
+
+        void release() {
+            if (velocityTracker != null) {
+                velocityTracker.recycle();
+                velocityTracker = null;
+            }
+        }
+    }
+
+    // Raw coordinates of historical samples are not stored, but the raw/local offset is constant per event
+    private void addHistoricalSamples(MotionEvent event) {
+        float offsetX = event.getRawX() - event.getX();
+        float offsetY = event.getRawY() - event.getY();
+        int historySize = event.getHistorySize();
+        for (int i = 0; i < historySize; i++) {
+            touchController.onHistoricalSample(event.getHistoricalX(i) + offsetX,
+                    event.getHistoricalY(i) + offsetY,
+                    event.getHistoricalEventTime(i));
+        }
+    }
+
+    private void moveFloatingView(int x, int y) {
+        if (floatingView == null || floatingParams == null) return;
+
+        floatingParams.x = x;
+        floatingParams.y = y;
+        try {
+            animationHelper.getFrameStats().countWindowLayout();
+            windowManager.updateViewLayout(floatingView, floatingParams);
+        } catch (Exception e) {
+            Log.e(TAG, "Error updating view layout", e);
+        }
     }
 
-    private class GestureListener extends GestureDetector.SimpleOnGestureListener {
+    private class BubbleHost implements BubbleTouchController.Host {
         @Override
-        public void onLongPress(MotionEvent e) {
-            if (!isDragging) {
-                // Set flag to prevent other actions
-                isLongPressing = true;
-
-                // Long press - Speed dial
-                Log.d(TAG, "Long press detected - Opening speed dial");
-                speedDialManager.showSpeedDial();
+        public void moveWindow(int x, int y) {
+            moveFloatingView(x, y);
+        }
+
+        @Override
+        public void onRelease(int x, int y, float velocityX, float velocityY) {
+            DragEngine dragEngine = touchController.getDragEngine();
+            floatingParams.x = x;
+            floatingParams.y = y;
+            Log.d(TAG, "Drag finished: " + dragEngine.getLayoutCount() + " layouts in "
+                    + dragEngine.getFrameCount() + " frames, max per frame "
+                    + dragEngine.getMaxLayoutsPerFrame());
+            animationHelper.snapToEdge(floatingView, floatingParams, velocityX, velocityY);
+        }
+
+        @Override
+        public void onGestureDispatched(int gesture) {
+            if (gesture == GestureBindings.GESTURE_LONG_PRESS) {
                 vibrateLongFeedback();
+            } else {
+                vibrateFeedback();
             }
         }
+    }
+
+    // One preallocated runnable carries every gesture timeout
+    private final Runnable gestureTimeout = new Runnable() {
+        @Override
+        public void run() {
+            touchController.onTimeout(SystemClock.uptimeMillis());
+        }
+    };
 
+    private final GestureStateMachine.Timer gestureTimer = new GestureStateMachine.Timer() {
         @Override
-        public boolean onDown(MotionEvent e) {
-            return true;
+        public void schedule(long uptimeMillis) {
+            hideHandler.removeCallbacks(gestureTimeout);
+            hideHandler.postAtTime(gestureTimeout, uptimeMillis);
+        }
+
+        @Override
+        public void cancel() {
+            hideHandler.removeCallbacks(gestureTimeout);
+        }
+    };
+
+    private BubbleTouchController createTouchController() {
+        ViewConfiguration config = ViewConfiguration.get(this);
+        BubbleTouchController controller = new BubbleTouchController(animationHelper.getFrameScheduler(),
+                animationHelper.getFrameStats(), new BubbleHost(), gestureTimer,
+                config.getScaledTouchSlop(), config.getScaledDoubleTapSlop(),
+                config.getScaledMinimumFlingVelocity(), DRAG_PREDICTION_NANOS,
+                DRAG_MAX_PREDICTION_DP * getResources().getDisplayMetrics().density);
+        controller.setTimeouts(ViewConfiguration.getLongPressTimeout(), ViewConfiguration.getDoubleTapTimeout());
+        return controller;
+    }
+
+    private void loadGestureBindings() {
+        File file = new File(getFilesDir(), GestureBindings.FILE_NAME);
+        ContactStorage.getIoExecutor().execute(() -> {
+            GestureBindings bindings;
+            try {
+                bindings = GestureBindings.load(file);
+            } catch (IOException e) {
+                Log.e(TAG, "Error loading gesture bindings, using defaults", e);
+                bindings = GestureBindings.defaults();
+            }
+            GestureBindings loaded = bindings;
+            hideHandler.post(() -> {
+                if (touchController != null) applyGestureBindings(loaded);
+            });
+        });
+    }
+
+    // Resolves every bound action once; gestures then only index the table
+    private void applyGestureBindings(GestureBindings bindings) {
+        touchController.setActions(bindings.compile(this::createGestureAction));
+    }
+
+    private Runnable createGestureAction(int action, String argument) {
+        switch (action) {
+            case GestureBindings.ACTION_CONTROL_PANEL:
+                return () -> getHardwareController().openControlPanel();
+            case GestureBindings.ACTION_VOLUME_MIXER:
+                return () -> getVolumeSliderPanel().show();
+            case GestureBindings.ACTION_VOLUME_UP:
+                return () -> getHardwareController().volumeUp();
+            case GestureBindings.ACTION_VOLUME_DOWN:
+                return () -> getHardwareController().volumeDown();
+            case GestureBindings.ACTION_MUTE:
+                return () -> getHardwareController().muteVolume();
+            case GestureBindings.ACTION_SPEED_DIAL:
+                return () -> getSpeedDialManager().showSpeedDial();
+            case GestureBindings.ACTION_CALL_CONTACT:
+                return () -> getSpeedDialManager().makePhoneCall(argument);
+            case GestureBindings.ACTION_PERF_HUD:
+                return this::togglePerfHud;
+            case GestureBindings.ACTION_LAUNCH_APP:
+                Intent launchIntent = getPackageManager().getLaunchIntentForPackage(argument);
+                if (launchIntent == null) {
+                    Log.w(TAG, "No launcher activity for " + argument);
+                    return null;
+                }
+                launchIntent.addFlags(Intent.FLAG_ACTIVITY_NEW_TASK);
+                return () -> {
+                    try {
+                        startActivity(launchIntent);
+                    } catch (Exception e) {
+                        Log.e(TAG, "Error launching " + argument, e);
+                    }
+                };
+            default:
+                return null;
+        }
+    }
+
+    // Everything the bubble is fed goes into the trace; replayed by the JVM tests in :core
+    private void startTouchRecording() {
+        if (touchTrace != null) return;
+
+        touchTrace = new TouchTrace();
+        touchController.setRecorder(touchTrace);
+        putBooleanPreference(KEY_TOUCH_RECORDING, true);
+        Log.d(TAG, "Touch recording started");
+    }
+
+    // The developer zone only asks; the toast says whether a file was actually written
+    private void stopTouchRecording(boolean report) {
+        if (touchTrace == null) {
+            if (report) showToast("No touch recording running");
+            return;
+        }
+
+        TouchTrace trace = touchTrace;
+        touchTrace = null;
+        touchController.setRecorder(null);
+        putBooleanPreference(KEY_TOUCH_RECORDING, false);
+        if (trace.size() == 0) {
+            if (report) showToast("No touches recorded");
+            return;
+        }
+
+        File directory = new File(getFilesDir(), TouchTrace.DIRECTORY);
+        File file = new File(directory, "trace-" + System.currentTimeMillis() + TouchTrace.FILE_SUFFIX);
+        ContactStorage.getIoExecutor().execute(() -> {
+            try {
+                if (!directory.isDirectory() && !directory.mkdirs()) {
+                    throw new IOException("Cannot create " + directory);
+                }
+                trace.save(file);
+                Log.d(TAG, "Saved " + trace.size() + " touch events to " + file);
+                if (report) {
+                    hideHandler.post(() -> showToast("Touch trace saved (" + trace.size() + " events)"));
+                }
+            } catch (IOException e) {
+                Log.e(TAG, "Error saving touch trace", e);
+                if (report) {
+                    hideHandler.post(() -> showToast("Could not save touch trace"));
+                }
+            }
+        });
+    }
+
+    private void showToast(String message) {
+        Toast.makeText(this, message, Toast.LENGTH_SHORT).show();
+    }
+
+    private void togglePerfHud() {
+        perfHudEnabled = !perfHudEnabled;
+        putBooleanPreference(KEY_PERF_HUD, perfHudEnabled);
+        updatePerfHud();
+    }
+
+    // Shown while enabled and the screen is in use; never built unless enabled
+    private void updatePerfHud() {
+        if (perfHudEnabled && !powerStateMonitor.getPowerState().isIdle()) {
+            getPerfHud().show();
+        } else if (perfHud != null) {
+            perfHud.hide();
         }
     }
 
     private void scheduleHide() {
         cancelHide();
-        hideRunnable = this::hideView;
         hideHandler.postDelayed(hideRunnable, HIDE_DELAY);
     }
 
     private void cancelHide() {
-        if (hideRunnable != null) {
-            hideHandler.removeCallbacks(hideRunnable);
-        }
+        hideHandler.removeCallbacks(hideRunnable);
     }
 
     private void hideView() {
@@ -258,6 +624,68 @@ public class OverlayService extends Service {
         }
     }
 
+    // Screen off or locked: nothing can see the bubble, so stop everything running on its behalf
+    private final PowerState.Listener powerListener = new PowerState.Listener() {
+        @Override
+        public void onIdle() {
+            freezeOverlay();
+        }
+
+        @Override
+        public void onWake() {
+            thawOverlay();
+        }
+
+        @Override
+        public void onPowerSaveChanged(boolean powerSave) {
+            if (powerSave) {
+                trimCaches();
+            }
+        }
+    };
+
+    private void freezeOverlay() {
+        cancelHide();
+        touchController.reset();
+        animationHelper.cancelPositionAnimation();
+        animationHelper.getFrameStats().endAll();
+
+        // Secondary windows are rebuilt on first use
+        if (volumeSliderPanel != null) volumeSliderPanel.cleanup();
+        if (perfHud != null) perfHud.hide();
+        if (speedDialManager != null) speedDialManager.releaseWindow();
+        if (volumeStateMonitor != null) volumeStateMonitor.stop();
+        trimCaches();
+
+        if (floatingView != null) {
+            floatingView.animate().cancel();
+            floatingView.setScaleX(1f);
+            floatingView.setScaleY(1f);
+            // Stays attached with its position, so waking is a visibility change and one frame
+            floatingView.setVisibility(View.GONE);
+        }
+        Log.d(TAG, "Overlay frozen");
+    }
+
+    private void thawOverlay() {
+        if (volumeStateMonitor != null) volumeStateMonitor.start();
+        updatePerfHud();
+        if (floatingView != null) {
+            floatingView.setAlpha(isVisible ? 1f : 0.3f);
+            floatingView.setVisibility(View.VISIBLE);
+            if (isVisible) {
+                scheduleHide();
+            }
+        }
+        PowerState powerState = powerStateMonitor.getPowerState();
+        Log.d(TAG, "Overlay restored; " + powerState.getLastIdlePosts() + " handler posts while idle, "
+                + powerState.getIdleCount() + " idle periods");
+    }
+
+    private void trimCaches() {
+        AvatarLoader.get(this).clearMemory();
+    }
+
     private void vibrateFeedback() {
         if (vibrator != null) {
             try {
@@ -319,16 +747,39 @@ public class OverlayService extends Service {
         super.onDestroy();
         Log.d(TAG, "Service destroyed");
 
+        if (powerStateMonitor != null) {
+            powerStateMonitor.stop();
+            powerStateMonitor.getPowerState().removeListener(powerListener);
+        }
+
         cancelHide();
+        if (touchListener != null) {
+            touchListener.release();
+            touchListener = null;
+        }
+        if (touchController != null) {
+            stopTouchRecording(false);
+            touchController.reset();
+            touchController = null;
+        }
 
         // Cleanup helper classes
         if (speedDialManager != null) {
             speedDialManager.cleanup();
         }
 
+        if (volumeSliderPanel != null) {
+            volumeSliderPanel.cleanup();
+        }
+        if (perfHud != null) {
+            perfHud.hide();
+        }
         if (hardwareController != null) {
             hardwareController.cleanup();
         }
+        if (volumeStateMonitor != null) {
+            volumeStateMonitor.stop();
+        }
 
         try {
             if (floatingView != null && windowManager != null) {
@@ -0,0 +1,172 @@
+package com.nayanpote.edgeassist;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.PixelFormat;
+import android.graphics.Typeface;
+import android.os.Build;
+import android.os.Debug;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+import android.util.TypedValue;
+import android.view.Gravity;
+import android.view.View;
+import android.view.WindowManager;
+
+/**
+ * Small untouchable window in the top corner showing {@link PerfHudStats}, for
+ * looking at a stuttering device without a profiler.
+ *
+ * The HUD is one view drawing its lines straight from the stats' char arrays,
+ * redrawn only when a sample is taken. The sampler is a single runnable posted
+ * for an exact uptime, so how late it runs is the main looper latency.
+ */
+public class PerfHudOverlay {
+    private static final String TAG = "PerfHudOverlay";
+    private static final long SAMPLE_INTERVAL_MS = 250;
+
+    private final Context context;
+    private final WindowManager windowManager;
+    private final FrameStats frameStats;
+    private final PerfHudStats stats;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runtime runtime = Runtime.getRuntime();
+
+    private HudView hudView;
+    private boolean isShowing = false;
+    private long nextSampleUptime;
+
+    private final Runnable sampler = new Runnable() {
+        @Override
+        public void run() {
+            long now = SystemClock.uptimeMillis();
+            stats.recordLooperLatency(now - nextSampleUptime);
+            stats.sample(now, frameStats.getWindowLayoutCount(), readGcCount(),
+                    runtime.totalMemory() - runtime.freeMemory(), runtime.maxMemory());
+            if (hudView != null) hudView.invalidate();
+
+            nextSampleUptime = now + SAMPLE_INTERVAL_MS;
+            handler.postAtTime(this, nextSampleUptime);
+        }
+    };
+
+    public PerfHudOverlay(Context context, WindowManager windowManager, FrameScheduler frameScheduler,
+                          FrameStats frameStats) {
+        this.context = context;
+        this.windowManager = windowManager;
+        this.frameStats = frameStats;
+        this.stats = new PerfHudStats(frameScheduler);
+    }
+
+    public void show() {
+        if (isShowing) return;
+
+        try {
+            if (hudView == null) {
+                hudView = new HudView(context, stats);
+            }
+
+            int layoutFlag;
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+                layoutFlag = WindowManager.LayoutParams.TYPE_APPLICATION_OVERLAY;
+            } else {
+                layoutFlag = WindowManager.LayoutParams.TYPE_PHONE;
+            }
+
+            WindowManager.LayoutParams params = new WindowManager.LayoutParams(
+                    WindowManager.LayoutParams.WRAP_CONTENT,
+                    WindowManager.LayoutParams.WRAP_CONTENT,
+                    layoutFlag,
+                    WindowManager.LayoutParams.FLAG_NOT_FOCUSABLE |
+                            WindowManager.LayoutParams.FLAG_NOT_TOUCHABLE |
+                            WindowManager.LayoutParams.FLAG_LAYOUT_NO_LIMITS,
+                    PixelFormat.TRANSLUCENT);
+            params.gravity = Gravity.TOP | Gravity.END;
+            params.y = Math.round(48 * context.getResources().getDisplayMetrics().density);
+
+            windowManager.addView(hudView, params);
+            isShowing = true;
+
+            stats.start();
+            nextSampleUptime = SystemClock.uptimeMillis() + SAMPLE_INTERVAL_MS;
+            handler.postAtTime(sampler, nextSampleUptime);
+        } catch (Exception e) {
+            Log.e(TAG, "Error showing performance HUD", e);
+            hudView = null;
+        }
+    }
+
+    public void hide() {
+        handler.removeCallbacks(sampler);
+        stats.stop();
+        if (!isShowing) return;
+
+        isShowing = false;
+        try {
+            windowManager.removeView(hudView);
+        } catch (Exception e) {
+            Log.e(TAG, "Error removing performance HUD", e);
+        } finally {
+            hudView = null;
+        }
+    }
+
+    public boolean isShowing() {
+        return isShowing;
+    }
+
+    // Collections since the process started; the runtime only exposes this from API 23
+    private static long readGcCount() {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.M) return -1;
+        try {
+            return Long.parseLong(Debug.getRuntimeStat("art.gc.gc-count"));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static final class HudView extends View {
+        private static final int BACKGROUND = 0xB0000000;
+        private static final int TEXT_COLOR = 0xFF7CFC9A;
+
+        private final PerfHudStats stats;
+        private final Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        private final int padding;
+        private final int lineHeight;
+        private final int width;
+
+        HudView(Context context, PerfHudStats stats) {
+            super(context);
+            this.stats = stats;
+
+            paint.setTypeface(Typeface.MONOSPACE);
+            paint.setColor(TEXT_COLOR);
+            paint.setTextSize(TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP, 11,
+                    context.getResources().getDisplayMetrics()));
+
+            Paint.FontMetrics metrics = paint.getFontMetrics();
+            padding = Math.round(paint.getTextSize() / 2);
+            lineHeight = (int) Math.ceil(metrics.descent - metrics.ascent);
+            // Monospace, so the widest line is known up front and the window never resizes
+            width = (int) Math.ceil(paint.measureText("0") * PerfHudStats.LINE_CAPACITY) + 2 * padding;
+        }
+
+        @Override
+        protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+            setMeasuredDimension(width, lineHeight * PerfHudStats.LINE_COUNT + 2 * padding);
+        }
+
+        @Override
+        protected void onDraw(Canvas canvas) {
+            canvas.drawColor(BACKGROUND);
+            float baseline = padding - paint.ascent();
+            for (int i = 0; i < PerfHudStats.LINE_COUNT; i++) {
+                canvas.drawText(stats.getLine(i), 0, stats.getLineLength(i), padding, baseline, paint);
+                baseline += lineHeight;
+            }
+        }
+    }
+}
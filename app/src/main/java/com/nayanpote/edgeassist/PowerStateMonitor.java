@@ -0,0 +1,100 @@
+package com.nayanpote.edgeassist;
+
+import android.app.KeyguardManager;
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Message;
+import android.os.PowerManager;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.core.content.ContextCompat;
+
+/**
+ * Feeds a {@link PowerState} from the screen on/off, user-present and
+ * battery saver broadcasts. Start and stop on the main thread.
+ */
+public class PowerStateMonitor {
+    private static final String TAG = "PowerStateMonitor";
+
+    private final Context context;
+    private final PowerManager powerManager;
+    private final KeyguardManager keyguardManager;
+    private final PowerState powerState = new PowerState();
+    private boolean registered = false;
+
+    private final BroadcastReceiver receiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            String action = intent.getAction();
+            long now = SystemClock.uptimeMillis();
+            if (Intent.ACTION_SCREEN_OFF.equals(action)) {
+                powerState.setScreenOn(false, now);
+                powerState.setLocked(true, now);
+            } else if (Intent.ACTION_SCREEN_ON.equals(action)) {
+                // With no keyguard there is no USER_PRESENT to wait for
+                powerState.setLocked(isKeyguardLocked(), now);
+                powerState.setScreenOn(true, now);
+            } else if (Intent.ACTION_USER_PRESENT.equals(action)) {
+                powerState.setLocked(false, now);
+            } else if (PowerManager.ACTION_POWER_SAVE_MODE_CHANGED.equals(action)) {
+                powerState.setPowerSave(powerManager != null && powerManager.isPowerSaveMode());
+            }
+        }
+    };
+
+    public PowerStateMonitor(Context context) {
+        this.context = context.getApplicationContext();
+        this.powerManager = (PowerManager) context.getSystemService(Context.POWER_SERVICE);
+        this.keyguardManager = (KeyguardManager) context.getSystemService(Context.KEYGUARD_SERVICE);
+    }
+
+    public PowerState getPowerState() {
+        return powerState;
+    }
+
+    /** A main-thread handler whose posts are counted while the overlay is idle. */
+    public Handler createCountingHandler() {
+        return new Handler(Looper.getMainLooper()) {
+            @Override
+            public boolean sendMessageAtTime(Message msg, long uptimeMillis) {
+                powerState.onHandlerPost();
+                return super.sendMessageAtTime(msg, uptimeMillis);
+            }
+        };
+    }
+
+    public void start() {
+        if (registered) return;
+
+        IntentFilter filter = new IntentFilter();
+        filter.addAction(Intent.ACTION_SCREEN_OFF);
+        filter.addAction(Intent.ACTION_SCREEN_ON);
+        filter.addAction(Intent.ACTION_USER_PRESENT);
+        filter.addAction(PowerManager.ACTION_POWER_SAVE_MODE_CHANGED);
+        ContextCompat.registerReceiver(context, receiver, filter, ContextCompat.RECEIVER_NOT_EXPORTED);
+        registered = true;
+
+        boolean interactive = powerManager == null || powerManager.isInteractive();
+        boolean powerSave = powerManager != null && powerManager.isPowerSaveMode();
+        powerState.reset(interactive, interactive && isKeyguardLocked(), powerSave, SystemClock.uptimeMillis());
+    }
+
+    public void stop() {
+        if (!registered) return;
+        try {
+            context.unregisterReceiver(receiver);
+        } catch (Exception e) {
+            Log.e(TAG, "Error unregistering power receiver", e);
+        }
+        registered = false;
+    }
+
+    private boolean isKeyguardLocked() {
+        return keyguardManager != null && keyguardManager.isKeyguardLocked();
+    }
+}
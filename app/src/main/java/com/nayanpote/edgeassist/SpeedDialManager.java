@@ -2,68 +2,168 @@ package com.nayanpote.edgeassist;
 
 import android.content.Context;
 import android.content.Intent;
-import android.content.SharedPreferences;
 import android.graphics.Color;
 import android.graphics.PixelFormat;
 import android.net.Uri;
 import android.os.Build;
+import android.os.SystemClock;
+import android.text.Editable;
+import android.text.TextUtils;
+import android.text.TextWatcher;
 import android.util.Log;
 import android.view.Gravity;
-import android.view.LayoutInflater;
+import android.view.KeyEvent;
 import android.view.View;
 import android.view.WindowManager;
 import android.widget.Button;
+import android.widget.EditText;
+import android.widget.ImageView;
 import android.widget.LinearLayout;
+import android.widget.ScrollView;
 import android.widget.TextView;
 import android.widget.Toast;
 
-import org.json.JSONArray;
-import org.json.JSONException;
-import org.json.JSONObject;
-
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 public class SpeedDialManager {
     private static final String TAG = "SpeedDialManager";
-    private static final String PREF_NAME = "EdgeAssistPrefs";
-    private static final String KEY_SPEED_DIAL_CONTACTS = "speed_dial_contacts";
+    private static final int MAX_POOLED_ROWS = 8;
+    private static final int SEARCH_RESULT_LIMIT = 20;
+    // Most-called contacts listed first, the rest keep their saved order
+    private static final int FRECENT_LIMIT = 8;
+    private static final int AVATAR_SIZE_DP = 40;
+
+    private static final int COLOR_SCRIM = 0xCC000000;      // Semi-transparent black
+    private static final int COLOR_ROW = 0x33FFFFFF;        // Semi-transparent white
+    private static final int COLOR_CLOSE = 0xFF666666;
+    private static final int COLOR_CALL = 0xFF4CAF50;
+
+    // Focusable while shown so the search field can take keyboard input
+    private static final int FLAGS_SHOWN = 0;
+    private static final int FLAGS_HIDDEN = WindowManager.LayoutParams.FLAG_NOT_FOCUSABLE
+            | WindowManager.LayoutParams.FLAG_NOT_TOUCHABLE;
 
     private Context context;
     private WindowManager windowManager;
-    private SharedPreferences prefs;
+    private ContactRepository contactRepository;
+    private FrecencyRanker frecencyRanker;
+    private AvatarLoader avatarLoader;
+    private int avatarSizePx;
     private AnimationHelper animationHelper;
 
+    // Built once and kept attached; hidden windows are GONE and not touchable
     private View speedDialView;
     private WindowManager.LayoutParams speedDialParams;
     private LinearLayout contactsContainer;
+    private EditText searchEdit;
+    private boolean isAttached = false;
     private boolean isVisible = false;
 
-    private List<MainActivity.SpeedDialContact> speedDialContacts = new ArrayList<>();
+    private final List<ContactRow> activeRows = new ArrayList<>();
+    private final ArrayDeque<ContactRow> rowPool = new ArrayDeque<>();
+
+    // Latest immutable snapshot, pushed by the repository whenever contacts change
+    private List<SpeedDialContact> speedDialContacts = Collections.emptyList();
+    // Long-press that arrived before the repository finished loading
+    private boolean showWhenReady = false;
+    private boolean cleanedUp = false;
+    private String searchQuery = "";
+    private boolean rowsStale = true;
+
+    private final ContactRepository.Listener contactsListener = snapshot -> {
+        speedDialContacts = snapshot.contacts;
+        rowsStale = true;
+        if (!isVisible) return;
+
+        // Edits made while the panel is open show up right away
+        if (speedDialContacts.isEmpty()) {
+            hideSpeedDial();
+        } else {
+            bindContactsIfStale();
+        }
+    };
+
+    private final FrameStats frameStats;
+    private final Runnable openFinished = new Runnable() {
+        @Override
+        public void run() {
+            frameStats.end(FrameStats.SPEED_DIAL_OPEN);
+        }
+    };
+
+    // Long-press to first drawn frame
+    private long pendingShowStartMs = -1;
+    private long lastShowLatencyMs = -1;
 
     public SpeedDialManager(Context context, WindowManager windowManager, AnimationHelper animationHelper) {
         this.context = context;
         this.windowManager = windowManager;
         this.animationHelper = animationHelper;
-        this.prefs = context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
-        loadSpeedDialContacts();
+        this.frameStats = animationHelper.getFrameStats();
+        this.avatarLoader = AvatarLoader.get(context);
+        this.avatarSizePx = Math.round(AVATAR_SIZE_DP * context.getResources().getDisplayMetrics().density);
+        // Opening the store replays its journal and builds the search index; never on the main thread
+        ContactStorage.getRepositoryAsync(context, this::attachRepository);
+    }
+
+    private void attachRepository(ContactRepository repository) {
+        if (cleanedUp) return;
+
+        contactRepository = repository;
+        // Loaded along with the repository, so this only reads the field
+        frecencyRanker = ContactStorage.getRanker(context);
+        speedDialContacts = repository.getSnapshot().contacts;
+        rowsStale = true;
+        repository.addListener(contactsListener);
+
+        if (showWhenReady) {
+            showWhenReady = false;
+            showSpeedDial();
+        } else {
+            bindContactsIfStale();
+        }
+    }
+
+    /** Builds the panel and attaches it hidden, so the first long-press only has to show it. */
+    public void prewarm() {
+        try {
+            ensureSpeedDialView();
+            bindContactsIfStale();
+        } catch (Exception e) {
+            Log.e(TAG, "Error pre-warming speed dial", e);
+        }
     }
 
     public void showSpeedDial() {
         if (isVisible) return;
 
-        // Reload contacts to get latest data
-        loadSpeedDialContacts();
+        long startMs = SystemClock.uptimeMillis();
 
+        if (contactRepository == null) {
+            showWhenReady = true;
+            return;
+        }
         if (speedDialContacts.isEmpty()) {
             Toast.makeText(context, "No speed dial contacts saved", Toast.LENGTH_SHORT).show();
             return;
         }
 
         try {
-            createSpeedDialView();
+            ensureSpeedDialView();
+            bindContactsIfStale();
+
+            pendingShowStartMs = startMs;
+            frameStats.begin(FrameStats.SPEED_DIAL_OPEN);
+            speedDialView.setVisibility(View.VISIBLE);
+            speedDialParams.flags = FLAGS_SHOWN;
+            frameStats.countWindowLayout();
+            windowManager.updateViewLayout(speedDialView, speedDialParams);
+
             isVisible = true;
-            animationHelper.animateFadeIn(speedDialView, 300);
+            animationHelper.animateFadeIn(speedDialView, 300, openFinished);
         } catch (Exception e) {
             Log.e(TAG, "Error showing speed dial", e);
             Toast.makeText(context, "Error showing speed dial", Toast.LENGTH_SHORT).show();
@@ -74,11 +174,22 @@ public class SpeedDialManager {
         if (!isVisible || speedDialView == null) return;
 
         isVisible = false;
+        // Closed before the open animation finished
+        frameStats.end(FrameStats.SPEED_DIAL_OPEN);
         animationHelper.animateFadeOut(speedDialView, 300, () -> {
+            // Shown again while fading out
+            if (isVisible) return;
+
             try {
-                if (speedDialView != null && windowManager != null) {
-                    windowManager.removeView(speedDialView);
-                    speedDialView = null;
+                if (searchEdit != null && searchEdit.length() > 0) {
+                    // Next open starts from the full list
+                    searchEdit.setText("");
+                }
+                if (speedDialView != null && isAttached) {
+                    speedDialView.setVisibility(View.GONE);
+                    speedDialParams.flags = FLAGS_HIDDEN;
+                    frameStats.countWindowLayout();
+                    windowManager.updateViewLayout(speedDialView, speedDialParams);
                 }
             } catch (Exception e) {
                 Log.e(TAG, "Error hiding speed dial", e);
@@ -86,19 +197,20 @@ public class SpeedDialManager {
         });
     }
 
-    private void createSpeedDialView() {
-        if (speedDialView != null) {
-            // Remove existing view first
-            try {
-                windowManager.removeView(speedDialView);
-            } catch (Exception e) {
-                // Ignore if view wasn't added
-            }
-            speedDialView = null;
+    private void ensureSpeedDialView() {
+        if (speedDialView == null) {
+            // Create a simple LinearLayout instead of inflating complex layout
+            speedDialView = createSimpleSpeedDialLayout();
+            speedDialView.getViewTreeObserver().addOnDrawListener(() -> {
+                if (pendingShowStartMs < 0) return;
+
+                lastShowLatencyMs = SystemClock.uptimeMillis() - pendingShowStartMs;
+                pendingShowStartMs = -1;
+                Log.d(TAG, "Speed dial first frame after " + lastShowLatencyMs + " ms");
+            });
         }
 
-        // Create a simple LinearLayout instead of inflating complex layout
-        speedDialView = createSimpleSpeedDialLayout();
+        if (isAttached) return;
 
         int layoutFlag;
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
@@ -111,20 +223,35 @@ public class SpeedDialManager {
                 WindowManager.LayoutParams.MATCH_PARENT,
                 WindowManager.LayoutParams.MATCH_PARENT,
                 layoutFlag,
-                WindowManager.LayoutParams.FLAG_NOT_FOCUSABLE,
+                FLAGS_HIDDEN,
                 PixelFormat.TRANSLUCENT);
 
         speedDialParams.gravity = Gravity.CENTER;
+        speedDialParams.softInputMode = WindowManager.LayoutParams.SOFT_INPUT_ADJUST_RESIZE;
 
         speedDialView.setAlpha(0f);
+        speedDialView.setVisibility(View.GONE);
         windowManager.addView(speedDialView, speedDialParams);
+        isAttached = true;
     }
 
     private View createSimpleSpeedDialLayout() {
-        LinearLayout mainLayout = new LinearLayout(context);
+        // The window is focusable while shown, so it gets the back key instead of the app below
+        LinearLayout mainLayout = new LinearLayout(context) {
+            @Override
+            public boolean dispatchKeyEvent(KeyEvent event) {
+                if (event.getKeyCode() == KeyEvent.KEYCODE_BACK) {
+                    if (event.getAction() == KeyEvent.ACTION_UP) {
+                        hideSpeedDial();
+                    }
+                    return true;
+                }
+                return super.dispatchKeyEvent(event);
+            }
+        };
         mainLayout.setOrientation(LinearLayout.VERTICAL);
         mainLayout.setGravity(Gravity.CENTER);
-        mainLayout.setBackgroundColor(Color.parseColor("#CC000000")); // Semi-transparent black
+        mainLayout.setBackgroundColor(COLOR_SCRIM);
         mainLayout.setPadding(40, 40, 40, 40);
 
         // Title
@@ -136,17 +263,49 @@ public class SpeedDialManager {
         titleText.setPadding(0, 0, 0, 30);
         mainLayout.addView(titleText);
 
-        // Contacts container
+        // Search field, filters through the repository's prefix index
+        searchEdit = new EditText(context);
+        searchEdit.setHint("Search name, number or keypad digits");
+        searchEdit.setTextColor(Color.WHITE);
+        searchEdit.setHintTextColor(Color.LTGRAY);
+        searchEdit.setSingleLine(true);
+        searchEdit.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+            }
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+            }
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                searchQuery = s.toString().trim();
+                rowsStale = true;
+                bindContactsIfStale();
+            }
+        });
+        LinearLayout.LayoutParams searchParams = new LinearLayout.LayoutParams(
+                LinearLayout.LayoutParams.MATCH_PARENT,
+                LinearLayout.LayoutParams.WRAP_CONTENT);
+        searchParams.bottomMargin = 20;
+        mainLayout.addView(searchEdit, searchParams);
+
+        // Contacts container, scrolls once there are more rows than fit
+        ScrollView contactsScroll = new ScrollView(context);
         contactsContainer = new LinearLayout(context);
         contactsContainer.setOrientation(LinearLayout.VERTICAL);
         contactsContainer.setGravity(Gravity.CENTER);
-        populateContacts(contactsContainer);
-        mainLayout.addView(contactsContainer);
+        contactsScroll.addView(contactsContainer, new ScrollView.LayoutParams(
+                ScrollView.LayoutParams.MATCH_PARENT,
+                ScrollView.LayoutParams.WRAP_CONTENT));
+        mainLayout.addView(contactsScroll, new LinearLayout.LayoutParams(
+                LinearLayout.LayoutParams.MATCH_PARENT, 0, 1f));
 
         // Close button
         Button closeButton = new Button(context);
         closeButton.setText("Close");
-        closeButton.setBackgroundColor(Color.parseColor("#666666"));
+        closeButton.setBackgroundColor(COLOR_CLOSE);
         closeButton.setTextColor(Color.WHITE);
         closeButton.setPadding(40, 20, 40, 20);
         closeButton.setOnClickListener(v -> hideSpeedDial());
@@ -161,32 +320,89 @@ public class SpeedDialManager {
         return mainLayout;
     }
 
-    private void populateContacts(LinearLayout container) {
-        container.removeAllViews();
+    // Rebinds rows in place: existing rows are reused, extra rows come from the pool
+    private void bindContactsIfStale() {
+        if (!rowsStale || contactsContainer == null || contactRepository == null) return;
+
+        List<SpeedDialContact> shown = searchQuery.isEmpty() ? rankedContacts()
+                : contactRepository.search(searchQuery, SEARCH_RESULT_LIMIT);
+        int count = shown.size();
+        for (int i = 0; i < count; i++) {
+            ContactRow row;
+            if (i < activeRows.size()) {
+                row = activeRows.get(i);
+            } else {
+                row = rowPool.isEmpty() ? new ContactRow() : rowPool.pop();
+                activeRows.add(row);
+                contactsContainer.addView(row.root);
+            }
+            row.bind(shown.get(i));
+        }
 
-        if (speedDialContacts.isEmpty()) {
-            TextView noContactsText = new TextView(context);
-            noContactsText.setText("No speed dial contacts saved");
-            noContactsText.setTextColor(Color.WHITE);
-            noContactsText.setTextSize(16);
-            noContactsText.setGravity(Gravity.CENTER);
-            noContactsText.setPadding(20, 20, 20, 20);
-            container.addView(noContactsText);
-            return;
+        for (int i = activeRows.size() - 1; i >= count; i--) {
+            ContactRow row = activeRows.remove(i);
+            contactsContainer.removeView(row.root);
+            avatarLoader.cancel(row.avatarImage);
+            row.contact = null;
+            if (rowPool.size() < MAX_POOLED_ROWS) {
+                rowPool.push(row);
+            }
         }
 
-        for (MainActivity.SpeedDialContact contact : speedDialContacts) {
-            LinearLayout contactLayout = new LinearLayout(context);
-            contactLayout.setOrientation(LinearLayout.HORIZONTAL);
-            contactLayout.setGravity(Gravity.CENTER_VERTICAL);
-            contactLayout.setPadding(20, 15, 20, 15);
-            contactLayout.setBackgroundColor(Color.parseColor("#33FFFFFF")); // Semi-transparent white
+        rowsStale = false;
+    }
+
+    // Top-k from the ranker's heap, then everything else in saved order; no full sort
+    private List<SpeedDialContact> rankedContacts() {
+        List<String> topKeys = frecencyRanker.topKeys(FRECENT_LIMIT);
+        if (topKeys.isEmpty()) return speedDialContacts;
+
+        List<SpeedDialContact> ranked = new ArrayList<>(speedDialContacts.size());
+        for (String key : topKeys) {
+            SpeedDialContact contact = contactRepository.findByNumber(key);
+            if (contact != null) ranked.add(contact);
+        }
+        int frecentCount = ranked.size();
+        for (SpeedDialContact contact : speedDialContacts) {
+            boolean alreadyListed = false;
+            for (int i = 0; i < frecentCount; i++) {
+                if (ranked.get(i) == contact) {
+                    alreadyListed = true;
+                    break;
+                }
+            }
+            if (!alreadyListed) ranked.add(contact);
+        }
+        return ranked;
+    }
+
+    private class ContactRow {
+        final LinearLayout root;
+        final TextView nameText;
+        final TextView numberText;
+        final ImageView avatarImage;
+        SpeedDialContact contact;
+
+        ContactRow() {
+            root = new LinearLayout(context);
+            root.setOrientation(LinearLayout.HORIZONTAL);
+            root.setGravity(Gravity.CENTER_VERTICAL);
+            root.setPadding(20, 15, 20, 15);
+            root.setBackgroundColor(COLOR_ROW);
 
             LinearLayout.LayoutParams contactParams = new LinearLayout.LayoutParams(
                     LinearLayout.LayoutParams.MATCH_PARENT,
                     LinearLayout.LayoutParams.WRAP_CONTENT);
             contactParams.bottomMargin = 10;
-            contactLayout.setLayoutParams(contactParams);
+            root.setLayoutParams(contactParams);
+
+            // Photo, filled in asynchronously by the avatar loader
+            avatarImage = new ImageView(context);
+            avatarImage.setBackgroundResource(R.drawable.contact_circle_bg);
+            avatarImage.setScaleType(ImageView.ScaleType.CENTER_CROP);
+            LinearLayout.LayoutParams avatarParams = new LinearLayout.LayoutParams(avatarSizePx, avatarSizePx);
+            avatarParams.rightMargin = 20;
+            avatarImage.setLayoutParams(avatarParams);
 
             // Contact info layout
             LinearLayout infoLayout = new LinearLayout(context);
@@ -194,72 +410,109 @@ public class SpeedDialManager {
             infoLayout.setLayoutParams(new LinearLayout.LayoutParams(
                     0, LinearLayout.LayoutParams.WRAP_CONTENT, 1f));
 
-            TextView nameText = new TextView(context);
-            nameText.setText(contact.name);
+            nameText = new TextView(context);
             nameText.setTextColor(Color.WHITE);
             nameText.setTextSize(16);
             nameText.setTypeface(nameText.getTypeface(), android.graphics.Typeface.BOLD);
 
-            TextView numberText = new TextView(context);
-            numberText.setText(contact.phoneNumber);
+            numberText = new TextView(context);
             numberText.setTextColor(Color.LTGRAY);
             numberText.setTextSize(14);
 
             infoLayout.addView(nameText);
             infoLayout.addView(numberText);
 
-            // Call button
+            // Call button, the listener reads whatever contact the row is bound to
             Button callButton = new Button(context);
             callButton.setText("Call");
-            callButton.setBackgroundColor(Color.parseColor("#4CAF50"));
+            callButton.setBackgroundColor(COLOR_CALL);
             callButton.setTextColor(Color.WHITE);
             callButton.setPadding(30, 15, 30, 15);
             callButton.setOnClickListener(v -> {
+                if (contact == null) return;
                 makePhoneCall(contact.phoneNumber);
                 hideSpeedDial();
             });
 
-            contactLayout.addView(infoLayout);
-            contactLayout.addView(callButton);
-            container.addView(contactLayout);
+            root.addView(avatarImage);
+            root.addView(infoLayout);
+            root.addView(callButton);
+        }
+
+        void bind(SpeedDialContact newContact) {
+            if (contact == null || !TextUtils.equals(contact.name, newContact.name)) {
+                nameText.setText(newContact.name);
+            }
+            if (contact == null || !TextUtils.equals(contact.phoneNumber, newContact.phoneNumber)) {
+                numberText.setText(newContact.phoneNumber);
+            }
+            avatarLoader.load(newContact.phoneNumber, avatarImage, avatarSizePx);
+            contact = newContact;
         }
     }
 
-    private void makePhoneCall(String phoneNumber) {
+    public void makePhoneCall(String phoneNumber) {
         try {
             Intent callIntent = new Intent(Intent.ACTION_CALL);
             callIntent.setData(Uri.parse("tel:" + phoneNumber));
             callIntent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK);
             context.startActivity(callIntent);
             Toast.makeText(context, "Calling " + phoneNumber, Toast.LENGTH_SHORT).show();
+
+            if (contactRepository != null) {
+                frecencyRanker.recordCall(contactRepository.getNormalizer().normalize(phoneNumber),
+                        System.currentTimeMillis());
+            }
+            // Reorder on the next open
+            rowsStale = true;
         } catch (Exception e) {
             Log.e(TAG, "Error making phone call", e);
             Toast.makeText(context, "Cannot make call", Toast.LENGTH_SHORT).show();
         }
     }
 
-    private void loadSpeedDialContacts() {
-        speedDialContacts.clear();
-        String contactsJson = prefs.getString(KEY_SPEED_DIAL_CONTACTS, "[]");
+    public boolean isVisible() {
+        return isVisible;
+    }
+
+    /** Time from the long-press to the first drawn frame of the last open, or -1. */
+    public long getLastShowLatencyMs() {
+        return lastShowLatencyMs;
+    }
+
+    /** Hides at once and drops the panel and its rows; the next show or prewarm rebuilds them. */
+    public void releaseWindow() {
+        isVisible = false;
+        showWhenReady = false;
+        frameStats.end(FrameStats.SPEED_DIAL_OPEN);
+        pendingShowStartMs = -1;
+        for (ContactRow row : activeRows) {
+            avatarLoader.cancel(row.avatarImage);
+        }
+        activeRows.clear();
+        rowPool.clear();
         try {
-            JSONArray jsonArray = new JSONArray(contactsJson);
-            for (int i = 0; i < jsonArray.length(); i++) {
-                JSONObject jsonObject = jsonArray.getJSONObject(i);
-                String name = jsonObject.getString("name");
-                String number = jsonObject.getString("number");
-                speedDialContacts.add(new MainActivity.SpeedDialContact(name, number));
+            if (speedDialView != null && isAttached) {
+                windowManager.removeView(speedDialView);
             }
-            Log.d(TAG, "Loaded " + speedDialContacts.size() + " contacts");
-        } catch (JSONException e) {
-            Log.e(TAG, "Error loading contacts", e);
+        } catch (Exception e) {
+            Log.e(TAG, "Error removing speed dial", e);
+        } finally {
+            isAttached = false;
+            speedDialView = null;
+            contactsContainer = null;
+            searchEdit = null;
+            searchQuery = "";
+            rowsStale = true;
         }
     }
 
-    public boolean isVisible() {
-        return isVisible;
-    }
-
     public void cleanup() {
-        hideSpeedDial();
+        cleanedUp = true;
+        showWhenReady = false;
+        if (contactRepository != null) {
+            contactRepository.removeListener(contactsListener);
+        }
+        releaseWindow();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,262 @@
+package com.nayanpote.edgeassist;
+
+import android.content.Context;
+import android.graphics.Color;
+import android.graphics.PixelFormat;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.view.Gravity;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.WindowManager;
+import android.widget.LinearLayout;
+import android.widget.SeekBar;
+import android.widget.TextView;
+
+/**
+ * Volume mixer shown inside the overlay, one slider per stream in
+ * {@link VolumeStateCache#STREAMS}. Sliders are drawn straight from the cached
+ * state, so opening the panel makes no AudioManager calls, and follow changes
+ * made elsewhere while it is open. Dragging only records the wanted level;
+ * {@link HardwareController#setVolume(int, int)} writes it at most once per
+ * frame on the io thread. Closes on an outside tap or after a few seconds
+ * without interaction.
+ */
+public class VolumeSliderPanel {
+    private static final String TAG = "VolumeSliderPanel";
+    private static final long AUTO_HIDE_DELAY = 3000;
+    private static final String[] STREAM_LABELS = {"Media", "Ring", "Notifications", "Alarm", "Call"};
+
+    private static final int COLOR_PANEL = 0xE6202A2C;
+
+    private final Context context;
+    private final WindowManager windowManager;
+    private final AnimationHelper animationHelper;
+    private final HardwareController hardwareController;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable autoHide = this::hide;
+    private final VolumeStateCache.Listener stateListener = this::render;
+
+    private View panelView;
+    private WindowManager.LayoutParams panelParams;
+    private final SeekBar[] seekBars = new SeekBar[VolumeStateCache.STREAMS.length];
+    private final TextView[] levelTexts = new TextView[VolumeStateCache.STREAMS.length];
+    private int draggingSlot = -1;
+    private boolean isAttached = false;
+    private boolean isVisible = false;
+
+    public VolumeSliderPanel(Context context, WindowManager windowManager, AnimationHelper animationHelper,
+                             HardwareController hardwareController) {
+        this.context = context;
+        this.windowManager = windowManager;
+        this.animationHelper = animationHelper;
+        this.hardwareController = hardwareController;
+    }
+
+    public void show() {
+        if (isVisible) {
+            scheduleAutoHide();
+            return;
+        }
+
+        try {
+            ensurePanelView();
+
+            VolumeStateCache volumeState = hardwareController.getVolumeState();
+            render(volumeState.getState());
+            volumeState.addListener(stateListener);
+
+            panelView.setVisibility(View.VISIBLE);
+            panelParams.flags = flagsShown();
+            animationHelper.getFrameStats().countWindowLayout();
+            windowManager.updateViewLayout(panelView, panelParams);
+            isVisible = true;
+            animationHelper.animateFadeIn(panelView, 200);
+            scheduleAutoHide();
+        } catch (Exception e) {
+            Log.e(TAG, "Error showing volume slider", e);
+            hardwareController.openVolumeControl();
+        }
+    }
+
+    public void hide() {
+        handler.removeCallbacks(autoHide);
+        if (!isVisible || panelView == null) return;
+
+        hardwareController.getVolumeState().removeListener(stateListener);
+        draggingSlot = -1;
+        isVisible = false;
+        animationHelper.animateFadeOut(panelView, 200, () -> {
+            if (isVisible) return;
+            try {
+                if (panelView != null && isAttached) {
+                    panelView.setVisibility(View.GONE);
+                    panelParams.flags = flagsHidden();
+                    animationHelper.getFrameStats().countWindowLayout();
+                    windowManager.updateViewLayout(panelView, panelParams);
+                }
+            } catch (Exception e) {
+                Log.e(TAG, "Error hiding volume slider", e);
+            }
+        });
+    }
+
+    public boolean isVisible() {
+        return isVisible;
+    }
+
+    public void cleanup() {
+        handler.removeCallbacks(autoHide);
+        hardwareController.getVolumeState().removeListener(stateListener);
+        isVisible = false;
+        try {
+            if (panelView != null && isAttached) {
+                windowManager.removeView(panelView);
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Error removing volume slider", e);
+        } finally {
+            isAttached = false;
+            panelView = null;
+            java.util.Arrays.fill(seekBars, null);
+            java.util.Arrays.fill(levelTexts, null);
+        }
+    }
+
+    private void scheduleAutoHide() {
+        handler.removeCallbacks(autoHide);
+        handler.postDelayed(autoHide, AUTO_HIDE_DELAY);
+    }
+
+    private static int flagsShown() {
+        return WindowManager.LayoutParams.FLAG_NOT_FOCUSABLE
+                | WindowManager.LayoutParams.FLAG_WATCH_OUTSIDE_TOUCH;
+    }
+
+    private static int flagsHidden() {
+        return WindowManager.LayoutParams.FLAG_NOT_FOCUSABLE
+                | WindowManager.LayoutParams.FLAG_NOT_TOUCHABLE;
+    }
+
+    private void ensurePanelView() {
+        if (panelView == null) {
+            panelView = createPanelLayout();
+        }
+        if (isAttached) return;
+
+        int layoutFlag;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            layoutFlag = WindowManager.LayoutParams.TYPE_APPLICATION_OVERLAY;
+        } else {
+            layoutFlag = WindowManager.LayoutParams.TYPE_PHONE;
+        }
+
+        int widthPx = Math.round(280 * context.getResources().getDisplayMetrics().density);
+        panelParams = new WindowManager.LayoutParams(
+                widthPx,
+                WindowManager.LayoutParams.WRAP_CONTENT,
+                layoutFlag,
+                flagsHidden(),
+                PixelFormat.TRANSLUCENT);
+        panelParams.gravity = Gravity.CENTER;
+
+        panelView.setAlpha(0f);
+        panelView.setVisibility(View.GONE);
+        windowManager.addView(panelView, panelParams);
+        isAttached = true;
+    }
+
+    private View createPanelLayout() {
+        LinearLayout layout = new LinearLayout(context);
+        layout.setOrientation(LinearLayout.VERTICAL);
+        layout.setBackgroundColor(COLOR_PANEL);
+        layout.setPadding(40, 30, 40, 30);
+        layout.setOnTouchListener((v, event) -> {
+            if (event.getAction() == MotionEvent.ACTION_OUTSIDE) {
+                hide();
+                return true;
+            }
+            return false;
+        });
+
+        for (int slot = 0; slot < VolumeStateCache.STREAMS.length; slot++) {
+            addStreamRow(layout, slot);
+        }
+
+        return layout;
+    }
+
+    private void addStreamRow(LinearLayout layout, int slot) {
+        int stream = VolumeStateCache.STREAMS[slot];
+
+        LinearLayout header = new LinearLayout(context);
+        header.setOrientation(LinearLayout.HORIZONTAL);
+        if (slot > 0) header.setPadding(0, 20, 0, 0);
+
+        TextView title = new TextView(context);
+        title.setText(STREAM_LABELS[slot]);
+        title.setTextColor(Color.WHITE);
+        title.setTextSize(14);
+        header.addView(title, new LinearLayout.LayoutParams(0, LinearLayout.LayoutParams.WRAP_CONTENT, 1f));
+
+        TextView levelText = new TextView(context);
+        levelText.setTextColor(Color.LTGRAY);
+        levelText.setTextSize(13);
+        header.addView(levelText);
+        layout.addView(header);
+        levelTexts[slot] = levelText;
+
+        SeekBar seekBar = new SeekBar(context);
+        seekBar.setPadding(0, 16, 0, 4);
+        seekBar.setOnSeekBarChangeListener(new SeekBar.OnSeekBarChangeListener() {
+            @Override
+            public void onProgressChanged(SeekBar bar, int progress, boolean fromUser) {
+                if (!fromUser) return;
+                hardwareController.setVolume(stream, progress);
+                updateLevelText(slot, progress, bar.getMax());
+            }
+
+            @Override
+            public void onStartTrackingTouch(SeekBar bar) {
+                draggingSlot = slot;
+                handler.removeCallbacks(autoHide);
+            }
+
+            @Override
+            public void onStopTrackingTouch(SeekBar bar) {
+                draggingSlot = -1;
+                scheduleAutoHide();
+            }
+        });
+        layout.addView(seekBar, new LinearLayout.LayoutParams(
+                LinearLayout.LayoutParams.MATCH_PARENT, LinearLayout.LayoutParams.WRAP_CONTENT));
+        seekBars[slot] = seekBar;
+    }
+
+    // Main thread; the slider under the user's finger is left alone
+    private void render(VolumeStateCache.State state) {
+        for (int slot = 0; slot < seekBars.length; slot++) {
+            SeekBar seekBar = seekBars[slot];
+            if (seekBar == null || slot == draggingSlot) continue;
+
+            int stream = VolumeStateCache.STREAMS[slot];
+            int level = state.getLevel(stream);
+            int max = state.getMax(stream);
+            boolean known = state.loaded && max > 0 && level >= 0;
+            seekBar.setEnabled(known && !state.volumeFixed);
+            if (known) {
+                seekBar.setMax(max);
+                seekBar.setProgress(level);
+            }
+            updateLevelText(slot, level, max);
+        }
+    }
+
+    private void updateLevelText(int slot, int level, int max) {
+        TextView levelText = levelTexts[slot];
+        if (levelText == null) return;
+        levelText.setText(max > 0 && level >= 0 ? (level * 100 / max) + "%" : "");
+    }
+}
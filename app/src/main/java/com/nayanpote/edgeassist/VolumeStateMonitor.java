@@ -0,0 +1,158 @@
+package com.nayanpote.edgeassist;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.media.AudioManager;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.core.content.ContextCompat;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Keeps a {@link VolumeStateCache} in step with the device: one AudioManager
+ * snapshot on the volume thread at start, then the volume-changed and
+ * ringer-mode broadcasts. Start and stop on the main thread.
+ */
+public class VolumeStateMonitor {
+    private static final String TAG = "VolumeStateMonitor";
+
+    // Not in the public SDK, but sent by every AudioService since 4.0
+    private static final String ACTION_VOLUME_CHANGED = "android.media.VOLUME_CHANGED_ACTION";
+    private static final String EXTRA_VOLUME_STREAM_TYPE = "android.media.EXTRA_VOLUME_STREAM_TYPE";
+    private static final String EXTRA_VOLUME_STREAM_VALUE = "android.media.EXTRA_VOLUME_STREAM_VALUE";
+
+    // Volume reads and writes get their own thread, so they never queue behind contact or preference disk work
+    private static final class VolumeExecutorHolder {
+        static final ExecutorService INSTANCE = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "EdgeAssist-volume");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /** Single background thread for all AudioManager volume IPC. */
+    public static ExecutorService getVolumeExecutor() {
+        return VolumeExecutorHolder.INSTANCE;
+    }
+
+    private final Context context;
+    private final AudioManager audioManager;
+    private final VolumeStateCache cache = new VolumeStateCache();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private boolean registered = false;
+
+    // Broadcasts that arrive while the first snapshot is being read win over it
+    private boolean snapshotApplied = false;
+    private final int[] earlyLevels = new int[VolumeStateCache.STREAMS.length];
+
+    private final BroadcastReceiver receiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            String action = intent.getAction();
+            if (ACTION_VOLUME_CHANGED.equals(action)) {
+                int stream = intent.getIntExtra(EXTRA_VOLUME_STREAM_TYPE, -1);
+                int level = intent.getIntExtra(EXTRA_VOLUME_STREAM_VALUE, -1);
+                if (level < 0) return;
+
+                if (!snapshotApplied) {
+                    int slot = VolumeStateCache.slotOf(stream);
+                    if (slot >= 0) earlyLevels[slot] = level;
+                }
+                cache.onVolumeChanged(stream, level);
+            } else if (AudioManager.RINGER_MODE_CHANGED_ACTION.equals(action)) {
+                cache.onRingerModeChanged(intent.getIntExtra(AudioManager.EXTRA_RINGER_MODE,
+                        VolumeStateCache.RINGER_MODE_UNKNOWN));
+                // Some devices change ring/notification levels with the mode without a volume broadcast
+                refreshStreams(VolumeStateCache.STREAM_RING, VolumeStateCache.STREAM_NOTIFICATION);
+            }
+        }
+    };
+
+    public VolumeStateMonitor(Context context) {
+        this.context = context.getApplicationContext();
+        this.audioManager = (AudioManager) context.getSystemService(Context.AUDIO_SERVICE);
+    }
+
+    public VolumeStateCache getCache() {
+        return cache;
+    }
+
+    public void start() {
+        if (registered || audioManager == null) return;
+
+        IntentFilter filter = new IntentFilter();
+        filter.addAction(ACTION_VOLUME_CHANGED);
+        filter.addAction(AudioManager.RINGER_MODE_CHANGED_ACTION);
+        ContextCompat.registerReceiver(context, receiver, filter, ContextCompat.RECEIVER_NOT_EXPORTED);
+        registered = true;
+
+        java.util.Arrays.fill(earlyLevels, -1);
+        snapshotApplied = false;
+        getVolumeExecutor().execute(this::readSnapshot);
+    }
+
+    public void stop() {
+        if (!registered) return;
+        try {
+            context.unregisterReceiver(receiver);
+        } catch (Exception e) {
+            Log.e(TAG, "Error unregistering volume receiver", e);
+        }
+        registered = false;
+    }
+
+    // Volume thread: the only full round of AudioManager IPC
+    private void readSnapshot() {
+        int[] streams = VolumeStateCache.STREAMS;
+        int[] levels = new int[streams.length];
+        int[] maxLevels = new int[streams.length];
+        boolean fixed = false;
+        int ringerMode = VolumeStateCache.RINGER_MODE_UNKNOWN;
+        try {
+            for (int i = 0; i < streams.length; i++) {
+                levels[i] = audioManager.getStreamVolume(streams[i]);
+                maxLevels[i] = audioManager.getStreamMaxVolume(streams[i]);
+            }
+            fixed = audioManager.isVolumeFixed();
+            ringerMode = audioManager.getRingerMode();
+        } catch (Exception e) {
+            Log.e(TAG, "Error reading volume state", e);
+        }
+
+        boolean volumeFixed = fixed;
+        int mode = ringerMode;
+        mainHandler.post(() -> {
+            if (!registered) return;
+            for (int i = 0; i < levels.length; i++) {
+                if (earlyLevels[i] >= 0) levels[i] = earlyLevels[i];
+            }
+            snapshotApplied = true;
+            cache.setSnapshot(levels, maxLevels, volumeFixed, mode);
+        });
+    }
+
+    private void refreshStreams(int... streams) {
+        getVolumeExecutor().execute(() -> {
+            int[] levels = new int[streams.length];
+            try {
+                for (int i = 0; i < streams.length; i++) {
+                    levels[i] = audioManager.getStreamVolume(streams[i]);
+                }
+            } catch (Exception e) {
+                Log.e(TAG, "Error refreshing volume", e);
+                return;
+            }
+            mainHandler.post(() -> {
+                for (int i = 0; i < streams.length; i++) {
+                    cache.onVolumeChanged(streams[i], levels[i]);
+                }
+            });
+        });
+    }
+}
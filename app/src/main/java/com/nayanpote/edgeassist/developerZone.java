@@ -3,6 +3,7 @@ package com.nayanpote.edgeassist;
 import android.animation.ObjectAnimator;
 import android.animation.ValueAnimator;
 import android.content.Intent;
+import android.content.SharedPreferences;
 import android.content.pm.ApplicationInfo;
 import android.content.pm.PackageInfo;
 import android.content.pm.PackageManager;
@@ -15,6 +16,7 @@ import android.os.Build;
 import android.os.Bundle;
 import android.os.Handler;
 import android.os.Looper;
+import android.util.Log;
 import android.view.View;
 import android.view.WindowInsetsController;
 import android.view.WindowManager;
@@ -36,13 +38,23 @@ import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.util.List;
+import java.util.Locale;
 
 public class developerZone extends AppCompatActivity {
 
+    private static final String TAG = "developerZone";
+    private static final String PREF_NAME = "EdgeAssistPrefs";
+    private static final String KEY_SERVICE_ENABLED = "service_enabled";
+    private static final String KEY_PERF_HUD = "perf_hud_enabled";
+    private static final String KEY_TOUCH_RECORDING = "touch_recording";
+    private static final String KEY_LAST_STARTUP = "last_startup";
+
     private ActivityDeveloperZoneBinding binding;
     private Handler animationHandler;
     private boolean isAnimating = false;
     private ObjectAnimator gradientAnimator;
+    // What was last asked of the service; its pref is written later on the io thread
+    private boolean touchRecording = false;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -187,10 +199,98 @@ public class developerZone extends AppCompatActivity {
             new Handler(Looper.getMainLooper()).postDelayed(this::openPhone, 150);
         });
 
+        binding.resetFrameStatsButton.setOnClickListener(v -> {
+            FrameMetricsCollector.get(this).getStats().reset();
+            renderFrameStats();
+        });
+        binding.perfHudButton.setOnClickListener(v -> togglePerfHud());
+        binding.touchRecordButton.setOnClickListener(v -> toggleTouchRecording());
+
         // Long press animations
         setupLongPressAnimations();
     }
 
+    private static final String[] INTERACTION_LABELS = {"Drag", "Snap", "Hide/show", "Speed dial", "Settings"};
+
+    // p50/p95/p99 in ms and jank counts for everything recorded since the process started,
+    // plus the time to first bubble of the last service start
+    private void renderFrameStats() {
+        FrameStats stats = FrameMetricsCollector.get(this).getStats();
+        StringBuilder text = new StringBuilder();
+        text.append(String.format(Locale.US, "Frame budget %.1f ms%n%n", stats.getFrameIntervalNanos() / 1e6));
+        text.append(String.format(Locale.US, "%-10s %5s %5s %5s %5s %5s%n", "", "n", "p50", "p95", "p99", "jank"));
+        for (int i = 0; i < FrameStats.INTERACTION_COUNT; i++) {
+            int frames = stats.getFrameCount(i);
+            if (frames == 0) {
+                text.append(String.format(Locale.US, "%-10s %5s%n", INTERACTION_LABELS[i], "-"));
+                continue;
+            }
+            text.append(String.format(Locale.US, "%-10s %5d %5.0f %5.0f %5.0f %5d%n",
+                    INTERACTION_LABELS[i], frames,
+                    stats.getPercentileMs(i, 0.50), stats.getPercentileMs(i, 0.95),
+                    stats.getPercentileMs(i, 0.99), stats.getJankCount(i)));
+        }
+        // Written by the overlay service once its staged startup has finished
+        String startup = getSharedPreferences(PREF_NAME, MODE_PRIVATE).getString(KEY_LAST_STARTUP, null);
+        if (startup != null) {
+            text.append(String.format(Locale.US, "%nLast start %s", startup));
+        }
+        binding.frameStatsText.setText(text.toString().trim());
+    }
+
+    // A running bubble shows or hides the HUD itself; otherwise it is picked up when the service starts
+    private void togglePerfHud() {
+        SharedPreferences prefs = getSharedPreferences(PREF_NAME, MODE_PRIVATE);
+        boolean enabled = !prefs.getBoolean(KEY_PERF_HUD, false);
+        prefs.edit().putBoolean(KEY_PERF_HUD, enabled).apply();
+        updatePerfHudButton();
+
+        if (!prefs.getBoolean(KEY_SERVICE_ENABLED, false)) {
+            if (enabled) {
+                showCustomToast("The HUD appears when Edge Assist is running");
+            }
+            return;
+        }
+        try {
+            Intent intent = new Intent(this, OverlayService.class);
+            intent.setAction(OverlayService.ACTION_SET_PERF_HUD);
+            intent.putExtra(OverlayService.EXTRA_ENABLED, enabled);
+            startService(intent);
+        } catch (Exception e) {
+            Log.e(TAG, "Error notifying overlay service", e);
+        }
+    }
+
+    // The service owns the recording and reports whether a trace was saved to files/touch_traces
+    private void toggleTouchRecording() {
+        SharedPreferences prefs = getSharedPreferences(PREF_NAME, MODE_PRIVATE);
+        if (!prefs.getBoolean(KEY_SERVICE_ENABLED, false)) {
+            showCustomToast("Start Edge Assist to record touches");
+            return;
+        }
+        boolean enabled = !touchRecording;
+        try {
+            Intent intent = new Intent(this, OverlayService.class);
+            intent.setAction(OverlayService.ACTION_SET_TOUCH_RECORDING);
+            intent.putExtra(OverlayService.EXTRA_ENABLED, enabled);
+            startService(intent);
+            touchRecording = enabled;
+            binding.touchRecordButton.setText(enabled ? "Rec on" : "Rec off");
+        } catch (Exception e) {
+            Log.e(TAG, "Error notifying overlay service", e);
+        }
+    }
+
+    private void updateTouchRecordButton() {
+        touchRecording = getSharedPreferences(PREF_NAME, MODE_PRIVATE).getBoolean(KEY_TOUCH_RECORDING, false);
+        binding.touchRecordButton.setText(touchRecording ? "Rec on" : "Rec off");
+    }
+
+    private void updatePerfHudButton() {
+        boolean enabled = getSharedPreferences(PREF_NAME, MODE_PRIVATE).getBoolean(KEY_PERF_HUD, false);
+        binding.perfHudButton.setText(enabled ? "HUD on" : "HUD off");
+    }
+
     private void setupLongPressAnimations() {
         View.OnLongClickListener pulseAnimation = v -> {
             createPulseAnimation(v);
@@ -480,6 +580,9 @@ public class developerZone extends AppCompatActivity {
         super.onResume();
         // Ensure fullscreen is maintained when returning from other apps
         setupStatusBar();
+        renderFrameStats();
+        updatePerfHudButton();
+        updateTouchRecordButton();
     }
 
     @Override
@@ -0,0 +1,52 @@
+package com.nayanpote.edgeassist.benchmark;
+
+import com.nayanpote.edgeassist.SpeedDialContact;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/** Deterministic inputs shared by the benchmarks, so runs on different builds see the same data. */
+final class BenchmarkData {
+
+    static final String COUNTRY_CODE = "91";
+
+    private static final String[] FIRST_NAMES = {
+            "Aarav", "Diya", "Ishaan", "Kavya", "Rohan", "Saanvi", "Vihaan", "Ananya", "Arjun", "Meera"
+    };
+    private static final String[] LAST_NAMES = {
+            "Pote", "Sharma", "Patel", "Iyer", "Khan", "Gupta", "Nair", "Das", "Reddy", "Joshi"
+    };
+
+    private BenchmarkData() {
+    }
+
+    /** {@code count} contacts with distinct ten-digit mobile numbers. */
+    static List<SpeedDialContact> contacts(int count, long seed) {
+        Random random = new Random(seed);
+        List<SpeedDialContact> contacts = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String name = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " "
+                    + LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+            contacts.add(new SpeedDialContact(name, mobileNumber(i)));
+        }
+        return contacts;
+    }
+
+    /** The i-th ten-digit mobile number, always the same for the same i. */
+    static String mobileNumber(int i) {
+        return String.valueOf(9_000_000_000L + i * 7_919L);
+    }
+
+    /** How the same number tends to come out of an address book: country code, spaces, dashes. */
+    static String formatted(String digits, int style) {
+        switch (style % 3) {
+            case 0:
+                return "+91 " + digits.substring(0, 5) + " " + digits.substring(5);
+            case 1:
+                return "0" + digits.substring(0, 3) + "-" + digits.substring(3, 6) + "-" + digits.substring(6);
+            default:
+                return digits;
+        }
+    }
+}
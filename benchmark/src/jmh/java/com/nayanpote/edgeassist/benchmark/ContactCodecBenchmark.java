@@ -0,0 +1,106 @@
+package com.nayanpote.edgeassist.benchmark;
+
+import com.nayanpote.edgeassist.ContactStore;
+import com.nayanpote.edgeassist.SpeedDialContact;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Saving and loading the speed-dial list: the binary snapshot of {@link ContactStore}
+ * against the JSON array that older versions kept in SharedPreferences.
+ *
+ * The JSON side runs on the reference org.json, not Android's copy, so compare
+ * the two formats with each other rather than with numbers taken on a phone.
+ * Snapshot writes include the fsync the app does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ContactCodecBenchmark {
+
+    private static final Executor DIRECT = Runnable::run;
+
+    @Param({"10", "100", "1000"})
+    public int contactCount;
+
+    private List<SpeedDialContact> contacts;
+    private File directory;
+    private ContactStore store;
+    private String legacyJson;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        contacts = BenchmarkData.contacts(contactCount, 42);
+        directory = Files.createTempDirectory("edgeassist-codec").toFile();
+        store = new ContactStore(directory, DIRECT);
+        store.open();
+        store.replaceAll(contacts);
+        legacyJson = writeLegacyJson();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    @Benchmark
+    public long writeSnapshot() {
+        store.replaceAll(contacts);
+        return store.getVersion();
+    }
+
+    @Benchmark
+    public int openSnapshot() throws IOException {
+        ContactStore reader = new ContactStore(directory, DIRECT);
+        reader.open();
+        return reader.size();
+    }
+
+    @Benchmark
+    public String writeLegacyJson() {
+        JSONArray array = new JSONArray();
+        for (SpeedDialContact contact : contacts) {
+            JSONObject object = new JSONObject();
+            object.put("name", contact.name);
+            object.put("number", contact.phoneNumber);
+            array.put(object);
+        }
+        return array.toString();
+    }
+
+    @Benchmark
+    public List<SpeedDialContact> parseLegacyJson() {
+        JSONArray array = new JSONArray(legacyJson);
+        List<SpeedDialContact> parsed = new ArrayList<>(array.length());
+        for (int i = 0; i < array.length(); i++) {
+            JSONObject object = array.getJSONObject(i);
+            parsed.add(new SpeedDialContact(object.getString("name"), object.getString("number")));
+        }
+        return parsed;
+    }
+}
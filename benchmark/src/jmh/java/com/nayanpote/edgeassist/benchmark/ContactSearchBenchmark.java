@@ -0,0 +1,86 @@
+package com.nayanpote.edgeassist.benchmark;
+
+import com.nayanpote.edgeassist.ContactSearchIndex;
+import com.nayanpote.edgeassist.PhoneNumberNormalizer;
+import com.nayanpote.edgeassist.SpeedDialContact;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Type-ahead over a 10k contact address book: building the index, and one
+ * query per keystroke while typing a name, a keypad spelling and a number,
+ * with and without a ranking booster.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ContactSearchBenchmark {
+
+    private static final int CONTACT_COUNT = 10_000;
+    private static final int LIMIT = 20;
+    private static final String[] SYLLABLES = {"an", "ra", "vi", "ka", "su", "ma", "ne", "jo", "li", "to", "pa", "de"};
+    // Typing "ravi" one key at a time, plus keypad and number prefixes
+    private static final String[] KEYSTROKES = {"r", "ra", "rav", "ravi", "7", "72", "728", "90", "9012"};
+
+    @Param({"false", "true"})
+    public boolean boosted;
+
+    private List<SpeedDialContact> contacts;
+    private ContactSearchIndex index;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Many distinct names, unlike BenchmarkData, so postings look like a real address book
+        Random random = new Random(42);
+        contacts = new ArrayList<>(CONTACT_COUNT);
+        for (int i = 0; i < CONTACT_COUNT; i++) {
+            String first = syllable(random) + syllable(random) + syllable(random);
+            String last = syllable(random) + syllable(random);
+            contacts.add(new SpeedDialContact(first + " " + last,
+                    String.valueOf(9_000_000_000L + random.nextInt(999_999_999))));
+        }
+        index = build();
+    }
+
+    private static String syllable(Random random) {
+        return SYLLABLES[random.nextInt(SYLLABLES.length)];
+    }
+
+    private ContactSearchIndex build() {
+        ContactSearchIndex built = new ContactSearchIndex(new PhoneNumberNormalizer(BenchmarkData.COUNTRY_CODE));
+        if (boosted) {
+            built.setBooster((contact, normalizedNumber) -> normalizedNumber.length());
+        }
+        for (SpeedDialContact contact : contacts) {
+            built.add(contact);
+        }
+        return built;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int buildIndex() {
+        return build().size();
+    }
+
+    @Benchmark
+    public List<SpeedDialContact> keystroke() {
+        String query = KEYSTROKES[next];
+        next = next + 1 == KEYSTROKES.length ? 0 : next + 1;
+        return index.search(query, LIMIT);
+    }
+}
@@ -0,0 +1,111 @@
+package com.nayanpote.edgeassist.benchmark;
+
+import com.nayanpote.edgeassist.ContactImportPipeline;
+import com.nayanpote.edgeassist.ContactRepository;
+import com.nayanpote.edgeassist.ContactStore;
+import com.nayanpote.edgeassist.PhoneNumberNormalizer;
+import com.nayanpote.edgeassist.SpeedDialContact;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Duplicate checks against the saved contacts: a single lookup as done when a
+ * contact is added by hand, and a full address-book import where a quarter of
+ * the rows are already saved under a different formatting.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DuplicateDetectionBenchmark {
+
+    private static final int IMPORT_ROWS = 2000;
+
+    @Param({"100", "1000"})
+    public int savedCount;
+
+    private File directory;
+    private ContactRepository repository;
+    private ExecutorService normalizePool;
+    private String[] lookups;
+    private String[] importNames;
+    private String[] importNumbers;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("edgeassist-duplicates").toFile();
+        ContactStore store = new ContactStore(directory, Runnable::run);
+        store.open();
+        store.replaceAll(BenchmarkData.contacts(savedCount, 42));
+        repository = new ContactRepository(store, Runnable::run,
+                new PhoneNumberNormalizer(BenchmarkData.COUNTRY_CODE));
+        normalizePool = Executors.newFixedThreadPool(2);
+
+        // Every other lookup hits a saved number written differently
+        lookups = new String[256];
+        for (int i = 0; i < lookups.length; i++) {
+            int index = i % 2 == 0 ? i % savedCount : savedCount + i;
+            lookups[i] = BenchmarkData.formatted(BenchmarkData.mobileNumber(index), i);
+        }
+
+        List<SpeedDialContact> book = BenchmarkData.contacts(IMPORT_ROWS, 7);
+        importNames = new String[IMPORT_ROWS];
+        importNumbers = new String[IMPORT_ROWS];
+        for (int i = 0; i < IMPORT_ROWS; i++) {
+            int index = i % 4 == 0 ? i % savedCount : savedCount + i;
+            importNames[i] = book.get(i).name;
+            importNumbers[i] = BenchmarkData.formatted(BenchmarkData.mobileNumber(index), i);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        normalizePool.shutdownNow();
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    @Benchmark
+    public boolean containsNumber() {
+        String number = lookups[next];
+        next = (next + 1) & (lookups.length - 1);
+        return repository.containsNumber(number);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int importScan() throws Exception {
+        ContactImportPipeline pipeline = new ContactImportPipeline(repository, normalizePool, 2, 256);
+        int[] cursor = new int[1];
+        ContactImportPipeline.Result result = pipeline.scan((names, numbers, max) -> {
+            int count = Math.min(max, IMPORT_ROWS - cursor[0]);
+            System.arraycopy(importNames, cursor[0], names, 0, count);
+            System.arraycopy(importNumbers, cursor[0], numbers, 0, count);
+            cursor[0] += count;
+            return count;
+        }, (rowsScanned, candidates) -> { });
+        return result.duplicates;
+    }
+}
@@ -0,0 +1,84 @@
+package com.nayanpote.edgeassist.benchmark;
+
+import com.nayanpote.edgeassist.SnapPhysics;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Where the bubble goes when it is released, hidden or shown, and the spring
+ * that takes it there frame by frame.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class EdgeGeometryBenchmark {
+
+    private static final int SCREEN_WIDTH = 1080;
+    private static final int SCREEN_HEIGHT = 2400;
+    private static final int VIEW_SIZE = 168;
+    private static final int RELEASES = 1024;
+    private static final float FRAME_SECONDS = 1f / 60f;
+
+    private final int[] xs = new int[RELEASES];
+    private final int[] ys = new int[RELEASES];
+    private final float[] velocityXs = new float[RELEASES];
+    private final float[] velocityYs = new float[RELEASES];
+    private final SnapPhysics physics = new SnapPhysics();
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        for (int i = 0; i < RELEASES; i++) {
+            xs[i] = random.nextInt(SCREEN_WIDTH);
+            ys[i] = random.nextInt(SCREEN_HEIGHT);
+            // Mostly gentle releases, some flings
+            float scale = i % 4 == 0 ? 6000f : 800f;
+            velocityXs[i] = (random.nextFloat() * 2 - 1) * scale;
+            velocityYs[i] = (random.nextFloat() * 2 - 1) * scale;
+        }
+    }
+
+    private int nextRelease() {
+        int i = next;
+        next = (next + 1) & (RELEASES - 1);
+        return i;
+    }
+
+    @Benchmark
+    public int snapTarget() {
+        int i = nextRelease();
+        return SnapPhysics.snapTargetX(xs[i], velocityXs[i], SCREEN_WIDTH, VIEW_SIZE)
+                + SnapPhysics.snapTargetY(ys[i], velocityYs[i], SCREEN_HEIGHT, VIEW_SIZE);
+    }
+
+    @Benchmark
+    public int hideAndShowTarget() {
+        int i = nextRelease();
+        int hidden = SnapPhysics.hideTargetX(xs[i], SCREEN_WIDTH, VIEW_SIZE);
+        return SnapPhysics.showTargetX(hidden, SCREEN_WIDTH, VIEW_SIZE);
+    }
+
+    /** One whole release: pick the edge, then step the spring at 60 Hz until it settles. */
+    @Benchmark
+    public int springToRest() {
+        int i = nextRelease();
+        int targetX = SnapPhysics.snapTargetX(xs[i], velocityXs[i], SCREEN_WIDTH, VIEW_SIZE);
+        int targetY = SnapPhysics.snapTargetY(ys[i], velocityYs[i], SCREEN_HEIGHT, VIEW_SIZE);
+        physics.reset(xs[i], ys[i], velocityXs[i], velocityYs[i], targetX, targetY);
+        int frames = 0;
+        while (!physics.step(FRAME_SECONDS)) {
+            frames++;
+        }
+        return frames;
+    }
+}
@@ -0,0 +1,183 @@
+package com.nayanpote.edgeassist.benchmark;
+
+import com.nayanpote.edgeassist.GestureStateMachine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Classifies a stream of bubble touches: taps, double and triple taps, long
+ * presses, slow drags and flings at 120 Hz touch sampling. Timeouts fire from
+ * a simulated clock as the stream passes them, like the service's handler would.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class GestureClassificationBenchmark {
+
+    private static final int DOWN = 0;
+    private static final int MOVE = 1;
+    private static final int UP = 2;
+    private static final int GESTURES = 512;
+    private static final long SAMPLE_MS = 8;
+
+    /** Longest tap sequence with a bound action, as {@code GestureBindings} would set it. */
+    @Param({"1", "3"})
+    public int maxTapCount;
+
+    private int[] types = new int[1024];
+    private float[] xs = new float[1024];
+    private float[] ys = new float[1024];
+    private long[] times = new long[1024];
+    private float[] velocities = new float[1024];
+    private int eventCount;
+
+    private GestureStateMachine machine;
+    private long deadline = -1;
+    private int recognised;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        long t = 0;
+        for (int g = 0; g < GESTURES; g++) {
+            float x = 100 + random.nextInt(800);
+            float y = 200 + random.nextInt(1800);
+            switch (g % 6) {
+                case 0:
+                    t = tap(x, y, t, 1);
+                    break;
+                case 1:
+                    t = tap(x, y, t, 2);
+                    break;
+                case 2:
+                    t = tap(x, y, t, 3);
+                    break;
+                case 3:
+                    add(DOWN, x, y, t, 0);
+                    t += 700;
+                    add(UP, x, y, t, 0);
+                    break;
+                default:
+                    // 4: slow drag, 5: fling
+                    boolean fling = g % 6 == 5;
+                    add(DOWN, x, y, t, 0);
+                    int steps = fling ? 12 : 60;
+                    for (int i = 1; i <= steps; i++) {
+                        t += SAMPLE_MS;
+                        add(MOVE, x + i * (fling ? 30 : 6), y + i * 2, t, 0);
+                    }
+                    t += SAMPLE_MS;
+                    add(UP, x + steps * (fling ? 30 : 6), y + steps * 2, t, fling ? 4000 : 200);
+                    break;
+            }
+            // Idle long enough for every timeout to fire before the next gesture
+            t += 1000;
+        }
+
+        GestureStateMachine.Listener listener = new GestureStateMachine.Listener() {
+            @Override
+            public void onTap(int count) {
+                recognised += count;
+            }
+
+            @Override
+            public void onLongPress() {
+                recognised += 10;
+            }
+
+            @Override
+            public void onDragStart() {
+                recognised += 100;
+            }
+
+            @Override
+            public void onDragEnd(float velocityX, float velocityY, boolean fling) {
+                recognised += fling ? 1000 : 10000;
+            }
+        };
+        GestureStateMachine.Timer timer = new GestureStateMachine.Timer() {
+            @Override
+            public void schedule(long uptimeMillis) {
+                deadline = uptimeMillis;
+            }
+
+            @Override
+            public void cancel() {
+                deadline = -1;
+            }
+        };
+        machine = new GestureStateMachine(listener, timer, 16f, 100f, 150f);
+        machine.setMaxTapCount(maxTapCount);
+    }
+
+    private long tap(float x, float y, long t, int count) {
+        for (int i = 0; i < count; i++) {
+            add(DOWN, x + i, y, t, 0);
+            t += 60;
+            add(UP, x + i, y, t, 0);
+            t += 120;
+        }
+        return t;
+    }
+
+    private void add(int type, float x, float y, long time, float velocity) {
+        if (eventCount == types.length) {
+            int size = eventCount * 2;
+            types = Arrays.copyOf(types, size);
+            xs = Arrays.copyOf(xs, size);
+            ys = Arrays.copyOf(ys, size);
+            times = Arrays.copyOf(times, size);
+            velocities = Arrays.copyOf(velocities, size);
+        }
+        types[eventCount] = type;
+        xs[eventCount] = x;
+        ys[eventCount] = y;
+        times[eventCount] = time;
+        velocities[eventCount] = velocity;
+        eventCount++;
+    }
+
+    @Benchmark
+    public int classifyStream() {
+        recognised = 0;
+        machine.reset();
+        deadline = -1;
+        for (int i = 0; i < eventCount; i++) {
+            long time = times[i];
+            // The deadline may be re-armed by the timeout itself
+            while (deadline >= 0 && deadline <= time) {
+                long due = deadline;
+                deadline = -1;
+                machine.onTimeout(due);
+            }
+            switch (types[i]) {
+                case DOWN:
+                    machine.onDown(xs[i], ys[i], time);
+                    break;
+                case MOVE:
+                    machine.onMove(xs[i], ys[i], time);
+                    break;
+                default:
+                    machine.onUp(xs[i], ys[i], time, velocities[i], 0);
+                    break;
+            }
+        }
+        if (deadline >= 0) {
+            long due = deadline;
+            deadline = -1;
+            machine.onTimeout(due);
+        }
+        return recognised;
+    }
+}
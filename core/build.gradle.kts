@@ -0,0 +1,18 @@
+plugins {
+    `java-library`
+}
+
+// Platform-free logic shared by :app and :benchmark; no Android classes allowed here
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+dependencies {
+    testImplementation(libs.junit)
+}
+
+// Test sources spell accented names literally
+tasks.withType<JavaCompile>().configureEach {
+    options.encoding = "UTF-8"
+}
@@ -0,0 +1,144 @@
+package com.nayanpote.edgeassist;
+
+/**
+ * What the bubble does with a touch, without Android: feeds the
+ * {@link GestureStateMachine} and the {@link DragEngine}, runs the action bound
+ * to a recognised gesture and hands a finished drag to the host to snap.
+ *
+ * OverlayService turns MotionEvents into these calls; a {@link TouchTrace}
+ * recorded here replays through the very same calls on the JVM. Times are
+ * uptime milliseconds, coordinates raw screen pixels. Main thread only.
+ */
+public class BubbleTouchController {
+
+    public interface Host {
+        /** Puts the bubble window at (x, y); one window layout. */
+        void moveWindow(int x, int y);
+
+        /** A drag ended with the bubble at (x, y); velocities in px/s. */
+        void onRelease(int x, int y, float velocityX, float velocityY);
+
+        /** A gesture ran its bound action. */
+        void onGestureDispatched(int gesture);
+    }
+
+    private final Host host;
+    private final FrameStats frameStats;
+    private final GestureStateMachine gestureMachine;
+    private final DragEngine dragEngine;
+    private GestureBindings.DispatchTable actions;
+    private TouchTrace recorder;
+
+    /**
+     * @param touchSlop        movement in px before a press becomes a drag
+     * @param multiTapSlop     max distance in px between taps of one sequence
+     * @param minFlingVelocity release speed in px/s above which a drag is a fling
+     * @param predictionNanos  how far ahead of the finger the dragged window is placed
+     * @param maxPredictionPx  cap on that prediction
+     */
+    public BubbleTouchController(FrameScheduler frameScheduler, FrameStats frameStats, Host host,
+                                 GestureStateMachine.Timer timer, float touchSlop, float multiTapSlop,
+                                 float minFlingVelocity, long predictionNanos, float maxPredictionPx) {
+        this.host = host;
+        this.frameStats = frameStats;
+        this.gestureMachine = new GestureStateMachine(new Gestures(), timer,
+                touchSlop, multiTapSlop, minFlingVelocity);
+        this.dragEngine = new DragEngine(frameScheduler, host::moveWindow, predictionNanos, maxPredictionPx);
+    }
+
+    public void setTimeouts(long longPressTimeout, long multiTapTimeout) {
+        gestureMachine.setTimeouts(longPressTimeout, multiTapTimeout);
+    }
+
+    /** Gestures dispatch into {@code actions}; taps are only held back for sequences it binds. */
+    public void setActions(GestureBindings.DispatchTable actions) {
+        this.actions = actions;
+        gestureMachine.setMaxTapCount(actions.getMaxTapCount());
+    }
+
+    /** Appends every input to {@code trace} until set back to null. */
+    public void setRecorder(TouchTrace trace) {
+        this.recorder = trace;
+    }
+
+    public DragEngine getDragEngine() {
+        return dragEngine;
+    }
+
+    public boolean isDragging() {
+        return gestureMachine.isDragging();
+    }
+
+    public void onDown(int windowX, int windowY, float x, float y, long timeMillis) {
+        if (recorder != null) recorder.down(windowX, windowY, x, y, timeMillis);
+        dragEngine.resetMetrics();
+        dragEngine.begin(windowX, windowY, x, y, timeMillis * 1_000_000L);
+        gestureMachine.onDown(x, y, timeMillis);
+    }
+
+    /** A sample batched into the next move, oldest first; only the drag follows it. */
+    public void onHistoricalSample(float x, float y, long timeMillis) {
+        if (recorder != null) recorder.sample(x, y, timeMillis);
+        dragEngine.addSample(x, y, timeMillis * 1_000_000L);
+    }
+
+    public void onMove(float x, float y, long timeMillis) {
+        if (recorder != null) recorder.move(x, y, timeMillis);
+        dragEngine.addSample(x, y, timeMillis * 1_000_000L);
+        gestureMachine.onMove(x, y, timeMillis);
+    }
+
+    public void onUp(float x, float y, long timeMillis, float velocityX, float velocityY) {
+        if (recorder != null) recorder.up(x, y, timeMillis, velocityX, velocityY);
+        gestureMachine.onUp(x, y, timeMillis, velocityX, velocityY);
+    }
+
+    public void onCancel(long timeMillis) {
+        if (recorder != null) recorder.cancel(timeMillis);
+        gestureMachine.onCancel();
+    }
+
+    /** The timer armed through {@link GestureStateMachine.Timer} fired. */
+    public void onTimeout(long timeMillis) {
+        gestureMachine.onTimeout(timeMillis);
+    }
+
+    /** Drops any gesture or drag in progress without reporting it. */
+    public void reset() {
+        gestureMachine.reset();
+        dragEngine.end();
+        frameStats.end(FrameStats.DRAG);
+    }
+
+    private void dispatch(int gesture) {
+        if (actions != null && actions.dispatch(gesture)) {
+            host.onGestureDispatched(gesture);
+        }
+    }
+
+    private class Gestures implements GestureStateMachine.Listener {
+        @Override
+        public void onTap(int count) {
+            dispatch(GestureBindings.GESTURE_TAP + count - 1);
+        }
+
+        @Override
+        public void onLongPress() {
+            dispatch(GestureBindings.GESTURE_LONG_PRESS);
+        }
+
+        @Override
+        public void onDragStart() {
+            // The window itself is moved once per frame by the drag engine
+            dragEngine.startDragging();
+            frameStats.begin(FrameStats.DRAG);
+        }
+
+        @Override
+        public void onDragEnd(float velocityX, float velocityY, boolean fling) {
+            dragEngine.end();
+            frameStats.end(FrameStats.DRAG);
+            host.onRelease(dragEngine.getFingerWindowX(), dragEngine.getFingerWindowY(), velocityX, velocityY);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.nayanpote.edgeassist;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Turns a stream of slider positions into few AudioManager writes.
+ *
+ * {@link #request(int, int)} only records the latest wanted level. Once per
+ * frame the pending levels are handed to the io executor, one write per
+ * stream with only the newest value, and never while the previous batch is
+ * still in its binder call. A fast swipe from 0 to max is a handful of
+ * writes, and the main thread never waits on AudioManager.
+ *
+ * {@link #request(int, int)} and frames run on the main thread; the sink runs on the executor.
+ */
+public class CoalescingVolumeWriter implements FrameScheduler.FrameCallback {
+
+    public interface VolumeSink {
+        void setStreamVolume(int stream, int volume);
+    }
+
+    private static final int NONE = -1;
+    // AudioManager stream ids are small ints
+    public static final int MAX_STREAMS = 16;
+
+    private final FrameScheduler frameScheduler;
+    private final Executor ioExecutor;
+    private final VolumeSink sink;
+
+    private final int[] pending = new int[MAX_STREAMS];
+    private final int[] lastWritten = new int[MAX_STREAMS];
+    private final int[] batch = new int[MAX_STREAMS];
+    private boolean hasPending = false;
+    private volatile boolean writeInFlight = false;
+
+    private int requestCount = 0;
+    private volatile int writeCount = 0;
+
+    private final Runnable writeBatch = new Runnable() {
+        @Override
+        public void run() {
+            try {
+                for (int stream = 0; stream < MAX_STREAMS; stream++) {
+                    int volume = batch[stream];
+                    if (volume == NONE) continue;
+                    batch[stream] = NONE;
+                    sink.setStreamVolume(stream, volume);
+                    writeCount++;
+                }
+            } finally {
+                writeInFlight = false;
+            }
+        }
+    };
+
+    public CoalescingVolumeWriter(FrameScheduler frameScheduler, Executor ioExecutor, VolumeSink sink) {
+        this.frameScheduler = frameScheduler;
+        this.ioExecutor = ioExecutor;
+        this.sink = sink;
+        for (int i = 0; i < MAX_STREAMS; i++) {
+            pending[i] = NONE;
+            lastWritten[i] = NONE;
+            batch[i] = NONE;
+        }
+    }
+
+    /** Asks for {@code stream} to be at {@code volume}; only the latest request per frame is written. */
+    public void request(int stream, int volume) {
+        if (stream < 0 || stream >= MAX_STREAMS) return;
+
+        requestCount++;
+        pending[stream] = volume;
+        if (!hasPending) {
+            hasPending = true;
+            frameScheduler.postFrameCallback(this);
+        }
+    }
+
+    /** Tells the writer the stream is already at {@code volume}, e.g. after an external change. */
+    public void setKnownVolume(int stream, int volume) {
+        if (stream < 0 || stream >= MAX_STREAMS) return;
+        lastWritten[stream] = volume;
+    }
+
+    public void cancel() {
+        frameScheduler.removeFrameCallback(this);
+        hasPending = false;
+        for (int i = 0; i < MAX_STREAMS; i++) {
+            pending[i] = NONE;
+        }
+    }
+
+    public int getRequestCount() {
+        return requestCount;
+    }
+
+    public int getWriteCount() {
+        return writeCount;
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        if (!hasPending) return;
+
+        if (writeInFlight) {
+            // Previous binder call still running; newer values just keep overwriting pending
+            frameScheduler.postFrameCallback(this);
+            return;
+        }
+
+        boolean any = false;
+        for (int stream = 0; stream < MAX_STREAMS; stream++) {
+            int volume = pending[stream];
+            if (volume == NONE) continue;
+            pending[stream] = NONE;
+            if (volume == lastWritten[stream]) continue;
+
+            lastWritten[stream] = volume;
+            batch[stream] = volume;
+            any = true;
+        }
+        hasPending = false;
+
+        if (any) {
+            writeInFlight = true;
+            ioExecutor.execute(writeBatch);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.nayanpote.edgeassist;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Streams (name, number) rows from an address book and turns them into
+ * import candidates: numbers are normalized in parallel batches and
+ * duplicates (within the address book and against the saved contacts)
+ * are dropped. Runs on the caller's background thread.
+ *
+ * Memory stays bounded by the batch size times the number of batches in
+ * flight, plus the unique candidates themselves; the source is never
+ * materialized as a whole.
+ */
+public class ContactImportPipeline {
+
+    /** Row cursor; fills the arrays and returns how many rows were read, 0 at the end. */
+    public interface RowSource {
+        int read(String[] names, String[] numbers, int max) throws Exception;
+    }
+
+    public interface ProgressListener {
+        void onProgress(int rowsScanned, int candidates);
+    }
+
+    public static final class Result {
+        public final List<SpeedDialContact> candidates;
+        public final int rowsScanned;
+        public final int duplicates;
+
+        Result(List<SpeedDialContact> candidates, int rowsScanned, int duplicates) {
+            this.candidates = candidates;
+            this.rowsScanned = rowsScanned;
+            this.duplicates = duplicates;
+        }
+    }
+
+    public static final int DEFAULT_BATCH_SIZE = 256;
+
+    private final ContactRepository repository;
+    private final ExecutorService normalizePool;
+    private final int batchSize;
+    private final int maxBatchesInFlight;
+    private volatile boolean cancelled = false;
+
+    public ContactImportPipeline(ContactRepository repository, ExecutorService normalizePool,
+                                 int parallelism, int batchSize) {
+        this.repository = repository;
+        this.normalizePool = normalizePool;
+        this.batchSize = batchSize;
+        this.maxBatchesInFlight = Math.max(1, parallelism) * 2;
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /** Reads the whole source. Returns null if cancelled. */
+    public Result scan(RowSource source, ProgressListener progress) throws Exception {
+        ArrayDeque<Future<String[]>> inFlight = new ArrayDeque<>(maxBatchesInFlight);
+        ArrayDeque<String[][]> pendingRows = new ArrayDeque<>(maxBatchesInFlight);
+        HashSet<String> seen = new HashSet<>();
+        List<SpeedDialContact> candidates = new ArrayList<>();
+        int[] counters = new int[2]; // rows scanned, duplicates
+
+        try {
+            while (!cancelled) {
+                String[] names = new String[batchSize];
+                String[] numbers = new String[batchSize];
+                int count = source.read(names, numbers, batchSize);
+                if (count <= 0) break;
+
+                // Wait for the oldest batch first: keeps memory bounded and the address book order
+                if (inFlight.size() == maxBatchesInFlight) {
+                    merge(inFlight.poll(), pendingRows.poll(), seen, candidates, counters);
+                    progress.onProgress(counters[0], candidates.size());
+                }
+                inFlight.add(normalizePool.submit(normalizeBatch(numbers, count)));
+                pendingRows.add(new String[][]{names, numbers});
+            }
+
+            while (!inFlight.isEmpty() && !cancelled) {
+                merge(inFlight.poll(), pendingRows.poll(), seen, candidates, counters);
+                progress.onProgress(counters[0], candidates.size());
+            }
+        } finally {
+            for (Future<String[]> future : inFlight) {
+                future.cancel(true);
+            }
+        }
+
+        if (cancelled) return null;
+        return new Result(candidates, counters[0], counters[1]);
+    }
+
+    /** Saves the chosen candidates in one repository transaction. Returns how many were new. */
+    public int commit(List<SpeedDialContact> selected) {
+        if (cancelled || selected.isEmpty()) return 0;
+        return repository.addAll(selected);
+    }
+
+    private Callable<String[]> normalizeBatch(String[] numbers, int count) {
+        PhoneNumberNormalizer normalizer = repository.getNormalizer();
+        return () -> {
+            String[] keys = new String[count];
+            for (int i = 0; i < count; i++) {
+                keys[i] = normalizer.normalize(numbers[i]);
+            }
+            return keys;
+        };
+    }
+
+    private void merge(Future<String[]> future, String[][] rows, HashSet<String> seen,
+                       List<SpeedDialContact> candidates, int[] counters)
+            throws InterruptedException, ExecutionException {
+        String[] keys = future.get();
+        String[] names = rows[0];
+        String[] numbers = rows[1];
+        for (int i = 0; i < keys.length; i++) {
+            counters[0]++;
+            String key = keys[i];
+            if (key.isEmpty()) continue;
+
+            if (!seen.add(key) || repository.findByNumber(key) != null) {
+                counters[1]++;
+                continue;
+            }
+            String name = names[i] == null || names[i].trim().isEmpty() ? numbers[i] : names[i].trim();
+            candidates.add(new SpeedDialContact(name, numbers[i].trim()));
+        }
+    }
+}
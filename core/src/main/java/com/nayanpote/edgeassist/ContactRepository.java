@@ -0,0 +1,209 @@
+package com.nayanpote.edgeassist;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+
+/**
+ * Shared in-memory view of the speed-dial contacts, backed by {@link ContactStore}.
+ *
+ * Contacts are also indexed by their normalized number ({@link PhoneNumberNormalizer}),
+ * so duplicate checks and lookups by number are constant time regardless of how
+ * many contacts are saved, and numbers that only differ in formatting are one contact.
+ * A {@link ContactSearchIndex} is kept in step with every edit for type-ahead search.
+ *
+ * Readers get an immutable {@link Snapshot} with a plain volatile read and never
+ * block. Writers are serialized, build a new list (copy-on-write), persist the
+ * change and publish the new snapshot. Listeners are called on the notify
+ * executor (the main thread on device) with the latest snapshot; bursts of
+ * edits are coalesced into one callback.
+ */
+public class ContactRepository {
+
+    public interface Listener {
+        void onContactsChanged(Snapshot snapshot);
+    }
+
+    public static final class Snapshot {
+        public final long version;
+        public final List<SpeedDialContact> contacts;
+
+        Snapshot(long version, List<SpeedDialContact> contacts) {
+            this.version = version;
+            this.contacts = contacts;
+        }
+
+        public int size() {
+            return contacts.size();
+        }
+
+        public boolean isEmpty() {
+            return contacts.isEmpty();
+        }
+    }
+
+    private final ContactStore store;
+    private final Executor notifyExecutor;
+    private final PhoneNumberNormalizer normalizer;
+    // Normalized number -> contact, maintained with every edit under writeLock
+    private final ConcurrentHashMap<String, SpeedDialContact> byNumber =
+            new ConcurrentHashMap<>();
+    private final ContactSearchIndex searchIndex;
+    private final CopyOnWriteArrayList<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final Object writeLock = new Object();
+
+    private volatile Snapshot snapshot;
+    private volatile long notifiedVersion = -1;
+
+    public ContactRepository(ContactStore store, Executor notifyExecutor, PhoneNumberNormalizer normalizer) {
+        this.store = store;
+        this.notifyExecutor = notifyExecutor;
+        this.normalizer = normalizer;
+        this.searchIndex = new ContactSearchIndex(normalizer);
+
+        // Build the index and collapse duplicates saved before numbers were normalized
+        List<SpeedDialContact> stored = store.getContacts();
+        List<SpeedDialContact> unique = new ArrayList<>(stored.size());
+        for (SpeedDialContact contact : stored) {
+            if (byNumber.putIfAbsent(normalizer.normalize(contact.phoneNumber), contact) == null) {
+                unique.add(contact);
+                searchIndex.add(contact);
+            }
+        }
+        if (unique.size() != stored.size()) {
+            store.replaceAll(unique);
+        }
+        this.snapshot = new Snapshot(0, Collections.unmodifiableList(unique));
+    }
+
+    public Snapshot getSnapshot() {
+        return snapshot;
+    }
+
+    public void addListener(Listener listener) {
+        listeners.addIfAbsent(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    public PhoneNumberNormalizer getNormalizer() {
+        return normalizer;
+    }
+
+    /** The saved contact with the same normalized number, or null. */
+    public SpeedDialContact findByNumber(String phoneNumber) {
+        String key = normalizer.normalize(phoneNumber);
+        return key.isEmpty() ? null : byNumber.get(key);
+    }
+
+    public boolean containsNumber(String phoneNumber) {
+        return findByNumber(phoneNumber) != null;
+    }
+
+    public void setSearchBooster(ContactSearchIndex.Booster booster) {
+        searchIndex.setBooster(booster);
+    }
+
+    /** Ranked type-ahead matches by name, number or T9 digits; see {@link ContactSearchIndex}. */
+    public List<SpeedDialContact> search(String query, int limit) {
+        return searchIndex.search(query, limit);
+    }
+
+    /** Adds the contact unless its number is already saved; returns false for a duplicate. */
+    public boolean add(SpeedDialContact contact) {
+        String key = normalizer.normalize(contact.phoneNumber);
+        if (key.isEmpty()) return false;
+
+        synchronized (writeLock) {
+            if (byNumber.putIfAbsent(key, contact) != null) return false;
+
+            List<SpeedDialContact> next = new ArrayList<>(snapshot.contacts.size() + 1);
+            next.addAll(snapshot.contacts);
+            next.add(contact);
+            searchIndex.add(contact);
+            store.add(contact);
+            publish(next);
+            return true;
+        }
+    }
+
+    /** Adds every contact whose number is not saved yet, in one store transaction. Returns the count added. */
+    public int addAll(List<SpeedDialContact> contacts) {
+        if (contacts.isEmpty()) return 0;
+
+        synchronized (writeLock) {
+            List<SpeedDialContact> added = new ArrayList<>(contacts.size());
+            for (SpeedDialContact contact : contacts) {
+                String key = normalizer.normalize(contact.phoneNumber);
+                if (!key.isEmpty() && byNumber.putIfAbsent(key, contact) == null) {
+                    added.add(contact);
+                    searchIndex.add(contact);
+                }
+            }
+            if (added.isEmpty()) return 0;
+
+            List<SpeedDialContact> next =
+                    new ArrayList<>(snapshot.contacts.size() + added.size());
+            next.addAll(snapshot.contacts);
+            next.addAll(added);
+            store.addAll(added);
+            publish(next);
+            return added.size();
+        }
+    }
+
+    public boolean remove(SpeedDialContact contact) {
+        synchronized (writeLock) {
+            List<SpeedDialContact> current = snapshot.contacts;
+            int index = current.indexOf(contact);
+            if (index < 0) return false;
+
+            List<SpeedDialContact> next = new ArrayList<>(current);
+            next.remove(index);
+            byNumber.remove(normalizer.normalize(contact.phoneNumber), contact);
+            searchIndex.remove(contact);
+            store.remove(contact);
+            publish(next);
+            return true;
+        }
+    }
+
+    public void replaceAll(List<SpeedDialContact> contacts) {
+        synchronized (writeLock) {
+            byNumber.clear();
+            searchIndex.clear();
+            List<SpeedDialContact> next = new ArrayList<>(contacts.size());
+            for (SpeedDialContact contact : contacts) {
+                String key = normalizer.normalize(contact.phoneNumber);
+                if (!key.isEmpty() && byNumber.putIfAbsent(key, contact) == null) {
+                    next.add(contact);
+                    searchIndex.add(contact);
+                }
+            }
+            store.replaceAll(next);
+            publish(next);
+        }
+    }
+
+    // Caller holds writeLock
+    private void publish(List<SpeedDialContact> contacts) {
+        snapshot = new Snapshot(snapshot.version + 1, Collections.unmodifiableList(contacts));
+        notifyExecutor.execute(this::dispatch);
+    }
+
+    private void dispatch() {
+        Snapshot current = snapshot;
+        // An earlier dispatch already delivered this (or a newer) snapshot
+        if (current.version <= notifiedVersion) return;
+        notifiedVersion = current.version;
+
+        for (Listener listener : listeners) {
+            listener.onContactsChanged(current);
+        }
+    }
+}
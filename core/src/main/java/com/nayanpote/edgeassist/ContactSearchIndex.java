@@ -0,0 +1,381 @@
+package com.nayanpote.edgeassist;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Type-ahead index over speed-dial contacts.
+ *
+ * Two prefix tries are kept up to date as contacts are added and removed:
+ * one over normalized name tokens and number digits, and one over the T9
+ * keypad spelling of the name tokens (so "726" finds "Sam"). Every trie node
+ * holds the contacts whose keys pass through it, so a keystroke is one walk
+ * down the trie plus a top-k pass over that node's postings, with no scan of
+ * the full list.
+ */
+public class ContactSearchIndex {
+
+    /**
+     * Optional tie-breaker between matches of the same kind; higher ranks first.
+     * Gets the contact's number as normalized when it was indexed, so it runs
+     * per posting without normalizing again.
+     */
+    public interface Booster {
+        double boost(SpeedDialContact contact, String normalizedNumber);
+    }
+
+    // Match kinds, lower is better
+    static final byte MATCH_FIRST_NAME = 0;
+    static final byte MATCH_OTHER_NAME = 1;
+    static final byte MATCH_NUMBER = 2;
+    static final byte MATCH_T9 = 3;
+
+    private static final char[] T9_KEYS = {
+            '2', '2', '2', '3', '3', '3', '4', '4', '4', '5', '5', '5', '6', '6', '6',
+            '7', '7', '7', '7', '8', '8', '8', '9', '9', '9', '9'
+    };
+
+    private static final class Node {
+        char[] keys = new char[0];
+        Node[] children = new Node[0];
+        int childCount;
+
+        // Postings carry the contact's keys, so ranking needs no lookup per posting
+        Keys[] items = new Keys[2];
+        byte[] kinds = new byte[2];
+        int size;
+
+        Node child(char key) {
+            for (int i = 0; i < childCount; i++) {
+                if (keys[i] == key) return children[i];
+            }
+            return null;
+        }
+
+        Node childOrCreate(char key) {
+            Node existing = child(key);
+            if (existing != null) return existing;
+
+            if (childCount == keys.length) {
+                int capacity = Math.max(2, childCount * 2);
+                keys = java.util.Arrays.copyOf(keys, capacity);
+                children = java.util.Arrays.copyOf(children, capacity);
+            }
+            Node node = new Node();
+            keys[childCount] = key;
+            children[childCount] = node;
+            childCount++;
+            return node;
+        }
+
+        void addPosting(Keys posting, byte kind) {
+            if (size == items.length) {
+                items = java.util.Arrays.copyOf(items, size * 2);
+                kinds = java.util.Arrays.copyOf(kinds, size * 2);
+            }
+            items[size] = posting;
+            kinds[size] = kind;
+            size++;
+        }
+
+        void removePosting(Keys posting, byte kind) {
+            for (int i = 0; i < size; i++) {
+                if (items[i] == posting && kinds[i] == kind) {
+                    size--;
+                    items[i] = items[size];
+                    kinds[i] = kinds[size];
+                    items[size] = null;
+                    return;
+                }
+            }
+        }
+    }
+
+    private static final class Keys {
+        final SpeedDialContact contact;
+        final String[] nameTokens;
+        final String[] t9Tokens;
+        final String[] numberKeys;
+        final String normalizedNumber;
+
+        Keys(SpeedDialContact contact, String[] nameTokens, String[] t9Tokens, String[] numberKeys,
+             String normalizedNumber) {
+            this.contact = contact;
+            this.nameTokens = nameTokens;
+            this.t9Tokens = t9Tokens;
+            this.numberKeys = numberKeys;
+            this.normalizedNumber = normalizedNumber;
+        }
+    }
+
+    private final PhoneNumberNormalizer normalizer;
+    private final Node textRoot = new Node();
+    private final Node t9Root = new Node();
+    private final IdentityHashMap<SpeedDialContact, Keys> indexed = new IdentityHashMap<>();
+    private Booster booster;
+
+    public ContactSearchIndex(PhoneNumberNormalizer normalizer) {
+        this.normalizer = normalizer;
+    }
+
+    public synchronized void setBooster(Booster booster) {
+        this.booster = booster;
+    }
+
+    public synchronized int size() {
+        return indexed.size();
+    }
+
+    public synchronized void add(SpeedDialContact contact) {
+        if (indexed.containsKey(contact)) return;
+
+        Keys keys = keysFor(contact);
+        indexed.put(contact, keys);
+        for (int i = 0; i < keys.nameTokens.length; i++) {
+            byte kind = i == 0 ? MATCH_FIRST_NAME : MATCH_OTHER_NAME;
+            insert(textRoot, keys.nameTokens[i], keys, kind);
+        }
+        for (String numberKey : keys.numberKeys) {
+            insert(textRoot, numberKey, keys, MATCH_NUMBER);
+        }
+        for (String t9 : keys.t9Tokens) {
+            insert(t9Root, t9, keys, MATCH_T9);
+        }
+    }
+
+    public synchronized void remove(SpeedDialContact contact) {
+        Keys keys = indexed.remove(contact);
+        if (keys == null) return;
+
+        for (int i = 0; i < keys.nameTokens.length; i++) {
+            byte kind = i == 0 ? MATCH_FIRST_NAME : MATCH_OTHER_NAME;
+            delete(textRoot, keys.nameTokens[i], keys, kind);
+        }
+        for (String numberKey : keys.numberKeys) {
+            delete(textRoot, numberKey, keys, MATCH_NUMBER);
+        }
+        for (String t9 : keys.t9Tokens) {
+            delete(t9Root, t9, keys, MATCH_T9);
+        }
+    }
+
+    public synchronized void clear() {
+        indexed.clear();
+        textRoot.keys = new char[0];
+        textRoot.children = new Node[0];
+        textRoot.childCount = 0;
+        textRoot.size = 0;
+        t9Root.keys = new char[0];
+        t9Root.children = new Node[0];
+        t9Root.childCount = 0;
+        t9Root.size = 0;
+    }
+
+    /**
+     * Best matches for what the user typed so far, best first.
+     * Every word of the query has to prefix-match a word of the name (or the
+     * number); an all-digit query also matches T9 spellings of the name.
+     */
+    public synchronized List<SpeedDialContact> search(String query, int limit) {
+        List<SpeedDialContact> results = new ArrayList<>(Math.min(limit, 32));
+        String[] terms = tokenize(query);
+        if (terms.length == 0 || limit <= 0) return results;
+
+        // The longest term usually has the fewest postings
+        String lead = terms[0];
+        for (String term : terms) {
+            if (term.length() > lead.length()) lead = term;
+        }
+
+        SpeedDialContact[] top = new SpeedDialContact[limit];
+        double[] scores = new double[limit];
+        int[] count = {0};
+
+        collect(find(textRoot, lead), terms, top, scores, count);
+        if (terms.length == 1 && isDigits(lead)) {
+            collect(find(t9Root, lead), terms, top, scores, count);
+        }
+
+        for (int i = 0; i < count[0]; i++) {
+            results.add(top[i]);
+        }
+        return results;
+    }
+
+    private void collect(Node node, String[] terms, SpeedDialContact[] top,
+                         double[] scores, int[] count) {
+        if (node == null) return;
+
+        for (int i = 0; i < node.size; i++) {
+            Keys keys = node.items[i];
+            if (terms.length > 1 && !matchesAll(keys, terms)) continue;
+
+            // Lower kind wins; the booster breaks ties within a kind
+            double score = -node.kinds[i] * 1_000_000.0;
+            if (booster != null) {
+                score += Math.min(999_999.0, booster.boost(keys.contact, keys.normalizedNumber));
+            }
+            offer(keys.contact, score, top, scores, count);
+        }
+    }
+
+    // Keeps the best `top.length` contacts sorted by score, each contact once
+    private static void offer(SpeedDialContact contact, double score,
+                              SpeedDialContact[] top, double[] scores, int[] count) {
+        int n = count[0];
+        for (int i = 0; i < n; i++) {
+            if (top[i] == contact) {
+                if (score <= scores[i]) return;
+                // Better match for a contact already listed: take it out and re-insert
+                System.arraycopy(top, i + 1, top, i, n - i - 1);
+                System.arraycopy(scores, i + 1, scores, i, n - i - 1);
+                n--;
+                break;
+            }
+        }
+
+        if (n == top.length && score <= scores[n - 1]) {
+            count[0] = n;
+            return;
+        }
+
+        int position = Math.min(n, top.length - 1);
+        while (position > 0 && scores[position - 1] < score) {
+            top[position] = top[position - 1];
+            scores[position] = scores[position - 1];
+            position--;
+        }
+        top[position] = contact;
+        scores[position] = score;
+        count[0] = Math.min(n + 1, top.length);
+    }
+
+    private static boolean matchesAll(Keys keys, String[] terms) {
+        for (String term : terms) {
+            if (!anyStartsWith(keys.nameTokens, term) && !anyStartsWith(keys.numberKeys, term)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean anyStartsWith(String[] values, String prefix) {
+        for (String value : values) {
+            if (value.startsWith(prefix)) return true;
+        }
+        return false;
+    }
+
+    private static Node find(Node root, String key) {
+        Node node = root;
+        for (int i = 0; i < key.length() && node != null; i++) {
+            node = node.child(key.charAt(i));
+        }
+        return node;
+    }
+
+    private static void insert(Node root, String key, Keys posting, byte kind) {
+        Node node = root;
+        for (int i = 0; i < key.length(); i++) {
+            node = node.childOrCreate(key.charAt(i));
+            node.addPosting(posting, kind);
+        }
+    }
+
+    private static void delete(Node root, String key, Keys posting, byte kind) {
+        Node node = root;
+        for (int i = 0; i < key.length() && node != null; i++) {
+            node = node.child(key.charAt(i));
+            if (node != null) {
+                node.removePosting(posting, kind);
+            }
+        }
+    }
+
+    // --- Key extraction ---
+
+    private Keys keysFor(SpeedDialContact contact) {
+        String[] nameTokens = tokenize(contact.name);
+        String[] t9Tokens = new String[nameTokens.length];
+        int t9Count = 0;
+        for (String token : nameTokens) {
+            String t9 = toT9(token);
+            if (t9 != null) t9Tokens[t9Count++] = t9;
+        }
+
+        // Both the full international form and the national digits, so "98765" and "9198765" match
+        String normalized = normalizer.normalize(contact.phoneNumber);
+        String digits = normalized.startsWith("+") ? normalized.substring(1) : normalized;
+        String countryCode = normalizer.getCountryCode();
+        String[] numberKeys;
+        if (!countryCode.isEmpty() && normalized.startsWith("+" + countryCode)) {
+            numberKeys = new String[]{digits, digits.substring(countryCode.length())};
+        } else if (digits.isEmpty()) {
+            numberKeys = new String[0];
+        } else {
+            numberKeys = new String[]{digits};
+        }
+
+        return new Keys(contact, nameTokens, java.util.Arrays.copyOf(t9Tokens, t9Count), numberKeys, normalized);
+    }
+
+    /** Lower-cased, accent-free words of the text. */
+    static String[] tokenize(String text) {
+        if (text == null || text.isEmpty()) return new String[0];
+
+        String folded = Normalizer.normalize(text, Normalizer.Form.NFD).toLowerCase(Locale.ROOT);
+        List<String> tokens = new ArrayList<>(4);
+        StringBuilder current = new StringBuilder();
+        for (int i = 0; i < folded.length(); i++) {
+            char c = folded.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) continue;
+
+            if (Character.isLetterOrDigit(c)) {
+                current.append(c);
+            } else if (c == '+' || c == '-' || c == '(' || c == ')' || c == '.') {
+                // Number formatting inside a token, e.g. "987-654"
+                if (current.length() == 0 || !Character.isDigit(current.charAt(current.length() - 1))) {
+                    flush(current, tokens);
+                }
+            } else {
+                flush(current, tokens);
+            }
+        }
+        flush(current, tokens);
+        return tokens.toArray(new String[0]);
+    }
+
+    private static void flush(StringBuilder current, List<String> tokens) {
+        if (current.length() > 0) {
+            tokens.add(current.toString());
+            current.setLength(0);
+        }
+    }
+
+    /** Keypad digits for a token, or null if it has characters without a key. */
+    static String toT9(String token) {
+        char[] digits = new char[token.length()];
+        for (int i = 0; i < token.length(); i++) {
+            char c = token.charAt(i);
+            if (c >= 'a' && c <= 'z') {
+                digits[i] = T9_KEYS[c - 'a'];
+            } else if (c >= '0' && c <= '9') {
+                digits[i] = c;
+            } else {
+                return null;
+            }
+        }
+        return new String(digits);
+    }
+
+    private static boolean isDigits(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') return false;
+        }
+        return !value.isEmpty();
+    }
+}
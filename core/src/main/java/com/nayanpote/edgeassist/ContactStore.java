@@ -0,0 +1,409 @@
+package com.nayanpote.edgeassist;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.zip.CRC32;
+
+/**
+ * Speed-dial contacts on disk: a compact binary snapshot plus an append-only journal.
+ *
+ * Every add/remove appends one small checksummed record to the journal instead of
+ * rewriting the whole list. Once the journal grows past {@link #COMPACT_THRESHOLD}
+ * records it is folded into a new snapshot, written to a temp file, synced and
+ * renamed over the old one. Snapshot and journal carry a generation number, so a
+ * journal that was already folded in is never replayed twice, and a torn record at
+ * the end of the journal (crash mid-write) is dropped on the next open.
+ *
+ * The in-memory list is updated immediately; disk writes run in order on the
+ * given executor.
+ */
+public class ContactStore {
+
+    public interface ErrorHandler {
+        void onStoreError(IOException e);
+    }
+
+    static final String SNAPSHOT_FILE = "speed_dial_contacts.bin";
+    static final String JOURNAL_FILE = "speed_dial_contacts.journal";
+    static final int COMPACT_THRESHOLD = 64;
+
+    private static final int SNAPSHOT_MAGIC = 0x45414353; // "EACS"
+    private static final int JOURNAL_MAGIC = 0x4541434A;  // "EACJ"
+    private static final short FORMAT_VERSION = 1;
+    private static final int JOURNAL_HEADER_SIZE = 4 + 2 + 8;
+
+    private static final byte OP_ADD = 1;
+    private static final byte OP_REMOVE = 2;
+    private static final byte OP_ADD_ALL = 3;
+
+    private final File snapshotFile;
+    private final File journalFile;
+    private final File tempFile;
+    private final Executor ioExecutor;
+    private volatile ErrorHandler errorHandler;
+
+    private final ArrayList<SpeedDialContact> contacts = new ArrayList<>();
+    private long version = 0;
+    private int journalRecords = 0;
+
+    // Only touched on the io executor after open()
+    private long generation = 0;
+    private final ByteArrayOutputStream recordBuffer = new ByteArrayOutputStream(256);
+    private final CRC32 crc = new CRC32();
+
+    public ContactStore(File directory, Executor ioExecutor) {
+        this.snapshotFile = new File(directory, SNAPSHOT_FILE);
+        this.journalFile = new File(directory, JOURNAL_FILE);
+        this.tempFile = new File(directory, SNAPSHOT_FILE + ".tmp");
+        this.ioExecutor = ioExecutor;
+    }
+
+    public void setErrorHandler(ErrorHandler errorHandler) {
+        this.errorHandler = errorHandler;
+    }
+
+    public boolean exists() {
+        return snapshotFile.exists();
+    }
+
+    /** Loads the snapshot and replays the journal. Call once, before any other method. */
+    public synchronized void open() throws IOException {
+        contacts.clear();
+        journalRecords = 0;
+        generation = 0;
+
+        if (snapshotFile.exists()) {
+            try {
+                readSnapshot();
+            } catch (IOException e) {
+                // Keep the damaged file for inspection and start from an empty list
+                snapshotFile.renameTo(new File(snapshotFile.getPath() + ".corrupt"));
+                contacts.clear();
+                generation = 0;
+                reportError(e);
+            }
+        }
+
+        long validJournalLength = journalFile.exists() ? replayJournal() : -1;
+        if (validJournalLength < 0) {
+            resetJournal();
+        } else if (validJournalLength < journalFile.length()) {
+            // Drop a torn record left by a crash
+            try (RandomAccessFile file = new RandomAccessFile(journalFile, "rw")) {
+                file.setLength(validJournalLength);
+            }
+        }
+        tempFile.delete();
+        version++;
+    }
+
+    public synchronized List<SpeedDialContact> getContacts() {
+        return Collections.unmodifiableList(new ArrayList<>(contacts));
+    }
+
+    public synchronized int size() {
+        return contacts.size();
+    }
+
+    /** Incremented on every change, so callers can cheaply tell whether they are stale. */
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    public synchronized void add(SpeedDialContact contact) {
+        contacts.add(contact);
+        version++;
+        final String name = contact.name;
+        final String number = contact.phoneNumber;
+        appendRecord(OP_ADD, out -> {
+            out.writeUTF(name);
+            out.writeUTF(number);
+        });
+    }
+
+    /** Adds all contacts as a single journal record, so either all or none survive a crash. */
+    public synchronized void addAll(List<SpeedDialContact> newContacts) {
+        if (newContacts.isEmpty()) return;
+
+        contacts.addAll(newContacts);
+        version++;
+        final String[] pairs = new String[newContacts.size() * 2];
+        for (int i = 0; i < newContacts.size(); i++) {
+            pairs[i * 2] = newContacts.get(i).name;
+            pairs[i * 2 + 1] = newContacts.get(i).phoneNumber;
+        }
+        appendRecord(OP_ADD_ALL, out -> {
+            out.writeInt(pairs.length / 2);
+            for (String value : pairs) {
+                out.writeUTF(value);
+            }
+        });
+    }
+
+    public synchronized boolean remove(SpeedDialContact contact) {
+        int index = indexOf(contacts, contact.name, contact.phoneNumber);
+        if (index < 0) return false;
+
+        contacts.remove(index);
+        version++;
+        final String name = contact.name;
+        final String number = contact.phoneNumber;
+        appendRecord(OP_REMOVE, out -> {
+            out.writeUTF(name);
+            out.writeUTF(number);
+        });
+        return true;
+    }
+
+    /** Replaces the whole list and writes a fresh snapshot. */
+    public synchronized void replaceAll(List<SpeedDialContact> newContacts) {
+        contacts.clear();
+        contacts.addAll(newContacts);
+        version++;
+        scheduleCompaction();
+    }
+
+    /** Folds the journal into a new snapshot now instead of waiting for the threshold. */
+    public synchronized void compact() {
+        scheduleCompaction();
+    }
+
+    // --- Writing ---
+
+    private interface RecordWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    // Caller holds the lock, so records reach the executor in mutation order
+    private void appendRecord(byte op, RecordWriter writer) {
+        journalRecords++;
+        ioExecutor.execute(() -> {
+            try {
+                writeJournalRecord(op, writer);
+            } catch (IOException e) {
+                reportError(e);
+            }
+        });
+        if (journalRecords >= COMPACT_THRESHOLD) {
+            scheduleCompaction();
+        }
+    }
+
+    private void scheduleCompaction() {
+        journalRecords = 0;
+        final List<SpeedDialContact> copy = new ArrayList<>(contacts);
+        ioExecutor.execute(() -> {
+            try {
+                writeSnapshot(copy);
+            } catch (IOException e) {
+                reportError(e);
+            }
+        });
+    }
+
+    private void writeJournalRecord(byte op, RecordWriter writer) throws IOException {
+        recordBuffer.reset();
+        DataOutputStream payload = new DataOutputStream(recordBuffer);
+        writer.write(payload);
+        payload.flush();
+        byte[] bytes = recordBuffer.toByteArray();
+
+        crc.reset();
+        crc.update(op);
+        crc.update(bytes, 0, bytes.length);
+
+        try (RandomAccessFile file = new RandomAccessFile(journalFile, "rw")) {
+            if (file.length() < JOURNAL_HEADER_SIZE) {
+                writeJournalHeader(file);
+            }
+            file.seek(file.length());
+            file.writeByte(op);
+            file.writeInt(bytes.length);
+            file.write(bytes);
+            file.writeInt((int) crc.getValue());
+            file.getFD().sync();
+        }
+    }
+
+    private void writeSnapshot(List<SpeedDialContact> list) throws IOException {
+        long nextGeneration = generation + 1;
+
+        recordBuffer.reset();
+        DataOutputStream out = new DataOutputStream(recordBuffer);
+        out.writeInt(SNAPSHOT_MAGIC);
+        out.writeShort(FORMAT_VERSION);
+        out.writeLong(nextGeneration);
+        out.writeInt(list.size());
+        for (SpeedDialContact contact : list) {
+            out.writeUTF(contact.name);
+            out.writeUTF(contact.phoneNumber);
+        }
+        out.flush();
+        byte[] bytes = recordBuffer.toByteArray();
+        crc.reset();
+        crc.update(bytes, 0, bytes.length);
+
+        try (FileOutputStream stream = new FileOutputStream(tempFile)) {
+            stream.write(bytes);
+            new DataOutputStream(stream).writeInt((int) crc.getValue());
+            stream.getFD().sync();
+        }
+        if (!tempFile.renameTo(snapshotFile)) {
+            throw new IOException("Cannot replace " + snapshotFile);
+        }
+
+        // From here on the old journal belongs to an older generation and is ignored
+        generation = nextGeneration;
+        resetJournal();
+    }
+
+    private void resetJournal() throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(journalFile, "rw")) {
+            file.setLength(0);
+            writeJournalHeader(file);
+            file.getFD().sync();
+        }
+    }
+
+    private void writeJournalHeader(RandomAccessFile file) throws IOException {
+        file.seek(0);
+        file.writeInt(JOURNAL_MAGIC);
+        file.writeShort(FORMAT_VERSION);
+        file.writeLong(generation);
+    }
+
+    private void reportError(IOException e) {
+        ErrorHandler handler = errorHandler;
+        if (handler != null) {
+            handler.onStoreError(e);
+        }
+    }
+
+    // --- Reading ---
+
+    private void readSnapshot() throws IOException {
+        byte[] bytes = readFully(snapshotFile);
+        if (bytes.length < 4) {
+            throw new IOException("Truncated snapshot " + snapshotFile);
+        }
+
+        crc.reset();
+        crc.update(bytes, 0, bytes.length - 4);
+        int storedCrc = ((bytes[bytes.length - 4] & 0xFF) << 24) | ((bytes[bytes.length - 3] & 0xFF) << 16)
+                | ((bytes[bytes.length - 2] & 0xFF) << 8) | (bytes[bytes.length - 1] & 0xFF);
+        if (storedCrc != (int) crc.getValue()) {
+            throw new IOException("Corrupt snapshot " + snapshotFile);
+        }
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, 0, bytes.length - 4));
+        if (in.readInt() != SNAPSHOT_MAGIC || in.readShort() != FORMAT_VERSION) {
+            throw new IOException("Unknown snapshot format " + snapshotFile);
+        }
+        generation = in.readLong();
+        int count = in.readInt();
+        contacts.ensureCapacity(count);
+        for (int i = 0; i < count; i++) {
+            contacts.add(new SpeedDialContact(in.readUTF(), in.readUTF()));
+        }
+    }
+
+    /** Returns the length of the valid prefix, or -1 if the journal is unusable or stale. */
+    private long replayJournal() throws IOException {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(journalFile)))) {
+            try {
+                if (in.readInt() != JOURNAL_MAGIC || in.readShort() != FORMAT_VERSION
+                        || in.readLong() != generation) {
+                    return -1;
+                }
+            } catch (EOFException e) {
+                return -1;
+            }
+
+            long valid = JOURNAL_HEADER_SIZE;
+            while (true) {
+                byte op;
+                byte[] payload;
+                int storedCrc;
+                try {
+                    op = in.readByte();
+                    int length = in.readInt();
+                    if (length < 0 || valid + 9 + length > journalFile.length()) break;
+                    payload = new byte[length];
+                    in.readFully(payload);
+                    storedCrc = in.readInt();
+                } catch (EOFException e) {
+                    break;
+                }
+
+                crc.reset();
+                crc.update(op);
+                crc.update(payload, 0, payload.length);
+                if (storedCrc != (int) crc.getValue()) break;
+
+                applyRecord(op, new DataInputStream(new ByteArrayInputStream(payload)));
+                valid += 1 + 4 + payload.length + 4;
+                journalRecords++;
+            }
+            return valid;
+        }
+    }
+
+    private void applyRecord(byte op, DataInputStream in) throws IOException {
+        switch (op) {
+            case OP_ADD:
+                contacts.add(new SpeedDialContact(in.readUTF(), in.readUTF()));
+                break;
+            case OP_REMOVE: {
+                int index = indexOf(contacts, in.readUTF(), in.readUTF());
+                if (index >= 0) contacts.remove(index);
+                break;
+            }
+            case OP_ADD_ALL: {
+                int count = in.readInt();
+                contacts.ensureCapacity(contacts.size() + count);
+                for (int i = 0; i < count; i++) {
+                    contacts.add(new SpeedDialContact(in.readUTF(), in.readUTF()));
+                }
+                break;
+            }
+            default:
+                throw new IOException("Unknown journal op " + op);
+        }
+    }
+
+    private static int indexOf(List<SpeedDialContact> list, String name, String number) {
+        for (int i = 0; i < list.size(); i++) {
+            SpeedDialContact contact = list.get(i);
+            if (contact.phoneNumber.equals(number) && contact.name.equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static byte[] readFully(File file) throws IOException {
+        try (FileInputStream in = new FileInputStream(file)) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream((int) Math.max(32, file.length()));
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.nayanpote.edgeassist;
+
+/**
+ * Vsync-batched drag for the floating bubble.
+ * Touch samples only update the latest finger position; the window is moved
+ * from a frame callback, so no matter how fast the panel reports events there
+ * is at most one layout per frame. A short linear prediction from recent
+ * samples hides part of the input-to-display latency.
+ */
+public class DragEngine implements FrameScheduler.FrameCallback {
+
+    private static final int HISTORY_SIZE = 8;
+    // Samples older than this are ignored for the velocity estimate
+    private static final long VELOCITY_WINDOW_NANOS = 50_000_000L;
+
+    private final FrameScheduler frameScheduler;
+    private final WindowPositionAnimator.PositionSink sink;
+    private final long predictionNanos;
+    private final float maxPredictionPx;
+
+    // Ring buffer of recent raw touch samples
+    private final float[] sampleX = new float[HISTORY_SIZE];
+    private final float[] sampleY = new float[HISTORY_SIZE];
+    private final long[] sampleTime = new long[HISTORY_SIZE];
+    private int sampleHead = -1;
+    private int sampleCount = 0;
+
+    private float anchorWindowX, anchorWindowY;
+    private float anchorTouchX, anchorTouchY;
+    private int appliedX, appliedY;
+    private boolean dragging = false;
+    private boolean framePending = false;
+
+    // Metrics
+    private long lastFrameTimeNanos = -1;
+    private int layoutsInLastFrame = 0;
+    private int maxLayoutsPerFrame = 0;
+    private int samplesSinceLastFrame = 0;
+    private long frameCount = 0;
+    private long layoutCount = 0;
+    private long sampleTotal = 0;
+
+    public DragEngine(FrameScheduler frameScheduler, WindowPositionAnimator.PositionSink sink,
+                      long predictionNanos, float maxPredictionPx) {
+        this.frameScheduler = frameScheduler;
+        this.sink = sink;
+        this.predictionNanos = predictionNanos;
+        this.maxPredictionPx = maxPredictionPx;
+    }
+
+    /** Anchors a new gesture: window position and raw touch point at ACTION_DOWN. */
+    public void begin(int windowX, int windowY, float touchX, float touchY, long timeNanos) {
+        cancelFrame();
+        anchorWindowX = windowX;
+        anchorWindowY = windowY;
+        anchorTouchX = touchX;
+        anchorTouchY = touchY;
+        appliedX = windowX;
+        appliedY = windowY;
+        dragging = false;
+        sampleHead = -1;
+        sampleCount = 0;
+        addSample(touchX, touchY, timeNanos);
+    }
+
+    /** Records one raw touch sample; historical samples should be added oldest first. */
+    public void addSample(float touchX, float touchY, long timeNanos) {
+        sampleHead = (sampleHead + 1) % HISTORY_SIZE;
+        sampleX[sampleHead] = touchX;
+        sampleY[sampleHead] = touchY;
+        sampleTime[sampleHead] = timeNanos;
+        if (sampleCount < HISTORY_SIZE) sampleCount++;
+        sampleTotal++;
+        samplesSinceLastFrame++;
+
+        if (dragging) {
+            scheduleFrame();
+        }
+    }
+
+    /** Called once the touch slop is exceeded; from now on the window follows the finger. */
+    public void startDragging() {
+        if (dragging) return;
+        dragging = true;
+        scheduleFrame();
+    }
+
+    /**
+     * Stops following the finger. The exact (unpredicted) finger position is
+     * available from {@link #getFingerWindowX()} / {@link #getFingerWindowY()}.
+     */
+    public void end() {
+        dragging = false;
+        cancelFrame();
+    }
+
+    public boolean isDragging() {
+        return dragging;
+    }
+
+    public int getFingerWindowX() {
+        return sampleCount == 0 ? appliedX : Math.round(anchorWindowX + sampleX[sampleHead] - anchorTouchX);
+    }
+
+    public int getFingerWindowY() {
+        return sampleCount == 0 ? appliedY : Math.round(anchorWindowY + sampleY[sampleHead] - anchorTouchY);
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        framePending = false;
+        if (!dragging || sampleCount == 0) return;
+
+        if (frameTimeNanos != lastFrameTimeNanos) {
+            lastFrameTimeNanos = frameTimeNanos;
+            layoutsInLastFrame = 0;
+            frameCount++;
+        }
+        samplesSinceLastFrame = 0;
+
+        float touchX = sampleX[sampleHead];
+        float touchY = sampleY[sampleHead];
+
+        int oldest = oldestSampleInWindow();
+        if (oldest != sampleHead && predictionNanos > 0) {
+            long dt = sampleTime[sampleHead] - sampleTime[oldest];
+            if (dt > 0) {
+                float scale = predictionNanos / (float) dt;
+                touchX += clamp((sampleX[sampleHead] - sampleX[oldest]) * scale);
+                touchY += clamp((sampleY[sampleHead] - sampleY[oldest]) * scale);
+            }
+        }
+
+        int x = Math.round(anchorWindowX + touchX - anchorTouchX);
+        int y = Math.round(anchorWindowY + touchY - anchorTouchY);
+        if (x == appliedX && y == appliedY) return;
+
+        appliedX = x;
+        appliedY = y;
+        layoutsInLastFrame++;
+        layoutCount++;
+        if (layoutsInLastFrame > maxLayoutsPerFrame) {
+            maxLayoutsPerFrame = layoutsInLastFrame;
+        }
+        sink.onPosition(x, y);
+    }
+
+    private int oldestSampleInWindow() {
+        long newest = sampleTime[sampleHead];
+        int oldest = sampleHead;
+        for (int i = 1; i < sampleCount; i++) {
+            int index = (sampleHead - i + HISTORY_SIZE) % HISTORY_SIZE;
+            if (newest - sampleTime[index] > VELOCITY_WINDOW_NANOS) break;
+            oldest = index;
+        }
+        return oldest;
+    }
+
+    private float clamp(float delta) {
+        return Math.max(-maxPredictionPx, Math.min(maxPredictionPx, delta));
+    }
+
+    private void scheduleFrame() {
+        if (framePending) return;
+        framePending = true;
+        frameScheduler.postFrameCallback(this);
+    }
+
+    private void cancelFrame() {
+        if (!framePending) return;
+        framePending = false;
+        frameScheduler.removeFrameCallback(this);
+    }
+
+    // --- Metrics ---
+
+    /** Layout updates issued in the most recent frame; should never exceed one. */
+    public int getLayoutsInLastFrame() {
+        return layoutsInLastFrame;
+    }
+
+    public int getMaxLayoutsPerFrame() {
+        return maxLayoutsPerFrame;
+    }
+
+    public long getFrameCount() {
+        return frameCount;
+    }
+
+    public long getLayoutCount() {
+        return layoutCount;
+    }
+
+    public long getSampleCount() {
+        return sampleTotal;
+    }
+
+    public int getSamplesSinceLastFrame() {
+        return samplesSinceLastFrame;
+    }
+
+    public void resetMetrics() {
+        layoutsInLastFrame = 0;
+        maxLayoutsPerFrame = 0;
+        frameCount = 0;
+        layoutCount = 0;
+        sampleTotal = 0;
+    }
+}
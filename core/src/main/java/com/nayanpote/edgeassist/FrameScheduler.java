@@ -0,0 +1,20 @@
+package com.nayanpote.edgeassist;
+
+/**
+ * Source of display frame (vsync) callbacks.
+ * On device this is backed by the Choreographer, in unit tests frames are driven by hand.
+ */
+public interface FrameScheduler {
+
+    interface FrameCallback {
+        void doFrame(long frameTimeNanos);
+    }
+
+    /**
+     * Runs the callback once on the next frame. Posting a callback that is
+     * already pending is a no-op, so callers never run twice in one frame.
+     */
+    void postFrameCallback(FrameCallback callback);
+
+    void removeFrameCallback(FrameCallback callback);
+}
@@ -0,0 +1,180 @@
+package com.nayanpote.edgeassist;
+
+import java.util.Arrays;
+
+/**
+ * Frame-time histograms per interaction (drag, snap, hide/show, speed-dial
+ * open, the settings screen).
+ *
+ * Overlay windows have no {@code Window} to hang FrameMetrics on, so while
+ * any interaction is running this times frames from vsync to vsync through the
+ * {@link FrameScheduler}; a frame that took more than one and a half vsync
+ * intervals is a jank. Activity windows report their real per-frame cost
+ * through {@link #recordFrameDuration(int, long)} instead.
+ *
+ * Every interaction has fixed 1 ms buckets in one flat int array, so
+ * recording never allocates. Main thread only.
+ */
+public class FrameStats implements FrameScheduler.FrameCallback {
+
+    public static final int DRAG = 0;
+    public static final int SNAP = 1;
+    public static final int HIDE_SHOW = 2;
+    public static final int SPEED_DIAL_OPEN = 3;
+    public static final int APP_SCREEN = 4;
+    public static final int INTERACTION_COUNT = 5;
+
+    // 1 ms per bucket; the last one also holds everything slower
+    static final int BUCKET_COUNT = 100;
+    private static final long BUCKET_NANOS = 1_000_000L;
+    private static final long DEFAULT_FRAME_INTERVAL_NANOS = 16_666_667L;
+
+    private final FrameScheduler frameScheduler;
+    private final int[] buckets = new int[INTERACTION_COUNT * BUCKET_COUNT];
+    private final int[] frames = new int[INTERACTION_COUNT];
+    private final int[] janks = new int[INTERACTION_COUNT];
+    private final int[] sessions = new int[INTERACTION_COUNT];
+    private final long[] maxNanos = new long[INTERACTION_COUNT];
+
+    private long frameIntervalNanos = DEFAULT_FRAME_INTERVAL_NANOS;
+    private int activeMask = 0;
+    private long lastFrameTimeNanos = -1;
+    private boolean posted = false;
+    private long windowLayouts = 0;
+
+    public FrameStats(FrameScheduler frameScheduler) {
+        this.frameScheduler = frameScheduler;
+    }
+
+    /** Display refresh interval, used as the jank threshold. */
+    public void setFrameIntervalNanos(long frameIntervalNanos) {
+        if (frameIntervalNanos > 0) {
+            this.frameIntervalNanos = frameIntervalNanos;
+        }
+    }
+
+    public long getFrameIntervalNanos() {
+        return frameIntervalNanos;
+    }
+
+    /** Starts timing vsync-to-vsync frames for an interaction; repeated calls are ignored. */
+    public void begin(int interaction) {
+        int bit = 1 << interaction;
+        if ((activeMask & bit) != 0) return;
+
+        activeMask |= bit;
+        sessions[interaction]++;
+        if (!posted) {
+            posted = true;
+            lastFrameTimeNanos = -1;
+            frameScheduler.postFrameCallback(this);
+        }
+    }
+
+    public void end(int interaction) {
+        activeMask &= ~(1 << interaction);
+    }
+
+    public void endAll() {
+        activeMask = 0;
+        lastFrameTimeNanos = -1;
+        if (posted) {
+            posted = false;
+            frameScheduler.removeFrameCallback(this);
+        }
+    }
+
+    public boolean isActive(int interaction) {
+        return (activeMask & (1 << interaction)) != 0;
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        posted = false;
+        if (activeMask == 0) {
+            lastFrameTimeNanos = -1;
+            return;
+        }
+
+        if (lastFrameTimeNanos >= 0) {
+            long delta = frameTimeNanos - lastFrameTimeNanos;
+            boolean jank = delta * 2 > frameIntervalNanos * 3;
+            for (int interaction = 0; interaction < INTERACTION_COUNT; interaction++) {
+                if ((activeMask & (1 << interaction)) != 0) {
+                    record(interaction, delta, jank);
+                }
+            }
+        }
+        lastFrameTimeNanos = frameTimeNanos;
+        posted = true;
+        frameScheduler.postFrameCallback(this);
+    }
+
+    /** A frame's measured cost (e.g. FrameMetrics total duration); over one interval is a jank. */
+    public void recordFrameDuration(int interaction, long durationNanos) {
+        record(interaction, durationNanos, durationNanos > frameIntervalNanos);
+    }
+
+    private void record(int interaction, long durationNanos, boolean jank) {
+        int bucket = (int) Math.min(BUCKET_COUNT - 1, Math.max(0, durationNanos / BUCKET_NANOS));
+        buckets[interaction * BUCKET_COUNT + bucket]++;
+        frames[interaction]++;
+        if (jank) janks[interaction]++;
+        if (durationNanos > maxNanos[interaction]) maxNanos[interaction] = durationNanos;
+    }
+
+    /** Called for every overlay {@code updateViewLayout}. */
+    public void countWindowLayout() {
+        windowLayouts++;
+    }
+
+    /** Layouts since the process started; not cleared by {@link #reset()}. */
+    public long getWindowLayoutCount() {
+        return windowLayouts;
+    }
+
+    public int getFrameCount(int interaction) {
+        return frames[interaction];
+    }
+
+    public int getJankCount(int interaction) {
+        return janks[interaction];
+    }
+
+    /** How often the interaction was started. */
+    public int getSessionCount(int interaction) {
+        return sessions[interaction];
+    }
+
+    public double getMaxMs(int interaction) {
+        return maxNanos[interaction] / 1e6;
+    }
+
+    /**
+     * Frame time at percentile {@code p} (0..1), as the upper edge of its
+     * bucket in ms, or 0 when nothing was recorded.
+     */
+    public double getPercentileMs(int interaction, double p) {
+        int total = frames[interaction];
+        if (total == 0) return 0;
+
+        int target = Math.max(1, (int) Math.ceil(p * total));
+        int offset = interaction * BUCKET_COUNT;
+        int seen = 0;
+        for (int bucket = 0; bucket < BUCKET_COUNT - 1; bucket++) {
+            seen += buckets[offset + bucket];
+            if (seen >= target) {
+                return Math.min(bucket + 1, getMaxMs(interaction));
+            }
+        }
+        return getMaxMs(interaction);
+    }
+
+    public void reset() {
+        Arrays.fill(buckets, 0);
+        Arrays.fill(frames, 0);
+        Arrays.fill(janks, 0);
+        Arrays.fill(sessions, 0);
+        Arrays.fill(maxNanos, 0);
+    }
+}
@@ -0,0 +1,356 @@
+package com.nayanpote.edgeassist;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.zip.CRC32;
+
+/**
+ * Frequency + recency ("frecency") ranking of speed-dial numbers.
+ *
+ * Each call adds a weight that decays exponentially with the given half-life.
+ * Scores are kept in log space relative to a fixed epoch:
+ * {@code log(sum of e^(lambda * callTime))}. Decay then never has to be
+ * applied, because it scales every score by the same factor and does not
+ * change the order, and a call is a single log-add plus one sift-up
+ * in an indexed max-heap, O(log n). {@link #topKeys(int)} reads the best k in
+ * O(k log k) without touching the rest.
+ *
+ * Entries are keyed by normalized number, so they survive contact edits and
+ * reordering. State lives in parallel primitive arrays indexed by slot and is
+ * saved as one small CRC'd file, with writes coalesced on the io executor.
+ */
+public class FrecencyRanker {
+
+    public interface ErrorHandler {
+        void onRankerError(IOException e);
+    }
+
+    static final String FILE_NAME = "speed_dial_frecency.bin";
+    public static final long DEFAULT_HALF_LIFE_MS = 14L * 24 * 60 * 60 * 1000;
+
+    private static final int MAGIC = 0x45414346; // "EACF"
+    private static final short FORMAT_VERSION = 1;
+
+    private final File file;
+    private final File tempFile;
+    private final Executor ioExecutor;
+    private final double lambdaPerMs;
+    private volatile ErrorHandler errorHandler;
+
+    // Per-slot state
+    private String[] keys = new String[16];
+    private double[] logScores = new double[16];
+    private int[] callCounts = new int[16];
+    private int[] heapIndex = new int[16];   // slot -> position in heap, -1 when free
+    private int slotCount = 0;
+    private int[] freeSlots = new int[16];
+    private int freeCount = 0;
+
+    // Max-heap of slots ordered by logScores
+    private int[] heap = new int[16];
+    private int heapSize = 0;
+
+    private final HashMap<String, Integer> slotByKey = new HashMap<>();
+
+    private boolean saveScheduled = false;
+
+    public FrecencyRanker(File directory, Executor ioExecutor, long halfLifeMs) {
+        this.file = new File(directory, FILE_NAME);
+        this.tempFile = new File(directory, FILE_NAME + ".tmp");
+        this.ioExecutor = ioExecutor;
+        this.lambdaPerMs = Math.log(2) / halfLifeMs;
+    }
+
+    public void setErrorHandler(ErrorHandler errorHandler) {
+        this.errorHandler = errorHandler;
+    }
+
+    /** Records a call at {@code timeMs} (wall clock) and schedules a save. */
+    public synchronized void recordCall(String key, long timeMs) {
+        if (key == null || key.isEmpty()) return;
+
+        double weight = lambdaPerMs * timeMs;
+        Integer slot = slotByKey.get(key);
+        if (slot == null) {
+            insert(key, weight, 1);
+        } else {
+            int s = slot;
+            logScores[s] = logAdd(logScores[s], weight);
+            callCounts[s]++;
+            siftUp(heapIndex[s]);
+        }
+        scheduleSave();
+    }
+
+    /** Forgets a number, e.g. when its contact is deleted. */
+    public synchronized void remove(String key) {
+        Integer slot = slotByKey.remove(key);
+        if (slot == null) return;
+
+        int s = slot;
+        int position = heapIndex[s];
+        heapSize--;
+        if (position != heapSize) {
+            int moved = heap[heapSize];
+            heap[position] = moved;
+            heapIndex[moved] = position;
+            // The moved slot can belong either above or below its new position
+            siftUp(position);
+            siftDown(heapIndex[moved]);
+        }
+
+        keys[s] = null;
+        heapIndex[s] = -1;
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        }
+        freeSlots[freeCount++] = s;
+        scheduleSave();
+    }
+
+    public synchronized int size() {
+        return heapSize;
+    }
+
+    public synchronized boolean contains(String key) {
+        return slotByKey.containsKey(key);
+    }
+
+    public synchronized int getCallCount(String key) {
+        Integer slot = slotByKey.get(key);
+        return slot == null ? 0 : callCounts[slot];
+    }
+
+    /**
+     * Comparable score for a number, larger is better, 0 if it was never called.
+     * Only the order is meaningful, not the value.
+     */
+    public synchronized double getScore(String key) {
+        Integer slot = slotByKey.get(key);
+        return slot == null ? 0 : logScores[slot];
+    }
+
+    /** The k best-ranked numbers, best first. */
+    public synchronized List<String> topKeys(int k) {
+        int limit = Math.min(k, heapSize);
+        List<String> result = new ArrayList<>(limit);
+        if (limit <= 0) return result;
+
+        // Best-first walk of the heap: a small frontier heap of heap positions
+        int[] frontier = new int[limit * 2 + 1];
+        int frontierSize = 0;
+        frontier[frontierSize++] = 0;
+        while (result.size() < limit) {
+            int position = frontier[0];
+            frontier[0] = frontier[--frontierSize];
+            frontierSize = frontierSiftDown(frontier, frontierSize, 0);
+
+            result.add(keys[heap[position]]);
+
+            int left = position * 2 + 1;
+            if (left < heapSize) frontierSize = frontierPush(frontier, frontierSize, left);
+            if (left + 1 < heapSize) frontierSize = frontierPush(frontier, frontierSize, left + 1);
+        }
+        return result;
+    }
+
+    private int frontierPush(int[] frontier, int size, int position) {
+        int i = size;
+        frontier[i] = position;
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (scoreAt(frontier[parent]) >= scoreAt(frontier[i])) break;
+            int tmp = frontier[parent];
+            frontier[parent] = frontier[i];
+            frontier[i] = tmp;
+            i = parent;
+        }
+        return size + 1;
+    }
+
+    private int frontierSiftDown(int[] frontier, int size, int i) {
+        while (true) {
+            int left = i * 2 + 1;
+            if (left >= size) break;
+            int best = left;
+            if (left + 1 < size && scoreAt(frontier[left + 1]) > scoreAt(frontier[left])) best = left + 1;
+            if (scoreAt(frontier[i]) >= scoreAt(frontier[best])) break;
+            int tmp = frontier[i];
+            frontier[i] = frontier[best];
+            frontier[best] = tmp;
+            i = best;
+        }
+        return size;
+    }
+
+    private double scoreAt(int heapPosition) {
+        return logScores[heap[heapPosition]];
+    }
+
+    // --- Heap ---
+
+    private void insert(String key, double logScore, int callCount) {
+        int s;
+        if (freeCount > 0) {
+            s = freeSlots[--freeCount];
+        } else {
+            if (slotCount == keys.length) grow();
+            s = slotCount++;
+        }
+        keys[s] = key;
+        logScores[s] = logScore;
+        callCounts[s] = callCount;
+        slotByKey.put(key, s);
+
+        if (heapSize == heap.length) {
+            heap = Arrays.copyOf(heap, heapSize * 2);
+        }
+        heap[heapSize] = s;
+        heapIndex[s] = heapSize;
+        heapSize++;
+        siftUp(heapSize - 1);
+    }
+
+    private void grow() {
+        int capacity = keys.length * 2;
+        keys = Arrays.copyOf(keys, capacity);
+        logScores = Arrays.copyOf(logScores, capacity);
+        callCounts = Arrays.copyOf(callCounts, capacity);
+        heapIndex = Arrays.copyOf(heapIndex, capacity);
+    }
+
+    private void siftUp(int position) {
+        int slot = heap[position];
+        double score = logScores[slot];
+        while (position > 0) {
+            int parent = (position - 1) / 2;
+            int parentSlot = heap[parent];
+            if (logScores[parentSlot] >= score) break;
+            heap[position] = parentSlot;
+            heapIndex[parentSlot] = position;
+            position = parent;
+        }
+        heap[position] = slot;
+        heapIndex[slot] = position;
+    }
+
+    private void siftDown(int position) {
+        int slot = heap[position];
+        double score = logScores[slot];
+        while (true) {
+            int child = position * 2 + 1;
+            if (child >= heapSize) break;
+            if (child + 1 < heapSize && logScores[heap[child + 1]] > logScores[heap[child]]) child++;
+            if (score >= logScores[heap[child]]) break;
+            heap[position] = heap[child];
+            heapIndex[heap[child]] = position;
+            position = child;
+        }
+        heap[position] = slot;
+        heapIndex[slot] = position;
+    }
+
+    // log(e^a + e^b) without overflow
+    static double logAdd(double a, double b) {
+        double max = Math.max(a, b);
+        return max + Math.log1p(Math.exp(Math.min(a, b) - max));
+    }
+
+    // --- Persistence ---
+
+    /** Loads saved scores; a missing or damaged file leaves the ranker empty. */
+    public synchronized void load() throws IOException {
+        if (!file.exists()) return;
+
+        byte[] bytes;
+        try (FileInputStream in = new FileInputStream(file)) {
+            bytes = new byte[(int) file.length()];
+            int read = 0;
+            while (read < bytes.length) {
+                int n = in.read(bytes, read, bytes.length - read);
+                if (n < 0) break;
+                read += n;
+            }
+            if (read != bytes.length) throw new IOException("Short read of " + file);
+        }
+        if (bytes.length < 4) throw new IOException("Truncated " + file);
+
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length - 4);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        in.skipBytes(bytes.length - 4);
+        if ((int) crc.getValue() != in.readInt()) {
+            throw new IOException("Checksum mismatch in " + file);
+        }
+
+        in = new DataInputStream(new ByteArrayInputStream(bytes, 0, bytes.length - 4));
+        if (in.readInt() != MAGIC || in.readShort() != FORMAT_VERSION) {
+            throw new IOException("Unknown format in " + file);
+        }
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            String key = in.readUTF();
+            double logScore = in.readDouble();
+            int calls = in.readInt();
+            if (!slotByKey.containsKey(key)) {
+                insert(key, logScore, calls);
+            }
+        }
+    }
+
+    // At most one pending write; it serializes whatever the state is when it runs
+    private void scheduleSave() {
+        if (saveScheduled) return;
+        saveScheduled = true;
+        ioExecutor.execute(() -> {
+            try {
+                save();
+            } catch (IOException e) {
+                ErrorHandler handler = errorHandler;
+                if (handler != null) handler.onRankerError(e);
+            }
+        });
+    }
+
+    private void save() throws IOException {
+        byte[] bytes;
+        synchronized (this) {
+            saveScheduled = false;
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(16 + heapSize * 32);
+            DataOutputStream out = new DataOutputStream(buffer);
+            out.writeInt(MAGIC);
+            out.writeShort(FORMAT_VERSION);
+            out.writeInt(heapSize);
+            for (int i = 0; i < heapSize; i++) {
+                int slot = heap[i];
+                out.writeUTF(keys[slot]);
+                out.writeDouble(logScores[slot]);
+                out.writeInt(callCounts[slot]);
+            }
+            out.flush();
+            bytes = buffer.toByteArray();
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length);
+        try (FileOutputStream stream = new FileOutputStream(tempFile)) {
+            stream.write(bytes);
+            new DataOutputStream(stream).writeInt((int) crc.getValue());
+            stream.getFD().sync();
+        }
+        if (!tempFile.renameTo(file)) {
+            throw new IOException("Cannot replace " + file);
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.nayanpote.edgeassist;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.zip.CRC32;
+
+/**
+ * Which action each bubble gesture runs.
+ *
+ * Gestures and actions are small int ids, so the table is two arrays and the
+ * file is a few bytes per gesture, with a string argument only for actions
+ * that need one (a phone number, a package name). {@link #compile} turns the
+ * table into a {@link DispatchTable} of ready-built actions indexed by gesture,
+ * so handling a gesture is one array read and a call.
+ *
+ * Tap gestures are numbered so that {@code GESTURE_TAP + count - 1} is the
+ * gesture for a tap sequence of {@code count}.
+ */
+public class GestureBindings {
+
+    /** Builds the action for a binding, or returns null if it cannot run here. */
+    public interface ActionFactory {
+        Runnable create(int action, String argument);
+    }
+
+    public static final int GESTURE_TAP = 0;
+    public static final int GESTURE_DOUBLE_TAP = 1;
+    public static final int GESTURE_TRIPLE_TAP = 2;
+    public static final int GESTURE_LONG_PRESS = 3;
+    public static final int GESTURE_COUNT = 4;
+
+    public static final int ACTION_NONE = 0;
+    public static final int ACTION_CONTROL_PANEL = 1;
+    public static final int ACTION_VOLUME_MIXER = 2;
+    public static final int ACTION_VOLUME_UP = 3;
+    public static final int ACTION_VOLUME_DOWN = 4;
+    public static final int ACTION_MUTE = 5;
+    public static final int ACTION_SPEED_DIAL = 6;
+    public static final int ACTION_CALL_CONTACT = 7;
+    public static final int ACTION_LAUNCH_APP = 8;
+    public static final int ACTION_PERF_HUD = 9;
+    public static final int ACTION_COUNT = 10;
+
+    public static final String FILE_NAME = "gesture_bindings.bin";
+
+    private static final int MAGIC = 0x45414742; // "EAGB"
+    private static final short FORMAT_VERSION = 1;
+
+    /** Gesture-indexed actions, built once per binding change. */
+    public static final class DispatchTable {
+        private final Runnable[] actions;
+        private final int maxTapCount;
+
+        DispatchTable(Runnable[] actions) {
+            this.actions = actions;
+            int taps = 1;
+            for (int gesture = GESTURE_TRIPLE_TAP; gesture > GESTURE_TAP; gesture--) {
+                if (actions[gesture] != null) {
+                    taps = gesture - GESTURE_TAP + 1;
+                    break;
+                }
+            }
+            this.maxTapCount = taps;
+        }
+
+        /** Runs the action bound to {@code gesture}; false if nothing is bound. */
+        public boolean dispatch(int gesture) {
+            Runnable action = actions[gesture];
+            if (action == null) return false;
+            action.run();
+            return true;
+        }
+
+        public boolean isBound(int gesture) {
+            return actions[gesture] != null;
+        }
+
+        /** Longest tap sequence with an action, for {@link GestureStateMachine#setMaxTapCount(int)}. */
+        public int getMaxTapCount() {
+            return maxTapCount;
+        }
+    }
+
+    private final int[] actions = new int[GESTURE_COUNT];
+    private final String[] arguments = new String[GESTURE_COUNT];
+
+    /** The bindings EdgeAssist always had: control panel, volume, speed dial. */
+    public static GestureBindings defaults() {
+        GestureBindings bindings = new GestureBindings();
+        bindings.set(GESTURE_TAP, ACTION_CONTROL_PANEL, null);
+        bindings.set(GESTURE_DOUBLE_TAP, ACTION_VOLUME_MIXER, null);
+        bindings.set(GESTURE_LONG_PRESS, ACTION_SPEED_DIAL, null);
+        return bindings;
+    }
+
+    public int getAction(int gesture) {
+        return actions[gesture];
+    }
+
+    public String getArgument(int gesture) {
+        return arguments[gesture];
+    }
+
+    public void set(int gesture, int action, String argument) {
+        if (gesture < 0 || gesture >= GESTURE_COUNT) {
+            throw new IllegalArgumentException("Unknown gesture " + gesture);
+        }
+        if (action < 0 || action >= ACTION_COUNT) {
+            throw new IllegalArgumentException("Unknown action " + action);
+        }
+        if (needsArgument(action) && (argument == null || argument.isEmpty())) {
+            throw new IllegalArgumentException("Action " + action + " needs an argument");
+        }
+        actions[gesture] = action;
+        arguments[gesture] = needsArgument(action) ? argument : null;
+    }
+
+    public static boolean needsArgument(int action) {
+        return action == ACTION_CALL_CONTACT || action == ACTION_LAUNCH_APP;
+    }
+
+    public DispatchTable compile(ActionFactory factory) {
+        Runnable[] table = new Runnable[GESTURE_COUNT];
+        for (int gesture = 0; gesture < GESTURE_COUNT; gesture++) {
+            if (actions[gesture] != ACTION_NONE) {
+                table[gesture] = factory.create(actions[gesture], arguments[gesture]);
+            }
+        }
+        return new DispatchTable(table);
+    }
+
+    // Layout: magic, version, count, then per binding gesture byte, action byte and the
+    // argument for actions that take one. Unbound gestures are not written.
+    byte[] encode() throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(32);
+        DataOutputStream out = new DataOutputStream(buffer);
+        out.writeInt(MAGIC);
+        out.writeShort(FORMAT_VERSION);
+
+        int count = 0;
+        for (int action : actions) {
+            if (action != ACTION_NONE) count++;
+        }
+        out.writeByte(count);
+        for (int gesture = 0; gesture < GESTURE_COUNT; gesture++) {
+            int action = actions[gesture];
+            if (action == ACTION_NONE) continue;
+            out.writeByte(gesture);
+            out.writeByte(action);
+            if (needsArgument(action)) {
+                out.writeUTF(arguments[gesture]);
+            }
+        }
+        out.flush();
+        return buffer.toByteArray();
+    }
+
+    static GestureBindings decode(byte[] bytes, int length) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, 0, length));
+        if (in.readInt() != MAGIC || in.readShort() != FORMAT_VERSION) {
+            throw new IOException("Unknown gesture binding format");
+        }
+
+        GestureBindings bindings = new GestureBindings();
+        int count = in.readUnsignedByte();
+        for (int i = 0; i < count; i++) {
+            int gesture = in.readUnsignedByte();
+            int action = in.readUnsignedByte();
+            String argument = needsArgument(action) ? in.readUTF() : null;
+            try {
+                bindings.set(gesture, action, argument);
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Bad gesture binding", e);
+            }
+        }
+        return bindings;
+    }
+
+    /** Reads saved bindings, or the defaults if nothing was saved yet. */
+    public static GestureBindings load(File file) throws IOException {
+        if (!file.exists()) return defaults();
+
+        byte[] bytes;
+        try (FileInputStream in = new FileInputStream(file)) {
+            bytes = new byte[(int) file.length()];
+            int read = 0;
+            while (read < bytes.length) {
+                int n = in.read(bytes, read, bytes.length - read);
+                if (n < 0) break;
+                read += n;
+            }
+            if (read != bytes.length) throw new IOException("Short read of " + file);
+        }
+        if (bytes.length < 4) throw new IOException("Truncated " + file);
+
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length - 4);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, bytes.length - 4, 4));
+        if ((int) crc.getValue() != in.readInt()) {
+            throw new IOException("Checksum mismatch in " + file);
+        }
+        return decode(bytes, bytes.length - 4);
+    }
+
+    public void save(File file) throws IOException {
+        byte[] bytes = encode();
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length);
+
+        File tempFile = new File(file.getPath() + ".tmp");
+        try (FileOutputStream stream = new FileOutputStream(tempFile)) {
+            stream.write(bytes);
+            new DataOutputStream(stream).writeInt((int) crc.getValue());
+            stream.getFD().sync();
+        }
+        if (!tempFile.renameTo(file)) {
+            throw new IOException("Cannot replace " + file);
+        }
+    }
+
+    public GestureBindings copy() {
+        GestureBindings copy = new GestureBindings();
+        System.arraycopy(actions, 0, copy.actions, 0, GESTURE_COUNT);
+        System.arraycopy(arguments, 0, copy.arguments, 0, GESTURE_COUNT);
+        return copy;
+    }
+}
@@ -0,0 +1,227 @@
+package com.nayanpote.edgeassist;
+
+/**
+ * Recognises tap, double-tap, triple-tap, long-press, drag and fling on the
+ * floating bubble as one explicit state machine.
+ *
+ * Taps are only held back while a longer tap sequence is still possible:
+ * with {@link #setMaxTapCount(int)} at 1 a tap is reported on the up event,
+ * and the last tap of a sequence is always reported without waiting. There is
+ * a single pending timeout at any time (long-press or end of a tap
+ * sequence), armed through {@link Timer}; the host calls
+ * {@link #onTimeout(long)} when it expires.
+ *
+ * Events carry raw screen coordinates and uptime milliseconds, so the machine
+ * has no Android dependency and keeps no per-event objects. All calls must come
+ * from one thread.
+ */
+public class GestureStateMachine {
+
+    public interface Listener {
+        /** A tap sequence ended; {@code count} is 1 to the max tap count. */
+        void onTap(int count);
+
+        void onLongPress();
+
+        /** The finger left the touch slop; moves are now a drag. */
+        void onDragStart();
+
+        /** Drag finished; velocities in px/s, zero when the gesture was cancelled. */
+        void onDragEnd(float velocityX, float velocityY, boolean fling);
+    }
+
+    public interface Timer {
+        /** Calls {@link #onTimeout(long)} at {@code uptimeMillis}, replacing any earlier request. */
+        void schedule(long uptimeMillis);
+
+        void cancel();
+    }
+
+    public static final long DEFAULT_LONG_PRESS_TIMEOUT = 500;
+    public static final long DEFAULT_MULTI_TAP_TIMEOUT = 300;
+    public static final int MAX_TAPS = 3;
+
+    static final int STATE_IDLE = 0;
+    static final int STATE_PRESSED = 1;
+    static final int STATE_LONG_PRESSED = 2;
+    static final int STATE_DRAGGING = 3;
+    static final int STATE_TAP_PENDING = 4;
+
+    private static final long NO_DEADLINE = -1;
+
+    private final Listener listener;
+    private final Timer timer;
+    private final float touchSlopSquare;
+    private final float multiTapSlopSquare;
+    private final float minFlingVelocitySquare;
+
+    private long longPressTimeout = DEFAULT_LONG_PRESS_TIMEOUT;
+    private long multiTapTimeout = DEFAULT_MULTI_TAP_TIMEOUT;
+    private int maxTapCount = 1;
+
+    private int state = STATE_IDLE;
+    private int tapCount = 0;
+    private long deadline = NO_DEADLINE;
+    private float downX, downY;
+    private float sequenceX, sequenceY;
+
+    /**
+     * @param touchSlop        movement in px before a press becomes a drag
+     * @param multiTapSlop     max distance in px between taps of one sequence
+     * @param minFlingVelocity release speed in px/s above which a drag is a fling
+     */
+    public GestureStateMachine(Listener listener, Timer timer,
+                               float touchSlop, float multiTapSlop, float minFlingVelocity) {
+        this.listener = listener;
+        this.timer = timer;
+        this.touchSlopSquare = touchSlop * touchSlop;
+        this.multiTapSlopSquare = multiTapSlop * multiTapSlop;
+        this.minFlingVelocitySquare = minFlingVelocity * minFlingVelocity;
+    }
+
+    public void setTimeouts(long longPressTimeout, long multiTapTimeout) {
+        this.longPressTimeout = longPressTimeout;
+        this.multiTapTimeout = multiTapTimeout;
+    }
+
+    /** Longest tap sequence that has an action; taps beyond it are never waited for. */
+    public void setMaxTapCount(int count) {
+        maxTapCount = Math.max(1, Math.min(MAX_TAPS, count));
+        if (state == STATE_TAP_PENDING && tapCount >= maxTapCount) {
+            clearDeadline();
+            state = STATE_IDLE;
+            flushTaps();
+        }
+    }
+
+    public int getMaxTapCount() {
+        return maxTapCount;
+    }
+
+    public boolean isDragging() {
+        return state == STATE_DRAGGING;
+    }
+
+    int getState() {
+        return state;
+    }
+
+    public void onDown(float x, float y, long timeMillis) {
+        if (state == STATE_TAP_PENDING) {
+            float dx = x - sequenceX;
+            float dy = y - sequenceY;
+            if (dx * dx + dy * dy > multiTapSlopSquare) {
+                // Too far away to continue the sequence; it ends here and a new one starts
+                flushTaps();
+            }
+        } else {
+            // A missing up/cancel must not leak taps into this gesture
+            tapCount = 0;
+        }
+
+        if (tapCount == 0) {
+            sequenceX = x;
+            sequenceY = y;
+        }
+        downX = x;
+        downY = y;
+        state = STATE_PRESSED;
+        setDeadline(timeMillis + longPressTimeout);
+    }
+
+    public void onMove(float x, float y, long timeMillis) {
+        if (state != STATE_PRESSED) return;
+
+        float dx = x - downX;
+        float dy = y - downY;
+        if (dx * dx + dy * dy <= touchSlopSquare) return;
+
+        clearDeadline();
+        flushTaps();
+        state = STATE_DRAGGING;
+        listener.onDragStart();
+    }
+
+    public void onUp(float x, float y, long timeMillis, float velocityX, float velocityY) {
+        switch (state) {
+            case STATE_PRESSED:
+                tapCount++;
+                if (tapCount >= maxTapCount) {
+                    clearDeadline();
+                    state = STATE_IDLE;
+                    flushTaps();
+                } else {
+                    state = STATE_TAP_PENDING;
+                    setDeadline(timeMillis + multiTapTimeout);
+                }
+                break;
+
+            case STATE_DRAGGING:
+                state = STATE_IDLE;
+                boolean fling = velocityX * velocityX + velocityY * velocityY >= minFlingVelocitySquare;
+                listener.onDragEnd(velocityX, velocityY, fling);
+                break;
+
+            case STATE_LONG_PRESSED:
+                state = STATE_IDLE;
+                break;
+        }
+    }
+
+    /** The system took the gesture away; pending taps are dropped. */
+    public void onCancel() {
+        clearDeadline();
+        tapCount = 0;
+        int previous = state;
+        state = STATE_IDLE;
+        if (previous == STATE_DRAGGING) {
+            listener.onDragEnd(0f, 0f, false);
+        }
+    }
+
+    public void onTimeout(long timeMillis) {
+        if (deadline == NO_DEADLINE) return;
+        if (timeMillis < deadline) {
+            // Fired early; wait for the real deadline
+            timer.schedule(deadline);
+            return;
+        }
+        deadline = NO_DEADLINE;
+
+        if (state == STATE_PRESSED) {
+            // Taps before this press still count on their own
+            flushTaps();
+            state = STATE_LONG_PRESSED;
+            listener.onLongPress();
+        } else if (state == STATE_TAP_PENDING) {
+            state = STATE_IDLE;
+            flushTaps();
+        }
+    }
+
+    /** Drops any gesture in progress without reporting it. */
+    public void reset() {
+        clearDeadline();
+        tapCount = 0;
+        state = STATE_IDLE;
+    }
+
+    private void flushTaps() {
+        int count = tapCount;
+        tapCount = 0;
+        if (count > 0) {
+            listener.onTap(count);
+        }
+    }
+
+    private void setDeadline(long timeMillis) {
+        deadline = timeMillis;
+        timer.schedule(timeMillis);
+    }
+
+    private void clearDeadline() {
+        if (deadline == NO_DEADLINE) return;
+        deadline = NO_DEADLINE;
+        timer.cancel();
+    }
+}
@@ -0,0 +1,193 @@
+package com.nayanpote.edgeassist;
+
+/**
+ * Numbers behind the performance HUD: vsync-to-vsync frame time, window
+ * layouts per second, main looper latency, GC count and heap.
+ *
+ * Frames are timed on every vsync while running; everything else is passed
+ * to {@link #sample} a few times per second, which turns the window since the
+ * last sample into {@link #LINE_COUNT} lines of text. The lines live in fixed
+ * char arrays that are overwritten in place, so neither timing nor formatting
+ * allocates. Main thread only.
+ */
+public class PerfHudStats implements FrameScheduler.FrameCallback {
+
+    public static final int LINE_COUNT = 4;
+    public static final int LINE_CAPACITY = 32;
+
+    private static final long BYTES_PER_MB = 1024L * 1024L;
+
+    private final FrameScheduler frameScheduler;
+    private final char[][] lines = new char[LINE_COUNT][LINE_CAPACITY];
+    private final int[] lineLengths = new int[LINE_COUNT];
+
+    private boolean running = false;
+    private long lastFrameTimeNanos = -1;
+    private long frameSumNanos = 0;
+    private long frameMaxNanos = 0;
+    private int frameCount = 0;
+
+    private long looperLastMs = 0;
+    private long looperMaxMs = 0;
+
+    private long lastLayoutCount = -1;
+    private long lastSampleMs = -1;
+
+    // Writer state for the line being formatted
+    private char[] line;
+    private int length;
+
+    public PerfHudStats(FrameScheduler frameScheduler) {
+        this.frameScheduler = frameScheduler;
+    }
+
+    public void start() {
+        if (running) return;
+
+        running = true;
+        lastFrameTimeNanos = -1;
+        lastLayoutCount = -1;
+        lastSampleMs = -1;
+        clearWindow();
+        frameScheduler.postFrameCallback(this);
+    }
+
+    public void stop() {
+        if (!running) return;
+
+        running = false;
+        frameScheduler.removeFrameCallback(this);
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        if (!running) return;
+
+        if (lastFrameTimeNanos >= 0) {
+            long delta = frameTimeNanos - lastFrameTimeNanos;
+            frameSumNanos += delta;
+            frameCount++;
+            if (delta > frameMaxNanos) frameMaxNanos = delta;
+        }
+        lastFrameTimeNanos = frameTimeNanos;
+        frameScheduler.postFrameCallback(this);
+    }
+
+    /** How late a message posted for a given time actually ran. */
+    public void recordLooperLatency(long latencyMs) {
+        looperLastMs = Math.max(0, latencyMs);
+        if (looperLastMs > looperMaxMs) looperMaxMs = looperLastMs;
+    }
+
+    /**
+     * Closes the current window and rewrites the lines.
+     *
+     * @param layoutCount monotonic count of window layouts, see {@link FrameStats#getWindowLayoutCount()}
+     * @param gcCount     collections since the process started, or -1 if unknown
+     */
+    public void sample(long nowMs, long layoutCount, long gcCount, long heapUsedBytes, long heapMaxBytes) {
+        beginLine(0);
+        append("frame ");
+        if (frameCount > 0) {
+            appendTenths(frameSumNanos / frameCount / 100_000L);
+            append(" max ");
+            appendTenths(frameMaxNanos / 100_000L);
+            append(" ms");
+        } else {
+            append("-");
+        }
+        endLine(0);
+
+        beginLine(1);
+        append("layout ");
+        long elapsedMs = nowMs - lastSampleMs;
+        if (lastLayoutCount >= 0 && elapsedMs > 0) {
+            appendLong((layoutCount - lastLayoutCount) * 1000L / elapsedMs);
+            append("/s");
+        } else {
+            append("-");
+        }
+        endLine(1);
+
+        beginLine(2);
+        append("looper ");
+        appendLong(looperLastMs);
+        append(" max ");
+        appendLong(looperMaxMs);
+        append(" ms");
+        endLine(2);
+
+        beginLine(3);
+        append("gc ");
+        if (gcCount >= 0) {
+            appendLong(gcCount);
+        } else {
+            append("-");
+        }
+        append(" heap ");
+        appendLong(heapUsedBytes / BYTES_PER_MB);
+        append("/");
+        appendLong(heapMaxBytes / BYTES_PER_MB);
+        append(" MB");
+        endLine(3);
+
+        lastLayoutCount = layoutCount;
+        lastSampleMs = nowMs;
+        clearWindow();
+    }
+
+    /** Backing array of a line; only the first {@link #getLineLength(int)} chars are valid. */
+    public char[] getLine(int index) {
+        return lines[index];
+    }
+
+    public int getLineLength(int index) {
+        return lineLengths[index];
+    }
+
+    private void clearWindow() {
+        frameSumNanos = 0;
+        frameMaxNanos = 0;
+        frameCount = 0;
+        looperMaxMs = 0;
+    }
+
+    private void beginLine(int index) {
+        line = lines[index];
+        length = 0;
+    }
+
+    private void endLine(int index) {
+        lineLengths[index] = length;
+        line = null;
+    }
+
+    // Characters past the line capacity are dropped
+    private void append(String text) {
+        for (int i = 0; i < text.length() && length < LINE_CAPACITY; i++) {
+            line[length++] = text.charAt(i);
+        }
+    }
+
+    private void appendLong(long value) {
+        if (value < 0) {
+            if (length < LINE_CAPACITY) line[length++] = '-';
+            value = -value;
+        }
+        long divisor = 1;
+        while (value / divisor >= 10) divisor *= 10;
+        for (; divisor > 0 && length < LINE_CAPACITY; divisor /= 10) {
+            line[length++] = (char) ('0' + (value / divisor) % 10);
+        }
+    }
+
+    private void appendTenths(long tenths) {
+        appendLong(tenths / 10);
+        if (length < LINE_CAPACITY) line[length++] = '.';
+        if (length < LINE_CAPACITY) line[length++] = (char) ('0' + Math.abs(tenths % 10));
+    }
+}
@@ -0,0 +1,130 @@
+package com.nayanpote.edgeassist;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Offline phone number normalizer used as the dedup and lookup key.
+ * Strips separators, turns the "00" international prefix into "+", and
+ * replaces a national trunk "0" with the device's country code, so
+ * "+91 98765-43210", "0091 9876543210" and "09876543210" all map to "+919876543210".
+ * Where the leading 0 is part of the number itself (Italy, San Marino) it is
+ * kept: "06 1234 5678" in Italy is "+390612345678".
+ * Short service codes (112, *123#) are kept as they are.
+ */
+public class PhoneNumberNormalizer {
+
+    private static final int MIN_SUBSCRIBER_LENGTH = 7;
+    // Longest national significant number we treat as "no country code present"
+    private static final int MAX_NATIONAL_LENGTH = 10;
+
+    private static final Map<String, String> CALLING_CODES = new HashMap<>();
+    // Calling codes whose numbers keep their leading 0 after the country code
+    private static final Set<String> KEEPS_LEADING_ZERO = new HashSet<>(Arrays.asList("39", "378"));
+
+    static {
+        String[] table = {
+                "IN", "91", "US", "1", "CA", "1", "GB", "44", "AU", "61", "NZ", "64",
+                "DE", "49", "FR", "33", "IT", "39", "ES", "34", "PT", "351", "NL", "31",
+                "BE", "32", "CH", "41", "AT", "43", "SE", "46", "NO", "47", "DK", "45",
+                "FI", "358", "IE", "353", "PL", "48", "RU", "7", "UA", "380", "TR", "90",
+                "BR", "55", "MX", "52", "AR", "54", "CL", "56", "CO", "57", "PE", "51",
+                "CN", "86", "JP", "81", "KR", "82", "HK", "852", "TW", "886", "SG", "65",
+                "MY", "60", "ID", "62", "PH", "63", "TH", "66", "VN", "84", "PK", "92",
+                "BD", "880", "NP", "977", "LK", "94", "AE", "971", "SA", "966", "QA", "974",
+                "KW", "965", "OM", "968", "IL", "972", "EG", "20", "ZA", "27", "NG", "234",
+                "KE", "254", "SM", "378", "VA", "39"
+        };
+        for (int i = 0; i < table.length; i += 2) {
+            CALLING_CODES.put(table[i], table[i + 1]);
+        }
+    }
+
+    private final String countryCode;
+
+    /** @param countryCode calling code without "+", or empty when unknown */
+    public PhoneNumberNormalizer(String countryCode) {
+        this.countryCode = countryCode == null ? "" : countryCode;
+    }
+
+    /** Normalizer for an ISO 3166 region such as "IN"; unknown regions get no default country code. */
+    public static PhoneNumberNormalizer forRegion(String regionIso) {
+        String code = regionIso == null ? null : CALLING_CODES.get(regionIso.toUpperCase(Locale.ROOT));
+        return new PhoneNumberNormalizer(code);
+    }
+
+    public String getCountryCode() {
+        return countryCode;
+    }
+
+    /** Returns the lookup key for a number, or an empty string if it has no digits. */
+    public String normalize(String raw) {
+        if (raw == null) return "";
+
+        StringBuilder digits = new StringBuilder(raw.length());
+        boolean plus = false;
+        boolean serviceCode = false;
+        for (int i = 0; i < raw.length(); i++) {
+            char c = raw.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            } else if (c >= '\uFF10' && c <= '\uFF19') {
+                // Full-width digits from some keyboards
+                digits.append((char) (c - '\uFF10' + '0'));
+            } else if (c == '+' && digits.length() == 0) {
+                plus = true;
+            } else if (c == '*' || c == '#') {
+                serviceCode = true;
+                digits.append(c);
+            }
+        }
+
+        if (digits.length() == 0) return "";
+        if (serviceCode || (!plus && digits.length() < MIN_SUBSCRIBER_LENGTH)) {
+            return digits.toString();
+        }
+
+        if (plus) {
+            return digits.insert(0, '+').toString();
+        }
+
+        // 00 international prefix
+        if (digits.length() > 2 && digits.charAt(0) == '0' && digits.charAt(1) == '0') {
+            digits.delete(0, 2);
+            return digits.insert(0, '+').toString();
+        }
+
+        // National trunk prefix
+        if (digits.charAt(0) == '0' && !KEEPS_LEADING_ZERO.contains(countryCode)) {
+            digits.deleteCharAt(0);
+            return withCountryCode(digits);
+        }
+
+        // Country code typed without "+", e.g. 919876543210
+        if (!countryCode.isEmpty() && digits.length() > MAX_NATIONAL_LENGTH
+                && startsWith(digits, countryCode)) {
+            return digits.insert(0, '+').toString();
+        }
+
+        return withCountryCode(digits);
+    }
+
+    private String withCountryCode(StringBuilder nationalNumber) {
+        if (countryCode.isEmpty()) {
+            return nationalNumber.toString();
+        }
+        return nationalNumber.insert(0, countryCode).insert(0, '+').toString();
+    }
+
+    private static boolean startsWith(StringBuilder value, String prefix) {
+        if (value.length() < prefix.length()) return false;
+        for (int i = 0; i < prefix.length(); i++) {
+            if (value.charAt(i) != prefix.charAt(i)) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,133 @@
+package com.nayanpote.edgeassist;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Whether the overlay should be live, from screen, keyguard and battery
+ * saver state.
+ *
+ * The overlay is idle while the screen is off or the keyguard is up, since
+ * nobody can see or touch it; listeners freeze on {@link Listener#onIdle()}
+ * and restore on {@link Listener#onWake()}. Battery saver does not idle the
+ * overlay but is reported so holders can drop what they can rebuild.
+ *
+ * Also keeps the numbers that show whether idling works: idle periods, time
+ * spent idle and how many handler posts still happened while idle (see
+ * {@link #onHandlerPost()}). Transitions run on the main thread; the post
+ * counter may be bumped from any thread.
+ */
+public class PowerState {
+
+    public interface Listener {
+        void onIdle();
+
+        void onWake();
+
+        void onPowerSaveChanged(boolean powerSave);
+    }
+
+    private final CopyOnWriteArrayList<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicLong postsWhileIdle = new AtomicLong();
+
+    private boolean screenOn = true;
+    private boolean locked = false;
+    private boolean powerSave = false;
+    private volatile boolean idle = false;
+
+    private int idleCount = 0;
+    private long idleSinceMs = 0;
+    private long totalIdleMs = 0;
+    private long lastIdlePosts = 0;
+    private long postsAtIdleStart = 0;
+
+    public void addListener(Listener listener) {
+        listeners.addIfAbsent(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /** Sets all inputs at once, e.g. when monitoring starts. */
+    public void reset(boolean screenOn, boolean locked, boolean powerSave, long nowMs) {
+        this.screenOn = screenOn;
+        this.locked = locked;
+        update(nowMs);
+        setPowerSave(powerSave);
+    }
+
+    public void setScreenOn(boolean screenOn, long nowMs) {
+        this.screenOn = screenOn;
+        update(nowMs);
+    }
+
+    public void setLocked(boolean locked, long nowMs) {
+        this.locked = locked;
+        update(nowMs);
+    }
+
+    public void setPowerSave(boolean powerSave) {
+        if (this.powerSave == powerSave) return;
+        this.powerSave = powerSave;
+        for (Listener listener : listeners) {
+            listener.onPowerSaveChanged(powerSave);
+        }
+    }
+
+    /** Counts a main-thread post; only posts made while idle are recorded. */
+    public void onHandlerPost() {
+        if (idle) {
+            postsWhileIdle.incrementAndGet();
+        }
+    }
+
+    public boolean isIdle() {
+        return idle;
+    }
+
+    public boolean isPowerSave() {
+        return powerSave;
+    }
+
+    public int getIdleCount() {
+        return idleCount;
+    }
+
+    /** Time spent idle, including the current idle period. */
+    public long getTotalIdleMs(long nowMs) {
+        return idle ? totalIdleMs + (nowMs - idleSinceMs) : totalIdleMs;
+    }
+
+    public long getPostsWhileIdle() {
+        return postsWhileIdle.get();
+    }
+
+    /** Posts during the most recent finished idle period. */
+    public long getLastIdlePosts() {
+        return lastIdlePosts;
+    }
+
+    private void update(long nowMs) {
+        boolean shouldIdle = !screenOn || locked;
+        if (shouldIdle == idle) return;
+
+        if (shouldIdle) {
+            idleCount++;
+            idleSinceMs = nowMs;
+            postsAtIdleStart = postsWhileIdle.get();
+            // Listeners' own cancellation posts are not counted against the idle period
+            for (Listener listener : listeners) {
+                listener.onIdle();
+            }
+            idle = true;
+        } else {
+            idle = false;
+            totalIdleMs += nowMs - idleSinceMs;
+            lastIdlePosts = postsWhileIdle.get() - postsAtIdleStart;
+            for (Listener listener : listeners) {
+                listener.onWake();
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.nayanpote.edgeassist;
+
+/**
+ * Press feedback for the bubble: eases its scale down while the finger is on
+ * it and back up on release, with the accelerate-decelerate curve.
+ *
+ * One instance lives as long as the bubble. Pressing or releasing mid-way
+ * restarts from the current scale, so a touch costs no allocation at all,
+ * unlike a ViewPropertyAnimator run per press.
+ */
+public class PressScaleAnimator implements FrameScheduler.FrameCallback {
+
+    public interface ScaleSink {
+        void onScale(float scale);
+    }
+
+    public static final float PRESSED_SCALE = 0.85f;
+    public static final long DEFAULT_DURATION_MS = 100;
+
+    private final FrameScheduler frameScheduler;
+    private final ScaleSink sink;
+    private final long durationNanos;
+
+    private float scale = 1f;
+    private float fromScale = 1f;
+    private float toScale = 1f;
+    private long startTimeNanos = -1;
+    private boolean running = false;
+
+    public PressScaleAnimator(FrameScheduler frameScheduler, ScaleSink sink, long durationMs) {
+        this.frameScheduler = frameScheduler;
+        this.sink = sink;
+        this.durationNanos = Math.max(0, durationMs) * 1_000_000L;
+    }
+
+    public void setPressed(boolean pressed) {
+        animateTo(pressed ? PRESSED_SCALE : 1f);
+    }
+
+    public void animateTo(float target) {
+        if (target == toScale && (running || scale == target)) return;
+
+        fromScale = scale;
+        toScale = target;
+        startTimeNanos = -1;
+        if (!running) {
+            running = true;
+            frameScheduler.postFrameCallback(this);
+        }
+    }
+
+    /** Stops where it is and forgets the view's scale; the next press starts from 1. */
+    public void reset() {
+        if (running) {
+            running = false;
+            frameScheduler.removeFrameCallback(this);
+        }
+        scale = 1f;
+        fromScale = 1f;
+        toScale = 1f;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public float getScale() {
+        return scale;
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        if (!running) return;
+
+        // The first frame defines t = 0, same as ValueAnimator
+        if (startTimeNanos < 0) {
+            startTimeNanos = frameTimeNanos;
+        }
+
+        float fraction = durationNanos == 0 ? 1f
+                : Math.min(1f, (frameTimeNanos - startTimeNanos) / (float) durationNanos);
+        float next = fraction >= 1f ? toScale
+                : fromScale + (toScale - fromScale) * WindowPositionAnimator.accelerateDecelerate(fraction);
+
+        if (next != scale) {
+            scale = next;
+            sink.onScale(next);
+        }
+
+        if (fraction >= 1f) {
+            running = false;
+        } else {
+            frameScheduler.postFrameCallback(this);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.nayanpote.edgeassist;
+
+/**
+ * Edge geometry and a 2D damped spring for the floating bubble.
+ * Plain Java with no Android dependencies and no allocation while stepping,
+ * so it can run every frame and be tested on the JVM.
+ */
+public class SnapPhysics {
+
+    // Exponential friction applied to a released fling, per second.
+    // A fling at v px/s travels v / FLING_FRICTION px before stopping.
+    public static final float FLING_FRICTION = 4f;
+
+    public static final float DEFAULT_STIFFNESS = 600f;
+    public static final float DEFAULT_DAMPING_RATIO = 0.85f;
+
+    private static final float REST_DISTANCE = 0.5f;   // px
+    private static final float REST_VELOCITY = 20f;    // px/s
+    private static final float MAX_STEP_SECONDS = 0.004f;
+
+    private final float stiffness;
+    private final float damping;
+
+    private float x, y;
+    private float velocityX, velocityY;
+    private float targetX, targetY;
+
+    public SnapPhysics() {
+        this(DEFAULT_STIFFNESS, DEFAULT_DAMPING_RATIO);
+    }
+
+    public SnapPhysics(float stiffness, float dampingRatio) {
+        this.stiffness = stiffness;
+        // Unit mass: c = 2 * zeta * sqrt(k)
+        this.damping = 2f * dampingRatio * (float) Math.sqrt(stiffness);
+    }
+
+    // --- Geometry ---
+
+    /** Where a fling released at position with velocity (px/s) would come to rest. */
+    public static float projectFling(float position, float velocity) {
+        return position + velocity / FLING_FRICTION;
+    }
+
+    /** Left or right edge, chosen by where the fling would carry the bubble's center. */
+    public static int snapTargetX(int x, float velocityX, int screenWidth, int viewWidth) {
+        float projectedCenter = projectFling(x, velocityX) + viewWidth / 2f;
+        return projectedCenter < screenWidth / 2f ? 0 : screenWidth - viewWidth;
+    }
+
+    public static int snapTargetY(int y, float velocityY, int screenHeight, int viewHeight) {
+        return clamp(Math.round(projectFling(y, velocityY)), 0, screenHeight - viewHeight);
+    }
+
+    public static boolean isOnLeft(int x, int screenWidth) {
+        return x < screenWidth / 2;
+    }
+
+    /** Half of the bubble tucked behind the nearest edge. */
+    public static int hideTargetX(int x, int screenWidth, int viewWidth) {
+        return isOnLeft(x, screenWidth) ? -viewWidth / 2 : screenWidth - viewWidth / 2;
+    }
+
+    public static int showTargetX(int x, int screenWidth, int viewWidth) {
+        return isOnLeft(x, screenWidth) ? 0 : screenWidth - viewWidth;
+    }
+
+    public static int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(value, Math.max(min, max)));
+    }
+
+    // --- Spring ---
+
+    public void reset(float x, float y, float velocityX, float velocityY, float targetX, float targetY) {
+        this.x = x;
+        this.y = y;
+        this.velocityX = velocityX;
+        this.velocityY = velocityY;
+        this.targetX = targetX;
+        this.targetY = targetY;
+    }
+
+    /**
+     * Advances the spring by dtSeconds using fixed sub-steps of semi-implicit Euler.
+     * Returns true once the spring has settled; position is then exactly the target.
+     */
+    public boolean step(float dtSeconds) {
+        while (dtSeconds > 0f) {
+            float h = Math.min(dtSeconds, MAX_STEP_SECONDS);
+            dtSeconds -= h;
+
+            velocityX += (-stiffness * (x - targetX) - damping * velocityX) * h;
+            velocityY += (-stiffness * (y - targetY) - damping * velocityY) * h;
+            x += velocityX * h;
+            y += velocityY * h;
+        }
+
+        if (isAtRest()) {
+            x = targetX;
+            y = targetY;
+            velocityX = 0f;
+            velocityY = 0f;
+            return true;
+        }
+        return false;
+    }
+
+    public boolean isAtRest() {
+        return Math.abs(x - targetX) < REST_DISTANCE && Math.abs(y - targetY) < REST_DISTANCE
+                && Math.abs(velocityX) < REST_VELOCITY && Math.abs(velocityY) < REST_VELOCITY;
+    }
+
+    public float getX() {
+        return x;
+    }
+
+    public float getY() {
+        return y;
+    }
+
+    public float getVelocityX() {
+        return velocityX;
+    }
+
+    public float getVelocityY() {
+        return velocityY;
+    }
+}
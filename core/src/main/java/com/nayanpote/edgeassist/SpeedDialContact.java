@@ -0,0 +1,12 @@
+package com.nayanpote.edgeassist;
+
+/** A saved speed-dial entry. */
+public class SpeedDialContact {
+    public final String name;
+    public final String phoneNumber;
+
+    public SpeedDialContact(String name, String phoneNumber) {
+        this.name = name;
+        this.phoneNumber = phoneNumber;
+    }
+}
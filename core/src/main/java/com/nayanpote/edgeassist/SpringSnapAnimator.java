@@ -0,0 +1,84 @@
+package com.nayanpote.edgeassist;
+
+/**
+ * Frame driver for {@link SnapPhysics}: carries the release velocity of a fling
+ * into a spring towards the chosen edge. Interruptible at any frame with {@link #cancel()},
+ * so a new touch grabs the bubble where it currently is.
+ */
+public class SpringSnapAnimator implements FrameScheduler.FrameCallback {
+
+    private static final long NOMINAL_FRAME_NANOS = 16_666_667L;
+    // Clamp long stalls so a dropped frame does not make the spring jump
+    private static final long MAX_FRAME_NANOS = 50_000_000L;
+
+    private final FrameScheduler frameScheduler;
+    private final WindowPositionAnimator.PositionSink sink;
+    private final SnapPhysics physics;
+
+    private long lastFrameTimeNanos = -1;
+    private int lastX, lastY;
+    private boolean running = false;
+    private Runnable onSettled;
+
+    public SpringSnapAnimator(FrameScheduler frameScheduler, WindowPositionAnimator.PositionSink sink,
+                              SnapPhysics physics) {
+        this.frameScheduler = frameScheduler;
+        this.sink = sink;
+        this.physics = physics;
+    }
+
+    /** Runs each time a snap reaches its edge; not on {@link #cancel()}. */
+    public void setOnSettled(Runnable onSettled) {
+        this.onSettled = onSettled;
+    }
+
+    public void start(int fromX, int fromY, float velocityX, float velocityY, int toX, int toY) {
+        physics.reset(fromX, fromY, velocityX, velocityY, toX, toY);
+        lastX = fromX;
+        lastY = fromY;
+        lastFrameTimeNanos = -1;
+
+        if (!running) {
+            running = true;
+            frameScheduler.postFrameCallback(this);
+        }
+    }
+
+    public void cancel() {
+        if (!running) return;
+
+        running = false;
+        frameScheduler.removeFrameCallback(this);
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        if (!running) return;
+
+        // The release velocity applies from the very first frame, no idle frame
+        long elapsed = lastFrameTimeNanos < 0 ? NOMINAL_FRAME_NANOS
+                : Math.min(MAX_FRAME_NANOS, frameTimeNanos - lastFrameTimeNanos);
+        lastFrameTimeNanos = frameTimeNanos;
+
+        boolean settled = physics.step(elapsed / 1_000_000_000f);
+
+        int x = Math.round(physics.getX());
+        int y = Math.round(physics.getY());
+        if (x != lastX || y != lastY) {
+            lastX = x;
+            lastY = y;
+            sink.onPosition(x, y);
+        }
+
+        if (settled) {
+            running = false;
+            if (onSettled != null) onSettled.run();
+        } else {
+            frameScheduler.postFrameCallback(this);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.nayanpote.edgeassist;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Milestones of one overlay service start, in ms after its onCreate: the
+ * bubble window added, the bubble's first drawn frame, and the deferred
+ * stage (controllers, speed dial, HUD) finished.
+ *
+ * Each milestone keeps its first time only. A bubble started with the screen
+ * off is not drawn until the screen comes on, which is flagged rather than
+ * hidden in the summary.
+ */
+public class StartupTrace {
+
+    public static final int BUBBLE_ADDED = 0;
+    public static final int FIRST_FRAME = 1;
+    public static final int DEFERRED_READY = 2;
+    public static final int MILESTONE_COUNT = 3;
+
+    public static final int REASON_UNKNOWN = 0;
+    public static final int REASON_APP = 1;
+    public static final int REASON_BOOT = 2;
+    /** Restarted by the system after the process was killed. */
+    public static final int REASON_RESTART = 3;
+
+    private static final String[] REASON_LABELS = {"unknown", "app", "boot", "restart"};
+
+    private final long createdAtMillis;
+    private final long[] marks = new long[MILESTONE_COUNT];
+    private int reason = REASON_UNKNOWN;
+    private boolean startedHidden = false;
+
+    public StartupTrace(long createdAtMillis) {
+        this.createdAtMillis = createdAtMillis;
+        Arrays.fill(marks, -1);
+    }
+
+    /** What started the service; only the first start command counts. */
+    public void setReason(int reason) {
+        if (this.reason == REASON_UNKNOWN) {
+            this.reason = reason;
+        }
+    }
+
+    public int getReason() {
+        return reason;
+    }
+
+    /** The bubble was added while the screen was off, so its first frame waited for the screen. */
+    public void setStartedHidden(boolean startedHidden) {
+        this.startedHidden = startedHidden;
+    }
+
+    public void mark(int milestone, long nowMillis) {
+        if (marks[milestone] < 0) {
+            marks[milestone] = Math.max(0, nowMillis - createdAtMillis);
+        }
+    }
+
+    /** Ms from onCreate to {@code milestone}, or -1 while not reached. */
+    public long get(int milestone) {
+        return marks[milestone];
+    }
+
+    /** Time to first bubble: onCreate to its first drawn frame, or -1. */
+    public long getTimeToFirstFrame() {
+        return marks[FIRST_FRAME];
+    }
+
+    public boolean isComplete() {
+        for (long mark : marks) {
+            if (mark < 0) return false;
+        }
+        return true;
+    }
+
+    /** e.g. "boot: bubble 41 ms, first frame 63 ms, ready 180 ms". */
+    public String summary() {
+        return String.format(Locale.US, "%s: bubble %s, first frame %s%s, ready %s",
+                REASON_LABELS[reason], format(marks[BUBBLE_ADDED]), format(marks[FIRST_FRAME]),
+                startedHidden ? " (screen was off)" : "", format(marks[DEFERRED_READY]));
+    }
+
+    private static String format(long millis) {
+        return millis < 0 ? "-" : millis + " ms";
+    }
+}
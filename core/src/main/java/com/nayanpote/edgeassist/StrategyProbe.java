@@ -0,0 +1,145 @@
+package com.nayanpote.edgeassist;
+
+/**
+ * Picks the first working way to do something from an ordered list of
+ * strategies and remembers it for the rest of the boot, so later calls go
+ * straight to it instead of failing through the list again.
+ *
+ * Strategies before the remembered one are retried only if they were skipped
+ * as unavailable and now report themselves available (a cheap check, e.g.
+ * "the accessibility service is connected"), which lets a better method take
+ * over as soon as it appears. Ones that failed are not tried again this boot,
+ * and the memo keeps them so a process restart does not retry them either.
+ */
+public class StrategyProbe {
+
+    public interface Strategy {
+        String getId();
+
+        /** Cheap check, no side effects. */
+        boolean isAvailable();
+
+        /** Performs the action; false or an exception means this method does not work here. */
+        boolean run() throws Exception;
+    }
+
+    /** Where the winner and the failures are kept between process starts. */
+    public interface Memo {
+        /** The id saved for this boot, or null. */
+        String load();
+
+        /** Ids of the strategies that failed this boot, never null. */
+        String[] loadFailed();
+
+        void save(String strategyId, String[] failedIds);
+    }
+
+    private final Strategy[] strategies;
+    private final Memo memo;
+    private final boolean[] failed;
+    private int resolved = -2; // -2 not loaded yet, -1 nothing works
+    private boolean failuresChanged = false;
+
+    public StrategyProbe(Memo memo, Strategy... strategies) {
+        this.memo = memo;
+        this.strategies = strategies;
+        this.failed = new boolean[strategies.length];
+    }
+
+    /** Runs the best working strategy. Returns its id, or null if none worked. */
+    public synchronized String run() {
+        load();
+
+        int start = 0;
+        if (resolved >= 0) {
+            // Something better than the remembered method may have become available
+            for (int i = 0; i < resolved; i++) {
+                if (!failed[i] && strategies[i].isAvailable() && attempt(i)) {
+                    remember(i);
+                    return strategies[i].getId();
+                }
+            }
+            if (attempt(resolved)) {
+                // Saves any better strategy that just failed, so it is not retried after a restart
+                remember(resolved);
+                return strategies[resolved].getId();
+            }
+            start = resolved + 1;
+        }
+
+        for (int i = start; i < strategies.length; i++) {
+            if (!failed[i] && strategies[i].isAvailable() && attempt(i)) {
+                remember(i);
+                return strategies[i].getId();
+            }
+        }
+
+        remember(-1);
+        return null;
+    }
+
+    /** The remembered strategy id, or null. */
+    public synchronized String getResolvedId() {
+        load();
+        return resolved >= 0 ? strategies[resolved].getId() : null;
+    }
+
+    public synchronized void reset() {
+        resolved = -1;
+        java.util.Arrays.fill(failed, false);
+        failuresChanged = false;
+        memo.save(null, new String[0]);
+    }
+
+    private void load() {
+        if (resolved != -2) return;
+
+        resolved = indexOf(memo.load());
+        // Only what actually failed is skipped; one that was merely unavailable gets its chance
+        for (String id : memo.loadFailed()) {
+            int index = indexOf(id);
+            if (index >= 0) failed[index] = true;
+        }
+    }
+
+    private boolean attempt(int index) {
+        boolean worked;
+        try {
+            worked = strategies[index].run();
+        } catch (Exception e) {
+            worked = false;
+        }
+        if (failed[index] == worked) {
+            failed[index] = !worked;
+            failuresChanged = true;
+        }
+        return worked;
+    }
+
+    private void remember(int index) {
+        if (index == resolved && !failuresChanged) return;
+        resolved = index;
+        failuresChanged = false;
+        memo.save(index >= 0 ? strategies[index].getId() : null, failedIds());
+    }
+
+    private String[] failedIds() {
+        int count = 0;
+        for (boolean f : failed) {
+            if (f) count++;
+        }
+        String[] ids = new String[count];
+        for (int i = 0, j = 0; i < failed.length; i++) {
+            if (failed[i]) ids[j++] = strategies[i].getId();
+        }
+        return ids;
+    }
+
+    private int indexOf(String id) {
+        if (id == null) return -1;
+        for (int i = 0; i < strategies.length; i++) {
+            if (strategies[i].getId().equals(id)) return i;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,249 @@
+package com.nayanpote.edgeassist;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * Bubble touch input exactly as {@link BubbleTouchController} received it,
+ * for replaying real gestures on the JVM.
+ *
+ * Events are kept in parallel primitive arrays. On disk each event is a type
+ * byte, the time since the previous event as a zig-zag varint in ms, x and y
+ * as floats, plus the window position for {@link #DOWN} and the release
+ * velocity for {@link #UP}; a drag at 120 Hz is about 10 bytes per sample.
+ * Recording stops quietly at {@link #MAX_EVENTS}.
+ */
+public class TouchTrace {
+
+    /** Finger down; carries the window position at that moment. */
+    public static final int DOWN = 0;
+    /** Historical sample batched into a move; only the drag engine sees it. */
+    public static final int SAMPLE = 1;
+    public static final int MOVE = 2;
+    /** Finger up; carries the release velocity in px/s. */
+    public static final int UP = 3;
+    public static final int CANCEL = 4;
+
+    public static final int MAX_EVENTS = 100_000;
+    public static final String DIRECTORY = "touch_traces";
+    public static final String FILE_SUFFIX = ".eatt";
+
+    private static final int MAGIC = 0x45415454; // "EATT"
+    private static final short FORMAT_VERSION = 1;
+    private static final int INITIAL_CAPACITY = 256;
+
+    private byte[] types = new byte[INITIAL_CAPACITY];
+    private long[] times = new long[INITIAL_CAPACITY];
+    private float[] xs = new float[INITIAL_CAPACITY];
+    private float[] ys = new float[INITIAL_CAPACITY];
+    // Window position for DOWN, velocity for UP
+    private float[] extraXs = new float[INITIAL_CAPACITY];
+    private float[] extraYs = new float[INITIAL_CAPACITY];
+    private int size = 0;
+
+    public void down(int windowX, int windowY, float x, float y, long timeMillis) {
+        add(DOWN, x, y, timeMillis, windowX, windowY);
+    }
+
+    public void sample(float x, float y, long timeMillis) {
+        add(SAMPLE, x, y, timeMillis, 0, 0);
+    }
+
+    public void move(float x, float y, long timeMillis) {
+        add(MOVE, x, y, timeMillis, 0, 0);
+    }
+
+    public void up(float x, float y, long timeMillis, float velocityX, float velocityY) {
+        add(UP, x, y, timeMillis, velocityX, velocityY);
+    }
+
+    public void cancel(long timeMillis) {
+        add(CANCEL, 0, 0, timeMillis, 0, 0);
+    }
+
+    private void add(int type, float x, float y, long timeMillis, float extraX, float extraY) {
+        if (size == MAX_EVENTS) return;
+        if (size == types.length) {
+            int capacity = Math.min(MAX_EVENTS, size * 2);
+            types = Arrays.copyOf(types, capacity);
+            times = Arrays.copyOf(times, capacity);
+            xs = Arrays.copyOf(xs, capacity);
+            ys = Arrays.copyOf(ys, capacity);
+            extraXs = Arrays.copyOf(extraXs, capacity);
+            extraYs = Arrays.copyOf(extraYs, capacity);
+        }
+        types[size] = (byte) type;
+        times[size] = timeMillis;
+        xs[size] = x;
+        ys[size] = y;
+        extraXs[size] = extraX;
+        extraYs[size] = extraY;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isFull() {
+        return size == MAX_EVENTS;
+    }
+
+    public int getType(int index) {
+        return types[index];
+    }
+
+    public long getTimeMillis(int index) {
+        return times[index];
+    }
+
+    public float getX(int index) {
+        return xs[index];
+    }
+
+    public float getY(int index) {
+        return ys[index];
+    }
+
+    public int getWindowX(int index) {
+        return (int) extraXs[index];
+    }
+
+    public int getWindowY(int index) {
+        return (int) extraYs[index];
+    }
+
+    public float getVelocityX(int index) {
+        return extraXs[index];
+    }
+
+    public float getVelocityY(int index) {
+        return extraYs[index];
+    }
+
+    // Layout: magic, version, event count, time of the first event, then the events
+    byte[] encode() throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(16 + size * 10);
+        DataOutputStream out = new DataOutputStream(buffer);
+        out.writeInt(MAGIC);
+        out.writeShort(FORMAT_VERSION);
+        out.writeInt(size);
+        out.writeLong(size > 0 ? times[0] : 0);
+
+        long previous = size > 0 ? times[0] : 0;
+        for (int i = 0; i < size; i++) {
+            int type = types[i];
+            out.writeByte(type);
+            writeVarLong(out, times[i] - previous);
+            previous = times[i];
+            if (type != CANCEL) {
+                out.writeFloat(xs[i]);
+                out.writeFloat(ys[i]);
+            }
+            if (type == DOWN || type == UP) {
+                out.writeFloat(extraXs[i]);
+                out.writeFloat(extraYs[i]);
+            }
+        }
+        out.flush();
+        return buffer.toByteArray();
+    }
+
+    static TouchTrace decode(byte[] bytes, int length) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, 0, length));
+        if (in.readInt() != MAGIC || in.readShort() != FORMAT_VERSION) {
+            throw new IOException("Unknown touch trace format");
+        }
+        int count = in.readInt();
+        if (count < 0 || count > MAX_EVENTS) {
+            throw new IOException("Bad touch trace length " + count);
+        }
+
+        TouchTrace trace = new TouchTrace();
+        long time = in.readLong();
+        for (int i = 0; i < count; i++) {
+            int type = in.readUnsignedByte();
+            if (type > CANCEL) throw new IOException("Bad touch event type " + type);
+            time += readVarLong(in);
+            float x = 0, y = 0, extraX = 0, extraY = 0;
+            if (type != CANCEL) {
+                x = in.readFloat();
+                y = in.readFloat();
+            }
+            if (type == DOWN || type == UP) {
+                extraX = in.readFloat();
+                extraY = in.readFloat();
+            }
+            trace.add(type, x, y, time, extraX, extraY);
+        }
+        return trace;
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        long zigZag = (value << 1) ^ (value >> 63);
+        while ((zigZag & ~0x7FL) != 0) {
+            out.writeByte((int) ((zigZag & 0x7F) | 0x80));
+            zigZag >>>= 7;
+        }
+        out.writeByte((int) zigZag);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long zigZag = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            zigZag |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return (zigZag >>> 1) ^ -(zigZag & 1);
+            }
+        }
+        throw new IOException("Malformed varint in touch trace");
+    }
+
+    public static TouchTrace load(File file) throws IOException {
+        byte[] bytes;
+        try (FileInputStream in = new FileInputStream(file)) {
+            bytes = new byte[(int) file.length()];
+            int read = 0;
+            while (read < bytes.length) {
+                int n = in.read(bytes, read, bytes.length - read);
+                if (n < 0) break;
+                read += n;
+            }
+            if (read != bytes.length) throw new IOException("Short read of " + file);
+        }
+        if (bytes.length < 4) throw new IOException("Truncated " + file);
+
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length - 4);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, bytes.length - 4, 4));
+        if ((int) crc.getValue() != in.readInt()) {
+            throw new IOException("Checksum mismatch in " + file);
+        }
+        return decode(bytes, bytes.length - 4);
+    }
+
+    public void save(File file) throws IOException {
+        byte[] bytes = encode();
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length);
+
+        File tempFile = new File(file.getPath() + ".tmp");
+        try (FileOutputStream stream = new FileOutputStream(tempFile)) {
+            stream.write(bytes);
+            new DataOutputStream(stream).writeInt((int) crc.getValue());
+            stream.getFD().sync();
+        }
+        if (!tempFile.renameTo(file)) {
+            throw new IOException("Cannot replace " + file);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.nayanpote.edgeassist;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Last known level and range of the media, ring, alarm, notification and
+ * call streams, plus the ringer mode.
+ *
+ * Filled once from AudioManager and then kept current from the system's
+ * volume and ringer broadcasts, so readers never make a binder call. The
+ * state is an immutable {@link State} behind a volatile reference: reads from
+ * any thread are a single volatile load, updates replace the whole (tiny) state.
+ */
+public class VolumeStateCache {
+
+    public interface Listener {
+        void onVolumeStateChanged(State state);
+    }
+
+    // AudioManager stream ids, kept here so this class has no Android dependency
+    public static final int STREAM_VOICE_CALL = 0;
+    public static final int STREAM_RING = 2;
+    public static final int STREAM_MUSIC = 3;
+    public static final int STREAM_ALARM = 4;
+    public static final int STREAM_NOTIFICATION = 5;
+
+    /** Streams in mixer order. */
+    public static final int[] STREAMS = {
+            STREAM_MUSIC, STREAM_RING, STREAM_NOTIFICATION, STREAM_ALARM, STREAM_VOICE_CALL
+    };
+
+    public static final int RINGER_MODE_UNKNOWN = -1;
+
+    public static final class State {
+        public final long version;
+        public final boolean loaded;
+        public final boolean volumeFixed;
+        public final int ringerMode;
+        private final int[] levels;
+        private final int[] maxLevels;
+
+        State(long version, boolean loaded, boolean volumeFixed, int ringerMode, int[] levels, int[] maxLevels) {
+            this.version = version;
+            this.loaded = loaded;
+            this.volumeFixed = volumeFixed;
+            this.ringerMode = ringerMode;
+            this.levels = levels;
+            this.maxLevels = maxLevels;
+        }
+
+        /** Level of a stream, or -1 if it is not tracked or not loaded yet. */
+        public int getLevel(int stream) {
+            int slot = slotOf(stream);
+            return slot < 0 ? -1 : levels[slot];
+        }
+
+        public int getMax(int stream) {
+            int slot = slotOf(stream);
+            return slot < 0 ? -1 : maxLevels[slot];
+        }
+    }
+
+    private final CopyOnWriteArrayList<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final Object writeLock = new Object();
+    private volatile State state;
+
+    public VolumeStateCache() {
+        int[] unknown = new int[STREAMS.length];
+        java.util.Arrays.fill(unknown, -1);
+        state = new State(0, false, false, RINGER_MODE_UNKNOWN, unknown, unknown);
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public int getLevel(int stream) {
+        return state.getLevel(stream);
+    }
+
+    public int getMax(int stream) {
+        return state.getMax(stream);
+    }
+
+    public boolean isVolumeFixed() {
+        return state.volumeFixed;
+    }
+
+    public int getRingerMode() {
+        return state.ringerMode;
+    }
+
+    public boolean isLoaded() {
+        return state.loaded;
+    }
+
+    public void addListener(Listener listener) {
+        listeners.addIfAbsent(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /** Full snapshot; levels and maxLevels are in {@link #STREAMS} order. */
+    public void setSnapshot(int[] levels, int[] maxLevels, boolean volumeFixed, int ringerMode) {
+        State next;
+        synchronized (writeLock) {
+            next = new State(state.version + 1, true, volumeFixed, ringerMode, levels.clone(), maxLevels.clone());
+            state = next;
+        }
+        notifyListeners(next);
+    }
+
+    /** A level reported by a volume-changed broadcast. */
+    public void onVolumeChanged(int stream, int level) {
+        int slot = slotOf(stream);
+        if (slot < 0) return;
+
+        State next;
+        synchronized (writeLock) {
+            State current = state;
+            if (current.levels[slot] == level) return;
+
+            int[] levels = current.levels.clone();
+            levels[slot] = level;
+            next = new State(current.version + 1, current.loaded, current.volumeFixed, current.ringerMode,
+                    levels, current.maxLevels);
+            state = next;
+        }
+        notifyListeners(next);
+    }
+
+    public void onRingerModeChanged(int ringerMode) {
+        State next;
+        synchronized (writeLock) {
+            State current = state;
+            if (current.ringerMode == ringerMode) return;
+
+            next = new State(current.version + 1, current.loaded, current.volumeFixed, ringerMode,
+                    current.levels, current.maxLevels);
+            state = next;
+        }
+        notifyListeners(next);
+    }
+
+    private void notifyListeners(State next) {
+        for (Listener listener : listeners) {
+            listener.onVolumeStateChanged(next);
+        }
+    }
+
+    /** Index of {@code stream} in {@link #STREAMS}, or -1. */
+    public static int slotOf(int stream) {
+        for (int i = 0; i < STREAMS.length; i++) {
+            if (STREAMS[i] == stream) return i;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,102 @@
+package com.nayanpote.edgeassist;
+
+/**
+ * Moves a window along both axes with a single frame callback.
+ * Each vsync interpolates x and y together and hands the result to the
+ * {@link PositionSink} at most once, and only when the position actually changed,
+ * so every frame costs at most one updateViewLayout.
+ */
+public class WindowPositionAnimator implements FrameScheduler.FrameCallback {
+
+    public interface PositionSink {
+        void onPosition(int x, int y);
+    }
+
+    private final FrameScheduler frameScheduler;
+    private final PositionSink sink;
+
+    private int fromX, fromY, toX, toY;
+    private int lastX, lastY;
+    private long durationNanos;
+    private long startTimeNanos = -1;
+    private boolean running = false;
+    private Runnable onComplete;
+
+    public WindowPositionAnimator(FrameScheduler frameScheduler, PositionSink sink) {
+        this.frameScheduler = frameScheduler;
+        this.sink = sink;
+    }
+
+    /**
+     * Starts moving from (fromX, fromY) to (toX, toY). A running animation is
+     * replaced and its completion callback is dropped.
+     * onComplete only runs when the animation reaches its target.
+     */
+    public void start(int fromX, int fromY, int toX, int toY, long durationMs, Runnable onComplete) {
+        cancel();
+
+        this.fromX = fromX;
+        this.fromY = fromY;
+        this.toX = toX;
+        this.toY = toY;
+        this.lastX = fromX;
+        this.lastY = fromY;
+        this.durationNanos = Math.max(0, durationMs) * 1_000_000L;
+        this.onComplete = onComplete;
+        this.startTimeNanos = -1;
+        this.running = true;
+
+        frameScheduler.postFrameCallback(this);
+    }
+
+    public void cancel() {
+        if (!running) return;
+
+        running = false;
+        onComplete = null;
+        frameScheduler.removeFrameCallback(this);
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        if (!running) return;
+
+        // The first frame defines t = 0, same as ValueAnimator
+        if (startTimeNanos < 0) {
+            startTimeNanos = frameTimeNanos;
+        }
+
+        float fraction = durationNanos == 0 ? 1f
+                : Math.min(1f, (frameTimeNanos - startTimeNanos) / (float) durationNanos);
+        float eased = accelerateDecelerate(fraction);
+
+        int x = fraction >= 1f ? toX : Math.round(fromX + (toX - fromX) * eased);
+        int y = fraction >= 1f ? toY : Math.round(fromY + (toY - fromY) * eased);
+
+        if (x != lastX || y != lastY) {
+            lastX = x;
+            lastY = y;
+            sink.onPosition(x, y);
+        }
+
+        if (fraction >= 1f) {
+            running = false;
+            Runnable callback = onComplete;
+            onComplete = null;
+            if (callback != null) {
+                callback.run();
+            }
+        } else {
+            frameScheduler.postFrameCallback(this);
+        }
+    }
+
+    // Same curve as android.view.animation.AccelerateDecelerateInterpolator
+    static float accelerateDecelerate(float input) {
+        return (float) (Math.cos((input + 1) * Math.PI) / 2.0) + 0.5f;
+    }
+}
@@ -0,0 +1,123 @@
+package com.nayanpote.edgeassist;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class CoalescingVolumeWriterTest {
+
+    private static final int MUSIC = 3;
+    private static final int RING = 2;
+
+    private final List<Runnable> ioQueue = new ArrayList<>();
+    private final List<int[]> writes = new ArrayList<>();
+    private FakeFrameScheduler frames;
+    private CoalescingVolumeWriter writer;
+
+    @Before
+    public void setUp() {
+        frames = new FakeFrameScheduler();
+        writer = new CoalescingVolumeWriter(frames, ioQueue::add,
+                (stream, volume) -> writes.add(new int[]{stream, volume}));
+    }
+
+    private void runIo() {
+        List<Runnable> running = new ArrayList<>(ioQueue);
+        ioQueue.clear();
+        for (Runnable runnable : running) {
+            runnable.run();
+        }
+    }
+
+    @Test
+    public void requestsWithinAFrameBecomeOneWriteOfTheLatestValue() {
+        for (int level = 0; level <= 15; level++) {
+            writer.request(MUSIC, level);
+        }
+        assertTrue(ioQueue.isEmpty());
+
+        frames.frame();
+        runIo();
+
+        assertEquals(1, writes.size());
+        assertArrayEquals(new int[]{MUSIC, 15}, writes.get(0));
+        assertEquals(16, writer.getRequestCount());
+        assertEquals(1, writer.getWriteCount());
+    }
+
+    @Test
+    public void fastSwipeAcrossFramesWritesAtMostOncePerFrame() {
+        // 0..15 over four frames, the io thread keeps up
+        int level = 0;
+        for (int frame = 0; frame < 4; frame++) {
+            for (int i = 0; i < 4; i++) {
+                writer.request(MUSIC, level++);
+            }
+            frames.frame();
+            runIo();
+        }
+
+        assertEquals(4, writes.size());
+        assertEquals(15, writes.get(3)[1]);
+    }
+
+    @Test
+    public void slowBinderCallHoldsBackWritesAndKeepsOnlyTheLatest() {
+        writer.request(MUSIC, 1);
+        frames.frame();
+        assertEquals(1, ioQueue.size());
+
+        // The first write is still in flight for three frames
+        for (int level = 2; level <= 10; level++) {
+            writer.request(MUSIC, level);
+            if (level % 3 == 0) frames.frame();
+        }
+        frames.frame();
+        assertEquals(1, ioQueue.size());
+
+        runIo();
+        frames.frame();
+        runIo();
+
+        assertEquals(2, writes.size());
+        assertEquals(1, writes.get(0)[1]);
+        assertEquals(10, writes.get(1)[1]);
+        assertFalse(frames.hasPending());
+    }
+
+    @Test
+    public void unchangedLevelIsNotWrittenAgain() {
+        writer.setKnownVolume(MUSIC, 7);
+        writer.request(MUSIC, 7);
+        frames.frame();
+
+        assertTrue(ioQueue.isEmpty());
+        assertTrue(writes.isEmpty());
+    }
+
+    @Test
+    public void streamsAreCoalescedIndependently() {
+        writer.request(MUSIC, 4);
+        writer.request(RING, 2);
+        writer.request(MUSIC, 5);
+        frames.frame();
+        runIo();
+
+        assertEquals(2, writes.size());
+        assertArrayEquals(new int[]{RING, 2}, writes.get(0));
+        assertArrayEquals(new int[]{MUSIC, 5}, writes.get(1));
+    }
+
+    @Test
+    public void cancelDropsPendingRequests() {
+        writer.request(MUSIC, 4);
+        writer.cancel();
+        frames.frame();
+
+        assertTrue(ioQueue.isEmpty());
+    }
+}
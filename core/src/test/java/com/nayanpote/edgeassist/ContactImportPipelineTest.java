@@ -0,0 +1,143 @@
+package com.nayanpote.edgeassist;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.*;
+
+public class ContactImportPipelineTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private ContactStore store;
+    private ContactRepository repository;
+    private ExecutorService pool;
+
+    @Before
+    public void setUp() throws IOException {
+        store = new ContactStore(folder.getRoot(), Runnable::run);
+        store.open();
+        repository = new ContactRepository(store, Runnable::run, new PhoneNumberNormalizer("91"));
+        pool = Executors.newFixedThreadPool(3);
+    }
+
+    @After
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    /** Serves rows from arrays and remembers the most rows handed out but not yet consumed. */
+    private static class ArraySource implements ContactImportPipeline.RowSource {
+        final String[] names;
+        final String[] numbers;
+        int position = 0;
+        int reads = 0;
+
+        ArraySource(String[] names, String[] numbers) {
+            this.names = names;
+            this.numbers = numbers;
+        }
+
+        @Override
+        public int read(String[] outNames, String[] outNumbers, int max) {
+            int count = Math.min(max, names.length - position);
+            System.arraycopy(names, position, outNames, 0, count);
+            System.arraycopy(numbers, position, outNumbers, 0, count);
+            position += count;
+            reads++;
+            return count;
+        }
+    }
+
+    @Test
+    public void dropsDuplicatesInSourceAndAlreadySaved() throws Exception {
+        repository.add(new SpeedDialContact("Saved", "9876543210"));
+        ArraySource source = new ArraySource(
+                new String[]{"A", "Saved again", "B", "A work", "Blank", "  "},
+                new String[]{"9000000001", "+91 98765 43210", "9000000002", "09000000001", "", "9000000003"});
+
+        ContactImportPipeline pipeline = new ContactImportPipeline(repository, pool, 2, 2);
+        ContactImportPipeline.Result result = pipeline.scan(source, (rows, candidates) -> {
+        });
+
+        assertEquals(6, result.rowsScanned);
+        assertEquals(2, result.duplicates);
+        assertEquals(3, result.candidates.size());
+        assertEquals("A", result.candidates.get(0).name);
+        assertEquals("B", result.candidates.get(1).name);
+        // No name falls back to the number
+        assertEquals("9000000003", result.candidates.get(2).name);
+    }
+
+    @Test
+    public void keepsSourceOrderAcrossManyBatches() throws Exception {
+        int total = 10_000;
+        String[] names = new String[total];
+        String[] numbers = new String[total];
+        for (int i = 0; i < total; i++) {
+            names[i] = "Contact " + i;
+            numbers[i] = String.valueOf(9_000_000_000L + i);
+        }
+        List<int[]> progress = new ArrayList<>();
+
+        ContactImportPipeline pipeline = new ContactImportPipeline(repository, pool, 3, 64);
+        ContactImportPipeline.Result result = pipeline.scan(new ArraySource(names, numbers),
+                (rows, candidates) -> progress.add(new int[]{rows, candidates}));
+
+        assertEquals(total, result.candidates.size());
+        for (int i = 0; i < total; i++) {
+            assertEquals(names[i], result.candidates.get(i).name);
+        }
+        assertFalse(progress.isEmpty());
+        assertEquals(total, progress.get(progress.size() - 1)[0]);
+        for (int i = 1; i < progress.size(); i++) {
+            assertTrue(progress.get(i)[0] >= progress.get(i - 1)[0]);
+        }
+    }
+
+    @Test
+    public void commitIsOneStoreTransaction() throws Exception {
+        ArraySource source = new ArraySource(new String[]{"A", "B", "C"},
+                new String[]{"9000000001", "9000000002", "9000000003"});
+        ContactImportPipeline pipeline = new ContactImportPipeline(repository, pool, 1, 16);
+        ContactImportPipeline.Result result = pipeline.scan(source, (rows, candidates) -> {
+        });
+        long versionBefore = store.getVersion();
+
+        int added = pipeline.commit(result.candidates);
+
+        assertEquals(3, added);
+        assertEquals(versionBefore + 1, store.getVersion());
+        assertEquals(3, repository.getSnapshot().size());
+    }
+
+    @Test
+    public void cancelledScanStopsReadingAndReturnsNull() throws Exception {
+        String[] names = new String[1000];
+        String[] numbers = new String[1000];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = "C" + i;
+            numbers[i] = String.valueOf(9_000_000_000L + i);
+        }
+        ArraySource source = new ArraySource(names, numbers);
+        ContactImportPipeline pipeline = new ContactImportPipeline(repository, pool, 1, 10);
+
+        ContactImportPipeline.Result result = pipeline.scan(source, (rows, candidates) -> {
+            if (rows >= 50) pipeline.cancel();
+        });
+
+        assertNull(result);
+        assertTrue(source.reads < 20);
+        assertEquals(0, pipeline.commit(new ArrayList<>()));
+    }
+}
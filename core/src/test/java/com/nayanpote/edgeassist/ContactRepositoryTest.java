@@ -0,0 +1,183 @@
+package com.nayanpote.edgeassist;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ContactRepositoryTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final List<Runnable> pendingNotifications = new ArrayList<>();
+    private ContactStore store;
+    private ContactRepository repository;
+
+    @Before
+    public void setUp() throws IOException {
+        store = new ContactStore(folder.getRoot(), Runnable::run);
+        store.open();
+        repository = new ContactRepository(store, pendingNotifications::add, new PhoneNumberNormalizer("91"));
+    }
+
+    private void runNotifications() {
+        List<Runnable> running = new ArrayList<>(pendingNotifications);
+        pendingNotifications.clear();
+        for (Runnable runnable : running) {
+            runnable.run();
+        }
+    }
+
+    @Test
+    public void snapshotsAreImmutable() {
+        repository.add(new SpeedDialContact("A", "1"));
+        ContactRepository.Snapshot first = repository.getSnapshot();
+
+        repository.add(new SpeedDialContact("B", "2"));
+
+        assertEquals(1, first.size());
+        assertEquals(2, repository.getSnapshot().size());
+        assertTrue(repository.getSnapshot().version > first.version);
+        try {
+            first.contacts.add(new SpeedDialContact("C", "3"));
+            fail("snapshot should be read-only");
+        } catch (UnsupportedOperationException expected) {
+        }
+    }
+
+    @Test
+    public void burstOfEditsIsDeliveredOnceWithLatestSnapshot() {
+        List<ContactRepository.Snapshot> delivered = new ArrayList<>();
+        repository.addListener(delivered::add);
+
+        repository.add(new SpeedDialContact("A", "1"));
+        repository.add(new SpeedDialContact("B", "2"));
+        repository.add(new SpeedDialContact("C", "3"));
+        runNotifications();
+
+        assertEquals(1, delivered.size());
+        assertEquals(3, delivered.get(0).size());
+    }
+
+    @Test
+    public void changesArePersisted() throws IOException {
+        SpeedDialContact a = new SpeedDialContact("A", "1");
+        repository.add(a);
+        repository.add(new SpeedDialContact("B", "2"));
+        assertTrue(repository.remove(a));
+        assertFalse(repository.remove(a));
+
+        ContactStore reopened = new ContactStore(folder.getRoot(), Runnable::run);
+        reopened.open();
+        assertEquals(1, reopened.size());
+        assertEquals("B", reopened.getContacts().get(0).name);
+    }
+
+    @Test
+    public void concurrentWritersAndReadersSeeConsistentSnapshots() throws InterruptedException {
+        int writers = 4;
+        int perWriter = 200;
+        Thread[] threads = new Thread[writers];
+        for (int w = 0; w < writers; w++) {
+            final int id = w;
+            threads[w] = new Thread(() -> {
+                for (int i = 0; i < perWriter; i++) {
+                    repository.add(new SpeedDialContact("W" + id, id + "-" + i));
+                }
+            });
+        }
+
+        boolean[] failed = new boolean[1];
+        Thread reader = new Thread(() -> {
+            long lastVersion = -1;
+            for (int i = 0; i < 2000; i++) {
+                ContactRepository.Snapshot snapshot = repository.getSnapshot();
+                // Each snapshot holds exactly one contact per published version
+                if (snapshot.size() != snapshot.version || snapshot.version < lastVersion) {
+                    failed[0] = true;
+                }
+                lastVersion = snapshot.version;
+            }
+        });
+
+        reader.start();
+        for (Thread thread : threads) thread.start();
+        for (Thread thread : threads) thread.join();
+        reader.join();
+
+        assertFalse(failed[0]);
+        assertEquals(writers * perWriter, repository.getSnapshot().size());
+        assertEquals(writers * perWriter, store.size());
+    }
+
+    @Test
+    public void formattingVariantsAreDuplicates() {
+        assertTrue(repository.add(new SpeedDialContact("Asha", "+91 98765 43210")));
+        assertFalse(repository.add(new SpeedDialContact("Asha 2", "098765-43210")));
+        assertFalse(repository.add(new SpeedDialContact("Asha 3", "9876543210")));
+
+        assertEquals(1, repository.getSnapshot().size());
+        assertEquals("Asha", repository.findByNumber("0091 98765 43210").name);
+        assertNull(repository.findByNumber("+91 98765 00000"));
+    }
+
+    @Test
+    public void removedNumberCanBeAddedAgain() {
+        SpeedDialContact contact = new SpeedDialContact("A", "9876543210");
+        repository.add(contact);
+        repository.remove(contact);
+
+        assertFalse(repository.containsNumber("9876543210"));
+        assertTrue(repository.add(new SpeedDialContact("A", "+919876543210")));
+    }
+
+    @Test
+    public void addAllSkipsDuplicatesInsideAndOutsideTheBatch() {
+        repository.add(new SpeedDialContact("A", "9876543210"));
+        List<SpeedDialContact> batch = new ArrayList<>();
+        batch.add(new SpeedDialContact("A", "+91 98765 43210"));
+        batch.add(new SpeedDialContact("B", "9123456789"));
+        batch.add(new SpeedDialContact("B", "09123456789"));
+
+        assertEquals(1, repository.addAll(batch));
+        assertEquals(2, repository.getSnapshot().size());
+    }
+
+    @Test
+    public void existingDuplicatesAreCollapsedOnLoad() throws IOException {
+        store.add(new SpeedDialContact("A", "+91 98765 43210"));
+        store.add(new SpeedDialContact("A again", "098765 43210"));
+        store.add(new SpeedDialContact("B", "9123456789"));
+
+        ContactRepository loaded = new ContactRepository(store, Runnable::run, new PhoneNumberNormalizer("91"));
+        assertEquals(2, loaded.getSnapshot().size());
+        assertEquals("A", loaded.getSnapshot().contacts.get(0).name);
+
+        // The collapsed list is what is on disk now
+        ContactStore reopened = new ContactStore(folder.getRoot(), Runnable::run);
+        reopened.open();
+        assertEquals(2, reopened.size());
+    }
+
+    @Test
+    public void lookupStaysFastWithThousandsOfContacts() {
+        List<SpeedDialContact> batch = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            batch.add(new SpeedDialContact("C" + i, "9" + String.format("%09d", i)));
+        }
+        assertEquals(5000, repository.addAll(batch));
+
+        for (int i = 0; i < 5000; i += 7) {
+            String formatted = "+91 9" + String.format("%09d", i).replaceAll("(\\d{4})(\\d{5})", "$1-$2");
+            assertNotNull(formatted, repository.findByNumber(formatted));
+        }
+        assertFalse(repository.add(new SpeedDialContact("dup", "0" + "9" + String.format("%09d", 42))));
+    }
+}
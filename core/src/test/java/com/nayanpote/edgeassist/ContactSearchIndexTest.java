@@ -0,0 +1,119 @@
+package com.nayanpote.edgeassist;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ContactSearchIndexTest {
+
+    private ContactSearchIndex index;
+    private SpeedDialContact samJones;
+    private SpeedDialContact amySamuel;
+    private SpeedDialContact jose;
+
+    @Before
+    public void setUp() {
+        index = new ContactSearchIndex(new PhoneNumberNormalizer("91"));
+        samJones = new SpeedDialContact("Sam Jones", "98765 43210");
+        amySamuel = new SpeedDialContact("Amy Samuel", "+91 91234 56789");
+        jose = new SpeedDialContact("José Álvarez", "044-2345-6789");
+        index.add(samJones);
+        index.add(amySamuel);
+        index.add(jose);
+    }
+
+    @Test
+    public void firstNameMatchRanksAboveLaterName() {
+        List<SpeedDialContact> results = index.search("sam", 10);
+
+        assertEquals(2, results.size());
+        assertSame(samJones, results.get(0));
+        assertSame(amySamuel, results.get(1));
+    }
+
+    @Test
+    public void matchingIgnoresCaseAndAccents() {
+        assertEquals(1, index.search("JOSE", 10).size());
+        assertSame(jose, index.search("alv", 10).get(0));
+    }
+
+    @Test
+    public void everyQueryWordMustMatch() {
+        List<SpeedDialContact> results = index.search("sam jo", 10);
+
+        assertEquals(1, results.size());
+        assertSame(samJones, results.get(0));
+        assertTrue(index.search("sam zz", 10).isEmpty());
+    }
+
+    @Test
+    public void numbersMatchNationallyAndInternationally() {
+        assertSame(samJones, index.search("98765", 10).get(0));
+        assertSame(samJones, index.search("+91 98765", 10).get(0));
+        assertSame(jose, index.search("4423", 10).get(0));
+    }
+
+    @Test
+    public void digitsMatchKeypadSpelling() {
+        // 7-2-6 spells "sam"; number matches would rank first but none start with 726
+        List<SpeedDialContact> results = index.search("726", 10);
+
+        assertEquals(2, results.size());
+        assertTrue(results.contains(samJones));
+        assertTrue(results.contains(amySamuel));
+    }
+
+    @Test
+    public void contactIsListedOnceWithItsBestMatch() {
+        SpeedDialContact samSam = new SpeedDialContact("Sam Samson", "1234567");
+        index.add(samSam);
+
+        List<SpeedDialContact> results = index.search("sam", 10);
+
+        assertEquals(3, results.size());
+        assertEquals(amySamuel, results.get(2));
+    }
+
+    @Test
+    public void boosterOrdersWithinMatchKind() {
+        SpeedDialContact samuel = new SpeedDialContact("Samuel", "1234567");
+        index.add(samuel);
+        index.setBooster((contact, normalizedNumber) -> contact == samuel ? 10 : 0);
+
+        assertSame(samuel, index.search("sam", 10).get(0));
+    }
+
+    @Test
+    public void boosterGetsTheIndexedNormalizedNumber() {
+        List<String> seen = new ArrayList<>();
+        index.setBooster((contact, normalizedNumber) -> {
+            seen.add(normalizedNumber);
+            return 0;
+        });
+
+        index.search("sam jo", 10);
+
+        assertEquals(Arrays.asList("+919876543210"), seen);
+    }
+
+    @Test
+    public void removedContactsAreNotFound() {
+        index.remove(samJones);
+
+        assertEquals(1, index.search("sam", 10).size());
+        assertTrue(index.search("98765", 10).isEmpty());
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    public void limitKeepsBestResults() {
+        assertEquals(1, index.search("sam", 1).size());
+        assertSame(samJones, index.search("sam", 1).get(0));
+        assertTrue(index.search("", 10).isEmpty());
+    }
+}
@@ -0,0 +1,155 @@
+package com.nayanpote.edgeassist;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ContactStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private ContactStore openStore() throws IOException {
+        ContactStore store = new ContactStore(folder.getRoot(), Runnable::run);
+        store.setErrorHandler(e -> fail("store error: " + e));
+        store.open();
+        return store;
+    }
+
+    private static SpeedDialContact contact(int i) {
+        return new SpeedDialContact("Contact " + i, "+9198" + String.format("%08d", i));
+    }
+
+    @Test
+    public void addAndRemoveSurviveReopen() throws IOException {
+        ContactStore store = openStore();
+        store.add(contact(1));
+        store.add(contact(2));
+        store.add(contact(3));
+        assertTrue(store.remove(contact(2)));
+
+        List<SpeedDialContact> reloaded = openStore().getContacts();
+        assertEquals(2, reloaded.size());
+        assertEquals("Contact 1", reloaded.get(0).name);
+        assertEquals("Contact 3", reloaded.get(1).name);
+    }
+
+    @Test
+    public void journalIsCompactedIntoSnapshot() throws IOException {
+        ContactStore store = openStore();
+        for (int i = 0; i < ContactStore.COMPACT_THRESHOLD + 10; i++) {
+            store.add(contact(i));
+        }
+
+        File journal = new File(folder.getRoot(), ContactStore.JOURNAL_FILE);
+        assertTrue(new File(folder.getRoot(), ContactStore.SNAPSHOT_FILE).exists());
+        // Only the records written after the compaction are left in the journal
+        assertTrue(journal.length() < 10 * 64);
+
+        assertEquals(ContactStore.COMPACT_THRESHOLD + 10, openStore().size());
+    }
+
+    @Test
+    public void tornJournalRecordIsDropped() throws IOException {
+        ContactStore store = openStore();
+        store.add(contact(1));
+        store.add(contact(2));
+
+        File journal = new File(folder.getRoot(), ContactStore.JOURNAL_FILE);
+        try (RandomAccessFile file = new RandomAccessFile(journal, "rw")) {
+            file.setLength(file.length() - 3);
+        }
+
+        ContactStore reopened = openStore();
+        assertEquals(1, reopened.size());
+
+        // The store keeps working after dropping the torn tail
+        reopened.add(contact(3));
+        assertEquals(2, openStore().size());
+    }
+
+    @Test
+    public void journalFromBeforeCompactionIsNotReplayedTwice() throws IOException {
+        ContactStore store = openStore();
+        store.add(contact(1));
+        store.add(contact(2));
+
+        // Simulate a crash right after the snapshot rename, before the journal reset
+        File journal = new File(folder.getRoot(), ContactStore.JOURNAL_FILE);
+        File saved = folder.newFile("journal.saved");
+        Files.copy(journal.toPath(), saved.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        store.compact();
+        Files.copy(saved.toPath(), journal.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+        assertEquals(2, openStore().size());
+    }
+
+    @Test
+    public void addAllIsOneRecord() throws IOException {
+        ContactStore store = openStore();
+        List<SpeedDialContact> batch = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            batch.add(contact(i));
+        }
+        store.addAll(batch);
+
+        File journal = new File(folder.getRoot(), ContactStore.JOURNAL_FILE);
+        try (RandomAccessFile file = new RandomAccessFile(journal, "rw")) {
+            file.setLength(file.length() - 1);
+        }
+        // A torn batch disappears as a whole
+        assertEquals(0, openStore().size());
+    }
+
+    @Test
+    public void replaceAllWritesSnapshot() throws IOException {
+        ContactStore store = openStore();
+        assertFalse(store.exists());
+        store.replaceAll(Arrays.asList(contact(7), contact(8)));
+
+        assertTrue(store.exists());
+        assertEquals("Contact 8", openStore().getContacts().get(1).name);
+    }
+
+    @Test
+    public void corruptSnapshotIsSetAside() throws IOException {
+        ContactStore store = openStore();
+        store.replaceAll(Arrays.asList(contact(1)));
+        File snapshot = new File(folder.getRoot(), ContactStore.SNAPSHOT_FILE);
+        try (FileOutputStream out = new FileOutputStream(snapshot, true)) {
+            out.write(42);
+        }
+
+        int[] errors = new int[1];
+        ContactStore reopened = new ContactStore(folder.getRoot(), Runnable::run);
+        reopened.setErrorHandler(e -> errors[0]++);
+        reopened.open();
+
+        assertEquals(1, errors[0]);
+        assertEquals(0, reopened.size());
+        assertTrue(new File(folder.getRoot(), ContactStore.SNAPSHOT_FILE + ".corrupt").exists());
+    }
+
+    @Test
+    public void versionChangesOnEveryEdit() throws IOException {
+        ContactStore store = openStore();
+        long version = store.getVersion();
+        store.add(contact(1));
+        assertNotEquals(version, store.getVersion());
+        version = store.getVersion();
+        assertFalse(store.remove(contact(99)));
+        assertEquals(version, store.getVersion());
+    }
+}
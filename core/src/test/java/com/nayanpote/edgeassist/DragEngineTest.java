@@ -0,0 +1,93 @@
+package com.nayanpote.edgeassist;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class DragEngineTest {
+
+    private static final long SAMPLE_NANOS = 4_166_667L; // 240 Hz touch panel
+
+    private FakeFrameScheduler scheduler;
+    private DragEngine engine;
+    private int layoutCalls;
+    private int x, y;
+
+    @Before
+    public void setUp() {
+        scheduler = new FakeFrameScheduler();
+        engine = new DragEngine(scheduler, (newX, newY) -> {
+            layoutCalls++;
+            x = newX;
+            y = newY;
+        }, 0, 0);
+    }
+
+    @Test
+    public void coalescesHighRateSamplesToOneLayoutPerFrame() {
+        engine.begin(0, 200, 100, 300, 0);
+        engine.startDragging();
+
+        long time = 0;
+        float touchX = 100;
+        for (int frame = 0; frame < 30; frame++) {
+            for (int i = 0; i < 4; i++) {
+                time += SAMPLE_NANOS;
+                touchX += 3;
+                engine.addSample(touchX, 300, time);
+            }
+            scheduler.frame();
+            assertTrue(engine.getLayoutsInLastFrame() <= 1);
+        }
+
+        assertEquals(30, layoutCalls);
+        assertEquals(1, engine.getMaxLayoutsPerFrame());
+        assertEquals(120, engine.getSampleCount() - 1);
+        assertEquals(360, x);
+        assertEquals(200, y);
+    }
+
+    @Test
+    public void doesNotMoveBeforeDragStarts() {
+        engine.begin(0, 0, 50, 50, 0);
+        engine.addSample(55, 52, SAMPLE_NANOS);
+        scheduler.runUntilIdle(10);
+
+        assertEquals(0, layoutCalls);
+    }
+
+    @Test
+    public void predictsAheadOfTheFingerWithinLimit() {
+        DragEngine predicting = new DragEngine(scheduler, (newX, newY) -> x = newX,
+                8_000_000L, 24f);
+        predicting.begin(0, 0, 0, 0, 0);
+        predicting.startDragging();
+        // 1 px per ms to the right
+        for (int i = 1; i <= 8; i++) {
+            predicting.addSample(i * 4, 0, i * 4_000_000L);
+        }
+        scheduler.frame();
+
+        assertEquals(40, x);
+        assertEquals(32, predicting.getFingerWindowX());
+
+        // A very fast flick is clamped to the maximum prediction
+        predicting.addSample(400, 0, 36_000_000L);
+        scheduler.frame();
+        assertEquals(424, x);
+    }
+
+    @Test
+    public void endStopsFollowingAndKeepsExactFingerPosition() {
+        engine.begin(10, 10, 0, 0, 0);
+        engine.startDragging();
+        engine.addSample(20, 30, SAMPLE_NANOS);
+        engine.end();
+        scheduler.runUntilIdle(10);
+
+        assertEquals(0, layoutCalls);
+        assertEquals(30, engine.getFingerWindowX());
+        assertEquals(40, engine.getFingerWindowY());
+    }
+}
@@ -0,0 +1,71 @@
+package com.nayanpote.edgeassist;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hand-driven {@link FrameScheduler} for JVM tests. Each {@link #frame()} call
+ * advances the clock by one vsync and runs everything that was pending.
+ */
+public class FakeFrameScheduler implements FrameScheduler {
+
+    public static final long FRAME_NANOS = 16_666_667L;
+
+    private final List<FrameCallback> pending = new ArrayList<>();
+    private final List<FrameCallback> running = new ArrayList<>();
+    private long frameTimeNanos = 0;
+    private int frames = 0;
+
+    @Override
+    public void postFrameCallback(FrameCallback callback) {
+        if (!pending.contains(callback)) {
+            pending.add(callback);
+        }
+    }
+
+    @Override
+    public void removeFrameCallback(FrameCallback callback) {
+        pending.remove(callback);
+    }
+
+    public boolean hasPending() {
+        return !pending.isEmpty();
+    }
+
+    public int getFrames() {
+        return frames;
+    }
+
+    public long getFrameTimeNanos() {
+        return frameTimeNanos;
+    }
+
+    public void frame() {
+        frameTimeNanos += FRAME_NANOS;
+        frames++;
+        // Swap through a reused list so replays can measure allocations of the code under test
+        running.clear();
+        for (int i = 0; i < pending.size(); i++) {
+            running.add(pending.get(i));
+        }
+        pending.clear();
+        for (int i = 0; i < running.size(); i++) {
+            running.get(i).doFrame(frameTimeNanos);
+        }
+    }
+
+    /** Lets {@code count} vsyncs pass without running callbacks, like a main thread that is busy. */
+    public void dropFrames(int count) {
+        frameTimeNanos += count * FRAME_NANOS;
+    }
+
+    /** Runs frames until nothing is pending, returns how many were needed. */
+    public int runUntilIdle(int maxFrames) {
+        int count = 0;
+        while (hasPending() && count < maxFrames) {
+            frame();
+            count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,147 @@
+package com.nayanpote.edgeassist;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class FrameStatsTest {
+
+    private FakeFrameScheduler frames;
+    private FrameStats stats;
+
+    @Before
+    public void setUp() {
+        frames = new FakeFrameScheduler();
+        stats = new FrameStats(frames);
+        stats.setFrameIntervalNanos(FakeFrameScheduler.FRAME_NANOS);
+    }
+
+    @Test
+    public void smoothInteractionHasNoJank() {
+        stats.begin(FrameStats.DRAG);
+        for (int i = 0; i < 11; i++) {
+            frames.frame();
+        }
+        stats.end(FrameStats.DRAG);
+        frames.runUntilIdle(5);
+
+        // The first frame only sets the baseline
+        assertEquals(10, stats.getFrameCount(FrameStats.DRAG));
+        assertEquals(0, stats.getJankCount(FrameStats.DRAG));
+        assertEquals(17, stats.getPercentileMs(FrameStats.DRAG, 0.5), 0.5);
+        assertEquals(1, stats.getSessionCount(FrameStats.DRAG));
+        assertFalse(frames.hasPending());
+    }
+
+    @Test
+    public void droppedFramesCountAsJankAndRaiseTheTail() {
+        stats.begin(FrameStats.SNAP);
+        frames.frame();
+        for (int i = 0; i < 98; i++) {
+            frames.frame();
+        }
+        frames.dropFrames(2);
+        frames.frame();
+        frames.frame();
+        stats.end(FrameStats.SNAP);
+
+        assertEquals(100, stats.getFrameCount(FrameStats.SNAP));
+        assertEquals(1, stats.getJankCount(FrameStats.SNAP));
+        assertEquals(17, stats.getPercentileMs(FrameStats.SNAP, 0.95), 0.5);
+        assertEquals(50, stats.getPercentileMs(FrameStats.SNAP, 1.0), 0.5);
+        assertEquals(50, stats.getMaxMs(FrameStats.SNAP), 0.5);
+    }
+
+    @Test
+    public void framesGoToEveryActiveInteraction() {
+        stats.begin(FrameStats.DRAG);
+        frames.frame();
+        frames.frame();
+        stats.begin(FrameStats.HIDE_SHOW);
+        frames.frame();
+        stats.end(FrameStats.DRAG);
+        frames.frame();
+        stats.end(FrameStats.HIDE_SHOW);
+        frames.runUntilIdle(5);
+
+        assertEquals(2, stats.getFrameCount(FrameStats.DRAG));
+        assertEquals(2, stats.getFrameCount(FrameStats.HIDE_SHOW));
+        assertEquals(0, stats.getFrameCount(FrameStats.SNAP));
+    }
+
+    @Test
+    public void idleGapBetweenInteractionsIsNotAFrame() {
+        stats.begin(FrameStats.DRAG);
+        frames.frame();
+        frames.frame();
+        stats.end(FrameStats.DRAG);
+        frames.runUntilIdle(5);
+
+        frames.dropFrames(100);
+        stats.begin(FrameStats.DRAG);
+        frames.frame();
+        frames.frame();
+        stats.end(FrameStats.DRAG);
+
+        assertEquals(2, stats.getFrameCount(FrameStats.DRAG));
+        assertEquals(0, stats.getJankCount(FrameStats.DRAG));
+        assertEquals(2, stats.getSessionCount(FrameStats.DRAG));
+    }
+
+    @Test
+    public void repeatedBeginIsOneSession() {
+        stats.begin(FrameStats.SPEED_DIAL_OPEN);
+        stats.begin(FrameStats.SPEED_DIAL_OPEN);
+
+        assertEquals(1, stats.getSessionCount(FrameStats.SPEED_DIAL_OPEN));
+        assertTrue(stats.isActive(FrameStats.SPEED_DIAL_OPEN));
+    }
+
+    @Test
+    public void endAllStopsTheFrameLoop() {
+        stats.begin(FrameStats.DRAG);
+        stats.begin(FrameStats.SNAP);
+        frames.frame();
+
+        stats.endAll();
+
+        assertFalse(frames.hasPending());
+        assertFalse(stats.isActive(FrameStats.DRAG));
+    }
+
+    @Test
+    public void measuredDurationsUseTheIntervalAsJankThreshold() {
+        stats.recordFrameDuration(FrameStats.APP_SCREEN, 4_000_000L);
+        stats.recordFrameDuration(FrameStats.APP_SCREEN, 9_000_000L);
+        stats.recordFrameDuration(FrameStats.APP_SCREEN, 20_000_000L);
+
+        assertEquals(3, stats.getFrameCount(FrameStats.APP_SCREEN));
+        assertEquals(1, stats.getJankCount(FrameStats.APP_SCREEN));
+        assertEquals(5, stats.getPercentileMs(FrameStats.APP_SCREEN, 0.0), 0.01);
+        assertEquals(10, stats.getPercentileMs(FrameStats.APP_SCREEN, 0.5), 0.01);
+        assertEquals(20, stats.getMaxMs(FrameStats.APP_SCREEN), 0.01);
+    }
+
+    @Test
+    public void overflowBucketReportsTheMaximum() {
+        stats.recordFrameDuration(FrameStats.APP_SCREEN, 250_000_000L);
+
+        assertEquals(250, stats.getPercentileMs(FrameStats.APP_SCREEN, 0.99), 0.01);
+    }
+
+    @Test
+    public void emptyInteractionReportsZero() {
+        assertEquals(0, stats.getPercentileMs(FrameStats.DRAG, 0.5), 0.0);
+    }
+
+    @Test
+    public void resetClearsEverything() {
+        stats.recordFrameDuration(FrameStats.APP_SCREEN, 30_000_000L);
+        stats.reset();
+
+        assertEquals(0, stats.getFrameCount(FrameStats.APP_SCREEN));
+        assertEquals(0, stats.getJankCount(FrameStats.APP_SCREEN));
+        assertEquals(0, stats.getMaxMs(FrameStats.APP_SCREEN), 0.0);
+    }
+}
@@ -0,0 +1,128 @@
+package com.nayanpote.edgeassist;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class FrecencyRankerTest {
+
+    private static final long DAY_MS = 24L * 60 * 60 * 1000;
+    private static final long NOW = 1_790_000_000_000L;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private FrecencyRanker ranker;
+
+    @Before
+    public void setUp() {
+        ranker = new FrecencyRanker(folder.getRoot(), Runnable::run, 14 * DAY_MS);
+    }
+
+    @Test
+    public void moreCallsRankHigher() {
+        ranker.recordCall("+911", NOW);
+        ranker.recordCall("+912", NOW);
+        ranker.recordCall("+912", NOW);
+
+        assertEquals(Arrays.asList("+912", "+911"), ranker.topKeys(5));
+        assertEquals(2, ranker.getCallCount("+912"));
+    }
+
+    @Test
+    public void oldCallsDecayBelowRecentOnes() {
+        // Three calls two months ago are worth less than one call today
+        for (int i = 0; i < 3; i++) {
+            ranker.recordCall("+91old", NOW - 60 * DAY_MS);
+        }
+        ranker.recordCall("+91new", NOW);
+
+        assertEquals("+91new", ranker.topKeys(1).get(0));
+    }
+
+    @Test
+    public void halfLifeHalvesTheWeight() {
+        // One call now equals two calls one half-life ago
+        ranker.recordCall("a", NOW - 14 * DAY_MS);
+        ranker.recordCall("a", NOW - 14 * DAY_MS);
+        ranker.recordCall("b", NOW);
+
+        assertEquals(ranker.getScore("a"), ranker.getScore("b"), 1e-9);
+    }
+
+    @Test
+    public void removedKeysLeaveTheRanking() {
+        ranker.recordCall("a", NOW);
+        ranker.recordCall("b", NOW + 1);
+        ranker.recordCall("c", NOW + 2);
+
+        ranker.remove("c");
+
+        assertEquals(Arrays.asList("b", "a"), ranker.topKeys(5));
+        assertFalse(ranker.contains("c"));
+        assertEquals(0, ranker.getScore("c"), 0);
+    }
+
+    @Test
+    public void topKMatchesFullSortUnderRandomEdits() {
+        Random random = new Random(7);
+        Map<String, Double> expected = new HashMap<>();
+        for (int i = 0; i < 5_000; i++) {
+            String key = "k" + random.nextInt(300);
+            if (random.nextInt(10) == 0) {
+                ranker.remove(key);
+                expected.remove(key);
+            } else {
+                ranker.recordCall(key, NOW + random.nextInt(1_000_000) * 1000L);
+                expected.put(key, ranker.getScore(key));
+            }
+        }
+
+        List<String> sorted = new ArrayList<>(expected.keySet());
+        sorted.sort((a, b) -> Double.compare(expected.get(b), expected.get(a)));
+        List<String> top = ranker.topKeys(20);
+
+        assertEquals(expected.size(), ranker.size());
+        assertEquals(20, top.size());
+        for (int i = 0; i < top.size(); i++) {
+            assertEquals(expected.get(sorted.get(i)), ranker.getScore(top.get(i)), 0);
+        }
+    }
+
+    @Test
+    public void scoresSurviveReload() throws IOException {
+        ranker.recordCall("a", NOW);
+        ranker.recordCall("b", NOW);
+        ranker.recordCall("b", NOW);
+
+        FrecencyRanker reloaded = new FrecencyRanker(folder.getRoot(), Runnable::run, 14 * DAY_MS);
+        reloaded.load();
+
+        assertEquals(Arrays.asList("b", "a"), reloaded.topKeys(5));
+        assertEquals(ranker.getScore("b"), reloaded.getScore("b"), 0);
+        assertEquals(2, reloaded.getCallCount("b"));
+    }
+
+    @Test(expected = IOException.class)
+    public void corruptFileIsRejected() throws IOException {
+        ranker.recordCall("a", NOW);
+        java.io.File file = new java.io.File(folder.getRoot(), FrecencyRanker.FILE_NAME);
+        try (java.io.RandomAccessFile raf = new java.io.RandomAccessFile(file, "rw")) {
+            raf.seek(8);
+            raf.writeByte(0x7F);
+        }
+
+        new FrecencyRanker(folder.getRoot(), Runnable::run, 14 * DAY_MS).load();
+    }
+}
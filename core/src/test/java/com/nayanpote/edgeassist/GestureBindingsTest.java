@@ -0,0 +1,139 @@
+package com.nayanpote.edgeassist;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class GestureBindingsTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final List<String> ran = new ArrayList<>();
+
+    // Records "action:argument" when an action runs
+    private final GestureBindings.ActionFactory factory = (action, argument) ->
+            () -> ran.add(action + ":" + argument);
+
+    @Test
+    public void defaultsMatchTheOriginalGestures() {
+        GestureBindings bindings = GestureBindings.defaults();
+
+        assertEquals(GestureBindings.ACTION_CONTROL_PANEL, bindings.getAction(GestureBindings.GESTURE_TAP));
+        assertEquals(GestureBindings.ACTION_VOLUME_MIXER, bindings.getAction(GestureBindings.GESTURE_DOUBLE_TAP));
+        assertEquals(GestureBindings.ACTION_NONE, bindings.getAction(GestureBindings.GESTURE_TRIPLE_TAP));
+        assertEquals(GestureBindings.ACTION_SPEED_DIAL, bindings.getAction(GestureBindings.GESTURE_LONG_PRESS));
+    }
+
+    @Test
+    public void compiledTableDispatchesByGesture() {
+        GestureBindings bindings = GestureBindings.defaults();
+        bindings.set(GestureBindings.GESTURE_TRIPLE_TAP, GestureBindings.ACTION_CALL_CONTACT, "+15551234");
+
+        GestureBindings.DispatchTable table = bindings.compile(factory);
+
+        assertTrue(table.dispatch(GestureBindings.GESTURE_TRIPLE_TAP));
+        assertTrue(table.dispatch(GestureBindings.GESTURE_TAP));
+        assertEquals(Arrays.asList(
+                GestureBindings.ACTION_CALL_CONTACT + ":+15551234",
+                GestureBindings.ACTION_CONTROL_PANEL + ":null"), ran);
+    }
+
+    @Test
+    public void unboundAndUnresolvableGesturesDispatchNothing() {
+        GestureBindings bindings = GestureBindings.defaults();
+        bindings.set(GestureBindings.GESTURE_LONG_PRESS, GestureBindings.ACTION_LAUNCH_APP, "com.example.gone");
+
+        GestureBindings.DispatchTable table = bindings.compile((action, argument) ->
+                action == GestureBindings.ACTION_LAUNCH_APP ? null : factory.create(action, argument));
+
+        assertFalse(table.dispatch(GestureBindings.GESTURE_TRIPLE_TAP));
+        assertFalse(table.dispatch(GestureBindings.GESTURE_LONG_PRESS));
+        assertFalse(table.isBound(GestureBindings.GESTURE_LONG_PRESS));
+        assertTrue(ran.isEmpty());
+    }
+
+    @Test
+    public void maxTapCountFollowsTheLongestBoundTap() {
+        GestureBindings bindings = GestureBindings.defaults();
+        assertEquals(2, bindings.compile(factory).getMaxTapCount());
+
+        bindings.set(GestureBindings.GESTURE_DOUBLE_TAP, GestureBindings.ACTION_NONE, null);
+        assertEquals(1, bindings.compile(factory).getMaxTapCount());
+
+        bindings.set(GestureBindings.GESTURE_TRIPLE_TAP, GestureBindings.ACTION_VOLUME_UP, null);
+        assertEquals(3, bindings.compile(factory).getMaxTapCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void contactActionNeedsANumber() {
+        new GestureBindings().set(GestureBindings.GESTURE_TAP, GestureBindings.ACTION_CALL_CONTACT, null);
+    }
+
+    @Test
+    public void argumentIsDroppedForActionsWithoutOne() {
+        GestureBindings bindings = new GestureBindings();
+        bindings.set(GestureBindings.GESTURE_TAP, GestureBindings.ACTION_MUTE, "ignored");
+
+        assertNull(bindings.getArgument(GestureBindings.GESTURE_TAP));
+    }
+
+    @Test
+    public void saveAndLoadRoundTrip() throws IOException {
+        File file = new File(folder.getRoot(), GestureBindings.FILE_NAME);
+        GestureBindings bindings = GestureBindings.defaults();
+        bindings.set(GestureBindings.GESTURE_TAP, GestureBindings.ACTION_LAUNCH_APP, "com.example.music");
+        bindings.set(GestureBindings.GESTURE_TRIPLE_TAP, GestureBindings.ACTION_CALL_CONTACT, "+15551234");
+        bindings.save(file);
+
+        GestureBindings loaded = GestureBindings.load(file);
+
+        for (int gesture = 0; gesture < GestureBindings.GESTURE_COUNT; gesture++) {
+            assertEquals(bindings.getAction(gesture), loaded.getAction(gesture));
+            assertEquals(bindings.getArgument(gesture), loaded.getArgument(gesture));
+        }
+    }
+
+    @Test
+    public void encodingIsCompact() throws IOException {
+        // Header (4 + 2 + 1) plus two bytes per argument-free binding
+        assertEquals(7 + 3 * 2, GestureBindings.defaults().encode().length);
+    }
+
+    @Test
+    public void missingFileLoadsDefaults() throws IOException {
+        GestureBindings loaded = GestureBindings.load(new File(folder.getRoot(), "none.bin"));
+
+        assertEquals(GestureBindings.ACTION_SPEED_DIAL, loaded.getAction(GestureBindings.GESTURE_LONG_PRESS));
+    }
+
+    @Test(expected = IOException.class)
+    public void corruptFileIsRejected() throws IOException {
+        File file = new File(folder.getRoot(), GestureBindings.FILE_NAME);
+        GestureBindings.defaults().save(file);
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(8);
+            raf.write(0x7F);
+        }
+
+        GestureBindings.load(file);
+    }
+
+    @Test
+    public void copyIsIndependent() {
+        GestureBindings bindings = GestureBindings.defaults();
+        GestureBindings copy = bindings.copy();
+        copy.set(GestureBindings.GESTURE_TAP, GestureBindings.ACTION_NONE, null);
+
+        assertEquals(GestureBindings.ACTION_CONTROL_PANEL, bindings.getAction(GestureBindings.GESTURE_TAP));
+    }
+}
@@ -0,0 +1,238 @@
+package com.nayanpote.edgeassist;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class GestureStateMachineTest {
+
+    private static final float TOUCH_SLOP = 16f;
+    private static final float MULTI_TAP_SLOP = 100f;
+    private static final float MIN_FLING = 150f;
+    private static final long LONG_PRESS = 500;
+    private static final long MULTI_TAP = 300;
+
+    private final List<String> events = new ArrayList<>();
+    private long deadline = -1;
+    private GestureStateMachine machine;
+
+    @Before
+    public void setUp() {
+        machine = new GestureStateMachine(new GestureStateMachine.Listener() {
+            @Override
+            public void onTap(int count) {
+                events.add("tap" + count);
+            }
+
+            @Override
+            public void onLongPress() {
+                events.add("long");
+            }
+
+            @Override
+            public void onDragStart() {
+                events.add("dragStart");
+            }
+
+            @Override
+            public void onDragEnd(float velocityX, float velocityY, boolean fling) {
+                events.add(fling ? "fling" : "dragEnd");
+            }
+        }, new GestureStateMachine.Timer() {
+            @Override
+            public void schedule(long uptimeMillis) {
+                deadline = uptimeMillis;
+            }
+
+            @Override
+            public void cancel() {
+                deadline = -1;
+            }
+        }, TOUCH_SLOP, MULTI_TAP_SLOP, MIN_FLING);
+        machine.setTimeouts(LONG_PRESS, MULTI_TAP);
+    }
+
+    private void tap(float x, float y, long downTime) {
+        machine.onDown(x, y, downTime);
+        machine.onUp(x, y, downTime + 50, 0f, 0f);
+    }
+
+    // Fires the pending timeout if it is due by `now`
+    private void advanceTo(long now) {
+        if (deadline >= 0 && now >= deadline) {
+            long due = deadline;
+            deadline = -1;
+            machine.onTimeout(due);
+        }
+    }
+
+    @Test
+    public void singleTapFiresOnUpWhenNoMultiTapIsBound() {
+        machine.setMaxTapCount(1);
+
+        machine.onDown(100, 100, 0);
+        assertTrue(events.isEmpty());
+        machine.onUp(100, 100, 80, 0f, 0f);
+
+        assertEquals(Arrays.asList("tap1"), events);
+        assertEquals(-1, deadline);
+    }
+
+    @Test
+    public void singleTapWaitsOnlyWhileADoubleTapIsPossible() {
+        machine.setMaxTapCount(2);
+
+        tap(100, 100, 0);
+        assertTrue(events.isEmpty());
+        assertEquals(50 + MULTI_TAP, deadline);
+
+        advanceTo(50 + MULTI_TAP);
+        assertEquals(Arrays.asList("tap1"), events);
+    }
+
+    @Test
+    public void lastBoundTapFiresWithoutWaiting() {
+        machine.setMaxTapCount(2);
+
+        tap(100, 100, 0);
+        tap(105, 102, 200);
+
+        assertEquals(Arrays.asList("tap2"), events);
+        assertEquals(-1, deadline);
+    }
+
+    @Test
+    public void tripleTap() {
+        machine.setMaxTapCount(3);
+
+        tap(100, 100, 0);
+        tap(100, 100, 200);
+        assertTrue(events.isEmpty());
+        tap(100, 100, 400);
+
+        assertEquals(Arrays.asList("tap3"), events);
+    }
+
+    @Test
+    public void doubleTapWhenTripleIsBoundEndsAtTimeout() {
+        machine.setMaxTapCount(3);
+
+        tap(100, 100, 0);
+        tap(100, 100, 200);
+        advanceTo(250 + MULTI_TAP);
+
+        assertEquals(Arrays.asList("tap2"), events);
+    }
+
+    @Test
+    public void tapOutsideMultiTapSlopStartsANewSequence() {
+        machine.setMaxTapCount(2);
+
+        tap(100, 100, 0);
+        tap(400, 100, 200);
+        assertEquals(Arrays.asList("tap1"), events);
+
+        advanceTo(250 + MULTI_TAP);
+        assertEquals(Arrays.asList("tap1", "tap1"), events);
+    }
+
+    @Test
+    public void longPressFiresAtTimeoutAndSwallowsTheUp() {
+        machine.setMaxTapCount(2);
+
+        machine.onDown(100, 100, 0);
+        advanceTo(LONG_PRESS);
+        assertEquals(Arrays.asList("long"), events);
+
+        machine.onMove(300, 300, LONG_PRESS + 50);
+        machine.onUp(300, 300, LONG_PRESS + 100, 0f, 0f);
+        assertEquals(Arrays.asList("long"), events);
+        assertEquals(GestureStateMachine.STATE_IDLE, machine.getState());
+    }
+
+    @Test
+    public void earlyTimeoutIsRescheduled() {
+        machine.onDown(100, 100, 0);
+
+        machine.onTimeout(LONG_PRESS - 10);
+        assertTrue(events.isEmpty());
+        assertEquals(LONG_PRESS, deadline);
+    }
+
+    @Test
+    public void movementWithinSlopIsStillATap() {
+        machine.setMaxTapCount(1);
+
+        machine.onDown(100, 100, 0);
+        machine.onMove(110, 108, 20);
+        machine.onUp(110, 108, 60, 0f, 0f);
+
+        assertEquals(Arrays.asList("tap1"), events);
+    }
+
+    @Test
+    public void dragBeyondSlopCancelsLongPress() {
+        machine.onDown(100, 100, 0);
+        machine.onMove(100, 130, 40);
+
+        assertEquals(Arrays.asList("dragStart"), events);
+        assertTrue(machine.isDragging());
+        assertEquals(-1, deadline);
+
+        advanceTo(LONG_PRESS);
+        machine.onUp(100, 300, 600, 0f, 40f);
+        assertEquals(Arrays.asList("dragStart", "dragEnd"), events);
+    }
+
+    @Test
+    public void fastReleaseIsAFling() {
+        machine.onDown(100, 100, 0);
+        machine.onMove(160, 100, 30);
+        machine.onUp(220, 100, 60, 2000f, 0f);
+
+        assertEquals(Arrays.asList("dragStart", "fling"), events);
+    }
+
+    @Test
+    public void dragAfterATapReportsTheTapFirst() {
+        machine.setMaxTapCount(2);
+
+        tap(100, 100, 0);
+        machine.onDown(100, 100, 200);
+        machine.onMove(100, 200, 240);
+
+        assertEquals(Arrays.asList("tap1", "dragStart"), events);
+    }
+
+    @Test
+    public void cancelDropsPendingTapsAndEndsDrag() {
+        machine.setMaxTapCount(2);
+
+        tap(100, 100, 0);
+        machine.onCancel();
+        advanceTo(1000);
+        assertTrue(events.isEmpty());
+
+        machine.onDown(100, 100, 2000);
+        machine.onMove(100, 200, 2040);
+        machine.onCancel();
+        assertEquals(Arrays.asList("dragStart", "dragEnd"), events);
+    }
+
+    @Test
+    public void loweringMaxTapCountFlushesAReadySequence() {
+        machine.setMaxTapCount(3);
+        tap(100, 100, 0);
+        tap(100, 100, 200);
+
+        machine.setMaxTapCount(2);
+
+        assertEquals(Arrays.asList("tap2"), events);
+        assertEquals(-1, deadline);
+    }
+}
@@ -0,0 +1,122 @@
+package com.nayanpote.edgeassist;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Steady-state allocation budget of the paths a touch or an animation frame
+ * runs through: each is driven thousands of times after a warm-up run and
+ * must not allocate a single byte, so long drags never feed the garbage collector.
+ */
+public class HotPathAllocationTest {
+
+    private static final int WINDOW_X = TouchTraceReplayer.SCREEN_WIDTH - TouchTraceReplayer.VIEW_SIZE;
+    private static final int WINDOW_Y = 1100;
+
+    // The counter's own cost is already subtracted, so any byte is an allocation on the path
+    private static void assertNoAllocationPerEvent(String path, long bytes, int events) {
+        assertEquals(path + " allocated " + bytes + " bytes over " + events + " events", 0, bytes);
+    }
+
+    @Test
+    public void longDragAllocatesNothingPerSample() {
+        // A 20 s drag back and forth on a 120 Hz panel
+        TouchTrace trace = new TouchTrace();
+        float x = WINDOW_X + 84f;
+        float y = WINDOW_Y + 84f;
+        trace.down(WINDOW_X, WINDOW_Y, x, y, 0);
+        int samples = 2500;
+        for (int i = 1; i <= samples; i++) {
+            float fingerX = x - 400f * (float) Math.abs(Math.sin(i / 100.0));
+            float fingerY = y + 300f * (float) Math.sin(i / 150.0);
+            if (i % 2 == 1) {
+                trace.sample(fingerX, fingerY, i * 8L);
+            } else {
+                trace.move(fingerX, fingerY, i * 8L);
+            }
+        }
+        trace.up(x, y, samples * 8L + 4, -1800f, 0f);
+        TouchTraceReplayer replayer = new TouchTraceReplayer();
+
+        long bytes = replayer.measureAllocatedBytes(trace);
+
+        assertTrue(replayer.getLayoutCount() > 1000);
+        assertNoAllocationPerEvent("drag", bytes, trace.size());
+    }
+
+    @Test
+    public void tapsAllocateNothingPerTap() {
+        TouchTrace trace = new TouchTrace();
+        int taps = 2000;
+        for (int i = 0; i < taps; i++) {
+            long down = i * 1000L;
+            trace.down(WINDOW_X, WINDOW_Y, WINDOW_X + 84f, WINDOW_Y + 84f, down);
+            trace.up(WINDOW_X + 84f, WINDOW_Y + 84f, down + 80, 0f, 0f);
+        }
+        TouchTraceReplayer replayer = new TouchTraceReplayer();
+
+        long bytes = replayer.measureAllocatedBytes(trace);
+
+        assertNoAllocationPerEvent("taps", bytes, taps);
+    }
+
+    @Test
+    public void pressFeedbackAllocatesNothingPerTouch() {
+        FakeFrameScheduler scheduler = new FakeFrameScheduler();
+        float[] scale = new float[1];
+        PressScaleAnimator animator = new PressScaleAnimator(scheduler, s -> scale[0] = s,
+                PressScaleAnimator.DEFAULT_DURATION_MS);
+        int touches = 2000;
+
+        long bytes = AllocationCounter.measure(() -> {
+            for (int i = 0; i < touches; i++) {
+                animator.setPressed(true);
+                scheduler.frame();
+                scheduler.frame();
+                // Released mid-way on every other touch
+                if (i % 2 == 0) scheduler.runUntilIdle(20);
+                animator.setPressed(false);
+                scheduler.runUntilIdle(20);
+            }
+        });
+
+        assertEquals(1f, scale[0], 0f);
+        assertNoAllocationPerEvent("press", bytes, touches);
+    }
+
+    @Test
+    public void windowAnimationsAllocateNothingPerRun() {
+        FakeFrameScheduler scheduler = new FakeFrameScheduler();
+        FrameStats stats = new FrameStats(scheduler);
+        int[] position = new int[2];
+        WindowPositionAnimator.PositionSink sink = (x, y) -> {
+            stats.countWindowLayout();
+            position[0] = x;
+            position[1] = y;
+        };
+        WindowPositionAnimator positionAnimator = new WindowPositionAnimator(scheduler, sink);
+        SpringSnapAnimator snapAnimator = new SpringSnapAnimator(scheduler, sink, new SnapPhysics());
+        Runnable done = () -> stats.end(FrameStats.HIDE_SHOW);
+        int runs = 1000;
+
+        long bytes = AllocationCounter.measure(() -> {
+            for (int i = 0; i < runs; i++) {
+                // Hide to the edge, show again, then a flung snap, as the overlay does
+                stats.begin(FrameStats.HIDE_SHOW);
+                positionAnimator.start(WINDOW_X, WINDOW_Y, WINDOW_X + 84, WINDOW_Y, 400, done);
+                scheduler.runUntilIdle(60);
+                stats.begin(FrameStats.HIDE_SHOW);
+                positionAnimator.start(WINDOW_X + 84, WINDOW_Y, WINDOW_X, WINDOW_Y, 400, done);
+                scheduler.runUntilIdle(60);
+                stats.begin(FrameStats.SNAP);
+                snapAnimator.start(600, WINDOW_Y, -2000f, 0f, 0, WINDOW_Y);
+                scheduler.runUntilIdle(120);
+                stats.end(FrameStats.SNAP);
+            }
+        });
+
+        assertEquals(0, position[0]);
+        assertNoAllocationPerEvent("window animations", bytes, runs);
+    }
+}
@@ -0,0 +1,93 @@
+package com.nayanpote.edgeassist;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PerfHudStatsTest {
+
+    private static final long MB = 1024L * 1024L;
+
+    private FakeFrameScheduler frames;
+    private PerfHudStats stats;
+
+    @Before
+    public void setUp() {
+        frames = new FakeFrameScheduler();
+        stats = new PerfHudStats(frames);
+    }
+
+    private String line(int index) {
+        return new String(stats.getLine(index), 0, stats.getLineLength(index));
+    }
+
+    @Test
+    public void formatsEveryLine() {
+        stats.start();
+        stats.sample(0, 100, 3, 20 * MB, 256 * MB);
+        for (int i = 0; i < 16; i++) {
+            frames.frame();
+        }
+        frames.dropFrames(1);
+        frames.frame();
+        stats.recordLooperLatency(7);
+        stats.recordLooperLatency(2);
+        stats.sample(250, 115, 4, 21 * MB, 256 * MB);
+
+        // 15 frames of 16.7 ms and one of 33.3 ms
+        assertEquals("frame 17.7 max 33.3 ms", line(0));
+        assertEquals("layout 60/s", line(1));
+        assertEquals("looper 2 max 7 ms", line(2));
+        assertEquals("gc 4 heap 21/256 MB", line(3));
+    }
+
+    @Test
+    public void firstSampleHasNoRates() {
+        stats.start();
+        stats.sample(0, 42, -1, 0, 64 * MB);
+
+        assertEquals("frame -", line(0));
+        assertEquals("layout -", line(1));
+        assertEquals("gc - heap 0/64 MB", line(3));
+    }
+
+    @Test
+    public void eachSampleStartsANewWindow() {
+        stats.start();
+        frames.frame();
+        frames.dropFrames(3);
+        frames.frame();
+        stats.recordLooperLatency(40);
+        stats.sample(0, 0, 0, 0, 0);
+        assertEquals("frame 66.6 max 66.6 ms", line(0));
+
+        frames.frame();
+        stats.recordLooperLatency(1);
+        stats.sample(250, 0, 0, 0, 0);
+
+        assertEquals("frame 16.6 max 16.6 ms", line(0));
+        assertEquals("layout 0/s", line(1));
+        assertEquals("looper 1 max 1 ms", line(2));
+    }
+
+    @Test
+    public void stopRemovesTheFrameCallback() {
+        stats.start();
+        frames.frame();
+        assertTrue(frames.hasPending());
+
+        stats.stop();
+
+        assertFalse(frames.hasPending());
+        assertFalse(stats.isRunning());
+    }
+
+    @Test
+    public void longValuesAreCutAtLineCapacity() {
+        stats.sample(0, 0, Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE);
+
+        assertEquals(PerfHudStats.LINE_CAPACITY, stats.getLineLength(3));
+        assertTrue(line(3).startsWith("gc 9223372036854775807 heap "));
+    }
+}
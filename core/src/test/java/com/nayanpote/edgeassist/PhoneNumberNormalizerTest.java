@@ -0,0 +1,67 @@
+package com.nayanpote.edgeassist;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PhoneNumberNormalizerTest {
+
+    private final PhoneNumberNormalizer india = new PhoneNumberNormalizer("91");
+
+    @Test
+    public void formattingVariantsShareOneKey() {
+        String expected = "+919876543210";
+        assertEquals(expected, india.normalize("+91 98765 43210"));
+        assertEquals(expected, india.normalize("+91-98765-43210"));
+        assertEquals(expected, india.normalize("(+91) 98765.43210"));
+        assertEquals(expected, india.normalize("0091 98765 43210"));
+        assertEquals(expected, india.normalize("098765 43210"));
+        assertEquals(expected, india.normalize("98765 43210"));
+        assertEquals(expected, india.normalize("919876543210"));
+    }
+
+    @Test
+    public void foreignNumbersKeepTheirCountryCode() {
+        assertEquals("+14155550123", india.normalize("+1 (415) 555-0123"));
+        assertEquals("+447911123456", india.normalize("0044 7911 123456"));
+    }
+
+    @Test
+    public void italianNumbersKeepTheirLeadingZero() {
+        PhoneNumberNormalizer italy = PhoneNumberNormalizer.forRegion("IT");
+        String expected = "+390612345678";
+        assertEquals(expected, italy.normalize("06 1234 5678"));
+        assertEquals(expected, italy.normalize("+39 06 1234 5678"));
+        assertEquals(expected, italy.normalize("0039 06 1234 5678"));
+        assertEquals("+393471234567", italy.normalize("347 123 4567"));
+        // Elsewhere the 0 is still a trunk prefix
+        assertEquals("+447911123456", new PhoneNumberNormalizer("44").normalize("07911 123456"));
+    }
+
+    @Test
+    public void serviceCodesAreLeftAlone() {
+        assertEquals("112", india.normalize("112"));
+        assertEquals("*123#", india.normalize("*123#"));
+    }
+
+    @Test
+    public void emptyInputs() {
+        assertEquals("", india.normalize(null));
+        assertEquals("", india.normalize(""));
+        assertEquals("", india.normalize(" - () "));
+    }
+
+    @Test
+    public void regionLookup() {
+        assertEquals("91", PhoneNumberNormalizer.forRegion("in").getCountryCode());
+        assertEquals("1", PhoneNumberNormalizer.forRegion("US").getCountryCode());
+        assertEquals("", PhoneNumberNormalizer.forRegion("ZZ").getCountryCode());
+        assertEquals("", PhoneNumberNormalizer.forRegion(null).getCountryCode());
+    }
+
+    @Test
+    public void unknownCountryStillStripsTrunkPrefix() {
+        PhoneNumberNormalizer unknown = new PhoneNumberNormalizer("");
+        assertEquals(unknown.normalize("0 98765 43210"), unknown.normalize("9876543210"));
+    }
+}
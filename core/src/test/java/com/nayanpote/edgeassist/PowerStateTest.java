@@ -0,0 +1,169 @@
+package com.nayanpote.edgeassist;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class PowerStateTest {
+
+    private final List<String> events = new ArrayList<>();
+    private PowerState powerState;
+
+    @Before
+    public void setUp() {
+        powerState = new PowerState();
+        powerState.addListener(new PowerState.Listener() {
+            @Override
+            public void onIdle() {
+                events.add("idle");
+            }
+
+            @Override
+            public void onWake() {
+                events.add("wake");
+            }
+
+            @Override
+            public void onPowerSaveChanged(boolean powerSave) {
+                events.add(powerSave ? "saverOn" : "saverOff");
+            }
+        });
+    }
+
+    // The broadcast order PowerStateMonitor sees around a lock/unlock
+    private void screenOff(long now) {
+        powerState.setScreenOn(false, now);
+        powerState.setLocked(true, now);
+    }
+
+    @Test
+    public void screenOffIdlesAndUnlockWakes() {
+        screenOff(1000);
+        assertTrue(powerState.isIdle());
+
+        powerState.setLocked(true, 5000);
+        powerState.setScreenOn(true, 5000);
+        assertTrue("Keyguard still up", powerState.isIdle());
+
+        powerState.setLocked(false, 6000);
+        assertFalse(powerState.isIdle());
+        assertEquals(Arrays.asList("idle", "wake"), events);
+        assertEquals(1, powerState.getIdleCount());
+        assertEquals(5000, powerState.getTotalIdleMs(6000));
+    }
+
+    @Test
+    public void screenOnWithoutKeyguardWakesImmediately() {
+        screenOff(1000);
+
+        powerState.setLocked(false, 2000);
+        assertTrue("Screen is still off", powerState.isIdle());
+        powerState.setScreenOn(true, 2000);
+
+        assertFalse(powerState.isIdle());
+        assertEquals(Arrays.asList("idle", "wake"), events);
+    }
+
+    @Test
+    public void repeatedInputsDoNotRepeatTransitions() {
+        screenOff(1000);
+        screenOff(1100);
+        powerState.setScreenOn(true, 2000);
+        powerState.setLocked(false, 2000);
+        powerState.setLocked(false, 2100);
+
+        assertEquals(Arrays.asList("idle", "wake"), events);
+    }
+
+    @Test
+    public void onlyPostsWhileIdleAreCounted() {
+        powerState.onHandlerPost();
+        screenOff(1000);
+        powerState.onHandlerPost();
+        powerState.onHandlerPost();
+        assertEquals(2, powerState.getPostsWhileIdle());
+
+        powerState.setScreenOn(true, 2000);
+        powerState.setLocked(false, 2000);
+        powerState.onHandlerPost();
+
+        assertEquals(2, powerState.getPostsWhileIdle());
+        assertEquals(2, powerState.getLastIdlePosts());
+    }
+
+    @Test
+    public void lastIdlePostsIsPerPeriod() {
+        screenOff(1000);
+        powerState.onHandlerPost();
+        powerState.setScreenOn(true, 2000);
+        powerState.setLocked(false, 2000);
+
+        screenOff(3000);
+        powerState.onHandlerPost();
+        powerState.onHandlerPost();
+        powerState.onHandlerPost();
+        powerState.setScreenOn(true, 4000);
+        powerState.setLocked(false, 4000);
+
+        assertEquals(3, powerState.getLastIdlePosts());
+        assertEquals(4, powerState.getPostsWhileIdle());
+        assertEquals(2000, powerState.getTotalIdleMs(5000));
+    }
+
+    @Test
+    public void postsMadeByIdleListenersAreNotCounted() {
+        powerState.addListener(new PowerState.Listener() {
+            @Override
+            public void onIdle() {
+                // e.g. a listener removing and re-posting callbacks while freezing
+                powerState.onHandlerPost();
+            }
+
+            @Override
+            public void onWake() {
+            }
+
+            @Override
+            public void onPowerSaveChanged(boolean powerSave) {
+            }
+        });
+
+        screenOff(1000);
+
+        assertEquals(0, powerState.getPostsWhileIdle());
+    }
+
+    @Test
+    public void totalIdleIncludesCurrentPeriod() {
+        screenOff(1000);
+
+        assertEquals(500, powerState.getTotalIdleMs(1500));
+    }
+
+    @Test
+    public void batterySaverIsReportedWithoutIdling() {
+        powerState.setPowerSave(true);
+        powerState.setPowerSave(true);
+
+        assertFalse(powerState.isIdle());
+        assertTrue(powerState.isPowerSave());
+        assertEquals(Arrays.asList("saverOn"), events);
+
+        powerState.setPowerSave(false);
+        assertEquals(Arrays.asList("saverOn", "saverOff"), events);
+    }
+
+    @Test
+    public void resetAppliesAllInputs() {
+        powerState.reset(false, false, true, 100);
+
+        assertTrue(powerState.isIdle());
+        assertTrue(powerState.isPowerSave());
+        assertEquals(Arrays.asList("idle", "saverOn"), events);
+    }
+}
@@ -0,0 +1,90 @@
+package com.nayanpote.edgeassist;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PressScaleAnimatorTest {
+
+    private FakeFrameScheduler scheduler;
+    private PressScaleAnimator animator;
+    private float scale;
+    private int updates;
+
+    @Before
+    public void setUp() {
+        scheduler = new FakeFrameScheduler();
+        scale = 1f;
+        animator = new PressScaleAnimator(scheduler, newScale -> {
+            scale = newScale;
+            updates++;
+        }, PressScaleAnimator.DEFAULT_DURATION_MS);
+    }
+
+    @Test
+    public void pressShrinksAndReleaseRestores() {
+        animator.setPressed(true);
+        int frames = scheduler.runUntilIdle(20);
+
+        assertEquals(PressScaleAnimator.PRESSED_SCALE, scale, 0f);
+        // 100 ms at 60 Hz
+        assertTrue(frames >= 6 && frames <= 8);
+
+        animator.setPressed(false);
+        scheduler.runUntilIdle(20);
+
+        assertEquals(1f, scale, 0f);
+        assertFalse(animator.isRunning());
+    }
+
+    @Test
+    public void releaseMidwayContinuesFromCurrentScale() {
+        animator.setPressed(true);
+        scheduler.frame();
+        scheduler.frame();
+        scheduler.frame();
+        float midway = scale;
+        assertTrue(midway < 1f && midway > PressScaleAnimator.PRESSED_SCALE);
+
+        animator.setPressed(false);
+        scheduler.frame();
+
+        // No jump: the first frame of the release starts where the press was
+        assertEquals(midway, scale, 0f);
+        scheduler.runUntilIdle(20);
+        assertEquals(1f, scale, 0f);
+    }
+
+    @Test
+    public void repeatedPressDoesNotRestart() {
+        animator.setPressed(true);
+        scheduler.frame();
+        scheduler.frame();
+        animator.setPressed(true);
+        int frames = 2 + scheduler.runUntilIdle(20);
+
+        assertTrue(frames <= 8);
+        assertEquals(PressScaleAnimator.PRESSED_SCALE, scale, 0f);
+    }
+
+    @Test
+    public void releaseAtRestDoesNothing() {
+        animator.setPressed(false);
+
+        assertFalse(animator.isRunning());
+        assertFalse(scheduler.hasPending());
+        assertEquals(0, updates);
+    }
+
+    @Test
+    public void resetForgetsScale() {
+        animator.setPressed(true);
+        scheduler.runUntilIdle(20);
+        animator.reset();
+
+        assertEquals(1f, animator.getScale(), 0f);
+        animator.setPressed(false);
+        assertFalse(animator.isRunning());
+    }
+}
@@ -0,0 +1,100 @@
+package com.nayanpote.edgeassist;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SnapPhysicsTest {
+
+    private static final int SCREEN_WIDTH = 1080;
+    private static final int SCREEN_HEIGHT = 2400;
+    private static final int VIEW_SIZE = 180;
+
+    @Test
+    public void withoutVelocityPicksNearestEdge() {
+        assertEquals(0, SnapPhysics.snapTargetX(300, 0f, SCREEN_WIDTH, VIEW_SIZE));
+        assertEquals(SCREEN_WIDTH - VIEW_SIZE, SnapPhysics.snapTargetX(700, 0f, SCREEN_WIDTH, VIEW_SIZE));
+    }
+
+    @Test
+    public void flingCarriesBubbleToTheFarEdge() {
+        // Released on the left half but thrown hard to the right
+        assertEquals(SCREEN_WIDTH - VIEW_SIZE, SnapPhysics.snapTargetX(200, 3000f, SCREEN_WIDTH, VIEW_SIZE));
+        // Released on the right half but thrown to the left
+        assertEquals(0, SnapPhysics.snapTargetX(800, -3000f, SCREEN_WIDTH, VIEW_SIZE));
+        // A slow drift does not change the nearest edge
+        assertEquals(0, SnapPhysics.snapTargetX(200, 200f, SCREEN_WIDTH, VIEW_SIZE));
+    }
+
+    @Test
+    public void verticalTargetStaysOnScreen() {
+        assertEquals(0, SnapPhysics.snapTargetY(100, -5000f, SCREEN_HEIGHT, VIEW_SIZE));
+        assertEquals(SCREEN_HEIGHT - VIEW_SIZE, SnapPhysics.snapTargetY(2000, 5000f, SCREEN_HEIGHT, VIEW_SIZE));
+        assertEquals(1000, SnapPhysics.snapTargetY(1000, 0f, SCREEN_HEIGHT, VIEW_SIZE));
+    }
+
+    @Test
+    public void hideAndShowTargets() {
+        assertEquals(-VIEW_SIZE / 2, SnapPhysics.hideTargetX(0, SCREEN_WIDTH, VIEW_SIZE));
+        assertEquals(SCREEN_WIDTH - VIEW_SIZE / 2, SnapPhysics.hideTargetX(900, SCREEN_WIDTH, VIEW_SIZE));
+        assertEquals(0, SnapPhysics.showTargetX(-90, SCREEN_WIDTH, VIEW_SIZE));
+        assertEquals(SCREEN_WIDTH - VIEW_SIZE, SnapPhysics.showTargetX(990, SCREEN_WIDTH, VIEW_SIZE));
+    }
+
+    @Test
+    public void springSettlesExactlyOnTarget() {
+        SnapPhysics spring = new SnapPhysics();
+        spring.reset(500, 800, 2000, 0, 900, 800);
+
+        int frames = 0;
+        while (!spring.step(1f / 60f) && frames < 600) {
+            frames++;
+        }
+
+        assertTrue("spring should settle within a second, took " + frames, frames < 60);
+        assertEquals(900f, spring.getX(), 0f);
+        assertEquals(800f, spring.getY(), 0f);
+        assertEquals(0f, spring.getVelocityX(), 0f);
+    }
+
+    @Test
+    public void releaseVelocityMovesBubbleOnFirstFrame() {
+        FakeFrameScheduler scheduler = new FakeFrameScheduler();
+        int[] position = {540, 0};
+        int[] layouts = {0};
+        SpringSnapAnimator animator = new SpringSnapAnimator(scheduler, (x, y) -> {
+            position[0] = x;
+            position[1] = y;
+            layouts[0]++;
+        }, new SnapPhysics());
+
+        animator.start(540, 1000, 2500, 0, 900, 1000);
+        scheduler.frame();
+        assertTrue(position[0] > 540);
+
+        int frames = scheduler.runUntilIdle(600) + 1;
+        assertEquals(900, position[0]);
+        assertEquals(1000, position[1]);
+        assertTrue(layouts[0] <= frames);
+        assertFalse(animator.isRunning());
+    }
+
+    @Test
+    public void cancelLeavesBubbleWhereItIs() {
+        FakeFrameScheduler scheduler = new FakeFrameScheduler();
+        int[] position = {0};
+        SpringSnapAnimator animator = new SpringSnapAnimator(scheduler, (x, y) -> position[0] = x,
+                new SnapPhysics());
+
+        animator.start(100, 0, 0, 0, 900, 0);
+        scheduler.frame();
+        scheduler.frame();
+        int interruptedAt = position[0];
+
+        animator.cancel();
+        scheduler.runUntilIdle(600);
+
+        assertEquals(interruptedAt, position[0]);
+        assertFalse(scheduler.hasPending());
+    }
+}
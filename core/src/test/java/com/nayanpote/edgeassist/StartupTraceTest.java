@@ -0,0 +1,56 @@
+package com.nayanpote.edgeassist;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class StartupTraceTest {
+
+    @Test
+    public void milestonesAreRelativeToCreation() {
+        StartupTrace trace = new StartupTrace(10_000);
+        trace.mark(StartupTrace.BUBBLE_ADDED, 10_040);
+        trace.mark(StartupTrace.FIRST_FRAME, 10_063);
+
+        assertEquals(40, trace.get(StartupTrace.BUBBLE_ADDED));
+        assertEquals(63, trace.getTimeToFirstFrame());
+        assertEquals(-1, trace.get(StartupTrace.DEFERRED_READY));
+        assertFalse(trace.isComplete());
+
+        trace.mark(StartupTrace.DEFERRED_READY, 10_180);
+        assertTrue(trace.isComplete());
+    }
+
+    @Test
+    public void firstMarkWins() {
+        StartupTrace trace = new StartupTrace(0);
+        trace.mark(StartupTrace.FIRST_FRAME, 50);
+        trace.mark(StartupTrace.FIRST_FRAME, 900);
+
+        assertEquals(50, trace.getTimeToFirstFrame());
+    }
+
+    @Test
+    public void firstStartCommandDecidesTheReason() {
+        StartupTrace trace = new StartupTrace(0);
+        trace.setReason(StartupTrace.REASON_BOOT);
+        // A later intent from the app must not relabel a boot start
+        trace.setReason(StartupTrace.REASON_APP);
+
+        assertEquals(StartupTrace.REASON_BOOT, trace.getReason());
+    }
+
+    @Test
+    public void summaryNamesReasonAndFlagsScreenOffStarts() {
+        StartupTrace trace = new StartupTrace(1_000);
+        trace.setReason(StartupTrace.REASON_BOOT);
+        trace.setStartedHidden(true);
+        trace.mark(StartupTrace.BUBBLE_ADDED, 1_041);
+        trace.mark(StartupTrace.DEFERRED_READY, 1_180);
+
+        assertEquals("boot: bubble 41 ms, first frame - (screen was off), ready 180 ms", trace.summary());
+
+        trace.mark(StartupTrace.FIRST_FRAME, 9_000);
+        assertEquals("boot: bubble 41 ms, first frame 8000 ms (screen was off), ready 180 ms", trace.summary());
+    }
+}
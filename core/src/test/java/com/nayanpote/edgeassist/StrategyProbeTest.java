@@ -0,0 +1,159 @@
+package com.nayanpote.edgeassist;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class StrategyProbeTest {
+
+    private static class FakeStrategy implements StrategyProbe.Strategy {
+        final String id;
+        boolean available = true;
+        boolean works = true;
+        int runs = 0;
+
+        FakeStrategy(String id) {
+            this.id = id;
+        }
+
+        @Override
+        public String getId() {
+            return id;
+        }
+
+        @Override
+        public boolean isAvailable() {
+            return available;
+        }
+
+        @Override
+        public boolean run() throws Exception {
+            runs++;
+            if (!works) throw new IllegalStateException("not here");
+            return true;
+        }
+    }
+
+    private static class FakeMemo implements StrategyProbe.Memo {
+        String saved;
+        String[] failed = new String[0];
+        int saves = 0;
+
+        @Override
+        public String load() {
+            return saved;
+        }
+
+        @Override
+        public String[] loadFailed() {
+            return failed;
+        }
+
+        @Override
+        public void save(String strategyId, String[] failedIds) {
+            saved = strategyId;
+            failed = failedIds;
+            saves++;
+        }
+    }
+
+    @Test
+    public void probesOnceAndThenGoesStraightToTheWinner() {
+        FakeStrategy first = new FakeStrategy("first");
+        first.available = false;
+        FakeStrategy second = new FakeStrategy("second");
+        second.works = false;
+        FakeStrategy third = new FakeStrategy("third");
+        FakeMemo memo = new FakeMemo();
+        StrategyProbe probe = new StrategyProbe(memo, first, second, third);
+
+        assertEquals("third", probe.run());
+        assertEquals("third", probe.run());
+        assertEquals("third", probe.run());
+
+        assertEquals(0, first.runs);
+        assertEquals(1, second.runs);
+        assertEquals(3, third.runs);
+        assertEquals("third", memo.saved);
+        assertEquals(1, memo.saves);
+    }
+
+    @Test
+    public void rememberedWinnerIsUsedWithoutProbing() {
+        FakeStrategy first = new FakeStrategy("first");
+        first.available = false;
+        FakeStrategy second = new FakeStrategy("second");
+        FakeStrategy third = new FakeStrategy("third");
+        FakeMemo memo = new FakeMemo();
+        memo.saved = "third";
+        memo.failed = new String[]{"second"};
+
+        assertEquals("third", new StrategyProbe(memo, first, second, third).run());
+        assertEquals(0, second.runs);
+    }
+
+    @Test
+    public void betterStrategyTakesOverOnceAvailable() {
+        FakeStrategy service = new FakeStrategy("service");
+        service.available = false;
+        FakeStrategy settings = new FakeStrategy("settings");
+        FakeMemo memo = new FakeMemo();
+        StrategyProbe probe = new StrategyProbe(memo, service, settings);
+
+        assertEquals("settings", probe.run());
+        service.available = true;
+
+        assertEquals("service", probe.run());
+        assertEquals("service", memo.saved);
+    }
+
+    @Test
+    public void betterStrategyAvailableAtLoadIsTriedAfterRestart() {
+        // Remembered from a run where the service was not connected yet
+        FakeStrategy service = new FakeStrategy("service");
+        FakeStrategy settings = new FakeStrategy("settings");
+        FakeMemo memo = new FakeMemo();
+        memo.saved = "settings";
+
+        assertEquals("service", new StrategyProbe(memo, service, settings).run());
+        assertEquals(0, settings.runs);
+        assertEquals("service", memo.saved);
+    }
+
+    @Test
+    public void failuresSurviveARestart() {
+        FakeStrategy service = new FakeStrategy("service");
+        service.works = false;
+        FakeStrategy settings = new FakeStrategy("settings");
+        FakeMemo memo = new FakeMemo();
+        assertEquals("settings", new StrategyProbe(memo, service, settings).run());
+        assertArrayEquals(new String[]{"service"}, memo.failed);
+
+        assertEquals("settings", new StrategyProbe(memo, service, settings).run());
+        assertEquals(1, service.runs);
+    }
+
+    @Test
+    public void failingWinnerFallsThroughToTheNext() {
+        FakeStrategy first = new FakeStrategy("first");
+        FakeStrategy second = new FakeStrategy("second");
+        FakeMemo memo = new FakeMemo();
+        StrategyProbe probe = new StrategyProbe(memo, first, second);
+        assertEquals("first", probe.run());
+
+        first.works = false;
+
+        assertEquals("second", probe.run());
+        assertEquals("second", probe.getResolvedId());
+    }
+
+    @Test
+    public void nothingWorkingReturnsNull() {
+        FakeStrategy only = new FakeStrategy("only");
+        only.works = false;
+        FakeMemo memo = new FakeMemo();
+
+        assertNull(new StrategyProbe(memo, only).run());
+        assertNull(memo.saved);
+    }
+}
@@ -0,0 +1,225 @@
+package com.nayanpote.edgeassist;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+public class TouchTraceReplayTest {
+
+    // Bubble parked on the right edge, finger near its center
+    private static final int WINDOW_X = TouchTraceReplayer.SCREEN_WIDTH - TouchTraceReplayer.VIEW_SIZE;
+    private static final int WINDOW_Y = 1100;
+    private static final float FINGER_X = WINDOW_X + 84f;
+    private static final float FINGER_Y = WINDOW_Y + 84f;
+    // A snap that takes longer than 400 ms at 60 Hz feels sluggish
+    private static final int SNAP_SETTLE_FRAME_BUDGET = 24;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final TouchTraceReplayer replayer = new TouchTraceReplayer();
+
+    private static void tap(TouchTrace trace, long downMillis) {
+        trace.down(WINDOW_X, WINDOW_Y, FINGER_X, FINGER_Y, downMillis);
+        trace.move(FINGER_X + 2, FINGER_Y, downMillis + 30);
+        trace.up(FINGER_X + 2, FINGER_Y, downMillis + 80, 0f, 0f);
+    }
+
+    // A 120 Hz touch panel: every move carries one historical sample
+    private static TouchTrace drag(float distanceX, long durationMillis, float releaseVelocityX) {
+        TouchTrace trace = new TouchTrace();
+        long start = 1_000_000L;
+        trace.down(WINDOW_X, WINDOW_Y, FINGER_X, FINGER_Y, start);
+        int steps = (int) (durationMillis / 8);
+        for (int i = 1; i <= steps; i++) {
+            float x = FINGER_X + distanceX * i / steps;
+            long time = start + i * 8L;
+            if (i % 2 == 1) {
+                trace.sample(x, FINGER_Y, time);
+            } else {
+                trace.move(x, FINGER_Y, time);
+            }
+        }
+        trace.up(FINGER_X + distanceX, FINGER_Y, start + steps * 8L + 4, releaseVelocityX, 0f);
+        return trace;
+    }
+
+    @Test
+    public void tapReplaysAsTap() {
+        TouchTrace trace = new TouchTrace();
+        tap(trace, 1_000_000L);
+
+        replayer.replay(trace);
+
+        assertEquals(1, replayer.getGestureCount());
+        assertEquals(GestureBindings.GESTURE_TAP, replayer.getGesture(0));
+        assertEquals(0, replayer.getLayoutCount());
+        assertTrue(replayer.isSettled());
+    }
+
+    @Test
+    public void twoQuickTapsReplayAsDoubleTap() {
+        TouchTrace trace = new TouchTrace();
+        tap(trace, 1_000_000L);
+        tap(trace, 1_000_200L);
+
+        replayer.replay(trace);
+
+        assertEquals(1, replayer.getGestureCount());
+        assertEquals(GestureBindings.GESTURE_DOUBLE_TAP, replayer.getGesture(0));
+    }
+
+    @Test
+    public void slowTapsReplayAsTwoTaps() {
+        TouchTrace trace = new TouchTrace();
+        tap(trace, 1_000_000L);
+        tap(trace, 1_001_000L);
+
+        replayer.replay(trace);
+
+        assertEquals(2, replayer.getGestureCount());
+        assertEquals(GestureBindings.GESTURE_TAP, replayer.getGesture(0));
+        assertEquals(GestureBindings.GESTURE_TAP, replayer.getGesture(1));
+    }
+
+    @Test
+    public void heldPressReplaysAsLongPress() {
+        TouchTrace trace = new TouchTrace();
+        trace.down(WINDOW_X, WINDOW_Y, FINGER_X, FINGER_Y, 1_000_000L);
+        trace.up(FINGER_X, FINGER_Y, 1_000_700L, 0f, 0f);
+
+        replayer.replay(trace);
+
+        assertEquals(1, replayer.getGestureCount());
+        assertEquals(GestureBindings.GESTURE_LONG_PRESS, replayer.getGesture(0));
+    }
+
+    @Test
+    public void dragMovesTheWindowAtMostOncePerFrame() {
+        replayer.replay(drag(-200f, 400, 0f));
+
+        assertEquals(0, replayer.getGestureCount());
+        // One per frame while the finger moves, then the spring back
+        assertEquals(34, replayer.getLayoutCount());
+        assertEquals(1, replayer.getMaxLayoutsPerFrame());
+        // Released slowly past nothing: springs back to the right edge
+        assertTrue(replayer.isSettled());
+        assertEquals(WINDOW_X, replayer.getWindowX());
+        assertEquals(WINDOW_Y, replayer.getWindowY());
+    }
+
+    @Test
+    public void flingLeftSnapsToLeftEdge() {
+        replayer.replay(drag(-200f, 80, -2500f));
+
+        assertEquals(0, replayer.getGestureCount());
+        assertTrue(replayer.isSettled());
+        assertTrue("settled in " + replayer.getSettleFrames() + " frames",
+                replayer.getSettleFrames() > 0 && replayer.getSettleFrames() <= SNAP_SETTLE_FRAME_BUDGET);
+        assertEquals(0, replayer.getWindowX());
+        assertEquals(1, replayer.getMaxLayoutsPerFrame());
+    }
+
+    @Test
+    public void cancelledDragStillSettlesOnAnEdge() {
+        TouchTrace trace = drag(-600f, 400, 0f);
+        // Swap the release for a cancel
+        TouchTrace cancelled = new TouchTrace();
+        for (int i = 0; i < trace.size() - 1; i++) {
+            if (trace.getType(i) == TouchTrace.DOWN) {
+                cancelled.down(trace.getWindowX(i), trace.getWindowY(i), trace.getX(i), trace.getY(i),
+                        trace.getTimeMillis(i));
+            } else if (trace.getType(i) == TouchTrace.SAMPLE) {
+                cancelled.sample(trace.getX(i), trace.getY(i), trace.getTimeMillis(i));
+            } else {
+                cancelled.move(trace.getX(i), trace.getY(i), trace.getTimeMillis(i));
+            }
+        }
+        cancelled.cancel(trace.getTimeMillis(trace.size() - 1));
+
+        replayer.replay(cancelled);
+
+        assertTrue(replayer.isSettled());
+        assertEquals(0, replayer.getWindowX());
+    }
+
+    /**
+     * touch_traces/bubble_session.eatt: tap, double tap, a slow drag down the
+     * right edge, long press, then a fling to the left edge. 120 Hz input with
+     * jittered timing and batched historical samples. It was generated
+     * offline rather than captured on a phone; the format and loader are the
+     * same, so a device recording (developer zone, "Rec") drops in its place.
+     */
+    @Test
+    public void checkedInSessionReplaysExactly() throws Exception {
+        File file = new File(getClass().getResource("/touch_traces/bubble_session.eatt").toURI());
+        TouchTrace trace = TouchTrace.load(file);
+
+        replayer.replay(trace);
+
+        assertEquals(3, replayer.getGestureCount());
+        assertEquals(GestureBindings.GESTURE_TAP, replayer.getGesture(0));
+        assertEquals(GestureBindings.GESTURE_DOUBLE_TAP, replayer.getGesture(1));
+        assertEquals(GestureBindings.GESTURE_LONG_PRESS, replayer.getGesture(2));
+        assertEquals(57, replayer.getLayoutCount());
+        assertEquals(1, replayer.getMaxLayoutsPerFrame());
+        assertTrue("settled in " + replayer.getSettleFrames() + " frames",
+                replayer.getSettleFrames() <= SNAP_SETTLE_FRAME_BUDGET);
+        assertTrue(replayer.isSettled());
+        assertEquals(0, replayer.getWindowX());
+        assertEquals(0, replayer.measureAllocatedBytes(trace));
+    }
+
+    @Test
+    public void replayDoesNotAllocate() {
+        TouchTrace trace = drag(-200f, 400, -2500f);
+        tap(trace, 1_002_000L);
+        tap(trace, 1_002_150L);
+
+        long bytes = replayer.measureAllocatedBytes(trace);
+
+        assertEquals(1, replayer.getGestureCount());
+        assertTrue("replay allocated " + bytes + " bytes", bytes == 0);
+    }
+
+    @Test
+    public void savedTraceReplaysTheSame() throws IOException {
+        TouchTrace trace = drag(-200f, 80, -2500f);
+        tap(trace, 1_002_000L);
+        File file = new File(folder.getRoot(), "trace" + TouchTrace.FILE_SUFFIX);
+        trace.save(file);
+
+        replayer.replay(trace);
+        long layouts = replayer.getLayoutCount();
+        int windowX = replayer.getWindowX();
+
+        TouchTraceReplayer other = new TouchTraceReplayer();
+        other.replay(TouchTrace.load(file));
+
+        assertEquals(layouts, other.getLayoutCount());
+        assertEquals(windowX, other.getWindowX());
+        assertEquals(replayer.getGestureCount(), other.getGestureCount());
+        assertEquals(GestureBindings.GESTURE_TAP, other.getGesture(0));
+    }
+
+    @Test
+    public void recorderCapturesWhatTheControllerReceives() {
+        TouchTrace recorded = new TouchTrace();
+        replayer.getController().setRecorder(recorded);
+        TouchTrace trace = drag(-200f, 80, -2500f);
+
+        replayer.replay(trace);
+        replayer.getController().setRecorder(null);
+
+        assertEquals(trace.size(), recorded.size());
+        for (int i = 0; i < trace.size(); i++) {
+            assertEquals(trace.getType(i), recorded.getType(i));
+            assertEquals(trace.getX(i), recorded.getX(i), 0f);
+        }
+    }
+}
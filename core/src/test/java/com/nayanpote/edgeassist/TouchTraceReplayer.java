@@ -0,0 +1,218 @@
+package com.nayanpote.edgeassist;
+
+/**
+ * Replays a {@link TouchTrace} through the same {@link BubbleTouchController}
+ * the overlay uses, on a {@link FakeFrameScheduler} and a fake gesture timer,
+ * with the snap spring standing in for the window manager.
+ *
+ * Trace times are rebased onto the fake clock; before each event every vsync
+ * and timeout due by then runs in time order, and after the last event frames
+ * run until the bubble has settled. Main thread only, like the real thing.
+ */
+class TouchTraceReplayer {
+
+    static final int SCREEN_WIDTH = 1080;
+    static final int SCREEN_HEIGHT = 2400;
+    static final int VIEW_SIZE = 168;
+
+    static final float TOUCH_SLOP = 24f;
+    static final float MULTI_TAP_SLOP = 100f;
+    static final float MIN_FLING_VELOCITY = 150f;
+    private static final long PREDICTION_NANOS = 8_000_000L;
+    private static final float MAX_PREDICTION_PX = 48f;
+
+    private static final int MAX_GESTURES = 64;
+    private static final int MAX_SETTLE_FRAMES = 600;
+    private static final long NO_DEADLINE = -1;
+
+    private final FakeFrameScheduler scheduler = new FakeFrameScheduler();
+    private final FrameStats frameStats = new FrameStats(scheduler);
+    private final SpringSnapAnimator snapAnimator;
+    private final BubbleTouchController controller;
+
+    private final int[] gestures = new int[MAX_GESTURES];
+    private int gestureCount;
+    private long deadline = NO_DEADLINE;
+    private int windowX, windowY;
+    private long layouts;
+    private int layoutsThisFrame;
+    private int maxLayoutsPerFrame;
+    private int settleFrames;
+
+    private final GestureStateMachine.Timer timer = new GestureStateMachine.Timer() {
+        @Override
+        public void schedule(long uptimeMillis) {
+            deadline = uptimeMillis;
+        }
+
+        @Override
+        public void cancel() {
+            deadline = NO_DEADLINE;
+        }
+    };
+
+    private final BubbleTouchController.Host host = new BubbleTouchController.Host() {
+        @Override
+        public void moveWindow(int x, int y) {
+            layout(x, y);
+        }
+
+        @Override
+        public void onRelease(int x, int y, float velocityX, float velocityY) {
+            windowX = x;
+            windowY = y;
+            int targetX = SnapPhysics.snapTargetX(x, velocityX, SCREEN_WIDTH, VIEW_SIZE);
+            int targetY = SnapPhysics.snapTargetY(y, velocityY, SCREEN_HEIGHT, VIEW_SIZE);
+            snapAnimator.start(x, y, velocityX, velocityY, targetX, targetY);
+        }
+
+        @Override
+        public void onGestureDispatched(int gesture) {
+            if (gestureCount < MAX_GESTURES) {
+                gestures[gestureCount++] = gesture;
+            }
+        }
+    };
+
+    TouchTraceReplayer() {
+        snapAnimator = new SpringSnapAnimator(scheduler, this::layout, new SnapPhysics());
+        controller = new BubbleTouchController(scheduler, frameStats, host, timer,
+                TOUCH_SLOP, MULTI_TAP_SLOP, MIN_FLING_VELOCITY, PREDICTION_NANOS, MAX_PREDICTION_PX);
+        // Tap, double tap and long press bound, as on a fresh install
+        Runnable noAction = () -> { };
+        controller.setActions(GestureBindings.defaults().compile((action, argument) -> noAction));
+    }
+
+    void replay(TouchTrace trace) {
+        gestureCount = 0;
+        layouts = 0;
+        maxLayoutsPerFrame = 0;
+        settleFrames = 0;
+        if (trace.size() == 0) return;
+
+        // The fake clock keeps running across replays; start one frame after where it is
+        long originMillis = (scheduler.getFrameTimeNanos() + FakeFrameScheduler.FRAME_NANOS) / 1_000_000L;
+        long firstMillis = trace.getTimeMillis(0);
+        for (int i = 0; i < trace.size(); i++) {
+            long timeMillis = trace.getTimeMillis(i) - firstMillis + originMillis;
+            advanceTo(timeMillis);
+            dispatch(trace, i, timeMillis);
+        }
+
+        while ((scheduler.hasPending() || deadline != NO_DEADLINE) && settleFrames < MAX_SETTLE_FRAMES) {
+            long nextFrameMillis = nextFrameMillis();
+            if (deadline != NO_DEADLINE && deadline <= nextFrameMillis) {
+                fireTimeout();
+            } else {
+                runFrame();
+                settleFrames++;
+            }
+        }
+    }
+
+    // Input is handled before the frame of the same vsync, timeouts before both
+    private void advanceTo(long timeMillis) {
+        while (true) {
+            long nextFrameMillis = nextFrameMillis();
+            if (deadline != NO_DEADLINE && deadline <= timeMillis && deadline <= nextFrameMillis) {
+                fireTimeout();
+            } else if (nextFrameMillis < timeMillis) {
+                runFrame();
+            } else {
+                return;
+            }
+        }
+    }
+
+    private void dispatch(TouchTrace trace, int i, long timeMillis) {
+        switch (trace.getType(i)) {
+            case TouchTrace.DOWN:
+                // A new touch grabs the bubble wherever the snap left it
+                snapAnimator.cancel();
+                windowX = trace.getWindowX(i);
+                windowY = trace.getWindowY(i);
+                controller.onDown(windowX, windowY, trace.getX(i), trace.getY(i), timeMillis);
+                break;
+            case TouchTrace.SAMPLE:
+                controller.onHistoricalSample(trace.getX(i), trace.getY(i), timeMillis);
+                break;
+            case TouchTrace.MOVE:
+                controller.onMove(trace.getX(i), trace.getY(i), timeMillis);
+                break;
+            case TouchTrace.UP:
+                controller.onUp(trace.getX(i), trace.getY(i), timeMillis,
+                        trace.getVelocityX(i), trace.getVelocityY(i));
+                break;
+            case TouchTrace.CANCEL:
+                controller.onCancel(timeMillis);
+                break;
+        }
+    }
+
+    private long nextFrameMillis() {
+        return (scheduler.getFrameTimeNanos() + FakeFrameScheduler.FRAME_NANOS) / 1_000_000L;
+    }
+
+    private void fireTimeout() {
+        long time = deadline;
+        deadline = NO_DEADLINE;
+        controller.onTimeout(time);
+    }
+
+    private void runFrame() {
+        layoutsThisFrame = 0;
+        scheduler.frame();
+        maxLayoutsPerFrame = Math.max(maxLayoutsPerFrame, layoutsThisFrame);
+    }
+
+    private void layout(int x, int y) {
+        windowX = x;
+        windowY = y;
+        layouts++;
+        layoutsThisFrame++;
+    }
+
+    /**
+     * Bytes allocated on this thread by one replay of {@code trace}, after a
+     * first replay has warmed up every lazily grown buffer.
+     */
+    long measureAllocatedBytes(TouchTrace trace) {
+        return AllocationCounter.measure(() -> replay(trace));
+    }
+
+    int getGestureCount() {
+        return gestureCount;
+    }
+
+    int getGesture(int index) {
+        return gestures[index];
+    }
+
+    int getWindowX() {
+        return windowX;
+    }
+
+    int getWindowY() {
+        return windowY;
+    }
+
+    long getLayoutCount() {
+        return layouts;
+    }
+
+    int getMaxLayoutsPerFrame() {
+        return maxLayoutsPerFrame;
+    }
+
+    int getSettleFrames() {
+        return settleFrames;
+    }
+
+    boolean isSettled() {
+        return !scheduler.hasPending() && deadline == NO_DEADLINE;
+    }
+
+    BubbleTouchController getController() {
+        return controller;
+    }
+}
@@ -0,0 +1,83 @@
+package com.nayanpote.edgeassist;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import static org.junit.Assert.*;
+
+public class TouchTraceTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static TouchTrace sampleTrace() {
+        TouchTrace trace = new TouchTrace();
+        trace.down(912, 1100, 990.5f, 1180.25f, 5_000_123L);
+        trace.sample(985f, 1181f, 5_000_131L);
+        trace.move(978.75f, 1182f, 5_000_139L);
+        // Event times are not guaranteed to be monotonic across devices
+        trace.move(970f, 1183f, 5_000_137L);
+        trace.up(960f, 1184f, 5_000_150L, -2500.5f, 12f);
+        trace.cancel(5_000_400L);
+        return trace;
+    }
+
+    @Test
+    public void saveAndLoadRoundTrip() throws IOException {
+        File file = new File(folder.getRoot(), "trace" + TouchTrace.FILE_SUFFIX);
+        TouchTrace trace = sampleTrace();
+        trace.save(file);
+
+        TouchTrace loaded = TouchTrace.load(file);
+
+        assertEquals(trace.size(), loaded.size());
+        for (int i = 0; i < trace.size(); i++) {
+            assertEquals(trace.getType(i), loaded.getType(i));
+            assertEquals(trace.getTimeMillis(i), loaded.getTimeMillis(i));
+            assertEquals(trace.getX(i), loaded.getX(i), 0f);
+            assertEquals(trace.getY(i), loaded.getY(i), 0f);
+        }
+        assertEquals(912, loaded.getWindowX(0));
+        assertEquals(1100, loaded.getWindowY(0));
+        assertEquals(-2500.5f, loaded.getVelocityX(4), 0f);
+        assertEquals(12f, loaded.getVelocityY(4), 0f);
+        assertFalse(new File(file.getPath() + ".tmp").exists());
+    }
+
+    @Test
+    public void emptyTraceRoundTrips() throws IOException {
+        File file = new File(folder.getRoot(), "empty" + TouchTrace.FILE_SUFFIX);
+        new TouchTrace().save(file);
+
+        assertEquals(0, TouchTrace.load(file).size());
+    }
+
+    @Test(expected = IOException.class)
+    public void corruptFileIsRejected() throws IOException {
+        File file = new File(folder.getRoot(), "trace" + TouchTrace.FILE_SUFFIX);
+        sampleTrace().save(file);
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(20);
+            raf.write(0x7F);
+        }
+
+        TouchTrace.load(file);
+    }
+
+    @Test
+    public void recordingStopsAtMaxEvents() {
+        TouchTrace trace = new TouchTrace();
+        for (int i = 0; i < TouchTrace.MAX_EVENTS + 10; i++) {
+            trace.move(i, i, i);
+        }
+
+        assertTrue(trace.isFull());
+        assertEquals(TouchTrace.MAX_EVENTS, trace.size());
+        assertEquals(TouchTrace.MAX_EVENTS - 1, trace.getTimeMillis(trace.size() - 1));
+    }
+}
@@ -0,0 +1,134 @@
+package com.nayanpote.edgeassist;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class VolumeStateCacheTest {
+
+    private static final int RINGER_MODE_NORMAL = 2;
+    private static final int RINGER_MODE_SILENT = 0;
+
+    private final List<VolumeStateCache.State> notified = new ArrayList<>();
+    private VolumeStateCache cache;
+
+    @Before
+    public void setUp() {
+        cache = new VolumeStateCache();
+        cache.addListener(notified::add);
+    }
+
+    // Levels in STREAMS order: music, ring, notification, alarm, call
+    private void loadSnapshot() {
+        cache.setSnapshot(new int[]{5, 4, 3, 6, 2}, new int[]{15, 7, 7, 7, 5}, false, RINGER_MODE_NORMAL);
+    }
+
+    @Test
+    public void startsUnloadedWithUnknownLevels() {
+        assertFalse(cache.isLoaded());
+        assertEquals(-1, cache.getLevel(VolumeStateCache.STREAM_MUSIC));
+        assertEquals(-1, cache.getMax(VolumeStateCache.STREAM_MUSIC));
+        assertEquals(VolumeStateCache.RINGER_MODE_UNKNOWN, cache.getRingerMode());
+    }
+
+    @Test
+    public void snapshotFillsEveryStream() {
+        loadSnapshot();
+
+        assertTrue(cache.isLoaded());
+        assertEquals(5, cache.getLevel(VolumeStateCache.STREAM_MUSIC));
+        assertEquals(15, cache.getMax(VolumeStateCache.STREAM_MUSIC));
+        assertEquals(4, cache.getLevel(VolumeStateCache.STREAM_RING));
+        assertEquals(3, cache.getLevel(VolumeStateCache.STREAM_NOTIFICATION));
+        assertEquals(6, cache.getLevel(VolumeStateCache.STREAM_ALARM));
+        assertEquals(2, cache.getLevel(VolumeStateCache.STREAM_VOICE_CALL));
+        assertEquals(5, cache.getMax(VolumeStateCache.STREAM_VOICE_CALL));
+        assertEquals(RINGER_MODE_NORMAL, cache.getRingerMode());
+        assertEquals(1, notified.size());
+    }
+
+    @Test
+    public void snapshotIsCopiedNotShared() {
+        int[] levels = {5, 4, 3, 6, 2};
+        cache.setSnapshot(levels, new int[]{15, 7, 7, 7, 5}, false, RINGER_MODE_NORMAL);
+        levels[0] = 0;
+
+        assertEquals(5, cache.getLevel(VolumeStateCache.STREAM_MUSIC));
+    }
+
+    @Test
+    public void volumeChangeUpdatesOnlyThatStream() {
+        loadSnapshot();
+        long version = cache.getState().version;
+
+        cache.onVolumeChanged(VolumeStateCache.STREAM_MUSIC, 9);
+
+        assertEquals(9, cache.getLevel(VolumeStateCache.STREAM_MUSIC));
+        assertEquals(4, cache.getLevel(VolumeStateCache.STREAM_RING));
+        assertEquals(15, cache.getMax(VolumeStateCache.STREAM_MUSIC));
+        assertEquals(version + 1, cache.getState().version);
+        assertEquals(2, notified.size());
+    }
+
+    @Test
+    public void unchangedLevelsAndUnknownStreamsAreIgnored() {
+        loadSnapshot();
+        long version = cache.getState().version;
+
+        cache.onVolumeChanged(VolumeStateCache.STREAM_MUSIC, 5);
+        cache.onVolumeChanged(10, 3); // accessibility stream, not tracked
+        cache.onRingerModeChanged(RINGER_MODE_NORMAL);
+
+        assertEquals(version, cache.getState().version);
+        assertEquals(1, notified.size());
+        assertEquals(-1, cache.getLevel(10));
+    }
+
+    @Test
+    public void ringerModeChangeKeepsLevels() {
+        loadSnapshot();
+
+        cache.onRingerModeChanged(RINGER_MODE_SILENT);
+
+        assertEquals(RINGER_MODE_SILENT, cache.getRingerMode());
+        assertEquals(4, cache.getLevel(VolumeStateCache.STREAM_RING));
+        assertEquals(RINGER_MODE_SILENT, notified.get(notified.size() - 1).ringerMode);
+    }
+
+    @Test
+    public void earlierStatesAreNotMutatedByLaterUpdates() {
+        loadSnapshot();
+        VolumeStateCache.State before = cache.getState();
+
+        cache.onVolumeChanged(VolumeStateCache.STREAM_ALARM, 1);
+
+        assertEquals(6, before.getLevel(VolumeStateCache.STREAM_ALARM));
+        assertEquals(1, cache.getState().getLevel(VolumeStateCache.STREAM_ALARM));
+    }
+
+    @Test
+    public void broadcastBeforeSnapshotIsKeptButStillUnloaded() {
+        cache.onVolumeChanged(VolumeStateCache.STREAM_MUSIC, 7);
+
+        assertFalse(cache.isLoaded());
+        assertEquals(7, cache.getLevel(VolumeStateCache.STREAM_MUSIC));
+        assertEquals(-1, cache.getMax(VolumeStateCache.STREAM_MUSIC));
+    }
+
+    @Test
+    public void removedListenerIsNotCalled() {
+        List<VolumeStateCache.State> other = new ArrayList<>();
+        VolumeStateCache.Listener listener = other::add;
+        cache.addListener(listener);
+        cache.removeListener(listener);
+
+        loadSnapshot();
+
+        assertTrue(other.isEmpty());
+        assertEquals(1, notified.size());
+    }
+}
@@ -0,0 +1,105 @@
+package com.nayanpote.edgeassist;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class WindowPositionAnimatorTest {
+
+    private FakeFrameScheduler scheduler;
+    private int layoutCalls;
+    private int maxLayoutCallsInFrame;
+    private int callsThisFrame;
+    private int lastFrame;
+    private int x, y;
+    private WindowPositionAnimator animator;
+
+    @Before
+    public void setUp() {
+        scheduler = new FakeFrameScheduler();
+        lastFrame = -1;
+        animator = new WindowPositionAnimator(scheduler, (newX, newY) -> {
+            if (scheduler.getFrames() != lastFrame) {
+                lastFrame = scheduler.getFrames();
+                callsThisFrame = 0;
+            }
+            callsThisFrame++;
+            maxLayoutCallsInFrame = Math.max(maxLayoutCallsInFrame, callsThisFrame);
+            layoutCalls++;
+            x = newX;
+            y = newY;
+        });
+    }
+
+    @Test
+    public void movesBothAxesWithOneLayoutPerFrame() {
+        animator.start(0, 0, 1000, 600, 300, null);
+        int frames = scheduler.runUntilIdle(100);
+
+        assertEquals(1000, x);
+        assertEquals(600, y);
+        assertEquals(1, maxLayoutCallsInFrame);
+        // The first frame only anchors the start time and does not move the window
+        assertEquals(frames - 1, layoutCalls);
+        assertFalse(animator.isRunning());
+    }
+
+    @Test
+    public void singleAxisMoveStillCostsOneLayoutPerFrame() {
+        animator.start(0, 200, 540, 200, 400, null);
+        int frames = scheduler.runUntilIdle(100);
+
+        assertEquals(540, x);
+        assertEquals(200, y);
+        assertEquals(1, maxLayoutCallsInFrame);
+        assertTrue(layoutCalls <= frames);
+    }
+
+    @Test
+    public void skipsLayoutWhenPositionDoesNotChange() {
+        animator.start(100, 100, 100, 100, 300, null);
+        scheduler.runUntilIdle(100);
+
+        assertEquals(0, layoutCalls);
+    }
+
+    @Test
+    public void completionRunsOnceAtTarget() {
+        int[] completed = new int[1];
+        animator.start(0, 0, 10, 10, 300, () -> completed[0]++);
+        scheduler.runUntilIdle(100);
+
+        assertEquals(1, completed[0]);
+        assertEquals(10, x);
+    }
+
+    @Test
+    public void restartReplacesRunningAnimation() {
+        int[] completed = new int[1];
+        animator.start(0, 0, 1000, 0, 300, () -> completed[0]++);
+        scheduler.frame();
+        scheduler.frame();
+
+        animator.start(x, y, 0, 0, 300, null);
+        scheduler.runUntilIdle(100);
+
+        assertEquals(0, completed[0]);
+        assertEquals(0, x);
+        assertEquals(1, maxLayoutCallsInFrame);
+    }
+
+    @Test
+    public void cancelStopsLayoutUpdates() {
+        animator.start(0, 0, 1000, 1000, 300, null);
+        scheduler.frame();
+        scheduler.frame();
+        int callsBeforeCancel = layoutCalls;
+
+        animator.cancel();
+        scheduler.runUntilIdle(100);
+
+        assertEquals(callsBeforeCancel, layoutCalls);
+        assertFalse(scheduler.hasPending());
+    }
+}
@@ -21,3 +21,5 @@ dependencyResolutionManagement {
 
 rootProject.name = "EdgeAssist"
 include(":app")
+include(":core")
+include(":benchmark")